@@ -45,6 +45,7 @@ public interface ContextualGroupManager
      * @return the newly created {@link Group}.
      *
      * @throws IllegalArgumentException if the specified name ({@link String}) is <code>null</code> or empty.
+     * @throws IllegalArgumentException if a {@link Group} with the specified name already exists.
      * @throws IllegalStateException if the {@link Context} of this {@link ContextualGroupManager} has been disposed.
      */
     Group createGroup(String name);
@@ -61,6 +61,7 @@ public interface GroupManager
      *
      * @throws IllegalArgumentException if the specified {@link Context} is <code>null</code>.
      * @throws IllegalArgumentException if the specified name ({@link String}) is <code>null</code> or empty.
+     * @throws IllegalArgumentException if a {@link Group} with the specified name already exists.
      * @throws IllegalStateException if the specified {@link Context} is disposed.
      */
     Group createGroup(Context context, String name);
@@ -36,7 +36,11 @@ extends AssemblyEvent
 
     interface DeletingTreeNodeEvent extends TreeEvent, Notification {}
 
-    interface TreeNodeDeletedEvent extends TreeEvent, Notification {}
+    interface TreeNodeDeletedEvent
+    extends TreeEvent, Notification
+    {
+        String SubtreeParam = "org.jayware.e2.event.param.SubtreeParam";
+    }
 
     interface AddChildNodeEvent extends TreeEvent, Command {}
 
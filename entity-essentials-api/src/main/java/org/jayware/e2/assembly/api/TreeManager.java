@@ -34,4 +34,14 @@ public interface TreeManager
     List<TreeNode> findChildrenOf(TreeNode node);
 
     Result<List<TreeNode>> queryChildrenOf(TreeNode node);
+
+    int depthOf(TreeNode node);
+
+    int sizeOf(TreeNode node);
+
+    List<TreeNode> preOrderOf(TreeNode node);
+
+    List<TreeNode> postOrderOf(TreeNode node);
+
+    List<TreeNode> ancestorsOf(TreeNode node);
 }
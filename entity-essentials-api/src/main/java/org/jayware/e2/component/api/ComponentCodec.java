@@ -0,0 +1,62 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.api;
+
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+
+/**
+ * A <code>ComponentCodec</code> writes the properties of a {@link Component} in a compact binary form and reads
+ * them back.
+ * <p>
+ * The properties are written ordered by their names. Primitive properties are written as they are, while strings
+ * and entity references are encoded compactly. The written data carries no description of the properties, so it can
+ * only be read back by a <code>ComponentCodec</code> of the same declaration of the {@link Component}.
+ * A <code>ComponentCodec</code> is generated for every {@link Component} type and can be obtained by
+ * {@link ComponentFactory#createCodec(Class)}.
+ *
+ * @param <C> the type of the {@link Component}.
+ */
+public interface ComponentCodec<C extends Component>
+{
+    /**
+     * Writes the properties of the specified {@link Component} to the specified {@link DataOutput}.
+     *
+     * @param component a {@link Component}.
+     * @param out a {@link DataOutput} to write to.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void write(C component, DataOutput out) throws IOException;
+
+    /**
+     * Reads properties from the specified {@link DataInput} and assigns them to the specified {@link Component}.
+     * <p>
+     * Entity references are resolved within the context of the specified {@link Component}.
+     *
+     * @param component a {@link Component} to assign the properties to.
+     * @param in a {@link DataInput} to read from.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void read(C component, DataInput in) throws IOException;
+}
@@ -21,6 +21,7 @@ package org.jayware.e2.component.api;
 import org.jayware.e2.entity.api.EntityEvent;
 import org.jayware.e2.entity.api.EntityEvent.EntityChangedEvent;
 import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.Coalesce;
 import org.jayware.e2.event.api.EventType.RootEvent;
 import org.jayware.e2.event.api.Presence;
 
@@ -132,6 +133,7 @@ extends RootEvent
         String OldComponentParam = "org.jayware.e2.event.param.OldComponent";
     }
 
+    @Coalesce(value = {EntityEvent.EntityRefParam, ComponentTypeParam}, keepFirst = ComponentPushedEvent.OldComponentParam)
     interface ComponentPushedEvent
     extends ComponentChangeEvent, Notification
     {
@@ -28,4 +28,6 @@ public interface ComponentFactory
     <C extends Component> ComponentInstancer<C> createComponent(String componentClass) throws ComponentFactoryException, MalformedComponentException, ClassNotFoundException;
 
     boolean isComponentPrepared(Class<? extends Component> componentClass);
+
+    <C extends Component> ComponentCodec<C> createCodec(Class<C> componentClass) throws ComponentFactoryException, MalformedComponentException;
 }
\ No newline at end of file
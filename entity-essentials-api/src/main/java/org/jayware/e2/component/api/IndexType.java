@@ -0,0 +1,41 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.api;
+
+
+/**
+ * The kind of a secondary index on a {@link Component} property declared by {@link Indexed}.
+ *
+ * @see Indexed
+ *
+ * @since 1.0
+ */
+public enum IndexType
+{
+    /**
+     * A hash based index which serves lookups by equality.
+     */
+    Hash,
+
+    /**
+     * A sorted index which serves lookups by equality and by range. The type of the property has to be a primitive
+     * or implement {@link Comparable}. Properties which are <code>null</code> are not part of a sorted index.
+     */
+    Sorted;
+}
@@ -0,0 +1,63 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.api;
+
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static org.jayware.e2.component.api.IndexType.Hash;
+
+
+/**
+ * Declares a secondary index on a property of a {@link Component}.
+ * <p>
+ * The annotation has to be placed on the getter of the property. The index is maintained whenever a {@link Component}
+ * of the declaring type is added, pushed or removed and serves the property lookups of the
+ * {@link org.jayware.e2.entity.api.EntityManager EntityManager}.
+ * <pre>
+ * public interface TeamComponent extends Component
+ * {
+ *     &#64;Indexed(Sorted)
+ *     int getId();
+ *
+ *     void setId(int id);
+ * }
+ * </pre>
+ * <b>Note:</b> Array properties cannot be indexed, because arrays do not implement value equality.
+ *
+ * @see IndexType
+ *
+ * @since 1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Indexed
+{
+    /**
+     * Returns the {@link IndexType} of the index.
+     * <p>
+     * <b>Default:</b> {@link IndexType#Hash}
+     *
+     * @return the {@link IndexType} of the index.
+     */
+    IndexType value() default Hash;
+}
@@ -29,6 +29,7 @@ import java.util.UUID;
  * @see Key
  * @see ValueProvider
  * @see Disposable
+ * @see Resettable
  * @since 1.0
  */
 public interface Context
@@ -69,6 +70,20 @@ public interface Context
      */
     boolean isDisposed();
 
+    /**
+     * Resets this <code>Context</code> by discarding all entities and components.
+     * <p>
+     * In contrast to {@link Context#dispose()} the <code>Context</code> remains usable: services, subscriptions and
+     * prepared components are kept, so that a reset <code>Context</code> is much cheaper to reuse than creating a new
+     * one. Every associated {@link Resettable} is reset, no events are fired. The operation should only be invoked
+     * while no other thread is working with this <code>Context</code>.
+     *
+     * @throws IllegalStateException if this <code>Context</code> was disposed of.
+     *
+     * @see ContextPool
+     */
+    void reset();
+
     /**
      * Associates the specified <code>value</code> with the specified {@link Key} in this <code>Context</code>.
      * <p>
@@ -0,0 +1,72 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.context.api;
+
+
+/**
+ * A <code>ContextPool</code> keeps released {@link Context Contexts} to hand them out again instead of creating new
+ * ones.
+ * <p>
+ * Creating a {@link Context} involves the discovery of the services and the set up of the storage, the event bus and
+ * their subscriptions. A <code>ContextPool</code> pays off when many short-lived {@link Context Contexts} are needed,
+ * e.g. one per simulation run: a released {@link Context} is {@link Context#reset() reset} and handed out by the
+ * next {@link ContextPool#acquire()}.
+ *
+ * @see ContextProvider#createContextPool(int)
+ * @see Context#reset()
+ */
+public interface ContextPool
+{
+    /**
+     * Returns an idle {@link Context} of this <code>ContextPool</code> or creates a new one if none is idle.
+     *
+     * @return a {@link Context} without any entities.
+     *
+     * @throws IllegalStateException if this <code>ContextPool</code> has been disposed of.
+     */
+    Context acquire();
+
+    /**
+     * Resets the specified {@link Context} and returns it to this <code>ContextPool</code>.
+     * <p>
+     * If this <code>ContextPool</code> already keeps as many idle {@link Context Contexts} as its capacity permits or
+     * has been disposed of, the specified {@link Context} is disposed of instead. The {@link Context} must not be used
+     * by the caller after it has been released.
+     *
+     * @param context a {@link Context} which has been acquired from this <code>ContextPool</code>.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     * @throws IllegalContextException if the passed {@link Context} has been disposed of.
+     */
+    void release(Context context);
+
+    /**
+     * Returns the number of idle {@link Context Contexts} kept by this <code>ContextPool</code>.
+     *
+     * @return the number of idle {@link Context Contexts}.
+     */
+    int getIdleCount();
+
+    /**
+     * Disposes of all idle {@link Context Contexts} of this <code>ContextPool</code>.
+     * <p>
+     * {@link Context Contexts} which are acquired at that time are disposed of when they are released.
+     */
+    void dispose();
+}
@@ -19,26 +19,52 @@
 package org.jayware.e2.context.api;
 
 
+import java.lang.ref.WeakReference;
+import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.WeakHashMap;
 
 import static org.jayware.e2.util.Preconditions.checkNotNull;
 
 
 public abstract class ContextProvider
 {
+    private static final Map<ClassLoader, WeakReference<ContextProvider>> ourInstances = new WeakHashMap<ClassLoader, WeakReference<ContextProvider>>();
+
+    private static volatile ContextProvider ourDefaultInstance;
+
     public abstract Context createContext();
 
     public abstract Context createContext(ClassLoader classLoader);
 
-    public static synchronized ContextProvider getInstance()
+    public abstract ContextPool createContextPool(int capacity);
+
+    public static ContextProvider getInstance()
     {
-        return getInstance(ContextProvider.class.getClassLoader());
+        ContextProvider instance = ourDefaultInstance;
+
+        if (instance == null)
+        {
+            instance = getInstance(ContextProvider.class.getClassLoader());
+            ourDefaultInstance = instance;
+        }
+
+        return instance;
     }
 
     public static synchronized ContextProvider getInstance(ClassLoader classLoader)
     {
         checkNotNull(classLoader);
 
-        return ServiceLoader.load(ContextProvider.class, classLoader).iterator().next();
+        final WeakReference<ContextProvider> reference = ourInstances.get(classLoader);
+        ContextProvider instance = reference != null ? reference.get() : null;
+
+        if (instance == null)
+        {
+            instance = ServiceLoader.load(ContextProvider.class, classLoader).iterator().next();
+            ourInstances.put(classLoader, new WeakReference<ContextProvider>(instance));
+        }
+
+        return instance;
     }
 }
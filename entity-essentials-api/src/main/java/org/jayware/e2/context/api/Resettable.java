@@ -0,0 +1,39 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.context.api;
+
+
+/**
+ * A <code>Resettable</code> is a value of a {@link Context} which holds state that has to be discarded when the
+ * {@link Context} is reset.
+ *
+ * @see Context#reset()
+ * @see Disposable
+ */
+public interface Resettable
+{
+    /**
+     * Discards the state this <code>Resettable</code> holds for the specified {@link Context}.
+     * <p>
+     * <b>Note: </b> This operation is meant to be called by a {@link Context} implementation.
+     *
+     * @param context the {@link Context} which is reset.
+     */
+    void reset(Context context);
+}
@@ -0,0 +1,129 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.api;
+
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+
+import java.util.Set;
+
+
+/**
+ * A <code>Footprint</code> is a snapshot of the memory footprint of a {@link Context} taken by
+ * {@link FootprintManager#measure(Context)}.
+ * <p>
+ * The estimated bytes are the shallow size of the generated {@link Component} instances plus the overhead of their
+ * slots in the component store. The contents of referenced objects like strings and arrays are not included.
+ * <p>
+ * <b>Note:</b> The dispatcher classes are shared by all {@link Context Contexts}, therefore the corresponding
+ * numbers are process-wide.
+ *
+ * @see FootprintManager
+ */
+public interface Footprint
+extends Contextual
+{
+    /**
+     * Returns the number of entities which exist in the {@link Context}.
+     *
+     * @return the number of entities.
+     */
+    int getNumberOfEntities();
+
+    /**
+     * Returns the types of all {@link Component Components} which have been added to the {@link Context}.
+     *
+     * @return a {@link Set} of {@link Component} types.
+     */
+    Set<Class<? extends Component>> getComponentTypes();
+
+    /**
+     * Returns the number of instances of the specified {@link Component} type held by the {@link Context}.
+     *
+     * @param type a {@link Component} type.
+     *
+     * @return the number of instances or <code>0</code> if the type is unknown.
+     */
+    int getNumberOfComponents(Class<? extends Component> type);
+
+    /**
+     * Returns the estimated number of bytes retained by the instances of the specified {@link Component} type.
+     *
+     * @param type a {@link Component} type.
+     *
+     * @return the estimated number of bytes or <code>0</code> if the type is unknown.
+     */
+    long getEstimatedBytes(Class<? extends Component> type);
+
+    /**
+     * Returns the estimated number of bytes retained by all {@link Component Components} of the {@link Context}.
+     *
+     * @return the estimated number of bytes.
+     */
+    long getEstimatedBytes();
+
+    /**
+     * Returns the number of subscribers subscribed to the {@link Context}.
+     *
+     * @return the number of subscriptions.
+     */
+    int getNumberOfSubscriptions();
+
+    /**
+     * Returns the number of subscribers subscribed to particular entities of the {@link Context}.
+     *
+     * @return the number of entity subscriptions.
+     */
+    int getNumberOfEntitySubscriptions();
+
+    /**
+     * Returns the number of dispatches waiting in the queue of the workers of the {@link Context}.
+     *
+     * @return the number of pending dispatches.
+     */
+    int getNumberOfPendingDispatches();
+
+    /**
+     * Returns the number of classes generated for the {@link Component Components} of the {@link Context},
+     * including their codecs.
+     *
+     * @return the number of generated component classes.
+     */
+    int getNumberOfGeneratedComponentClasses();
+
+    /**
+     * Returns the number of class loaders which have been created to load the generated {@link Component} classes
+     * of the {@link Context}.
+     *
+     * @return the number of component class loaders.
+     */
+    int getNumberOfComponentClassLoaders();
+
+    /**
+     * Returns the number of generated event dispatcher classes. Every dispatcher class is loaded by a class loader
+     * of its own, therefore this is the number of dispatcher class loaders as well.
+     * <p>
+     * <b>Note:</b> This number is process-wide.
+     *
+     * @return the number of generated dispatcher classes.
+     */
+    int getNumberOfGeneratedDispatcherClasses();
+}
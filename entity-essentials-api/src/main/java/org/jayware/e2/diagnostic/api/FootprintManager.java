@@ -0,0 +1,47 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.api;
+
+
+import org.jayware.e2.context.api.Context;
+
+
+/**
+ * The <code>FootprintManager</code> measures the memory footprint of a {@link Context}.
+ * <p>
+ * A measurement only reads counters the framework maintains anyway and does not walk the heap, therefore it is
+ * cheap enough to be taken periodically, e.g. once per frame or from a monitoring thread.
+ *
+ * @see Footprint
+ */
+public interface FootprintManager
+{
+    /**
+     * Measures the memory footprint of the specified {@link Context}.
+     *
+     * @param context a {@link Context}.
+     *
+     * @return a {@link Footprint} of the specified {@link Context}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     */
+    Footprint measure(Context context);
+}
@@ -19,6 +19,7 @@
 package org.jayware.e2.entity.api;
 
 import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Contextual;
 import org.jayware.e2.context.api.IllegalContextException;
@@ -116,4 +117,104 @@ extends Contextual
      * @throws IllegalStateException if the {@link Context} of this {@link ContextualEntityManager} has been disposed.
      */
     List<EntityRef> findEntities(Aspect aspect, Filter<EntityRef>... filters);
+
+    /**
+     * Returns a page of the {@link EntityRef}s of all {@link Entity Entities} within the {@link Context} of this
+     * {@link ContextualEntityManager} which match the specified {@link Aspect} and pass specified {@link Filter}s.
+     *
+     * @param aspect an {@link Aspect}.
+     * @param offset the number of matches to skip.
+     * @param limit the maximum number of {@link EntityRef}s to return.
+     * @param filters one or more {@link Filter}s.
+     *
+     * @return a {@link List} of at most <code>limit</code> {@link EntityRef}s in any order, never <code>null</code>.
+     *
+     * @throws IllegalArgumentException if the specified {@link Aspect} is <code>null</code>, <code>null</code> is
+     *                                  passed as vararg or if the offset or the limit is negative.
+     *
+     * @throws IllegalStateException if the {@link Context} of this {@link ContextualEntityManager} has been disposed.
+     */
+    @SuppressWarnings("unchecked")
+    List<EntityRef> findEntities(Aspect aspect, int offset, int limit, Filter<EntityRef>... filters);
+
+    /**
+     * Passes the {@link EntityRef}s of all {@link Entity Entities} within the {@link Context} of this
+     * {@link ContextualEntityManager} which match the specified {@link Aspect} and pass specified {@link Filter}s
+     * to the specified {@link EntityVisitor}.
+     * <p>
+     * The {@link EntityVisitor} is called on the calling thread while the entities are walked. Entities created or
+     * deleted during the search may or may not be visited.
+     *
+     * @param aspect an {@link Aspect}.
+     * @param visitor an {@link EntityVisitor}.
+     * @param filters one or more {@link Filter}s.
+     *
+     * @throws IllegalArgumentException if the specified {@link Aspect} or {@link EntityVisitor} is <code>null</code>
+     *                                  or <code>null</code> is passed as vararg.
+     *
+     * @throws IllegalStateException if the {@link Context} of this {@link ContextualEntityManager} has been disposed.
+     */
+    @SuppressWarnings("unchecked")
+    void visitEntities(Aspect aspect, EntityVisitor visitor, Filter<EntityRef>... filters);
+
+    /**
+     * Returns a {@link List} of {@link EntityRef}s for all {@link Entity Entities} within the {@link Context} of this
+     * {@link ContextualEntityManager} which match the specified {@link Aspect} and pass specified {@link Filter}s,
+     * evaluating the {@link Aspect} and the {@link Filter}s concurrently.
+     *
+     * @param aspect an {@link Aspect}.
+     * @param filters one or more thread-safe {@link Filter}s.
+     *
+     * @return a {@link List} of {@link EntityRef}s, never <code>null</code>.
+     *
+     * @throws IllegalArgumentException if the specified {@link Aspect} is <code>null</code> or <code>null</code> is
+     *                                  passed as vararg.
+     *
+     * @throws IllegalStateException if the {@link Context} of this {@link ContextualEntityManager} has been disposed.
+     *
+     * @see EntityManager#findEntitiesInParallel(Context, Aspect, Filter[])
+     */
+    @SuppressWarnings("unchecked")
+    List<EntityRef> findEntitiesInParallel(Aspect aspect, Filter<EntityRef>... filters);
+
+    /**
+     * Returns a {@link List} of {@link EntityRef}s for all {@link Entity Entities} within the {@link Context} of this
+     * {@link ContextualEntityManager} which have a {@link Component} of the specified type whose property equals the
+     * specified value.
+     *
+     * @param component the type of the {@link Component}.
+     * @param property the name of the property.
+     * @param value the value of the property.
+     *
+     * @return a {@link List} of {@link EntityRef}s, never <code>null</code>.
+     *
+     * @throws IllegalArgumentException if one of the parameters is <code>null</code> or if the {@link Component}
+     *                                  does not have the specified property.
+     *
+     * @throws IllegalStateException if the {@link Context} of this {@link ContextualEntityManager} has been disposed.
+     *
+     * @see EntityManager#findEntitiesByProperty(Context, Class, String, Object)
+     */
+    List<EntityRef> findEntitiesByProperty(Class<? extends Component> component, String property, Object value);
+
+    /**
+     * Returns a {@link List} of {@link EntityRef}s for all {@link Entity Entities} within the {@link Context} of this
+     * {@link ContextualEntityManager} which have a {@link Component} of the specified type whose property lies within
+     * the specified inclusive bounds.
+     *
+     * @param component the type of the {@link Component}.
+     * @param property the name of the property.
+     * @param from the lower bound or <code>null</code>.
+     * @param to the upper bound or <code>null</code>.
+     *
+     * @return a {@link List} of {@link EntityRef}s, never <code>null</code>.
+     *
+     * @throws IllegalArgumentException if the type or the name of the property is <code>null</code> or if the
+     *                                  {@link Component} does not have a comparable property with the specified name.
+     *
+     * @throws IllegalStateException if the {@link Context} of this {@link ContextualEntityManager} has been disposed.
+     *
+     * @see EntityManager#findEntitiesByPropertyRange(Context, Class, String, Comparable, Comparable)
+     */
+    List<EntityRef> findEntitiesByPropertyRange(Class<? extends Component> component, String property, Comparable<?> from, Comparable<?> to);
 }
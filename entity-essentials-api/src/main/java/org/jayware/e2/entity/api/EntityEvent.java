@@ -56,6 +56,46 @@ extends RootEvent
      */
     String FilterListParam = "org.jayware.e2.event.param.FilterListParam";
 
+    /**
+     * A OffsetParam is an instance of {@link Integer}.
+     */
+    String OffsetParam = "org.jayware.e2.event.param.OffsetParam";
+
+    /**
+     * A LimitParam is an instance of {@link Integer}.
+     */
+    String LimitParam = "org.jayware.e2.event.param.LimitParam";
+
+    /**
+     * A ParallelParam is an instance of {@link Boolean}.
+     */
+    String ParallelParam = "org.jayware.e2.event.param.ParallelParam";
+
+    /**
+     * A PropertyComponentParam is an instance of {@link Class}.
+     */
+    String PropertyComponentParam = "org.jayware.e2.event.param.PropertyComponentParam";
+
+    /**
+     * A PropertyNameParam is an instance of {@link String}.
+     */
+    String PropertyNameParam = "org.jayware.e2.event.param.PropertyNameParam";
+
+    /**
+     * A PropertyValueParam is an instance of {@link Object}.
+     */
+    String PropertyValueParam = "org.jayware.e2.event.param.PropertyValueParam";
+
+    /**
+     * A LowerBoundParam is an instance of {@link Comparable}.
+     */
+    String LowerBoundParam = "org.jayware.e2.event.param.LowerBoundParam";
+
+    /**
+     * A UpperBoundParam is an instance of {@link Comparable}.
+     */
+    String UpperBoundParam = "org.jayware.e2.event.param.UpperBoundParam";
+
     /**
      * Signals the creation of an entity.
      * <p>
@@ -175,11 +215,35 @@ extends RootEvent
      *     <tr><td>{@link EntityEvent#ContextParam}</td><td>{@link Presence#Required}</td></tr>
      *     <tr><td>{@link EntityEvent#AspectParam}</td><td>{@link Presence#Optional}</td></tr>
      *     <tr><td>{@link EntityEvent#FilterListParam}</td><td>{@link Presence#Optional}</td></tr>
+     *     <tr><td>{@link EntityEvent#OffsetParam}</td><td>{@link Presence#Optional}</td></tr>
+     *     <tr><td>{@link EntityEvent#LimitParam}</td><td>{@link Presence#Optional}</td></tr>
+     *     <tr><td>{@link EntityEvent#ParallelParam}</td><td>{@link Presence#Optional}</td></tr>
      *     <caption>Parameters</caption>
      * </table>
+     * If {@link EntityEvent#ParallelParam} is <code>true</code>, the offset and the limit are ignored and large
+     * contexts are evaluated concurrently.
      */
     interface FindEntitiesEvent extends EntityEvent, Query {}
 
+    /**
+     * Signals that the entities whose {@link org.jayware.e2.component.api.Component Component} property has a
+     * certain value should be found.
+     * <p>
+     * <b>Parameters:</b>
+     * <table>
+     *     <tr><td>{@link EntityEvent#ContextParam}</td><td>{@link Presence#Required}</td></tr>
+     *     <tr><td>{@link EntityEvent#PropertyComponentParam}</td><td>{@link Presence#Required}</td></tr>
+     *     <tr><td>{@link EntityEvent#PropertyNameParam}</td><td>{@link Presence#Required}</td></tr>
+     *     <tr><td>{@link EntityEvent#PropertyValueParam}</td><td>{@link Presence#Optional}</td></tr>
+     *     <tr><td>{@link EntityEvent#LowerBoundParam}</td><td>{@link Presence#Optional}</td></tr>
+     *     <tr><td>{@link EntityEvent#UpperBoundParam}</td><td>{@link Presence#Optional}</td></tr>
+     *     <caption>Parameters</caption>
+     * </table>
+     * If a {@link EntityEvent#PropertyValueParam} is passed, the entities are looked up by equality. Otherwise the
+     * entities whose property lies within the inclusive bounds are looked up, whereby an absent bound is unbounded.
+     */
+    interface FindEntitiesByPropertyEvent extends EntityEvent, Query {}
+
     class EntityEventSanityChecker
     extends DeclarativeSanityChecker
     {
@@ -20,6 +20,8 @@ package org.jayware.e2.entity.api;
 
 
 import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.Indexed;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.util.Filter;
 import org.jayware.e2.util.TimeoutException;
@@ -149,6 +151,113 @@ public interface EntityManager
      */
     List<EntityRef> findEntities(Context context, Aspect aspect, Filter<EntityRef>... filters);
 
+    /**
+     * Returns a page of the {@link EntityRef}s of all {@link Entity Entities} within the specified {@link Context}
+     * which match the specified {@link Aspect} and pass specified {@link Filter}s.
+     * <p>
+     * The first <code>offset</code> matches are skipped and the search stops as soon as <code>limit</code> matches
+     * have been found, so the remaining entities are not evaluated.
+     *
+     * @param context a {@link Context} to use.
+     * @param aspect an {@link Aspect} to qualify the result.
+     * @param offset the number of matches to skip.
+     * @param limit the maximum number of {@link EntityRef}s to return.
+     * @param filters a set of {@link Filter Filters} to reduce the result.
+     *
+     * @return a {@link List} of at most <code>limit</code> {@link EntityRef}s in any order, never <code>null</code>.
+     *
+     * @throws IllegalArgumentException if one of the parameters is <code>null</code> or if the offset or the limit
+     *                                  is negative.
+     */
+    @SuppressWarnings("unchecked")
+    List<EntityRef> findEntities(Context context, Aspect aspect, int offset, int limit, Filter<EntityRef>... filters);
+
+    /**
+     * Passes the {@link EntityRef}s of all {@link Entity Entities} within the specified {@link Context} which match
+     * the specified {@link Aspect} and pass specified {@link Filter}s to the specified {@link EntityVisitor}.
+     * <p>
+     * The search stops as soon as the {@link EntityVisitor} returns <code>false</code>, so the remaining entities are
+     * neither evaluated nor visited. The {@link EntityVisitor} is called on the calling thread, without any lock being
+     * held, while the entities are walked. Entities created or deleted during the search may or may not be visited.
+     *
+     * @param context a {@link Context} to use.
+     * @param aspect an {@link Aspect} to qualify the result.
+     * @param visitor an {@link EntityVisitor}.
+     * @param filters a set of {@link Filter Filters} to reduce the result.
+     *
+     * @throws IllegalArgumentException if one of the parameters is <code>null</code>.
+     *
+     * @see EntityVisitor
+     */
+    @SuppressWarnings("unchecked")
+    void visitEntities(Context context, Aspect aspect, EntityVisitor visitor, Filter<EntityRef>... filters);
+
+    /**
+     * Returns a {@link List} of {@link EntityRef}s for all {@link Entity Entities} within the specified {@link Context}
+     * which match the specified {@link Aspect} and pass specified {@link Filter}s, evaluating the {@link Aspect} and
+     * the {@link Filter}s concurrently.
+     * <p>
+     * The entities are split into chunks which are evaluated by several threads. The result has the same order as
+     * the result of {@link #findEntities(Context, Aspect, Filter[])}. Small contexts are evaluated sequentially,
+     * because splitting them does not pay off. Therefore the {@link Filter}s must be thread-safe.
+     *
+     * @param context a {@link Context} to use.
+     * @param aspect an {@link Aspect} to qualify the result.
+     * @param filters a set of thread-safe {@link Filter Filters} to reduce the result.
+     *
+     * @return a {@link List} of {@link EntityRef}s, never <code>null</code>.
+     *
+     * @throws IllegalArgumentException if one of the parameters is <code>null</code>.
+     */
+    @SuppressWarnings("unchecked")
+    List<EntityRef> findEntitiesInParallel(Context context, Aspect aspect, Filter<EntityRef>... filters);
+
+    /**
+     * Returns a {@link List} of {@link EntityRef}s for all {@link Entity Entities} within the specified {@link Context}
+     * which have a {@link Component} of the specified type whose property equals the specified value.
+     * <p>
+     * The lookup is served by the index of the property if the property is {@link Indexed}. Otherwise all
+     * {@link Component}s of the specified type are compared.
+     *
+     * @param context a {@link Context} to use.
+     * @param component the type of the {@link Component}.
+     * @param property the name of the property.
+     * @param value the value of the property.
+     *
+     * @return a {@link List} of {@link EntityRef}s, never <code>null</code>.
+     *
+     * @throws IllegalArgumentException if one of the parameters is <code>null</code> or if the {@link Component}
+     *                                  does not have the specified property.
+     *
+     * @see Indexed
+     */
+    List<EntityRef> findEntitiesByProperty(Context context, Class<? extends Component> component, String property, Object value);
+
+    /**
+     * Returns a {@link List} of {@link EntityRef}s for all {@link Entity Entities} within the specified {@link Context}
+     * which have a {@link Component} of the specified type whose property lies within the specified bounds.
+     * <p>
+     * Both bounds are inclusive and <code>null</code> denotes an unbounded side. The lookup is served by the index of
+     * the property if the property is {@link Indexed} as {@link org.jayware.e2.component.api.IndexType#Sorted Sorted}.
+     * Otherwise all {@link Component}s of the specified type are compared. The result is sorted by the value of the
+     * property.
+     *
+     * @param context a {@link Context} to use.
+     * @param component the type of the {@link Component}.
+     * @param property the name of the property.
+     * @param from the lower bound or <code>null</code>.
+     * @param to the upper bound or <code>null</code>.
+     *
+     * @return a {@link List} of {@link EntityRef}s, never <code>null</code>.
+     *
+     * @throws IllegalArgumentException if the {@link Context}, the type or the name of the property is
+     *                                  <code>null</code> or if the {@link Component} does not have a comparable
+     *                                  property with the specified name.
+     *
+     * @see Indexed
+     */
+    List<EntityRef> findEntitiesByPropertyRange(Context context, Class<? extends Component> component, String property, Comparable<?> from, Comparable<?> to);
+
     /**
      * Resolves the {@link Entity} with the specified {@link UUID}.
      * <p>
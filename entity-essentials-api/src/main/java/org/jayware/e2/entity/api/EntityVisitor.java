@@ -0,0 +1,45 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.entity.api;
+
+
+/**
+ * An <code>EntityVisitor</code> is called for every {@link EntityRef} which matches a search, one after another.
+ * <p>
+ * The search stops as soon as the <code>EntityVisitor</code> returns <code>false</code>, so a search which is only
+ * interested in the first match does not evaluate the remaining entities.
+ * <p>
+ * <b>Note:</b> An <code>EntityVisitor</code> is called on the thread which started the search, without any lock
+ * being held. The entities are walked while the search runs instead of being copied upfront, so entities created or
+ * deleted during the search may or may not be visited, but no entity is visited twice. Hence an
+ * <code>EntityVisitor</code> may create and delete entities and it is not subject to a timeout.
+ *
+ * @see EntityManager#visitEntities(org.jayware.e2.context.api.Context, org.jayware.e2.component.api.Aspect, EntityVisitor, org.jayware.e2.util.Filter[])
+ */
+public interface EntityVisitor
+{
+    /**
+     * Visits the specified {@link EntityRef}.
+     *
+     * @param ref an {@link EntityRef} which matches the search.
+     *
+     * @return <code>true</code> to continue the search, otherwise <code>false</code>.
+     */
+    boolean visit(EntityRef ref);
+}
@@ -0,0 +1,63 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.api;
+
+
+import org.jayware.e2.context.api.Context;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Declares that repeated {@link EventType.Notification Notifications} of the annotated type may be coalesced while
+ * notification batching is enabled.
+ * <p>
+ * Two {@link Event Events} of the annotated type are coalesced within one batch if the values of all parameters
+ * specified by {@link #value()} are equal. The coalesced {@link Event} carries the parameters of the last
+ * {@link Event}, except for the parameters specified by {@link #keepFirst()} which are taken from the first one.
+ *
+ * @see HandleBatch
+ * @see EventManager#enableNotificationBatching(Context, long, TimeUnit)
+ *
+ * @since 1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Coalesce
+{
+    /**
+     * Returns the names of the parameters which identify the {@link Event Events} to coalesce.
+     *
+     * @return an array of parameter names.
+     */
+    String[] value();
+
+    /**
+     * Returns the names of the parameters which are taken from the first of the coalesced {@link Event Events}.
+     * <p>
+     * <b>Default:</b> none
+     *
+     * @return an array of parameter names.
+     */
+    String[] keepFirst() default {};
+}
@@ -0,0 +1,107 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.api;
+
+
+import org.jayware.e2.context.api.Context;
+
+
+/**
+ * An <code>EventInstrumentation</code> is notified about the activity of the event system of a {@link Context}.
+ * <p>
+ * An instrumentation is installed per {@link Context} with {@link EventManager#setInstrumentation(Context, EventInstrumentation)}.
+ * As long as no instrumentation is installed the event system does not take any measurements at all.
+ * <p>
+ * All durations are reported in nanoseconds. The callbacks are invoked on the threads which send, post, query and
+ * dispatch the {@link Event Events}, hence an implementation has to be thread-safe and should return as quick as
+ * possible.
+ *
+ * @see EventManager
+ */
+public interface EventInstrumentation
+{
+    /**
+     * Invoked when an {@link Event} of the specified type is sent.
+     *
+     * @param type the type of the {@link Event}.
+     */
+    void onSend(Class<? extends EventType> type);
+
+    /**
+     * Invoked when an {@link Event} of the specified type is posted.
+     *
+     * @param type the type of the {@link Event}.
+     */
+    void onPost(Class<? extends EventType> type);
+
+    /**
+     * Invoked when a {@link Query} of the specified type is issued.
+     *
+     * @param type the type of the {@link Query}.
+     */
+    void onQuery(Class<? extends EventType> type);
+
+    /**
+     * Invoked after the {@link SanityChecker SanityCheckers} of an {@link Event} have been applied.
+     *
+     * @param type the type of the {@link Event}.
+     * @param nanos the time spent on the sanity check.
+     */
+    void onSanityCheck(Class<? extends EventType> type, long nanos);
+
+    /**
+     * Invoked after an {@link Event} has been dispatched to all subscribers.
+     *
+     * @param type the type of the {@link Event}.
+     * @param nanos the time spent on the dispatch.
+     */
+    void onDispatch(Class<? extends EventType> type, long nanos);
+
+    /**
+     * Invoked after a single subscriber has handled an {@link Event}.
+     *
+     * @param type the type of the {@link Event}.
+     * @param subscriberType the class of the subscriber.
+     * @param nanos the time the subscriber spent on handling the {@link Event}.
+     */
+    void onHandle(Class<? extends EventType> type, Class<?> subscriberType, long nanos);
+
+    /**
+     * Invoked when an {@link Event} or a {@link Query} is scheduled for an asynchronous dispatch.
+     *
+     * @param depth the number of dispatches which are waiting for a worker at that moment.
+     */
+    void onQueueDepth(int depth);
+
+    /**
+     * Invoked when the workers are saturated and an {@link Event} or a {@link Query} of the specified type is
+     * therefore dispatched on the thread which posted it.
+     *
+     * @param type the type of the {@link Event}.
+     */
+    void onCallerRuns(Class<? extends EventType> type);
+
+    /**
+     * Invoked when a {@link Query} has completed with {@link Query.State#Success}.
+     *
+     * @param type the type of the {@link Query}.
+     * @param nanos the time from issuing the {@link Query} until its success.
+     */
+    void onQuerySuccess(Class<? extends EventType> type, long nanos);
+}
@@ -20,11 +20,15 @@ package org.jayware.e2.event.api;
 
 
 import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.IllegalContextException;
+import org.jayware.e2.entity.api.EntityEvent;
+import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.event.api.EventType.RootEvent;
 import org.jayware.e2.event.api.Parameters.Parameter;
 import org.jayware.e2.util.ReferenceType;
 
 import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -187,6 +191,7 @@ public interface EventManager
 
     /**
      * Revokes a previous made subscription of the specified subscriber in the passed {@link Context}.
+     * Entity-scoped subscriptions of the subscriber are revoked as well.
      * <p>
      * <b>Note:</b> If there is no subscription corresponding to the specified subscriber in the passed {@link Context}
      * nothing happens.
@@ -197,6 +202,61 @@ public interface EventManager
      */
     void unsubscribe(Context context, Object subscriber);
 
+    /**
+     * Subscribes the specified {@link Object} for {@link Event Events} concerning the entity referenced by the
+     * specified {@link EntityRef}.
+     * <p>
+     * In contrast to a subscription made with {@link EventManager#subscribe(Context, Object)} the subscriber receives
+     * only {@link Event Events} which carry the specified {@link EntityRef} as {@link EntityEvent#EntityRefParam}.
+     * The routing is done by means of an index, so that the number of entity-scoped subscriptions does not add to the
+     * costs of delivering {@link Event Events} of other entities. The subscription is revoked automatically when the
+     * entity gets deleted.
+     * <p>
+     * A subscriber may be subscribed for several entities. A subscription for all {@link Event Events} of the
+     * {@link Context} supersedes the entity-scoped subscriptions of the subscriber.
+     * <p>
+     * The {@link Class} of the subscriber has to have at least one method annotated as {@link Handle @Handle}.
+     * <p>
+     * <b>Note: </b> The reference to the subscriber is held in the same way as
+     * {@link EventManager#subscribe(Context, Object, ReferenceType)} does.
+     *
+     * @param ref           an {@link EntityRef}.
+     * @param subscriber    any {@link Object}.
+     * @param referenceType the {@link ReferenceType} to use.
+     *
+     * @throws IllegalArgumentException if any of the passed arguments is <code>null</code>.
+     * @throws IllegalContextException if the {@link Context} of the passed {@link EntityRef} has been disposed of.
+     */
+    void subscribe(EntityRef ref, Object subscriber, ReferenceType referenceType);
+
+    /**
+     * Subscribes the specified {@link Object} for {@link Event Events} concerning the entity referenced by the
+     * specified {@link EntityRef} by using a {@link ReferenceType#WEAK weak} reference.
+     *
+     * @param ref        an {@link EntityRef}.
+     * @param subscriber any {@link Object}.
+     *
+     * @throws IllegalArgumentException if any of the passed arguments is <code>null</code>.
+     * @throws IllegalContextException if the {@link Context} of the passed {@link EntityRef} has been disposed of.
+     *
+     * @see EventManager#subscribe(EntityRef, Object, ReferenceType)
+     */
+    void subscribe(EntityRef ref, Object subscriber);
+
+    /**
+     * Revokes a previous made subscription of the specified subscriber for the entity referenced by the specified
+     * {@link EntityRef}.
+     * <p>
+     * <b>Note:</b> If there is no such subscription nothing happens. To revoke all subscriptions of a subscriber use
+     * {@link EventManager#unsubscribe(Context, Object)}.
+     *
+     * @param ref        an {@link EntityRef}.
+     * @param subscriber the {@link Object} to unsubscribe.
+     *
+     * @throws IllegalArgumentException if any of the passed arguments is <code>null</code>.
+     */
+    void unsubscribe(EntityRef ref, Object subscriber);
+
     /**
      * Sends an {@link Event} of the specified {@link EventType} with the passed {@link Parameter Parameters}.
      * <p>
@@ -334,4 +394,104 @@ public interface EventManager
      * @return the {@link ResultSet} of the {@link Query}.
      */
     ResultSet query(Query query);
+
+    /**
+     * Enables notification batching for the specified {@link Context}.
+     * <p>
+     * While batching is enabled, posted {@link EventType.Notification Notifications} are collected and delivered
+     * together once the specified window has elapsed after the first of them has been posted. A flush delivers all
+     * collected {@link Event Events} by a single task: every {@link Event} is dispatched to the
+     * {@link Handle @Handle} methods of the subscribers as usual and the {@link Event Events} of each type are passed
+     * at once to the {@link HandleBatch @HandleBatch} methods. {@link EventType.Command Commands} and
+     * {@link EventType.Query Queries} are not affected.
+     * <p>
+     * The {@link Handle @Handle} methods receive the {@link Event Events} in the order they have been posted,
+     * regardless of their type. The {@link HandleBatch @HandleBatch} methods receive one list per type, which keeps
+     * the order of the {@link Event Events} of that type, but not the order relative to other types.
+     * <p>
+     * Repeated {@link Event Events} of a type annotated with {@link Coalesce @Coalesce} are coalesced into one, as
+     * described there. The coalesced {@link Event} takes the position of the last of them, so it is delivered after
+     * every {@link Event} which has been posted before that one. The earlier {@link Event Events} are dropped and
+     * never delivered on their own.
+     * <p>
+     * If batching is already enabled, only the window is changed.
+     *
+     * @param context a {@link Context}.
+     * @param window the time to collect {@link EventType.Notification Notifications} before they are delivered.
+     * @param unit the {@link TimeUnit} of the window.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or {@link TimeUnit} is <code>null</code> or the
+     *                                  window is negative.
+     *
+     * @see HandleBatch
+     * @see Coalesce
+     */
+    void enableNotificationBatching(Context context, long window, TimeUnit unit);
+
+    /**
+     * Disables notification batching for the specified {@link Context} and delivers all collected
+     * {@link EventType.Notification Notifications}.
+     *
+     * @param context a {@link Context}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     */
+    void disableNotificationBatching(Context context);
+
+    /**
+     * Delivers all collected {@link EventType.Notification Notifications} of the specified {@link Context} without
+     * waiting for the window to elapse.
+     *
+     * @param context a {@link Context}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     */
+    void flushNotifications(Context context);
+
+    /**
+     * Moves the dispatching of posted {@link Event Events} and {@link Query Queries} of the specified {@link Context}
+     * from the {@link Context Context's} own worker threads to the event-loop group which is shared by all
+     * {@link Context Contexts} of the process.
+     * <p>
+     * The shared group has one thread per available processor and serves the {@link Context Contexts} in a round-robin
+     * fashion, so that a busy {@link Context} does not starve the others. Dispatches of a {@link Context} are started
+     * in the order in which they have been posted and not more of them run concurrently than on the
+     * {@link Context Context's} own worker threads.
+     * <p>
+     * By default every {@link Context} has its own worker threads. Sharing the group is preferable when a process
+     * hosts many {@link Context Contexts} which are mostly idle. The operation should be invoked right after the
+     * {@link Context} has been created; dispatches which were already scheduled complete on the former threads. There
+     * is no way back to dedicated worker threads.
+     *
+     * @param context a {@link Context}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     */
+    void useSharedEventLoopGroup(Context context);
+
+    /**
+     * Installs the specified {@link EventInstrumentation} for the event system of the specified {@link Context}.
+     * <p>
+     * An installed instrumentation replaces the previous one. Passing <code>null</code> removes the instrumentation,
+     * which is the default and does not cost any measurements.
+     *
+     * @param context a {@link Context}.
+     * @param instrumentation an {@link EventInstrumentation} or <code>null</code>.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     *
+     * @see EventInstrumentation
+     */
+    void setInstrumentation(Context context, EventInstrumentation instrumentation);
+
+    /**
+     * Returns the {@link EventInstrumentation} which is installed for the specified {@link Context}.
+     *
+     * @param context a {@link Context}.
+     *
+     * @return the installed {@link EventInstrumentation} or <code>null</code> if none is installed.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     */
+    EventInstrumentation getInstrumentation(Context context);
 }
@@ -0,0 +1,93 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.api;
+
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+
+import java.io.File;
+
+
+/**
+ * An <code>EventRecorder</code> captures every {@link Event} which is sent, posted or queried within a
+ * {@link Context} into a fixed-size ring buffer.
+ * <p>
+ * For every {@link Event} the recorder captures how it has been issued, its type, its parameters, the issuing
+ * thread and a timestamp in a compact binary form. As soon as the buffer is full the oldest events are discarded,
+ * so the buffer always contains the most recent history. The content of the buffer can be dumped to a file at any
+ * time and replayed later by {@link EventRecorderManager#replay(Context, File, EventRecorderManager.ReplayMode)}.
+ * <p>
+ * Parameters of type {@link Context}, {@link org.jayware.e2.entity.api.EntityRef EntityRef} and
+ * {@link org.jayware.e2.component.api.Component Component}, primitives, {@link String Strings}, enums, {@link Class
+ * Classes}, {@link java.util.UUID UUIDs} and {@link java.util.List Lists} of these are recorded by value. Any other
+ * parameter is recorded by its type only and replayed as <code>null</code>.
+ *
+ * @see EventRecorderManager
+ */
+public interface EventRecorder
+extends Contextual
+{
+    /**
+     * Returns the capacity of the ring buffer of this <code>EventRecorder</code>.
+     *
+     * @return the capacity in bytes.
+     */
+    int getCapacity();
+
+    /**
+     * Returns the number of {@link Event Events} which are currently held by the ring buffer.
+     *
+     * @return the number of buffered {@link Event Events}.
+     */
+    int getNumberOfBufferedEvents();
+
+    /**
+     * Returns the number of {@link Event Events} which have been recorded since this <code>EventRecorder</code>
+     * has been opened, including the ones which have been discarded already.
+     *
+     * @return the number of recorded {@link Event Events}.
+     */
+    long getNumberOfRecordedEvents();
+
+    /**
+     * Writes all {@link Event Events} which are currently held by the ring buffer to the specified file.
+     * <p>
+     * Recording continues while and after the buffer is dumped.
+     *
+     * @param file a {@link File} to write to.
+     *
+     * @throws IllegalArgumentException if the passed {@link File} is <code>null</code>.
+     *
+     * @throws EventRecorderException if the file could not be written.
+     */
+    void dump(File file);
+
+    /**
+     * Discards all {@link Event Events} which are currently held by the ring buffer.
+     */
+    void clear();
+
+    /**
+     * Stops recording.
+     * <p>
+     * <b>Note:</b> An <code>EventRecorder</code> is closed automatically when its {@link Context} gets disposed.
+     */
+    void close();
+}
@@ -0,0 +1,94 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.api;
+
+
+import org.jayware.e2.context.api.Context;
+
+import java.io.File;
+
+
+/**
+ * The <code>EventRecorderManager</code> attaches an {@link EventRecorder} to a {@link Context} and replays the
+ * {@link Event Events} of a dump written by an {@link EventRecorder}.
+ *
+ * @see EventRecorder
+ * @see ReplayReport
+ */
+public interface EventRecorderManager
+{
+    /**
+     * Attaches an {@link EventRecorder} with a ring buffer of the specified capacity to the specified {@link Context}.
+     * <p>
+     * If an {@link EventRecorder} is already attached to the specified {@link Context} that {@link EventRecorder}
+     * is returned.
+     *
+     * @param context a {@link Context}.
+     * @param capacity the capacity of the ring buffer in bytes.
+     *
+     * @return the {@link EventRecorder} attached to the specified {@link Context}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code> or the capacity is not positive.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     */
+    EventRecorder openRecorder(Context context, int capacity);
+
+    /**
+     * Replays the {@link Event Events} of the specified dump into the specified {@link Context}.
+     * <p>
+     * Every {@link Context} parameter is replaced by the specified {@link Context} and every entity referenced by
+     * a parameter is created in the specified {@link Context} if it does not exist, without firing any events.
+     * The subscribers which shall handle the replayed {@link Event Events} have to be subscribed in advance.
+     * <p>
+     * <b>Note:</b> {@link Event Events} which have been issued by a subscriber while handling another {@link Event}
+     * are not replayed, because the subscriber issues them again when it handles the replayed {@link Event}.
+     *
+     * @param context a {@link Context} to replay the {@link Event Events} into.
+     * @param file a {@link File} written by {@link EventRecorder#dump(File)}.
+     * @param mode the {@link ReplayMode}.
+     *
+     * @return a {@link ReplayReport} about the costs of the replayed {@link Event Events}.
+     *
+     * @throws IllegalArgumentException if any of the passed arguments is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws EventRecorderException if the dump could not be read.
+     */
+    ReplayReport replay(Context context, File file, ReplayMode mode);
+
+    /**
+     * The <code>ReplayMode</code> determines how the {@link Event Events} of a dump are re-driven.
+     */
+    enum ReplayMode
+    {
+        /**
+         * All {@link Event Events} are sent one after another by the calling thread, regardless whether they have
+         * been sent, posted or queried originally. Every {@link Query} is awaited before the next {@link Event}.
+         */
+        SEQUENTIAL,
+
+        /**
+         * Every {@link Event} is issued the same way it has been issued originally, by one thread per recorded
+         * thread and with the recorded delays between the {@link Event Events}.
+         */
+        TIMED
+    }
+}
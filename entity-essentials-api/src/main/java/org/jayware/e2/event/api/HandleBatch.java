@@ -0,0 +1,65 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.api;
+
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.event.api.EventType.Notification;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Marks a method of a subscriber which receives batches of {@link Notification Notifications}.
+ * <p>
+ * A batch handler method has to accept exactly one parameter of type {@link List}. When notification batching is
+ * enabled for a {@link Context} by {@link EventManager#enableNotificationBatching(Context, long, TimeUnit)}, every
+ * flush passes the posted {@link Event Events} of each specified type to the method at once, in the order they have
+ * been posted:
+ * <pre>
+ * &#64;HandleBatch(ComponentPushedEvent.class)
+ * public void handlePushes(List&lt;Event&gt; events)
+ * {
+ *     ...
+ * }
+ * </pre>
+ * Batch handler methods are not invoked if notification batching is disabled. Methods annotated with
+ * {@link Handle @Handle} still receive every {@link Event} individually.
+ *
+ * @see EventManager#enableNotificationBatching(Context, long, TimeUnit)
+ * @see Coalesce
+ *
+ * @since 1.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface HandleBatch
+{
+    /**
+     * Returns the types of the {@link Notification Notifications} the method receives.
+     *
+     * @return an array of {@link Notification} types.
+     */
+    Class<? extends Notification>[] value();
+}
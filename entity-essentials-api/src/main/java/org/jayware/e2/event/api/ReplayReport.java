@@ -0,0 +1,127 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.api;
+
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A <code>ReplayReport</code> provides the costs of the {@link Event Events} replayed by
+ * {@link EventRecorderManager#replay(org.jayware.e2.context.api.Context, java.io.File, EventRecorderManager.ReplayMode)}.
+ * <p>
+ * The handler time of an {@link Event} is the time its subscribers spent handling it, as reported by an
+ * {@link EventInstrumentation} while the replay has been running.
+ *
+ * @see EventRecorderManager
+ */
+public interface ReplayReport
+{
+    /**
+     * Returns the number of replayed {@link Event Events}.
+     *
+     * @return the number of {@link Event Events}.
+     */
+    int getNumberOfEvents();
+
+    /**
+     * Returns the number of replayed {@link Event Events} which had at least one parameter which could not be
+     * recorded by value and has been replayed as <code>null</code>.
+     *
+     * @return the number of incomplete {@link Event Events}.
+     */
+    int getNumberOfIncompleteEvents();
+
+    /**
+     * Returns the number of {@link Event Events} which have been rejected during the replay, e.g. because of a
+     * failed sanity check.
+     *
+     * @return the number of failed {@link Event Events}.
+     */
+    int getNumberOfFailedEvents();
+
+    /**
+     * Returns the time the whole replay took.
+     *
+     * @param unit the {@link TimeUnit} of the result.
+     *
+     * @return the time of the replay.
+     */
+    long getElapsedTime(TimeUnit unit);
+
+    /**
+     * Returns the types of all replayed {@link Event Events}.
+     *
+     * @return a {@link Set} of {@link EventType EventTypes}.
+     */
+    Set<Class<? extends EventType>> getEventTypes();
+
+    /**
+     * Returns the number of replayed {@link Event Events} of the specified type.
+     *
+     * @param type an {@link EventType}.
+     *
+     * @return the number of {@link Event Events}.
+     */
+    int getNumberOfEvents(Class<? extends EventType> type);
+
+    /**
+     * Returns the types of all subscribers which handled an {@link Event} of the specified type.
+     *
+     * @param type an {@link EventType}.
+     *
+     * @return a {@link Set} of subscriber classes.
+     */
+    Set<Class<?>> getSubscriberTypes(Class<? extends EventType> type);
+
+    /**
+     * Returns the time all subscribers spent handling {@link Event Events} of the specified type.
+     *
+     * @param type an {@link EventType}.
+     * @param unit the {@link TimeUnit} of the result.
+     *
+     * @return the handler time.
+     */
+    long getHandlerTime(Class<? extends EventType> type, TimeUnit unit);
+
+    /**
+     * Returns the time subscribers of the specified class spent handling {@link Event Events} of the specified type.
+     *
+     * @param type an {@link EventType}.
+     * @param subscriberType the class of a subscriber.
+     * @param unit the {@link TimeUnit} of the result.
+     *
+     * @return the handler time.
+     */
+    long getHandlerTime(Class<? extends EventType> type, Class<?> subscriberType, TimeUnit unit);
+
+    /**
+     * Returns the longest time all subscribers spent handling a single {@link Event} of the specified type.
+     * <p>
+     * <b>Note:</b> This time is only available for a {@link EventRecorderManager.ReplayMode#SEQUENTIAL SEQUENTIAL}
+     * replay, otherwise zero is returned.
+     *
+     * @param type an {@link EventType}.
+     * @param unit the {@link TimeUnit} of the result.
+     *
+     * @return the longest handler time.
+     */
+    long getMaxHandlerTime(Class<? extends EventType> type, TimeUnit unit);
+}
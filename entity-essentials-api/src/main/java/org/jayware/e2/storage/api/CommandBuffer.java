@@ -0,0 +1,138 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.api;
+
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+import org.jayware.e2.context.api.IllegalContextException;
+import org.jayware.e2.entity.api.EntityRef;
+
+
+/**
+ * A <code>CommandBuffer</code> records structural changes of a {@link Context} and applies them later in bulk.
+ * <p>
+ * Recording a change does neither lock the storage nor fire any events, therefore systems which iterate entities
+ * may record the creation and deletion of entities and the addition and removal of components without contending
+ * with each other. The recorded changes are applied when the <code>CommandBuffer</code> is played back. A playback
+ * creates all recorded entities first, then adds and removes the recorded components in the recorded order and
+ * finally deletes the recorded entities. Each step locks the storage only once and the usual events are fired
+ * after the lock has been released.
+ * <p>
+ * <b>Note:</b> A <code>CommandBuffer</code> is not thread-safe. Every thread should record to its own
+ * <code>CommandBuffer</code> which can be obtained by {@link CommandBufferManager#getCommandBuffer(Context)}.
+ *
+ * @see CommandBufferManager
+ */
+public interface CommandBuffer
+extends Contextual
+{
+    /**
+     * Records the creation of an entity.
+     * <p>
+     * The returned {@link EntityRef} can be used to record further changes of the entity, but it does not become
+     * valid until this <code>CommandBuffer</code> has been played back.
+     *
+     * @return an {@link EntityRef} to the entity which is going to be created.
+     */
+    EntityRef createEntity();
+
+    /**
+     * Records the deletion of the specified entity.
+     *
+     * @param ref an {@link EntityRef}.
+     *
+     * @throws IllegalArgumentException if the passed {@link EntityRef} is <code>null</code>.
+     *
+     * @throws IllegalContextException if the passed {@link EntityRef} does not belong to the {@link Context} of this
+     *                                 <code>CommandBuffer</code>.
+     */
+    void deleteEntity(EntityRef ref);
+
+    /**
+     * Records the addition of a {@link Component} of the specified type to the specified entity.
+     *
+     * @param ref an {@link EntityRef}.
+     * @param component the type of the {@link Component}.
+     * @param <T> the type of the {@link Component}.
+     *
+     * @throws IllegalArgumentException if one of the parameters is <code>null</code>.
+     *
+     * @throws IllegalContextException if the passed {@link EntityRef} does not belong to the {@link Context} of this
+     *                                 <code>CommandBuffer</code>.
+     */
+    <T extends Component> void addComponent(EntityRef ref, Class<T> component);
+
+    /**
+     * Records the addition of the specified {@link Component} to the specified entity.
+     * <p>
+     * The {@link Component} is copied, so later modifications of the passed instance are not recorded. If the
+     * entity already has a {@link Component} of the same type, the values are pushed to that {@link Component}.
+     *
+     * @param ref an {@link EntityRef}.
+     * @param component a {@link Component}.
+     * @param <T> the type of the {@link Component}.
+     *
+     * @throws IllegalArgumentException if one of the parameters is <code>null</code>.
+     *
+     * @throws IllegalContextException if the passed {@link EntityRef} does not belong to the {@link Context} of this
+     *                                 <code>CommandBuffer</code>.
+     */
+    <T extends Component> void addComponent(EntityRef ref, T component);
+
+    /**
+     * Records the removal of the {@link Component} of the specified type from the specified entity.
+     *
+     * @param ref an {@link EntityRef}.
+     * @param component the type of the {@link Component}.
+     *
+     * @throws IllegalArgumentException if one of the parameters is <code>null</code>.
+     *
+     * @throws IllegalContextException if the passed {@link EntityRef} does not belong to the {@link Context} of this
+     *                                 <code>CommandBuffer</code>.
+     */
+    void removeComponent(EntityRef ref, Class<? extends Component> component);
+
+    /**
+     * Returns the number of recorded changes.
+     *
+     * @return the number of recorded changes.
+     */
+    int size();
+
+    /**
+     * Returns whether this <code>CommandBuffer</code> does not contain any recorded changes.
+     *
+     * @return <code>true</code> if nothing has been recorded, otherwise <code>false</code>.
+     */
+    boolean isEmpty();
+
+    /**
+     * Applies all recorded changes and clears this <code>CommandBuffer</code>.
+     *
+     * @throws IllegalStateException if the {@link Context} of this <code>CommandBuffer</code> has been disposed.
+     */
+    void playback();
+
+    /**
+     * Discards all recorded changes.
+     */
+    void clear();
+}
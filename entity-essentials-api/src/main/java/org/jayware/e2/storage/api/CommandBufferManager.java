@@ -0,0 +1,64 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.api;
+
+
+import org.jayware.e2.context.api.Context;
+
+
+/**
+ * The <code>CommandBufferManager</code> provides a {@link CommandBuffer} per thread and {@link Context} and plays
+ * them back at a sync point.
+ *
+ * @see CommandBuffer
+ */
+public interface CommandBufferManager
+{
+    /**
+     * Returns the {@link CommandBuffer} of the calling thread for the specified {@link Context}.
+     * <p>
+     * The {@link CommandBuffer} is created on the first call of a thread and is returned on every subsequent call of
+     * the same thread.
+     *
+     * @param context a {@link Context}.
+     *
+     * @return the {@link CommandBuffer} of the calling thread.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     */
+    CommandBuffer getCommandBuffer(Context context);
+
+    /**
+     * Plays back the {@link CommandBuffer}s of all threads for the specified {@link Context} as one batch.
+     * <p>
+     * <b>Note:</b> This operation has to be called at a sync point, i.e. no thread may record to its
+     * {@link CommandBuffer} during the playback.
+     *
+     * @param context a {@link Context}.
+     *
+     * @return the number of applied changes.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     */
+    int playback(Context context);
+}
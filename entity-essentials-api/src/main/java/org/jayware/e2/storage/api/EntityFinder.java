@@ -20,6 +20,7 @@ package org.jayware.e2.storage.api;
 
 import org.jayware.e2.component.api.Aspect;
 import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.entity.api.EntityVisitor;
 import org.jayware.e2.util.Filter;
 
 import java.util.Collection;
@@ -29,4 +30,12 @@ import java.util.List;
 public interface EntityFinder
 {
     List<EntityRef> filter(Collection<EntityRef> entities, Aspect aspect, List<Filter<EntityRef>> filters);
+
+    List<EntityRef> filter(Collection<EntityRef> entities, Aspect aspect, List<Filter<EntityRef>> filters, int offset, int limit);
+
+    List<EntityRef> filterInParallel(Collection<EntityRef> entities, Aspect aspect, List<Filter<EntityRef>> filters);
+
+    List<EntityRef> filterInParallel(Collection<EntityRef> entities, Aspect aspect, List<Filter<EntityRef>> filters, int offset, int limit);
+
+    int visit(Collection<EntityRef> entities, Aspect aspect, List<Filter<EntityRef>> filters, int offset, int limit, EntityVisitor visitor);
 }
@@ -0,0 +1,71 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.api;
+
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+
+import java.io.File;
+
+
+/**
+ * A <code>Journal</code> records the changes of a {@link Context} to an append-only file.
+ * <p>
+ * Entries are collected in memory and appended in batches, so that one write and one sync to disk commit all
+ * entries of a batch at once. The journal is compacted by writing a snapshot of the {@link Context} and
+ * truncating the journal file.
+ *
+ * @see JournalManager
+ */
+public interface Journal
+extends Contextual
+{
+    /**
+     * Returns the directory which contains the journal file and the snapshot of this <code>Journal</code>.
+     *
+     * @return a {@link File} denoting a directory.
+     */
+    File getDirectory();
+
+    /**
+     * Appends all pending entries to the journal file and syncs the file to disk.
+     *
+     * @throws JournalException if the entries could not be written.
+     *
+     * @throws IllegalStateException if this <code>Journal</code> has been closed.
+     */
+    void flush();
+
+    /**
+     * Writes a snapshot of the {@link Context} and truncates the journal file.
+     *
+     * @throws JournalException if the journal could not be compacted.
+     *
+     * @throws IllegalStateException if this <code>Journal</code> has been closed.
+     */
+    void compact();
+
+    /**
+     * Flushes all pending entries and stops recording.
+     * <p>
+     * <b>Note:</b> A <code>Journal</code> is closed automatically when its {@link Context} gets disposed.
+     */
+    void close();
+}
@@ -0,0 +1,72 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.api;
+
+
+import org.jayware.e2.context.api.Context;
+
+import java.io.File;
+
+
+/**
+ * The <code>JournalManager</code> attaches a {@link Journal} to a {@link Context} and restores a {@link Context}
+ * from the snapshot and the journal file of a {@link Journal}.
+ *
+ * @see Journal
+ * @see SnapshotManager
+ */
+public interface JournalManager
+{
+    /**
+     * Attaches a {@link Journal} to the specified {@link Context} which records the creation and deletion of
+     * entities and the addition, removal and pushes of components.
+     * <p>
+     * If a {@link Journal} is already attached to the specified {@link Context} that {@link Journal} is returned.
+     *
+     * @param context a {@link Context}.
+     * @param directory a directory to store the journal file and the snapshot in.
+     *
+     * @return the {@link Journal} attached to the specified {@link Context}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or directory is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws JournalException if the journal file could not be opened.
+     */
+    Journal openJournal(Context context, File directory);
+
+    /**
+     * Restores the specified {@link Context} from the snapshot and the journal file in the specified directory.
+     * <p>
+     * The snapshot is restored first and afterwards every entry of the journal file is applied directly to the
+     * storage of the {@link Context}, so no events are fired. A partially written batch at the end of the journal
+     * file, e.g. due to a crash, is ignored.
+     *
+     * @param context a {@link Context} to restore.
+     * @param directory a directory which contains a journal file and/or a snapshot.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or directory is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws JournalException if the journal could not be read.
+     */
+    void restore(Context context, File directory);
+}
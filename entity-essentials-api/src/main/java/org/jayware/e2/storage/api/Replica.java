@@ -0,0 +1,58 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.api;
+
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+
+
+/**
+ * A <code>Replica</code> applies the delta frames written by a {@link Replicator} to a {@link Context}.
+ * <p>
+ * The frames are applied directly to the storage of the {@link Context}, so no per-entity or per-component
+ * events are fired. The {@link Context} should be treated as read-only, because local changes are overwritten
+ * by subsequent frames but not reverted.
+ *
+ * @see ReplicationManager
+ * @see Replicator
+ */
+public interface Replica
+extends Contextual
+{
+    /**
+     * Reads the next frame and applies it to the {@link Context}. This operation blocks until a whole frame has
+     * been read if the channel is a blocking one.
+     *
+     * @return <code>true</code> if a frame has been applied, <code>false</code> if the end of the stream has been
+     *         reached.
+     *
+     * @throws ReplicationException if the frame could not be read or is malformed.
+     *
+     * @throws IllegalStateException if the {@link Context} has been disposed.
+     */
+    boolean apply();
+
+    /**
+     * Returns the number of frames applied by this <code>Replica</code>.
+     *
+     * @return the number of frames.
+     */
+    long getNumberOfFrames();
+}
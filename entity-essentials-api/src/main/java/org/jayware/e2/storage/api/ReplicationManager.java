@@ -0,0 +1,97 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.api;
+
+
+import org.jayware.e2.context.api.Context;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+
+/**
+ * The <code>ReplicationManager</code> mirrors an authoritative {@link Context} into replica {@link Context Contexts}
+ * by a stream of delta frames.
+ * <p>
+ * A {@link Replicator} encodes the changes of its {@link Context} into one delta frame per call of
+ * {@link Replicator#flush()}, e.g. once per tick, and a {@link Replica} applies these frames directly to the
+ * storage of the replica {@link Context}. The frames may be transported by any byte channel, e.g. a socket or
+ * an in-process {@link java.nio.channels.Pipe}.
+ *
+ * @see Replicator
+ * @see Replica
+ */
+public interface ReplicationManager
+{
+    /**
+     * Attaches a {@link Replicator} to the specified {@link Context} which writes lossless delta frames to the
+     * specified {@link WritableByteChannel}.
+     *
+     * @param context a {@link Context} to replicate.
+     * @param channel a {@link WritableByteChannel} to write the frames to.
+     *
+     * @return a new {@link Replicator}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or {@link WritableByteChannel} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws ReplicationException if the stream header could not be written.
+     */
+    Replicator openReplicator(Context context, WritableByteChannel channel);
+
+    /**
+     * Attaches a {@link Replicator} to the specified {@link Context} which writes delta frames to the specified
+     * {@link WritableByteChannel}.
+     * <p>
+     * Floating-point properties are quantized to multiples of the specified resolution, e.g. <code>0.01</code>
+     * replicates positions with an accuracy of a centimeter. Changes smaller than the resolution are not
+     * replicated. A resolution of <code>0</code> replicates floating-point properties losslessly and is required
+     * to replicate <code>NaN</code> and infinite values.
+     *
+     * @param context a {@link Context} to replicate.
+     * @param channel a {@link WritableByteChannel} to write the frames to.
+     * @param resolution the resolution of floating-point properties.
+     *
+     * @return a new {@link Replicator}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or {@link WritableByteChannel} is <code>null</code>
+     *                                  or the resolution is negative.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws ReplicationException if the stream header could not be written.
+     */
+    Replicator openReplicator(Context context, WritableByteChannel channel, double resolution);
+
+    /**
+     * Creates a {@link Replica} which applies the frames read from the specified {@link ReadableByteChannel} to
+     * the specified {@link Context}.
+     *
+     * @param context a {@link Context} to apply the frames to.
+     * @param channel a {@link ReadableByteChannel} to read the frames from.
+     *
+     * @return a new {@link Replica}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or {@link ReadableByteChannel} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     */
+    Replica openReplica(Context context, ReadableByteChannel channel);
+}
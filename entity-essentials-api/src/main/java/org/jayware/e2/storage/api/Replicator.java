@@ -0,0 +1,78 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.api;
+
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+
+
+/**
+ * A <code>Replicator</code> encodes the changes of a {@link Context} into compact delta frames.
+ * <p>
+ * The <code>Replicator</code> tracks which entities and components have changed since the previous frame and
+ * sends only the properties whose values differ from the values sent before, marked by a bitmask per component.
+ * Entities are referred to by short handles instead of their ids once they have been announced. The first frame
+ * contains the whole state of the {@link Context} at the time the <code>Replicator</code> has been opened.
+ *
+ * @see ReplicationManager
+ * @see Replica
+ */
+public interface Replicator
+extends Contextual
+{
+    /**
+     * Writes a delta frame with all changes since the previous frame, e.g. at the end of a tick.
+     * <p>
+     * If nothing has changed no frame is written.
+     * <p>
+     * <b>Note:</b> The changes are tracked by events which are delivered asynchronously, hence a change which has
+     * just been made may be part of the next frame.
+     *
+     * @return the number of bytes written.
+     *
+     * @throws ReplicationException if the frame could not be written or a floating-point property is
+     *                              <code>NaN</code>, infinite or too large to be quantized. The replica can not
+     *                              be kept up to date afterwards, hence this <code>Replicator</code> is closed.
+     *
+     * @throws IllegalStateException if this <code>Replicator</code> has been closed.
+     */
+    int flush();
+
+    /**
+     * Returns the number of frames written by this <code>Replicator</code>.
+     *
+     * @return the number of frames.
+     */
+    long getNumberOfFrames();
+
+    /**
+     * Returns the number of bytes written by this <code>Replicator</code>, including the stream header.
+     *
+     * @return the number of bytes.
+     */
+    long getNumberOfBytes();
+
+    /**
+     * Stops tracking the changes of the {@link Context}.
+     * <p>
+     * <b>Note:</b> The channel is not closed by this operation.
+     */
+    void close();
+}
@@ -0,0 +1,113 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.api;
+
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentCodec;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.entity.api.Entity;
+
+import java.io.File;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+
+/**
+ * The <code>SnapshotManager</code> writes the whole state of a {@link Context} as a binary snapshot and restores
+ * a {@link Context} from such a snapshot.
+ * <p>
+ * A snapshot contains all {@link Entity Entities} of a {@link Context} and, for each {@link Component} type, a
+ * table which describes its properties followed by one row per {@link Component}, encoded by the
+ * {@link ComponentCodec} of the type. Restoring a snapshot inserts the
+ * {@link Entity Entities} and {@link Component Components} in bulk directly into the storage of the {@link Context},
+ * so no per-entity or per-component events are fired.
+ *
+ * @see Context
+ * @see SnapshotException
+ */
+public interface SnapshotManager
+{
+    /**
+     * Writes a snapshot of the specified {@link Context} to the specified {@link WritableByteChannel}.
+     * <p>
+     * <b>Note:</b> The channel is not closed by this operation.
+     *
+     * @param context a {@link Context} to snapshot.
+     * @param channel a {@link WritableByteChannel} to write the snapshot to.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or {@link WritableByteChannel} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws SnapshotException if the snapshot could not be written.
+     */
+    void writeSnapshot(Context context, WritableByteChannel channel);
+
+    /**
+     * Writes a snapshot of the specified {@link Context} to the specified {@link File}.
+     * <p>
+     * The snapshot is written to a temporary file first, which replaces the specified {@link File} once the
+     * snapshot is complete. Hence a crash while writing does not destroy a previous snapshot.
+     *
+     * @param context a {@link Context} to snapshot.
+     * @param file a {@link File} to write the snapshot to.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or {@link File} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws SnapshotException if the snapshot could not be written.
+     */
+    void writeSnapshot(Context context, File file);
+
+    /**
+     * Restores the snapshot read from the specified {@link ReadableByteChannel} into the specified {@link Context}.
+     * <p>
+     * <b>Note:</b> {@link Entity Entities} which already exist in the {@link Context} are reused and their
+     * {@link Component Components} are overwritten by the ones of the snapshot. The channel is not closed by
+     * this operation.
+     *
+     * @param context a {@link Context} to restore the snapshot into.
+     * @param channel a {@link ReadableByteChannel} to read the snapshot from.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or {@link ReadableByteChannel} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws SnapshotException if the snapshot could not be read or is malformed.
+     */
+    void readSnapshot(Context context, ReadableByteChannel channel);
+
+    /**
+     * Restores the snapshot read from the specified {@link File} into the specified {@link Context}.
+     *
+     * @param context a {@link Context} to restore the snapshot into.
+     * @param file a {@link File} to read the snapshot from.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} or {@link File} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     *
+     * @throws SnapshotException if the snapshot could not be read or is malformed.
+     *
+     * @see SnapshotManager#readSnapshot(Context, ReadableByteChannel)
+     */
+    void readSnapshot(Context context, File file);
+}
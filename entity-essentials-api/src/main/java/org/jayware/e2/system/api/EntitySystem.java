@@ -0,0 +1,73 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.system.api;
+
+
+import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.entity.api.EntityRef;
+
+import java.util.Set;
+
+
+/**
+ * An <code>EntitySystem</code> processes every entity which matches its {@link Aspect} once per tick of a
+ * {@link SystemScheduler}.
+ * <p>
+ * An <code>EntitySystem</code> declares which {@link Component Components} it reads and which it writes. The
+ * {@link SystemScheduler} uses these declarations to run <code>EntitySystem</code>s concurrently which do not
+ * conflict with each other. Two <code>EntitySystem</code>s conflict if one of them writes a {@link Component} which
+ * the other one reads or writes.
+ * <p>
+ * <b>Note:</b> The entities of an <code>EntitySystem</code> are processed in parallel chunks. Therefore
+ * {@link #process(EntityRef)} has to be thread-safe as long as different entities are passed.
+ *
+ * @see SystemScheduler
+ */
+public interface EntitySystem
+{
+    /**
+     * Returns the {@link Aspect} of the entities which are processed by this <code>EntitySystem</code>.
+     *
+     * @return an {@link Aspect}.
+     */
+    Aspect getAspect();
+
+    /**
+     * Returns the types of the {@link Component Components} which are read by this <code>EntitySystem</code>.
+     *
+     * @return a {@link Set} of {@link Component} types, never <code>null</code>.
+     */
+    Set<Class<? extends Component>> getReadComponents();
+
+    /**
+     * Returns the types of the {@link Component Components} which are written by this <code>EntitySystem</code>.
+     *
+     * @return a {@link Set} of {@link Component} types, never <code>null</code>.
+     */
+    Set<Class<? extends Component>> getWriteComponents();
+
+    /**
+     * Processes the specified entity.
+     *
+     * @param ref an {@link EntityRef} to an entity which matches the {@link Aspect} of this
+     *            <code>EntitySystem</code>.
+     */
+    void process(EntityRef ref);
+}
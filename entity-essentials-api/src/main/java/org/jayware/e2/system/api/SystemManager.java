@@ -0,0 +1,62 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.system.api;
+
+
+import org.jayware.e2.context.api.Context;
+
+
+/**
+ * The <code>SystemManager</code> creates {@link SystemScheduler}s.
+ *
+ * @see SystemScheduler
+ * @see EntitySystem
+ */
+public interface SystemManager
+{
+    /**
+     * Creates a {@link SystemScheduler} for the specified {@link Context} which uses one thread per available
+     * processor.
+     *
+     * @param context a {@link Context}.
+     *
+     * @return a new {@link SystemScheduler}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code>.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     */
+    SystemScheduler createScheduler(Context context);
+
+    /**
+     * Creates a {@link SystemScheduler} for the specified {@link Context} which uses the specified number of
+     * threads.
+     *
+     * @param context a {@link Context}.
+     * @param parallelism the number of threads.
+     *
+     * @return a new {@link SystemScheduler}.
+     *
+     * @throws IllegalArgumentException if the passed {@link Context} is <code>null</code> or the parallelism is less
+     *                                  than one.
+     *
+     * @throws IllegalStateException if the passed {@link Context} has been disposed.
+     */
+    SystemScheduler createScheduler(Context context, int parallelism);
+}
@@ -0,0 +1,94 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.system.api;
+
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+
+import java.util.List;
+
+
+/**
+ * A <code>SystemScheduler</code> runs {@link EntitySystem}s of a {@link Context} tick by tick.
+ * <p>
+ * On every tick the {@link EntitySystem}s are arranged in stages based on the {@link EntitySystem#getReadComponents()
+ * read} and {@link EntitySystem#getWriteComponents() write} declarations. An {@link EntitySystem} runs in a later
+ * stage than every conflicting {@link EntitySystem} which has been added before, so conflicting
+ * {@link EntitySystem}s run in the order they have been added. The {@link EntitySystem}s of a stage run concurrently
+ * and the entities of each {@link EntitySystem} are split into chunks which are processed by a pool of threads.
+ *
+ * @see EntitySystem
+ * @see SystemManager
+ */
+public interface SystemScheduler
+extends Contextual
+{
+    /**
+     * Adds the specified {@link EntitySystem} to this <code>SystemScheduler</code>.
+     *
+     * @param system an {@link EntitySystem}.
+     *
+     * @throws IllegalArgumentException if the passed {@link EntitySystem} is <code>null</code>.
+     */
+    void addSystem(EntitySystem system);
+
+    /**
+     * Removes the specified {@link EntitySystem} from this <code>SystemScheduler</code>.
+     *
+     * @param system an {@link EntitySystem}.
+     */
+    void removeSystem(EntitySystem system);
+
+    /**
+     * Returns the {@link EntitySystem}s of this <code>SystemScheduler</code> in the order they have been added.
+     *
+     * @return a {@link List} of {@link EntitySystem}s, never <code>null</code>.
+     */
+    List<EntitySystem> getSystems();
+
+    /**
+     * Runs every {@link EntitySystem} once and blocks until all of them have finished.
+     *
+     * @throws IllegalStateException if the {@link Context} has been disposed or this <code>SystemScheduler</code> has
+     *                               been shut down.
+     *
+     * @throws SystemSchedulerException if an {@link EntitySystem} failed to process an entity.
+     */
+    void tick();
+
+    /**
+     * Returns the {@link SystemStatistics} of the specified {@link EntitySystem}.
+     *
+     * @param system an {@link EntitySystem} of this <code>SystemScheduler</code>.
+     *
+     * @return the {@link SystemStatistics} of the {@link EntitySystem}.
+     *
+     * @throws IllegalArgumentException if the passed {@link EntitySystem} has not been added to this
+     *                                  <code>SystemScheduler</code>.
+     */
+    SystemStatistics getStatistics(EntitySystem system);
+
+    /**
+     * Stops the threads of this <code>SystemScheduler</code>.
+     * <p>
+     * <b>Note:</b> A <code>SystemScheduler</code> is shut down automatically when its {@link Context} gets disposed.
+     */
+    void shutdown();
+}
@@ -0,0 +1,71 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.system.api;
+
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * <code>SystemStatistics</code> provide the timing of an {@link EntitySystem} run by a {@link SystemScheduler}.
+ *
+ * @see SystemScheduler#getStatistics(EntitySystem)
+ */
+public interface SystemStatistics
+{
+    /**
+     * Returns the {@link EntitySystem} these <code>SystemStatistics</code> belong to.
+     *
+     * @return an {@link EntitySystem}.
+     */
+    EntitySystem getSystem();
+
+    /**
+     * Returns the number of ticks the {@link EntitySystem} has been run.
+     *
+     * @return the number of ticks.
+     */
+    long getTicks();
+
+    /**
+     * Returns the number of entities processed during the last tick.
+     *
+     * @return the number of entities.
+     */
+    int getLastEntityCount();
+
+    /**
+     * Returns the time the {@link EntitySystem} took during the last tick, i.e. the time between the start of its
+     * first and the end of its last chunk.
+     *
+     * @param unit the {@link TimeUnit} of the result.
+     *
+     * @return the time of the last tick.
+     */
+    long getLastTime(TimeUnit unit);
+
+    /**
+     * Returns the time the {@link EntitySystem} took during all ticks.
+     *
+     * @param unit the {@link TimeUnit} of the result.
+     *
+     * @return the total time.
+     */
+    long getTotalTime(TimeUnit unit);
+}
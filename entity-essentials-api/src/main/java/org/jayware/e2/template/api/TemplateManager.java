@@ -23,6 +23,9 @@ import org.jayware.e2.component.api.Component;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.entity.api.EntityRef;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+
 
 /**
  * The <code>TemplateManager</code>.
@@ -36,4 +39,10 @@ public interface TemplateManager
     <T extends ComponentTemplate> Component importComponent(Context context, T template);
 
     <T extends ComponentTemplate> Component importComponent(EntityRef ref, T template);
+
+    void exportComponent(Component component, DataOutput out);
+
+    Component importComponent(Context context, DataInput in);
+
+    Component importComponent(EntityRef ref, DataInput in);
 }
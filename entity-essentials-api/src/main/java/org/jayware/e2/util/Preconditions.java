@@ -63,6 +63,23 @@ public class Preconditions
         }
     }
 
+    /**
+     * Ensures that the specified precondition is met.
+     *
+     * @param precondition the precondition
+     * @param errorMessage the exception message to use if the check fails; will be converted to a string using
+     *                     {@link String#valueOf(Object)}
+     *
+     * @throws IllegalArgumentException if the specified precondition is false.
+     */
+    public static void checkArgument(boolean precondition, Object errorMessage)
+    {
+        if (!precondition)
+        {
+            throw new IllegalArgumentException(String.valueOf(errorMessage));
+        }
+    }
+
     /**
      * Ensures that the specified {@link Precondition} is met.
      * <p>
@@ -96,6 +113,23 @@ public class Preconditions
         }
     }
 
+    /**
+     * Ensures that the specified precondition is met.
+     *
+     * @param precondition a precondition.
+     * @param errorMessage the exception message to use if the check fails; will be converted to a string using
+     *                     {@link String#valueOf(Object)}
+     *
+     * @throws IllegalStateException if the specified precondition is false.
+     */
+    public static void checkState(boolean precondition, Object errorMessage)
+    {
+        if (!precondition)
+        {
+            throw new IllegalStateException(String.valueOf(errorMessage));
+        }
+    }
+
     /**
      * Ensures that an object reference passed as a parameter to the calling method is not null.
      *
@@ -20,6 +20,7 @@ package org.jayware.e2.util;
 
 import org.junit.jupiter.api.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 
 
@@ -80,6 +81,20 @@ public class PreconditionsTest
         }
     }
 
+    @Test
+    public void test_checkArgument_Throws_an_IllegalArgumentException_with_the_passed_message_if_false_is_passed()
+    {
+        try
+        {
+            Preconditions.checkArgument(false, "Fubar!");
+            fail("Expected to not reach this line because of an IllegalArgumentException!");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertThat(e.getMessage()).isEqualTo("Fubar!");
+        }
+    }
+
     @Test
     public void test_checkState_Passes_if_the_Precondition_returns_true()
     {
@@ -135,6 +150,20 @@ public class PreconditionsTest
         }
     }
 
+    @Test
+    public void test_checkState_Throws_an_IllegalStateException_with_the_passed_message_if_false_is_passed()
+    {
+        try
+        {
+            Preconditions.checkState(false, "Fubar!");
+            fail("Expected to not reach this line because of an IllegalStateException!");
+        }
+        catch (IllegalStateException e)
+        {
+            assertThat(e.getMessage()).isEqualTo("Fubar!");
+        }
+    }
+
     @Test
     public void test_checkNotNull_Throws_an_IllegalArgumentException_if_null_is_passed()
     {
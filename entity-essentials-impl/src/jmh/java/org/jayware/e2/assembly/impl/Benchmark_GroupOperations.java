@@ -0,0 +1,105 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.assembly.impl;
+
+import org.jayware.e2.assembly.api.Group;
+import org.jayware.e2.assembly.api.GroupManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+
+@Fork(3)
+@State(Scope.Benchmark)
+@Measurement(iterations = 10)
+@Warmup(iterations = 5)
+public class Benchmark_GroupOperations
+{
+    @Param({"10", "1000", "100000"})
+    private int groupSize;
+
+    private Context myContext;
+    private GroupManager myGroupManager;
+
+    private Group myGroup;
+    private EntityRef myMember;
+    private EntityRef myOutsider;
+
+    @Setup
+    public void setup()
+    {
+        myContext = ContextProvider.getInstance().createContext();
+        myGroupManager = myContext.getService(GroupManager.class);
+
+        final EntityManager entityManager = myContext.getService(EntityManager.class);
+
+        myGroup = myGroupManager.createGroup(myContext);
+
+        for (int i = 0; i < groupSize; ++i)
+        {
+            myMember = entityManager.createEntity(myContext);
+            myGroupManager.addEntityToGroup(myMember, myGroup);
+        }
+
+        myOutsider = entityManager.createEntity(myContext);
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    public void addAndRemoveEntity()
+    {
+        myGroupManager.addEntityToGroup(myOutsider, myGroup);
+        myGroupManager.removeEntityFromGroup(myOutsider, myGroup);
+    }
+
+    @Benchmark
+    public boolean isEntityMemberOfGroup()
+    {
+        return myGroupManager.isEntityMemberOfGroup(myMember, myGroup);
+    }
+
+    @Benchmark
+    public List<EntityRef> getEntitiesOfGroup()
+    {
+        return myGroupManager.getEntitiesOfGroup(myGroup);
+    }
+
+    @Benchmark
+    public List<Group> findGroupsOfEntity()
+    {
+        return myGroupManager.findGroups(myMember);
+    }
+}
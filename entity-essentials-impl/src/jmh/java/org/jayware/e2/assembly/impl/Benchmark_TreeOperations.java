@@ -0,0 +1,127 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.assembly.impl;
+
+import org.jayware.e2.assembly.api.TreeManager;
+import org.jayware.e2.assembly.api.TreeNode;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+
+@Fork(3)
+@State(Scope.Benchmark)
+@Measurement(iterations = 10)
+@Warmup(iterations = 5)
+public class Benchmark_TreeOperations
+{
+    private static final int FAN_OUT = 4;
+
+    @Param({"2", "4", "6"})
+    private int depth;
+
+    private Context myContext;
+    private EntityManager myEntityManager;
+    private TreeManager myTreeManager;
+
+    private TreeNode myRoot;
+    private TreeNode myLeaf;
+
+    @Setup
+    public void setup()
+    {
+        myContext = ContextProvider.getInstance().createContext();
+        myEntityManager = myContext.getService(EntityManager.class);
+        myTreeManager = myContext.getService(TreeManager.class);
+
+        myRoot = myTreeManager.createTreeNodeFor(myEntityManager.createEntity(myContext));
+        myLeaf = populate(myRoot, depth);
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    public void addAndRemoveChild()
+    {
+        final TreeNode node = myTreeManager.createTreeNodeFor(myEntityManager.createEntity(myContext));
+
+        myLeaf.addChild(node);
+        myLeaf.removeChild(node);
+        myTreeManager.deleteTreeNode(node);
+    }
+
+    @Benchmark
+    public int depthOf()
+    {
+        return myTreeManager.depthOf(myLeaf);
+    }
+
+    @Benchmark
+    public int sizeOf()
+    {
+        return myTreeManager.sizeOf(myRoot);
+    }
+
+    @Benchmark
+    public List<TreeNode> preOrderOf()
+    {
+        return myTreeManager.preOrderOf(myRoot);
+    }
+
+    @Benchmark
+    public List<TreeNode> ancestorsOf()
+    {
+        return myTreeManager.ancestorsOf(myLeaf);
+    }
+
+    private TreeNode populate(TreeNode parent, int levels)
+    {
+        TreeNode leaf = parent;
+
+        if (levels == 0)
+        {
+            return leaf;
+        }
+
+        for (int i = 0; i < FAN_OUT; ++i)
+        {
+            final TreeNode child = myTreeManager.createTreeNodeFor(myEntityManager.createEntity(myContext));
+
+            parent.addChild(child);
+            leaf = populate(child, levels - 1);
+        }
+
+        return leaf;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.impl;
+
+import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+
+import static org.jayware.e2.component.api.Aspect.aspect;
+
+
+@Fork(3)
+@State(Scope.Benchmark)
+@Measurement(iterations = 10)
+@Warmup(iterations = 5)
+public class Benchmark_AspectMatches
+{
+    private Context myContext;
+    private EntityRef myRef;
+
+    private Aspect myAllOfAspect;
+    private Aspect myNoneOfAspect;
+    private Aspect myMixedAspect;
+
+    @Setup
+    public void setup()
+    {
+        myContext = ContextProvider.getInstance().createContext();
+
+        final EntityManager entityManager = myContext.getService(EntityManager.class);
+        final ComponentManager componentManager = myContext.getService(ComponentManager.class);
+
+        myRef = entityManager.createEntity(myContext);
+        componentManager.addComponent(myRef, ComponentA.class);
+        componentManager.addComponent(myRef, ComponentB.class);
+
+        myAllOfAspect = aspect(ComponentA.class, ComponentB.class);
+        myNoneOfAspect = aspect(Collections.<Class<? extends Component>>emptySet(), Collections.<Class<? extends Component>>emptySet(), Collections.<Class<? extends Component>>singleton(ComponentC.class));
+        myMixedAspect = aspect(Collections.<Class<? extends Component>>singleton(ComponentA.class), Collections.<Class<? extends Component>>singleton(ComponentB.class), Collections.<Class<? extends Component>>singleton(ComponentC.class));
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    public boolean matchesAllOf()
+    {
+        return myAllOfAspect.matches(myRef);
+    }
+
+    @Benchmark
+    public boolean matchesNoneOf()
+    {
+        return myNoneOfAspect.matches(myRef);
+    }
+
+    @Benchmark
+    public boolean matchesMixed()
+    {
+        return myMixedAspect.matches(myRef);
+    }
+
+    public interface ComponentA
+    extends Component
+    {
+        int getValue();
+
+        void setValue(int value);
+    }
+
+    public interface ComponentB
+    extends Component
+    {
+        int getValue();
+
+        void setValue(int value);
+    }
+
+    public interface ComponentC
+    extends Component
+    {
+        int getValue();
+
+        void setValue(int value);
+    }
+}
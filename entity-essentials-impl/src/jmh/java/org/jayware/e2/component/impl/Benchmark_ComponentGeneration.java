@@ -0,0 +1,175 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+
+@Fork(3)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MICROSECONDS)
+@Measurement(iterations = 50)
+@Warmup(iterations = 10)
+public class Benchmark_ComponentGeneration
+{
+    @Param({"1", "4", "16"})
+    private int propertyCount;
+
+    private Class<? extends Component> myComponent;
+    private ComponentFactoryImpl myFactory;
+
+    @Setup
+    public void setup()
+    {
+        switch (propertyCount)
+        {
+            case 1:
+                myComponent = SmallComponent.class;
+                break;
+            case 4:
+                myComponent = MediumComponent.class;
+                break;
+            default:
+                myComponent = LargeComponent.class;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation()
+    {
+        myFactory = new ComponentFactoryImpl();
+    }
+
+    @Benchmark
+    public void prepareComponent()
+    {
+        myFactory.prepareComponent(myComponent);
+    }
+
+    public interface SmallComponent
+    extends Component
+    {
+        int getA();
+
+        void setA(int value);
+    }
+
+    public interface MediumComponent
+    extends Component
+    {
+        int getA();
+
+        void setA(int value);
+
+        long getB();
+
+        void setB(long value);
+
+        String getC();
+
+        void setC(String value);
+
+        double[] getD();
+
+        void setD(double[] value);
+    }
+
+    public interface LargeComponent
+    extends Component
+    {
+        int getA();
+
+        void setA(int value);
+
+        long getB();
+
+        void setB(long value);
+
+        String getC();
+
+        void setC(String value);
+
+        double[] getD();
+
+        void setD(double[] value);
+
+        boolean getE();
+
+        void setE(boolean value);
+
+        float getF();
+
+        void setF(float value);
+
+        short getG();
+
+        void setG(short value);
+
+        byte getH();
+
+        void setH(byte value);
+
+        Integer getI();
+
+        void setI(Integer value);
+
+        Long getJ();
+
+        void setJ(Long value);
+
+        Double getK();
+
+        void setK(Double value);
+
+        float[] getL();
+
+        void setL(float[] value);
+
+        int[] getM();
+
+        void setM(int[] value);
+
+        String[] getN();
+
+        void setN(String[] value);
+
+        Boolean getO();
+
+        void setO(Boolean value);
+
+        byte[] getP();
+
+        void setP(byte[] value);
+    }
+}
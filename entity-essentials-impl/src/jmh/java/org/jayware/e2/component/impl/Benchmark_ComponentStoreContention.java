@@ -0,0 +1,141 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+
+@Fork(3)
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(NANOSECONDS)
+@Measurement(iterations = 10)
+@Warmup(iterations = 5)
+public class Benchmark_ComponentStoreContention
+{
+    private static final int ENTITY_COUNT = 1024;
+
+    private Context myContext;
+    private ComponentManager myComponentManager;
+
+    private EntityRef[] myRefs;
+    private BenchmarkComponent[] myComponents;
+
+    @Setup
+    public void setup()
+    {
+        myContext = ContextProvider.getInstance().createContext();
+        myComponentManager = myContext.getService(ComponentManager.class);
+
+        final EntityManager entityManager = myContext.getService(EntityManager.class);
+
+        myRefs = new EntityRef[ENTITY_COUNT];
+        myComponents = new BenchmarkComponent[ENTITY_COUNT];
+
+        for (int i = 0; i < ENTITY_COUNT; ++i)
+        {
+            myRefs[i] = entityManager.createEntity(myContext);
+            myComponents[i] = myComponentManager.addComponent(myRefs[i], BenchmarkComponent.class);
+        }
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(3)
+    public void readMostly_pullFrom(Cursor cursor)
+    {
+        final int index = cursor.next();
+        myComponents[index].pullFrom(myRefs[index]);
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public void readMostly_pushTo(Cursor cursor)
+    {
+        final int index = cursor.next();
+        myComponents[index].pushTo(myRefs[index]);
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(2)
+    public boolean writeHeavy_hasComponent(Cursor cursor)
+    {
+        return myComponentManager.hasComponent(myRefs[cursor.next()], BenchmarkComponent.class);
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(2)
+    public void writeHeavy_removeAndAdd(Cursor cursor)
+    {
+        final EntityRef ref = myRefs[cursor.next()];
+
+        myComponentManager.removeComponent(ref, BenchmarkComponent.class);
+        myComponentManager.addComponent(ref, BenchmarkComponent.class);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor
+    {
+        private int myIndex = System.identityHashCode(this);
+
+        public int next()
+        {
+            // Stepping by a large odd number visits all entities in a scattered order.
+            myIndex += 7919;
+            return myIndex & (ENTITY_COUNT - 1);
+        }
+    }
+
+    public interface BenchmarkComponent
+    extends Component
+    {
+        int getValue();
+
+        void setValue(int value);
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.entity.impl;
+
+import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.util.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+import static org.jayware.e2.component.api.Aspect.aspect;
+
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Measurement(iterations = 10)
+@Warmup(iterations = 3)
+public class Benchmark_FindEntities
+{
+    @Param({"1000", "100000", "1000000"})
+    private int entityCount;
+
+    private Context myContext;
+    private EntityManager myEntityManager;
+
+    private Aspect myAspect;
+    private Filter<EntityRef> myFilter;
+
+    @Setup
+    public void setup()
+    {
+        myContext = ContextProvider.getInstance().createContext();
+        myEntityManager = myContext.getService(EntityManager.class);
+
+        final ComponentManager componentManager = myContext.getService(ComponentManager.class);
+
+        for (int i = 0; i < entityCount; ++i)
+        {
+            final EntityRef ref = myEntityManager.createEntity(myContext);
+
+            componentManager.addComponent(ref, ComponentA.class);
+
+            if (i % 2 == 0)
+            {
+                componentManager.addComponent(ref, ComponentB.class);
+            }
+        }
+
+        myAspect = aspect(ComponentA.class, ComponentB.class);
+        myFilter = new Filter<EntityRef>()
+        {
+            @Override
+            public boolean accepts(Context context, EntityRef ref)
+            {
+                return (ref.getId().getLeastSignificantBits() & 1) == 0;
+            }
+        };
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    public List<EntityRef> findEntities()
+    {
+        return myEntityManager.findEntities(myContext);
+    }
+
+    @Benchmark
+    public List<EntityRef> findEntitiesWithAspect()
+    {
+        return myEntityManager.findEntities(myContext, myAspect);
+    }
+
+    @Benchmark
+    public List<EntityRef> findEntitiesWithFilter()
+    {
+        return myEntityManager.findEntities(myContext, myFilter);
+    }
+
+    @Benchmark
+    public List<EntityRef> findEntitiesWithAspectAndFilter()
+    {
+        return myEntityManager.findEntities(myContext, myAspect, myFilter);
+    }
+
+    public interface ComponentA
+    extends Component
+    {
+        int getValue();
+
+        void setValue(int value);
+    }
+
+    public interface ComponentB
+    extends Component
+    {
+        String getName();
+
+        void setName(String name);
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.entity.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+
+@Fork(3)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(NANOSECONDS)
+@Measurement(iterations = 10)
+@Warmup(iterations = 5)
+public class Benchmark_StorageContention
+{
+    private static final int POPULATION = 10000;
+
+    private Context myContext;
+    private EntityManager myEntityManager;
+
+    @Setup
+    public void setup()
+    {
+        myContext = ContextProvider.getInstance().createContext();
+        myEntityManager = myContext.getService(EntityManager.class);
+
+        for (int i = 0; i < POPULATION; ++i)
+        {
+            myEntityManager.createEntity(myContext);
+        }
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void createAndDelete()
+    {
+        myEntityManager.deleteEntity(myEntityManager.createEntity(myContext));
+    }
+
+    @Benchmark
+    @Group("createWhileFinding")
+    @GroupThreads(3)
+    public void createWhileFinding_createAndDelete()
+    {
+        myEntityManager.deleteEntity(myEntityManager.createEntity(myContext));
+    }
+
+    @Benchmark
+    @Group("createWhileFinding")
+    @GroupThreads(1)
+    public List<EntityRef> createWhileFinding_findEntities()
+    {
+        return myEntityManager.findEntities(myContext);
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventDispatcher;
+import org.jayware.e2.event.api.EventType.RootEvent;
+import org.jayware.e2.event.api.Handle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+
+@Fork(3)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MICROSECONDS)
+@Measurement(iterations = 50)
+@Warmup(iterations = 10)
+public class Benchmark_DispatcherGeneration
+{
+    @Param({"1", "4", "16"})
+    private int handlerCount;
+
+    private Class<?> myTarget;
+    private EventDispatcherFactoryImpl myFactory;
+
+    @Setup
+    public void setup()
+    {
+        switch (handlerCount)
+        {
+            case 1:
+                myTarget = OneHandlerSubscriber.class;
+                break;
+            case 4:
+                myTarget = FourHandlerSubscriber.class;
+                break;
+            default:
+                myTarget = SixteenHandlerSubscriber.class;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation()
+    {
+        myFactory = new EventDispatcherFactoryImpl();
+    }
+
+    @Benchmark
+    public EventDispatcher createEventDispatcher()
+    {
+        return myFactory.createEventDispatcher(myTarget);
+    }
+
+    public interface EventA extends RootEvent {}
+    public interface EventB extends RootEvent {}
+    public interface EventC extends RootEvent {}
+    public interface EventD extends RootEvent {}
+
+    public static class OneHandlerSubscriber
+    {
+        @Handle(EventA.class)
+        public void handle(Event event)
+        {
+        }
+    }
+
+    public static class FourHandlerSubscriber
+    {
+        @Handle(EventA.class)
+        public void handleA(Event event)
+        {
+        }
+
+        @Handle(EventB.class)
+        public void handleB(Event event)
+        {
+        }
+
+        @Handle(EventC.class)
+        public void handleC(Event event)
+        {
+        }
+
+        @Handle(EventD.class)
+        public void handleD(Event event)
+        {
+        }
+    }
+
+    public static class SixteenHandlerSubscriber
+    {
+        @Handle(EventA.class)
+        public void handleA0(Event event)
+        {
+        }
+
+        @Handle(EventA.class)
+        public void handleA1(Event event)
+        {
+        }
+
+        @Handle(EventA.class)
+        public void handleA2(Event event)
+        {
+        }
+
+        @Handle(EventA.class)
+        public void handleA3(Event event)
+        {
+        }
+
+        @Handle(EventB.class)
+        public void handleB0(Event event)
+        {
+        }
+
+        @Handle(EventB.class)
+        public void handleB1(Event event)
+        {
+        }
+
+        @Handle(EventB.class)
+        public void handleB2(Event event)
+        {
+        }
+
+        @Handle(EventB.class)
+        public void handleB3(Event event)
+        {
+        }
+
+        @Handle(EventC.class)
+        public void handleC0(Event event)
+        {
+        }
+
+        @Handle(EventC.class)
+        public void handleC1(Event event)
+        {
+        }
+
+        @Handle(EventC.class)
+        public void handleC2(Event event)
+        {
+        }
+
+        @Handle(EventC.class)
+        public void handleC3(Event event)
+        {
+        }
+
+        @Handle(EventD.class)
+        public void handleD0(Event event)
+        {
+        }
+
+        @Handle(EventD.class)
+        public void handleD1(Event event)
+        {
+        }
+
+        @Handle(EventD.class)
+        public void handleD2(Event event)
+        {
+        }
+
+        @Handle(EventD.class)
+        public void handleD3(Event event)
+        {
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.EventType.RootEvent;
+import org.jayware.e2.event.api.Handle;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.jayware.e2.event.api.Parameters.param;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+
+
+@Fork(3)
+@Threads(4)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(NANOSECONDS)
+@Measurement(iterations = 10)
+@Warmup(iterations = 5)
+public class Benchmark_EventBusContention
+{
+    private static final ThreadLocal<long[]> ourHandledOnThread = new ThreadLocal<long[]>()
+    {
+        @Override
+        protected long[] initialValue()
+        {
+            return new long[1];
+        }
+    };
+
+    /**
+     * The work in {@link Blackhole#consumeCPU(long) tokens} a subscriber spends per event. The more work, the sooner
+     * the bounded worker queue saturates and the posting threads have to run dispatches themselves.
+     */
+    @Param({"0", "100", "1000"})
+    private long handlerWork;
+
+    @Param({"false", "true"})
+    private boolean sharedEventLoopGroup;
+
+    private Context myContext;
+    private EventManager myEventManager;
+    private Event myEvent;
+
+    @Setup
+    public void setup()
+    {
+        myContext = ContextProvider.getInstance().createContext();
+        myEventManager = myContext.getService(EventManager.class);
+        myEvent = myEventManager.createEvent(BenchmarkEvent.class, param(ContextParam, myContext));
+
+        if (sharedEventLoopGroup)
+        {
+            myEventManager.useSharedEventLoopGroup(myContext);
+        }
+
+        myEventManager.subscribe(myContext, new BenchmarkSubscriber(handlerWork), STRONG);
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    public void post(ProducerCounters counters)
+    {
+        final long[] handledOnThread = ourHandledOnThread.get();
+        final long before = handledOnThread[0];
+
+        myEventManager.post(myEvent);
+
+        // The subscriber only runs on the posting thread if the workers were saturated.
+        if (handledOnThread[0] != before)
+        {
+            ++counters.callerRuns;
+        }
+        else
+        {
+            ++counters.queued;
+        }
+    }
+
+    @Benchmark
+    public void send()
+    {
+        myEventManager.send(myEvent);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters
+    public static class ProducerCounters
+    {
+        public long callerRuns;
+        public long queued;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            callerRuns = 0;
+            queued = 0;
+        }
+    }
+
+    public interface BenchmarkEvent
+    extends RootEvent
+    {
+
+    }
+
+    public static class BenchmarkSubscriber
+    {
+        private final long myWork;
+
+        public BenchmarkSubscriber(long work)
+        {
+            myWork = work;
+        }
+
+        @Handle(BenchmarkEvent.class)
+        public void handle(Event event)
+        {
+            ++ourHandledOnThread.get()[0];
+            Blackhole.consumeCPU(myWork);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventFilter;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.EventType.RootEvent;
+import org.jayware.e2.event.api.Handle;
+import org.jayware.e2.event.api.Query;
+import org.jayware.e2.event.api.ResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.jayware.e2.event.api.Parameters.param;
+import static org.jayware.e2.event.api.Query.State.Success;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+
+
+@Fork(3)
+@State(Scope.Benchmark)
+@Measurement(iterations = 10)
+@Warmup(iterations = 5)
+public class Benchmark_EventDispatch
+{
+    @Param({"1", "10", "100"})
+    private int subscriberCount;
+
+    @Param({"0", "1", "4"})
+    private int filterCount;
+
+    private Context myContext;
+    private EventManager myEventManager;
+    private Event myEvent;
+
+    private final List<BenchmarkSubscriber> mySubscribers = new ArrayList<BenchmarkSubscriber>();
+
+    @Setup
+    public void setup()
+    {
+        final EventFilter[] filters = new EventFilter[filterCount];
+
+        myContext = ContextProvider.getInstance().createContext();
+        myEventManager = myContext.getService(EventManager.class);
+        myEvent = myEventManager.createEvent(BenchmarkEvent.class, param(ContextParam, myContext));
+
+        for (int i = 0; i < filterCount; ++i)
+        {
+            filters[i] = EventFilter.ANY;
+        }
+
+        for (int i = 0; i < subscriberCount; ++i)
+        {
+            final BenchmarkSubscriber subscriber = new BenchmarkSubscriber();
+            mySubscribers.add(subscriber);
+            myEventManager.subscribe(myContext, subscriber, STRONG, filters);
+        }
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    public void send()
+    {
+        myEventManager.send(myEvent);
+    }
+
+    @Benchmark
+    public void post()
+    {
+        myEventManager.post(myEvent);
+    }
+
+    @Benchmark
+    public void query(Blackhole blackhole)
+    {
+        final Query query = myEventManager.createQuery(BenchmarkEvent.class, param(ContextParam, myContext));
+        final ResultSet result = myEventManager.query(query);
+
+        blackhole.consume(result.await(Success));
+    }
+
+    public interface BenchmarkEvent
+    extends RootEvent
+    {
+
+    }
+
+    public static class BenchmarkSubscriber
+    {
+        private int myCount;
+
+        @Handle(BenchmarkEvent.class)
+        public void handle(Event event)
+        {
+            ++myCount;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.template.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.template.api.TemplateManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+
+@Fork(3)
+@State(Scope.Benchmark)
+@Measurement(iterations = 10)
+@Warmup(iterations = 5)
+public class Benchmark_TemplateExportImport
+{
+    private Context myContext;
+    private TemplateManager myTemplateManager;
+
+    private EntityRef myRef;
+    private BenchmarkComponent myComponent;
+    private byte[] myExported;
+
+    private final ByteArrayOutputStream myBuffer = new ByteArrayOutputStream();
+
+    @Setup
+    public void setup()
+    {
+        myContext = ContextProvider.getInstance().createContext();
+        myTemplateManager = myContext.getService(TemplateManager.class);
+
+        final EntityManager entityManager = myContext.getService(EntityManager.class);
+        final ComponentManager componentManager = myContext.getService(ComponentManager.class);
+
+        myRef = entityManager.createEntity(myContext);
+        myComponent = componentManager.createComponent(myContext, BenchmarkComponent.class);
+        myComponent.setValue(42);
+        myComponent.setName("Bulbasaur");
+        myComponent.setWeights(new double[]{6.9, 0.7});
+
+        myExported = exportComponent();
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        myContext.dispose();
+    }
+
+    @Benchmark
+    public byte[] exportComponent()
+    {
+        myBuffer.reset();
+        myTemplateManager.exportComponent(myComponent, new DataOutputStream(myBuffer));
+        return myBuffer.toByteArray();
+    }
+
+    @Benchmark
+    public Component importComponent()
+    {
+        return myTemplateManager.importComponent(myRef, new DataInputStream(new ByteArrayInputStream(myExported)));
+    }
+
+    public interface BenchmarkComponent
+    extends Component
+    {
+        int getValue();
+
+        void setValue(int value);
+
+        String getName();
+
+        void setName(String name);
+
+        double[] getWeights();
+
+        void setWeights(double[] weights);
+    }
+}
@@ -20,22 +20,33 @@ package org.jayware.e2.assembly.impl;
 
 import org.jayware.e2.assembly.api.Group;
 import org.jayware.e2.assembly.api.components.GroupComponent;
+import org.jayware.e2.component.api.Component;
 import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.component.api.ComponentNotFoundException;
+import org.jayware.e2.component.impl.ComponentStore;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.context.api.Resettable;
+import org.jayware.e2.entity.api.EntityEvent.EntityDeletedEvent;
 import org.jayware.e2.entity.api.EntityManager;
 import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.event.api.EventManager;
 import org.jayware.e2.event.api.Handle;
 import org.jayware.e2.event.api.Param;
-import org.jayware.e2.util.ArrayUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
 import static org.jayware.e2.assembly.api.GroupEvent.CreateGroupEvent;
 import static org.jayware.e2.assembly.api.GroupEvent.CreateGroupEvent.GroupNameParam;
@@ -48,18 +59,32 @@ import static org.jayware.e2.assembly.api.GroupEvent.GroupMembershipEvent.Entity
 import static org.jayware.e2.assembly.api.GroupEvent.GroupMembershipEvent.EntityToGroupAddedEvent;
 import static org.jayware.e2.assembly.api.GroupEvent.GroupMembershipEvent.RemoveEntityFromGroupEvent;
 import static org.jayware.e2.assembly.api.GroupEvent.GroupParam;
-import static org.jayware.e2.component.api.Aspect.aspect;
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
+import static org.jayware.e2.entity.api.EntityEvent.EntityIdParam;
 import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
 import static org.jayware.e2.event.api.Parameters.param;
 
 
 public class GroupHub
-implements Disposable
+implements Disposable, Resettable
 {
     private final Context myContext;
     private final EntityManager myEntityManager;
     private final ComponentManager myComponentManager;
     private final EventManager myEventManager;
+    private final ComponentStore myComponentStore;
+
+    private final Map<String, EntityRef> myGroupsByName;
+    private final Map<UUID, String> myNamesByGroup;
+    private final Map<UUID, Map<UUID, EntityRef>> myMembersByGroup;
+    private final Map<UUID, Map<UUID, EntityRef>> myGroupsByMember;
+    private final Map<UUID, EntityRef> myDirtyGroups;
+
+    private final Lock myReadLock;
+    private final Lock myWriteLock;
+    private final Lock mySyncLock;
+
+    private volatile long myIndexedRevision = -1;
 
     GroupHub(Context context)
     {
@@ -68,6 +93,18 @@ implements Disposable
         myEntityManager = myContext.getService(EntityManager.class);
         myComponentManager = myContext.getService(ComponentManager.class);
         myEventManager = myContext.getService(EventManager.class);
+        myComponentStore = myContext.get(COMPONENT_STORE);
+
+        myGroupsByName = new HashMap<String, EntityRef>();
+        myNamesByGroup = new HashMap<UUID, String>();
+        myMembersByGroup = new HashMap<UUID, Map<UUID, EntityRef>>();
+        myGroupsByMember = new HashMap<UUID, Map<UUID, EntityRef>>();
+        myDirtyGroups = new LinkedHashMap<UUID, EntityRef>();
+
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        myReadLock = lock.readLock();
+        myWriteLock = lock.writeLock();
+        mySyncLock = new ReentrantLock();
 
         myEventManager.subscribe(context, this);
     }
@@ -75,12 +112,41 @@ implements Disposable
     @Handle(CreateGroupEvent.class)
     public void handleCreateGroupEvent(@Param(GroupNameParam) String name)
     {
+        final boolean duplicate;
+
+        if (findGroup(name) != null)
+        {
+            return;
+        }
+
         final EntityRef ref = myEntityManager.createEntity(myContext);
         final GroupComponent component = myComponentManager.createComponent(myContext, GroupComponent.class);
 
         component.setName(name);
         component.addTo(ref);
 
+        myWriteLock.lock();
+        try
+        {
+            duplicate = myGroupsByName.containsKey(name);
+
+            if (!duplicate)
+            {
+                indexGroup(ref, name, null);
+            }
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+
+        if (duplicate)
+        {
+            // Another group with the same name has been created concurrently.
+            myEntityManager.deleteEntity(ref);
+            return;
+        }
+
         myEventManager.post(
             GroupCreatedEvent.class,
             param(ContextParam, myContext),
@@ -92,61 +158,163 @@ implements Disposable
     @Handle(DeleteGroupEvent.class)
     public void handleDeleteGroupEvent(@Param(GroupNameParam) String name)
     {
-        final List<EntityRef> groups = myEntityManager.findEntities(myContext, aspect(GroupComponent.class));
+        final EntityRef ref;
+
+        ensureIndexed();
 
-        for (EntityRef ref : groups)
+        myWriteLock.lock();
+        try
         {
-            final GroupComponent component = myComponentManager.getComponent(ref, GroupComponent.class);
+            ref = myGroupsByName.get(name);
 
-            if (name.equals(component.getName()))
+            if (ref == null)
             {
-                myEntityManager.deleteEntity(ref);
+                return;
+            }
 
-                myEventManager.post(
-                    GroupDeletedEvent.class,
-                    param(ContextParam, myContext),
-                    param(GroupParam, null),
-                    param(GroupNameParam, name)
-                );
+            unindexGroup(ref.getId());
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
 
-                return;
+        myEntityManager.deleteEntity(ref);
+
+        myEventManager.post(
+            GroupDeletedEvent.class,
+            param(ContextParam, myContext),
+            param(GroupParam, null),
+            param(GroupNameParam, name)
+        );
+    }
+
+    @Handle(EntityDeletedEvent.class)
+    public void handleEntityDeletedEvent(@Param(EntityIdParam) UUID id)
+    {
+        final Map<UUID, EntityRef> groups;
+
+        ensureIndexed();
+
+        myWriteLock.lock();
+        try
+        {
+            unindexGroup(id);
+
+            groups = myGroupsByMember.remove(id);
+
+            if (groups != null)
+            {
+                for (EntityRef group : groups.values())
+                {
+                    final Map<UUID, EntityRef> members = myMembersByGroup.get(group.getId());
+
+                    if (members != null)
+                    {
+                        members.remove(id);
+                        myDirtyGroups.put(group.getId(), group);
+                    }
+                }
             }
         }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+
+        if (groups != null)
+        {
+            syncGroups();
+        }
     }
 
     public Group findGroup(String name)
     {
-        final List<EntityRef> groups = myEntityManager.findEntities(myContext, aspect(GroupComponent.class));
+        final EntityRef ref;
+
+        ensureIndexed();
 
-        for (EntityRef ref : groups)
+        myReadLock.lock();
+        try
         {
-            GroupComponent component = myComponentManager.getComponent(ref, GroupComponent.class);
+            ref = myGroupsByName.get(name);
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
 
-            if (name.equals(component.getName()))
+        return ref != null ? GroupImpl.createGroup(ref) : null;
+    }
+
+    public List<Group> findGroups()
+    {
+        final List<EntityRef> refs;
+
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
+        {
+            refs = new ArrayList<EntityRef>(myGroupsByName.values());
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+
+        return createGroups(refs);
+    }
+
+    public List<Group> findGroups(EntityRef member)
+    {
+        final List<EntityRef> refs;
+
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
+        {
+            final Map<UUID, EntityRef> groups = myGroupsByMember.get(member.getId());
+
+            if (groups == null)
             {
-                return GroupImpl.createGroup(ref);
+                return new ArrayList<Group>();
             }
+
+            refs = new ArrayList<EntityRef>(groups.values());
+        }
+        finally
+        {
+            myReadLock.unlock();
         }
 
-        return null;
+        return createGroups(refs);
     }
 
     @Handle(AddEntityToGroupEvent.class)
     public void handleAddEntityToGroupEvent(@Param(GroupParam) Group group,
                                             @Param(EntityRefParam) EntityRef member)
     {
-        final GroupComponent groupComponent = myComponentManager.getComponent(group, GroupComponent.class);
-        EntityRef[] members = groupComponent.getMembers();
+        ensureIndexed();
 
-        if (members == null)
+        myWriteLock.lock();
+        try
         {
-            members = new EntityRef[0];
-        }
+            final Map<UUID, EntityRef> groupMembers = getOrCreateEntry(myMembersByGroup, group.getId());
 
-        members = ArrayUtil.append(member, members);
+            if (groupMembers.put(member.getId(), member) != null)
+            {
+                return;
+            }
 
-        groupComponent.setMembers(members);
-        groupComponent.pushTo(group);
+            getOrCreateEntry(myGroupsByMember, member.getId()).put(group.getId(), group);
+            myDirtyGroups.put(group.getId(), group);
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
 
         myEventManager.post(
             EntityToGroupAddedEvent.class,
@@ -160,12 +328,25 @@ implements Disposable
     public void handleRemoveEntityFromGroupEvent(@Param(GroupParam) Group group,
                                                  @Param(EntityRefParam) EntityRef member)
     {
-        final GroupComponent groupComponent = myComponentManager.getComponent(group, GroupComponent.class);
-        final Set<EntityRef> members = new HashSet<EntityRef>(asList(groupComponent.getMembers()));
+        ensureIndexed();
+
+        myWriteLock.lock();
+        try
+        {
+            final Map<UUID, EntityRef> groupMembers = myMembersByGroup.get(group.getId());
 
-        members.remove(member);
-        groupComponent.setMembers(members.toArray(new EntityRef[members.size()]));
-        groupComponent.pushTo(group);
+            if (groupMembers == null || groupMembers.remove(member.getId()) == null)
+            {
+                return;
+            }
+
+            removeEntry(myGroupsByMember, member.getId(), group.getId());
+            myDirtyGroups.put(group.getId(), group);
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
 
         myEventManager.post(
             EntityFromGroupRemovedEvent.class,
@@ -175,25 +356,67 @@ implements Disposable
         );
     }
 
+    @Handle({EntityToGroupAddedEvent.class, EntityFromGroupRemovedEvent.class})
+    public void handleGroupMembershipChangedEvent()
+    {
+        syncGroups();
+    }
+
     public List<EntityRef> getEntitiesOfGroup(Group group)
     {
-        final GroupComponent groupComponent = myComponentManager.getComponent(group, GroupComponent.class);
-        final EntityRef[] members = groupComponent.getMembers();
+        ensureIndexed();
 
-        if (members == null || members.length == 0)
+        myReadLock.lock();
+        try
         {
-            return Collections.emptyList();
-        }
+            final Map<UUID, EntityRef> members = myMembersByGroup.get(group.getId());
+
+            if (members == null || members.isEmpty())
+            {
+                return Collections.emptyList();
+            }
 
-        return unmodifiableList(asList(members));
+            return unmodifiableList(new ArrayList<EntityRef>(members.values()));
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
     }
 
     public boolean isEntityMemberOfGroup(EntityRef ref, Group group)
     {
-        final GroupComponent groupComponent = myComponentManager.getComponent(group, GroupComponent.class);
-        final EntityRef[] members = groupComponent.getMembers();
+        ensureIndexed();
 
-        return members != null && asList(members).contains(ref);
+        myReadLock.lock();
+        try
+        {
+            final Map<UUID, EntityRef> members = myMembersByGroup.get(group.getId());
+            return members != null && members.containsKey(ref.getId());
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    @Override
+    public void reset(Context context)
+    {
+        myWriteLock.lock();
+        try
+        {
+            myGroupsByName.clear();
+            myNamesByGroup.clear();
+            myMembersByGroup.clear();
+            myGroupsByMember.clear();
+            myDirtyGroups.clear();
+            myIndexedRevision = -1;
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
     }
 
     @Override
@@ -201,4 +424,199 @@ implements Disposable
     {
         myEventManager.unsubscribe(context, this);
     }
+
+    private void ensureIndexed()
+    {
+        final long revision = myComponentStore.revisionOf(GroupComponent.class);
+
+        if (revision == myIndexedRevision)
+        {
+            return;
+        }
+
+        final Map<EntityRef, Component> groups = myComponentStore.copyComponents(GroupComponent.class);
+
+        myWriteLock.lock();
+        try
+        {
+            myGroupsByName.clear();
+            myNamesByGroup.clear();
+            myMembersByGroup.clear();
+            myGroupsByMember.clear();
+            myDirtyGroups.clear();
+
+            for (Map.Entry<EntityRef, Component> entry : groups.entrySet())
+            {
+                final GroupComponent component = (GroupComponent) entry.getValue();
+                indexGroup(entry.getKey(), component.getName(), component.getMembers());
+            }
+
+            myIndexedRevision = revision;
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
+    private void indexGroup(EntityRef ref, String name, EntityRef[] members)
+    {
+        final Map<UUID, EntityRef> groupMembers = new LinkedHashMap<UUID, EntityRef>();
+
+        if (members != null)
+        {
+            for (EntityRef member : members)
+            {
+                groupMembers.put(member.getId(), member);
+                getOrCreateEntry(myGroupsByMember, member.getId()).put(ref.getId(), ref);
+            }
+        }
+
+        if (!myGroupsByName.containsKey(name))
+        {
+            myGroupsByName.put(name, ref);
+        }
+
+        myNamesByGroup.put(ref.getId(), name);
+        myMembersByGroup.put(ref.getId(), groupMembers);
+    }
+
+    private void unindexGroup(UUID id)
+    {
+        if (!myNamesByGroup.containsKey(id))
+        {
+            return;
+        }
+
+        final String name = myNamesByGroup.remove(id);
+        final EntityRef named = myGroupsByName.get(name);
+
+        if (named != null && named.getId().equals(id))
+        {
+            myGroupsByName.remove(name);
+        }
+
+        myDirtyGroups.remove(id);
+
+        final Map<UUID, EntityRef> members = myMembersByGroup.remove(id);
+
+        if (members != null)
+        {
+            for (UUID member : members.keySet())
+            {
+                removeEntry(myGroupsByMember, member, id);
+            }
+        }
+    }
+
+    private void syncGroups()
+    {
+        mySyncLock.lock();
+        try
+        {
+            final Map<EntityRef, EntityRef[]> pending;
+
+            myWriteLock.lock();
+            try
+            {
+                if (myDirtyGroups.isEmpty())
+                {
+                    return;
+                }
+
+                pending = new LinkedHashMap<EntityRef, EntityRef[]>();
+
+                for (EntityRef group : myDirtyGroups.values())
+                {
+                    final Map<UUID, EntityRef> members = myMembersByGroup.get(group.getId());
+
+                    if (members != null)
+                    {
+                        pending.put(group, toArray(members.values()));
+                    }
+                }
+
+                myDirtyGroups.clear();
+            }
+            finally
+            {
+                myWriteLock.unlock();
+            }
+
+            for (Map.Entry<EntityRef, EntityRef[]> entry : pending.entrySet())
+            {
+                pushMembers(entry.getKey(), entry.getValue());
+            }
+        }
+        finally
+        {
+            mySyncLock.unlock();
+        }
+    }
+
+    private void pushMembers(EntityRef group, EntityRef[] members)
+    {
+        final GroupComponent component = myComponentStore.findComponent(group, GroupComponent.class);
+
+        if (component == null)
+        {
+            return;
+        }
+
+        component.setMembers(members);
+
+        try
+        {
+            myComponentStore.pushComponent(group, component);
+        }
+        catch (ComponentNotFoundException e)
+        {
+            // The group has been deleted concurrently.
+        }
+    }
+
+    private List<Group> createGroups(List<EntityRef> refs)
+    {
+        final List<Group> result = new ArrayList<Group>(refs.size());
+
+        for (EntityRef ref : refs)
+        {
+            result.add(GroupImpl.createGroup(ref));
+        }
+
+        return result;
+    }
+
+    private static Map<UUID, EntityRef> getOrCreateEntry(Map<UUID, Map<UUID, EntityRef>> index, UUID key)
+    {
+        Map<UUID, EntityRef> entry = index.get(key);
+
+        if (entry == null)
+        {
+            entry = new LinkedHashMap<UUID, EntityRef>();
+            index.put(key, entry);
+        }
+
+        return entry;
+    }
+
+    private static void removeEntry(Map<UUID, Map<UUID, EntityRef>> index, UUID key, UUID value)
+    {
+        final Map<UUID, EntityRef> entry = index.get(key);
+
+        if (entry != null)
+        {
+            entry.remove(value);
+
+            if (entry.isEmpty())
+            {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static EntityRef[] toArray(Collection<EntityRef> refs)
+    {
+        return refs.toArray(new EntityRef[refs.size()]);
+    }
 }
@@ -27,14 +27,11 @@ import org.jayware.e2.assembly.api.GroupEvent.GroupMembershipEvent.RemoveEntityF
 import org.jayware.e2.assembly.api.GroupManager;
 import org.jayware.e2.assembly.api.GroupManagerException;
 import org.jayware.e2.assembly.api.GroupNotFoundException;
-import org.jayware.e2.assembly.api.components.GroupComponent;
 import org.jayware.e2.context.api.Context;
-import org.jayware.e2.entity.api.EntityManager;
 import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.event.api.EventManager;
 import org.jayware.e2.util.Key;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -43,7 +40,6 @@ import static org.jayware.e2.assembly.api.GroupEvent.GroupMembershipEvent.AddEnt
 import static org.jayware.e2.assembly.api.GroupEvent.GroupMembershipEvent.EntityRefParam;
 import static org.jayware.e2.assembly.api.GroupEvent.GroupParam;
 import static org.jayware.e2.assembly.api.Preconditions.checkGroupNotNullAndValid;
-import static org.jayware.e2.component.api.Aspect.aspect;
 import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
 import static org.jayware.e2.context.api.Preconditions.checkContextualsNotNullAndSameContext;
 import static org.jayware.e2.entity.api.Preconditions.checkRefNotNullAndValid;
@@ -78,7 +74,10 @@ implements GroupManager
         checkContextNotNullAndNotDisposed(context);
         checkStringNotEmpty(name);
 
-        getOrCreateGroupHub(context);
+        if (getOrCreateGroupHub(context).findGroup(name) != null)
+        {
+            throw new IllegalArgumentException("A group with the name '" + name + "' already exists!");
+        }
 
         final EventManager eventManager = context.getService(EventManager.class);
 
@@ -133,25 +132,11 @@ implements GroupManager
     @Override
     public List<Group> findGroups(Context context)
     {
-        final EntityManager entityManager;
-        final List<EntityRef> entities;
-        final List<Group> result;
-
         checkContextNotNullAndNotDisposed(context);
 
         try
         {
-            entityManager = context.getService(EntityManager.class);
-            entities = entityManager.findEntities(context, aspect(GroupComponent.class));
-
-            result = new ArrayList<Group>(entities.size());
-
-            for (EntityRef entity : entities)
-            {
-                result.add(GroupImpl.createGroup(entity));
-            }
-
-            return result;
+            return getOrCreateGroupHub(context).findGroups();
         }
         catch (Exception e)
         {
@@ -162,32 +147,11 @@ implements GroupManager
     @Override
     public List<Group> findGroups(final EntityRef ref)
     {
-        final Context context;
-        final EntityManager entityManager;
-        final List<EntityRef> entities;
-        final List<Group> result;
-
         checkRefNotNullAndValid(ref);
 
         try
         {
-            context = ref.getContext();
-            entityManager = context.getService(EntityManager.class);
-            entities = entityManager.findEntities(context, aspect(GroupComponent.class));
-
-            result = new ArrayList<Group>();
-
-            for (EntityRef entity : entities)
-            {
-                final Group group = GroupImpl.createGroup(entity);
-
-                if (isEntityMemberOfGroup(ref, group))
-                {
-                    result.add(group);
-                }
-            }
-
-            return result;
+            return getOrCreateGroupHub(ref.getContext()).findGroups(ref);
         }
         catch (Exception e)
         {
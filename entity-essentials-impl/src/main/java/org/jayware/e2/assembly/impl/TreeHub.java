@@ -29,12 +29,18 @@ import org.jayware.e2.assembly.api.TreeEvent.DeletingTreeNodeEvent;
 import org.jayware.e2.assembly.api.TreeEvent.FindChildrenQuery;
 import org.jayware.e2.assembly.api.TreeEvent.RemoveChildNodeEvent;
 import org.jayware.e2.assembly.api.TreeEvent.TreeNodeCreatedEvent;
+import org.jayware.e2.assembly.api.TreeManagerException;
 import org.jayware.e2.assembly.api.TreeNode;
 import org.jayware.e2.assembly.api.components.TreeNodeComponent;
+import org.jayware.e2.assembly.impl.TreeIndex.Entry;
+import org.jayware.e2.component.api.Component;
 import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.component.api.ComponentNotFoundException;
+import org.jayware.e2.component.impl.ComponentStore;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Contextual;
 import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.context.api.Resettable;
 import org.jayware.e2.entity.api.EntityManager;
 import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.event.api.Event;
@@ -42,29 +48,49 @@ import org.jayware.e2.event.api.EventManager;
 import org.jayware.e2.event.api.Handle;
 import org.jayware.e2.event.api.Param;
 import org.jayware.e2.event.api.Query;
+import org.jayware.e2.storage.impl.StorageImpl;
 import org.jayware.e2.util.ObjectUtil;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-import static java.util.Arrays.asList;
 import static org.jayware.e2.assembly.api.TreeEvent.ChildNodeRemovedEvent.ParentNodeParam;
 import static org.jayware.e2.assembly.api.TreeEvent.FindChildrenQuery.ChildrenParam;
 import static org.jayware.e2.assembly.api.TreeEvent.NodeParam;
 import static org.jayware.e2.assembly.api.TreeEvent.NodePendantParam;
+import static org.jayware.e2.assembly.api.TreeEvent.TreeNodeDeletedEvent.SubtreeParam;
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
 import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
 import static org.jayware.e2.event.api.Parameters.param;
 import static org.jayware.e2.event.api.Presence.Optional;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
 
 
 public class TreeHub
-implements Disposable
+implements Disposable, Resettable
 {
     private final Context myContext;
     private final EntityManager myEntityManager;
     private final ComponentManager myComponentManager;
     private final EventManager myEventManager;
+    private final ComponentStore myComponentStore;
+
+    private final TreeIndex myIndex;
+    private Map<UUID, EntityRef> myDirtyNodes;
+
+    private final Lock myReadLock;
+    private final Lock myWriteLock;
+    private final Lock mySyncLock;
+
+    private volatile long myIndexedRevision = -1;
 
     TreeHub(Context context)
     {
@@ -72,6 +98,15 @@ implements Disposable
         myEntityManager = myContext.getService(EntityManager.class);
         myComponentManager = myContext.getService(ComponentManager.class);
         myEventManager = myContext.getService(EventManager.class);
+        myComponentStore = myContext.get(COMPONENT_STORE);
+
+        myIndex = new TreeIndex();
+        myDirtyNodes = new LinkedHashMap<UUID, EntityRef>();
+
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        myReadLock = lock.readLock();
+        myWriteLock = lock.writeLock();
+        mySyncLock = new ReentrantLock();
 
         myEventManager.subscribe(myContext, this);
     }
@@ -86,7 +121,19 @@ implements Disposable
         component.setPendant(pendant);
         component.pushTo(ref);
 
-        treeNode = new TreeNodeImpl(ref);
+        ensureIndexed();
+
+        myWriteLock.lock();
+        try
+        {
+            myIndex.add(ref, pendant);
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+
+        treeNode = new TreeNodeImpl(ref, pendant);
 
         fireTreeNodeCreatedEvent(treeNode, pendant);
 
@@ -99,61 +146,104 @@ implements Disposable
     @Handle(DeleteTreeNodeEvent.class)
     public void handleDeleteTreeNodeEvent(@Param(NodeParam) TreeNode node)
     {
-        fireDeletingTreeNodeEvent(node);
+        final List<Entry> subtree;
+        final Entry parent;
 
-        final EntityRef nodeRef = node.getNodeRef();
-        final TreeNodeComponent nodeComponent = myComponentManager.getComponent(nodeRef, TreeNodeComponent.class);
+        ensureIndexed();
 
-        if (nodeComponent.getParent() != null)
+        myReadLock.lock();
+        try
         {
-            fireRemoveChildEvent(node);
+            getEntry(node);
+        }
+        finally
+        {
+            myReadLock.unlock();
         }
 
-        if (nodeComponent.getChildren() != null)
+        fireDeletingTreeNodeEvent(node);
+
+        myWriteLock.lock();
+        try
         {
-            for (EntityRef childRef : nodeComponent.getChildren())
+            final Entry entry = myIndex.get(node.getNodeRef());
+
+            if (entry == null)
             {
-                if (childRef != null)
-                {
-                    fireDeleteTreeNodeEvent(new TreeNodeImpl(childRef));
-                }
+                // The node has been deleted concurrently.
+                return;
+            }
+
+            parent = entry.getParent();
+            subtree = myIndex.remove(entry);
+
+            for (Entry removed : subtree)
+            {
+                myDirtyNodes.remove(removed.getNodeRef().getId());
             }
+
+            if (parent != null)
+            {
+                markDirty(parent);
+            }
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+
+        if (parent != null)
+        {
+            fireChildNodeRemovedEvent(new TreeNodeImpl(parent), node);
         }
 
-        myEntityManager.deleteEntity(nodeRef);
+        final List<EntityRef> refs = new ArrayList<EntityRef>(subtree.size());
+        final List<TreeNode> nodes = new ArrayList<TreeNode>(subtree.size());
 
-        fireTreeNodeDeletedEvent(node);
+        for (Entry entry : subtree)
+        {
+            refs.add(entry.getNodeRef());
+            nodes.add(new TreeNodeImpl(entry));
+        }
+
+        ((StorageImpl) myContext.get(STORAGE_KEY)).deleteEntities(refs);
+
+        fireTreeNodeDeletedEvent(node, nodes);
     }
 
     @Handle(AddChildNodeEvent.class)
     public void handleAddChildNodeEvent(@Param(ParentNodeParam) TreeNode parent, @Param(NodeParam) TreeNode child)
     {
-        final EntityRef parentNodeRef = parent.getNodeRef();
-        final EntityRef childNodeRef = child.getNodeRef();
+        final Entry previousParent;
 
-        final TreeNodeComponent parentComponent = myComponentManager.getComponent(parentNodeRef, TreeNodeComponent.class);
-        final TreeNodeComponent childComponent = myComponentManager.getComponent(childNodeRef, TreeNodeComponent.class);
+        ensureIndexed();
 
-        if (childComponent.getParent() != null)
+        myWriteLock.lock();
+        try
         {
-            fireRemoveChildEvent(child);
-            childComponent.pullFrom(childNodeRef);
-        }
+            final Entry parentEntry = getEntry(parent);
+            final Entry childEntry = getEntry(child);
+
+            previousParent = childEntry.getParent();
+            myIndex.attach(childEntry, parentEntry);
 
-        final List<EntityRef> children = new ArrayList<EntityRef>();
+            if (previousParent != null)
+            {
+                markDirty(previousParent);
+            }
 
-        if (parentComponent.getChildren() != null)
+            markDirty(parentEntry);
+            markDirty(childEntry);
+        }
+        finally
         {
-            children.addAll(asList(parentComponent.getChildren()));
+            myWriteLock.unlock();
         }
 
-        children.add(childNodeRef);
-
-        parentComponent.setChildren(children.toArray(new EntityRef[children.size()]));
-        parentComponent.pushTo(parentNodeRef);
-
-        childComponent.setParent(parentNodeRef);
-        childComponent.pushTo(childNodeRef);
+        if (previousParent != null)
+        {
+            fireChildNodeRemovedEvent(new TreeNodeImpl(previousParent), child);
+        }
 
         fireChildNodeAddedEvent(parent, child);
     }
@@ -161,38 +251,44 @@ implements Disposable
     @Handle(RemoveChildNodeEvent.class)
     public void handleRemoveChildNodeEvent(@Param(NodeParam) TreeNode child)
     {
-        final EntityRef childRef;
-        final EntityRef parentRef;
-        final TreeNodeComponent parentComponent;
-        final TreeNodeComponent childComponent;
+        final Entry parent;
 
-        childRef = child.getNodeRef();
-        childComponent = myComponentManager.getComponent(childRef, TreeNodeComponent.class);
+        ensureIndexed();
 
-        if (childComponent.getParent() != null)
+        myWriteLock.lock();
+        try
         {
-            final TreeNode parent = child.getParent();
-            List<EntityRef> children;
+            final Entry childEntry = getEntry(child);
 
-            parentRef = parent.getNodeRef();
-            parentComponent = myComponentManager.getComponent(parentRef, TreeNodeComponent.class);
+            parent = childEntry.getParent();
 
-            children = asList(parentComponent.getChildren());
-            children.remove(childRef);
-            childComponent.pushTo(childRef);
+            if (parent == null)
+            {
+                return;
+            }
 
-            childComponent.setParent(null);
-            parentComponent.pushTo(parentRef);
+            myIndex.detach(childEntry);
 
-            fireChildNodeRemovedEvent(parent, child);
+            markDirty(parent);
+            markDirty(childEntry);
         }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+
+        fireChildNodeRemovedEvent(new TreeNodeImpl(parent), child);
+    }
+
+    @Handle({ChildNodeAddedEvent.class, ChildNodeRemovedEvent.class})
+    public void handleChildNodeChangedEvent()
+    {
+        syncNodes();
     }
 
     @Handle(FindChildrenQuery.class)
     public void handleFindChildrenQuery(Query query, @Param(NodeParam) TreeNode node, @Param(value = ChildrenParam, presence = Optional) List<TreeNode> children)
     {
-        final TreeNodeComponent nodeComponent;
-
         if (children == null)
         {
             children = new ArrayList<TreeNode>();
@@ -202,22 +298,348 @@ implements Disposable
             children.clear();
         }
 
-        nodeComponent = myComponentManager.getComponent(node.getNodeRef(), TreeNodeComponent.class);
+        final Entry entry;
 
-        for (EntityRef entityRef : nodeComponent.getChildren())
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
         {
-            children.add(new TreeNodeImpl(entityRef));
+            entry = myIndex.get(node.getNodeRef());
+
+            if (entry != null)
+            {
+                children.addAll(toTreeNodes(entry.getChildren()));
+            }
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+
+        if (entry == null)
+        {
+            final TreeNodeComponent nodeComponent = myComponentManager.getComponent(node.getNodeRef(), TreeNodeComponent.class);
+
+            for (EntityRef entityRef : nodeComponent.getChildren())
+            {
+                children.add(new TreeNodeImpl(entityRef));
+            }
         }
 
         query.result(ChildrenParam, children);
     }
 
+    public int depthOf(TreeNode node)
+    {
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
+        {
+            return getEntry(node).getDepth();
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    public int sizeOf(TreeNode node)
+    {
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
+        {
+            return getEntry(node).getSize();
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    public List<TreeNode> preOrderOf(TreeNode node)
+    {
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
+        {
+            return toTreeNodes(myIndex.preOrder(getEntry(node)));
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    public List<TreeNode> postOrderOf(TreeNode node)
+    {
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
+        {
+            return toTreeNodes(myIndex.postOrder(getEntry(node)));
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    public List<TreeNode> ancestorsOf(TreeNode node)
+    {
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
+        {
+            return toTreeNodes(myIndex.ancestors(getEntry(node)));
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    @Override
+    public void reset(Context context)
+    {
+        myWriteLock.lock();
+        try
+        {
+            myIndex.clear();
+            myDirtyNodes.clear();
+            myIndexedRevision = -1;
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
     @Override
     public void dispose(Context context)
     {
         myEventManager.unsubscribe(context, this);
     }
 
+    private EntityRef findPendant(EntityRef ref)
+    {
+        ensureIndexed();
+
+        myReadLock.lock();
+        try
+        {
+            final Entry entry = myIndex.get(ref);
+
+            if (entry != null)
+            {
+                return entry.getPendantRef();
+            }
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+
+        return myComponentManager.getComponent(ref, TreeNodeComponent.class).getPendant();
+    }
+
+    private Entry getEntry(TreeNode node)
+    {
+        final Entry entry = myIndex.get(node.getNodeRef());
+
+        if (entry == null)
+        {
+            throw new TreeManagerException("The node '" + node.getNodeRef() + "' is not part of a tree in '" + myContext + "'!");
+        }
+
+        return entry;
+    }
+
+    private void ensureIndexed()
+    {
+        final long revision = myComponentStore.revisionOf(TreeNodeComponent.class);
+
+        if (revision == myIndexedRevision)
+        {
+            return;
+        }
+
+        // Only the marks taken before the components are copied are dropped by the rebuild, marks taken meanwhile
+        // go to a fresh map and survive it.
+        myWriteLock.lock();
+        try
+        {
+            myDirtyNodes = new LinkedHashMap<UUID, EntityRef>();
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+
+        final Map<EntityRef, Component> components = myComponentStore.copyComponents(TreeNodeComponent.class);
+        final Map<UUID, TreeNodeComponent> nodes = new HashMap<UUID, TreeNodeComponent>(components.size());
+
+        myWriteLock.lock();
+        try
+        {
+            myIndex.clear();
+
+            for (Map.Entry<EntityRef, Component> entry : components.entrySet())
+            {
+                final TreeNodeComponent component = (TreeNodeComponent) entry.getValue();
+                myIndex.add(entry.getKey(), component.getPendant());
+                nodes.put(entry.getKey().getId(), component);
+            }
+
+            // Attach the children in the order recorded by their parent first, then any node whose parent lost track of it.
+            for (Map.Entry<EntityRef, Component> entry : components.entrySet())
+            {
+                final EntityRef[] children = ((TreeNodeComponent) entry.getValue()).getChildren();
+
+                if (children != null)
+                {
+                    for (EntityRef child : children)
+                    {
+                        final TreeNodeComponent childComponent = child != null ? nodes.get(child.getId()) : null;
+
+                        if (childComponent != null && isParentOf(entry.getKey(), childComponent))
+                        {
+                            attach(child, entry.getKey());
+                        }
+                    }
+                }
+            }
+
+            for (Map.Entry<EntityRef, Component> entry : components.entrySet())
+            {
+                final EntityRef parent = ((TreeNodeComponent) entry.getValue()).getParent();
+
+                if (parent != null && myIndex.get(entry.getKey()).getParent() == null)
+                {
+                    attach(entry.getKey(), parent);
+                }
+            }
+
+            myIndexedRevision = revision;
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
+    private void attach(EntityRef child, EntityRef parent)
+    {
+        final Entry childEntry = myIndex.get(child);
+        final Entry parentEntry = myIndex.get(parent);
+
+        if (childEntry == null || parentEntry == null)
+        {
+            return;
+        }
+
+        try
+        {
+            myIndex.attach(childEntry, parentEntry);
+        }
+        catch (TreeManagerException e)
+        {
+            // Inconsistent components must not prevent the rest of the tree from being indexed.
+        }
+    }
+
+    private static boolean isParentOf(EntityRef ref, TreeNodeComponent component)
+    {
+        return component.getParent() != null && component.getParent().getId().equals(ref.getId());
+    }
+
+    private void markDirty(Entry entry)
+    {
+        myDirtyNodes.put(entry.getNodeRef().getId(), entry.getNodeRef());
+    }
+
+    private void syncNodes()
+    {
+        mySyncLock.lock();
+        try
+        {
+            final List<EntityRef> refs = new ArrayList<EntityRef>();
+            final List<EntityRef> parents = new ArrayList<EntityRef>();
+            final List<EntityRef[]> children = new ArrayList<EntityRef[]>();
+
+            myWriteLock.lock();
+            try
+            {
+                for (EntityRef ref : myDirtyNodes.values())
+                {
+                    final Entry entry = myIndex.get(ref);
+
+                    if (entry != null)
+                    {
+                        refs.add(ref);
+                        parents.add(entry.getParent() != null ? entry.getParent().getNodeRef() : null);
+                        children.add(entry.getChildRefs());
+                    }
+                }
+
+                myDirtyNodes.clear();
+            }
+            finally
+            {
+                myWriteLock.unlock();
+            }
+
+            for (int i = 0; i < refs.size(); ++i)
+            {
+                pushNode(refs.get(i), parents.get(i), children.get(i));
+            }
+        }
+        finally
+        {
+            mySyncLock.unlock();
+        }
+    }
+
+    private void pushNode(EntityRef ref, EntityRef parent, EntityRef[] children)
+    {
+        final TreeNodeComponent component = myComponentStore.findComponent(ref, TreeNodeComponent.class);
+
+        if (component == null)
+        {
+            return;
+        }
+
+        component.setParent(parent);
+        component.setChildren(children);
+
+        try
+        {
+            myComponentStore.pushComponent(ref, component);
+        }
+        catch (ComponentNotFoundException e)
+        {
+            // The node has been deleted concurrently.
+        }
+    }
+
+    private List<TreeNode> toTreeNodes(List<Entry> entries)
+    {
+        final List<TreeNode> result = new ArrayList<TreeNode>(entries.size());
+
+        for (Entry entry : entries)
+        {
+            result.add(new TreeNodeImpl(entry));
+        }
+
+        return result;
+    }
+
     private void fireTreeNodeCreatedEvent(TreeNode treeNode, EntityRef pendant)
     {
         myEventManager.post(
@@ -228,15 +650,6 @@ implements Disposable
         );
     }
 
-    private void fireDeleteTreeNodeEvent(TreeNode node)
-    {
-        myEventManager.send(
-            DeleteTreeNodeEvent.class,
-            param(ContextParam, myContext),
-            param(NodeParam, node)
-        );
-    }
-
     private void fireDeletingTreeNodeEvent(TreeNode node)
     {
         myEventManager.send(
@@ -247,13 +660,14 @@ implements Disposable
         );
     }
 
-    private void fireTreeNodeDeletedEvent(TreeNode node)
+    private void fireTreeNodeDeletedEvent(TreeNode node, List<TreeNode> subtree)
     {
         myEventManager.send(
             TreeEvent.TreeNodeDeletedEvent.class,
             param(ContextParam, myContext),
             param(NodeParam, node),
-            param(NodePendantParam, node.getPendantRef())
+            param(NodePendantParam, node.getPendantRef()),
+            param(SubtreeParam, subtree)
         );
     }
 
@@ -300,29 +714,55 @@ implements Disposable
     implements TreeNode
     {
         private final EntityRef myNodeRef;
-        private final TreeNodeComponent myNodeComponent;
-
         private final EntityRef myPendantRef;
 
         public TreeNodeImpl(EntityRef ref)
+        {
+            this(ref, findPendant(ref));
+        }
+
+        public TreeNodeImpl(Entry entry)
+        {
+            this(entry.getNodeRef(), entry.getPendantRef());
+        }
+
+        public TreeNodeImpl(EntityRef ref, EntityRef pendant)
         {
             myNodeRef = ref;
-            myNodeComponent = myComponentManager.getComponent(myNodeRef, TreeNodeComponent.class);
-            myPendantRef = myNodeComponent.getPendant();
+            myPendantRef = pendant;
         }
 
         @Override
         public TreeNode getParent()
         {
-            myComponentManager.pullComponent(myNodeRef, myNodeComponent);
-            return new TreeNodeImpl(myNodeComponent.getParent());
+            ensureIndexed();
+
+            myReadLock.lock();
+            try
+            {
+                final Entry parent = getEntry(this).getParent();
+                return parent != null ? new TreeNodeImpl(parent) : null;
+            }
+            finally
+            {
+                myReadLock.unlock();
+            }
         }
 
         @Override
         public boolean hasParent()
         {
-            myComponentManager.pullComponent(myNodeRef, myNodeComponent);
-            return myNodeComponent.getParent() != null;
+            ensureIndexed();
+
+            myReadLock.lock();
+            try
+            {
+                return getEntry(this).getParent() != null;
+            }
+            finally
+            {
+                myReadLock.unlock();
+            }
         }
 
         @Override
@@ -340,18 +780,17 @@ implements Disposable
         @Override
         public List<TreeNode> children()
         {
-            final List<TreeNode> result = new ArrayList<TreeNode>();
-            myComponentManager.pullComponent(myNodeRef, myNodeComponent);
+            ensureIndexed();
 
-            if (myNodeComponent.getChildren() != null)
+            myReadLock.lock();
+            try
             {
-                for (EntityRef ref : myNodeComponent.getChildren())
-                {
-                    result.add(new TreeNodeImpl(ref));
-                }
+                return toTreeNodes(getEntry(this).getChildren());
+            }
+            finally
+            {
+                myReadLock.unlock();
             }
-
-            return result;
         }
 
         @Override
@@ -0,0 +1,240 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.assembly.impl;
+
+
+import org.jayware.e2.assembly.api.TreeManagerException;
+import org.jayware.e2.entity.api.EntityRef;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+
+class TreeIndex
+{
+    private final Map<UUID, Entry> myEntries = new HashMap<UUID, Entry>();
+
+    Entry add(EntityRef nodeRef, EntityRef pendantRef)
+    {
+        final Entry entry = new Entry(nodeRef, pendantRef);
+        myEntries.put(nodeRef.getId(), entry);
+        return entry;
+    }
+
+    Entry get(EntityRef nodeRef)
+    {
+        return myEntries.get(nodeRef.getId());
+    }
+
+    void clear()
+    {
+        myEntries.clear();
+    }
+
+    void attach(Entry child, Entry parent)
+    {
+        for (Entry ancestor = parent; ancestor != null; ancestor = ancestor.myParent)
+        {
+            if (ancestor == child)
+            {
+                throw new TreeManagerException("A node cannot become a descendant of itself!");
+            }
+        }
+
+        detach(child);
+
+        child.myParent = parent;
+        parent.myChildren.put(child.getNodeRef().getId(), child);
+
+        for (Entry ancestor = parent; ancestor != null; ancestor = ancestor.myParent)
+        {
+            ancestor.mySize += child.mySize;
+        }
+    }
+
+    void detach(Entry child)
+    {
+        final Entry parent = child.myParent;
+
+        if (parent == null)
+        {
+            return;
+        }
+
+        parent.myChildren.remove(child.getNodeRef().getId());
+        child.myParent = null;
+
+        for (Entry ancestor = parent; ancestor != null; ancestor = ancestor.myParent)
+        {
+            ancestor.mySize -= child.mySize;
+        }
+    }
+
+    List<Entry> remove(Entry root)
+    {
+        detach(root);
+
+        final List<Entry> result = postOrder(root);
+
+        for (Entry entry : result)
+        {
+            myEntries.remove(entry.getNodeRef().getId());
+        }
+
+        return result;
+    }
+
+    List<Entry> preOrder(Entry root)
+    {
+        final List<Entry> result = new ArrayList<Entry>(root.mySize);
+        final Deque<Entry> stack = new ArrayDeque<Entry>();
+
+        stack.push(root);
+
+        while (!stack.isEmpty())
+        {
+            final Entry entry = stack.pop();
+            result.add(entry);
+
+            final List<Entry> children = entry.getChildren();
+            for (int i = children.size() - 1; i >= 0; --i)
+            {
+                stack.push(children.get(i));
+            }
+        }
+
+        return result;
+    }
+
+    List<Entry> postOrder(Entry root)
+    {
+        final List<Entry> result = new ArrayList<Entry>(root.mySize);
+        final Deque<Entry> stack = new ArrayDeque<Entry>();
+        final Deque<Iterator<Entry>> iterators = new ArrayDeque<Iterator<Entry>>();
+
+        stack.push(root);
+        iterators.push(root.myChildren.values().iterator());
+
+        while (!stack.isEmpty())
+        {
+            final Iterator<Entry> iterator = iterators.peek();
+
+            if (iterator.hasNext())
+            {
+                final Entry child = iterator.next();
+                stack.push(child);
+                iterators.push(child.myChildren.values().iterator());
+            }
+            else
+            {
+                iterators.pop();
+                result.add(stack.pop());
+            }
+        }
+
+        return result;
+    }
+
+    List<Entry> ancestors(Entry entry)
+    {
+        final List<Entry> result = new ArrayList<Entry>();
+
+        for (Entry ancestor = entry.myParent; ancestor != null; ancestor = ancestor.myParent)
+        {
+            result.add(ancestor);
+        }
+
+        return result;
+    }
+
+    static class Entry
+    {
+        private final EntityRef myNodeRef;
+        private final EntityRef myPendantRef;
+        private final Map<UUID, Entry> myChildren;
+
+        private Entry myParent;
+        private int mySize;
+
+        private Entry(EntityRef nodeRef, EntityRef pendantRef)
+        {
+            myNodeRef = nodeRef;
+            myPendantRef = pendantRef;
+            myChildren = new LinkedHashMap<UUID, Entry>();
+            mySize = 1;
+        }
+
+        EntityRef getNodeRef()
+        {
+            return myNodeRef;
+        }
+
+        EntityRef getPendantRef()
+        {
+            return myPendantRef;
+        }
+
+        Entry getParent()
+        {
+            return myParent;
+        }
+
+        List<Entry> getChildren()
+        {
+            return new ArrayList<Entry>(myChildren.values());
+        }
+
+        EntityRef[] getChildRefs()
+        {
+            final EntityRef[] result = new EntityRef[myChildren.size()];
+            int index = 0;
+
+            for (Entry child : myChildren.values())
+            {
+                result[index++] = child.myNodeRef;
+            }
+
+            return result;
+        }
+
+        int getDepth()
+        {
+            int depth = 0;
+
+            for (Entry ancestor = myParent; ancestor != null; ancestor = ancestor.myParent)
+            {
+                ++depth;
+            }
+
+            return depth;
+        }
+
+        int getSize()
+        {
+            return mySize;
+        }
+    }
+}
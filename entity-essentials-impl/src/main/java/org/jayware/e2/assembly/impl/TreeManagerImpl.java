@@ -116,6 +116,46 @@ implements TreeManager
         return resultSet.resultOf(ChildrenParam);
     }
 
+    @Override
+    public int depthOf(TreeNode node)
+    {
+        checkNodeNotNullAndValid(node);
+        return getTreeHub(node).depthOf(node);
+    }
+
+    @Override
+    public int sizeOf(TreeNode node)
+    {
+        checkNodeNotNullAndValid(node);
+        return getTreeHub(node).sizeOf(node);
+    }
+
+    @Override
+    public List<TreeNode> preOrderOf(TreeNode node)
+    {
+        checkNodeNotNullAndValid(node);
+        return getTreeHub(node).preOrderOf(node);
+    }
+
+    @Override
+    public List<TreeNode> postOrderOf(TreeNode node)
+    {
+        checkNodeNotNullAndValid(node);
+        return getTreeHub(node).postOrderOf(node);
+    }
+
+    @Override
+    public List<TreeNode> ancestorsOf(TreeNode node)
+    {
+        checkNodeNotNullAndValid(node);
+        return getTreeHub(node).ancestorsOf(node);
+    }
+
+    private TreeHub getTreeHub(TreeNode node)
+    {
+        return node.getContext().get(TREE_HUB);
+    }
+
     private ResultSet await(ResultSet resultSet)
     {
         if (!resultSet.await(Success, 30, SECONDS))
@@ -0,0 +1,501 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.impl.StorageImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.Charset;
+import java.util.UUID;
+
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+import static org.jayware.e2.util.IOUtil.closeQuietly;
+
+
+public class ComponentCodecSupport
+{
+    public static final byte TAG_BOOLEAN = 1;
+    public static final byte TAG_BYTE = 2;
+    public static final byte TAG_SHORT = 3;
+    public static final byte TAG_CHAR = 4;
+    public static final byte TAG_INT = 5;
+    public static final byte TAG_LONG = 6;
+    public static final byte TAG_FLOAT = 7;
+    public static final byte TAG_DOUBLE = 8;
+    public static final byte TAG_BOOLEAN_OBJECT = 9;
+    public static final byte TAG_BYTE_OBJECT = 10;
+    public static final byte TAG_SHORT_OBJECT = 11;
+    public static final byte TAG_CHAR_OBJECT = 12;
+    public static final byte TAG_INT_OBJECT = 13;
+    public static final byte TAG_LONG_OBJECT = 14;
+    public static final byte TAG_FLOAT_OBJECT = 15;
+    public static final byte TAG_DOUBLE_OBJECT = 16;
+    public static final byte TAG_STRING = 17;
+    public static final byte TAG_ENTITY_REF = 18;
+    public static final byte TAG_ENUM = 19;
+    public static final byte TAG_BOOLEAN_ARRAY = 20;
+    public static final byte TAG_BYTE_ARRAY = 21;
+    public static final byte TAG_SHORT_ARRAY = 22;
+    public static final byte TAG_CHAR_ARRAY = 23;
+    public static final byte TAG_INT_ARRAY = 24;
+    public static final byte TAG_LONG_ARRAY = 25;
+    public static final byte TAG_FLOAT_ARRAY = 26;
+    public static final byte TAG_DOUBLE_ARRAY = 27;
+    public static final byte TAG_SERIALIZABLE = 28;
+    public static final byte TAG_ENTITY_REF_ARRAY = 29;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final Class<?>[] ourTagTypes = {
+        null,
+        boolean.class, byte.class, short.class, char.class, int.class, long.class, float.class, double.class,
+        Boolean.class, Byte.class, Short.class, Character.class, Integer.class, Long.class, Float.class, Double.class,
+        String.class, EntityRef.class, null,
+        boolean[].class, byte[].class, short[].class, char[].class, int[].class, long[].class, float[].class, double[].class,
+        null, EntityRef[].class
+    };
+
+    private ComponentCodecSupport()
+    {
+    }
+
+    public static byte tagOf(Class<?> type)
+    {
+        for (byte tag = 1; tag < ourTagTypes.length; ++tag)
+        {
+            if (type.equals(ourTagTypes[tag]))
+            {
+                return tag;
+            }
+        }
+
+        return type.isEnum() ? TAG_ENUM : TAG_SERIALIZABLE;
+    }
+
+    public static void writeValue(DataOutput out, byte tag, Object value)
+    throws IOException
+    {
+        if (tag <= TAG_DOUBLE)
+        {
+            writePrimitive(out, tag, value);
+            return;
+        }
+
+        out.writeBoolean(value != null);
+
+        if (value == null)
+        {
+            return;
+        }
+
+        switch (tag)
+        {
+            case TAG_BOOLEAN_OBJECT:
+            case TAG_BYTE_OBJECT:
+            case TAG_SHORT_OBJECT:
+            case TAG_CHAR_OBJECT:
+            case TAG_INT_OBJECT:
+            case TAG_LONG_OBJECT:
+            case TAG_FLOAT_OBJECT:
+            case TAG_DOUBLE_OBJECT:
+                writePrimitive(out, (byte) (tag - TAG_DOUBLE), value);
+                break;
+            case TAG_STRING:
+                writeString(out, (String) value);
+                break;
+            case TAG_ENTITY_REF:
+                writeUUID(out, ((EntityRef) value).getId());
+                break;
+            case TAG_ENUM:
+                writeString(out, ((Enum<?>) value).name());
+                break;
+            case TAG_BOOLEAN_ARRAY:
+            {
+                final boolean[] array = (boolean[]) value;
+                out.writeInt(array.length);
+                for (boolean element : array)
+                {
+                    out.writeBoolean(element);
+                }
+                break;
+            }
+            case TAG_BYTE_ARRAY:
+            {
+                final byte[] array = (byte[]) value;
+                out.writeInt(array.length);
+                out.write(array);
+                break;
+            }
+            case TAG_SHORT_ARRAY:
+            {
+                final short[] array = (short[]) value;
+                out.writeInt(array.length);
+                for (short element : array)
+                {
+                    out.writeShort(element);
+                }
+                break;
+            }
+            case TAG_CHAR_ARRAY:
+            {
+                final char[] array = (char[]) value;
+                out.writeInt(array.length);
+                for (char element : array)
+                {
+                    out.writeChar(element);
+                }
+                break;
+            }
+            case TAG_INT_ARRAY:
+            {
+                final int[] array = (int[]) value;
+                out.writeInt(array.length);
+                for (int element : array)
+                {
+                    out.writeInt(element);
+                }
+                break;
+            }
+            case TAG_LONG_ARRAY:
+            {
+                final long[] array = (long[]) value;
+                out.writeInt(array.length);
+                for (long element : array)
+                {
+                    out.writeLong(element);
+                }
+                break;
+            }
+            case TAG_FLOAT_ARRAY:
+            {
+                final float[] array = (float[]) value;
+                out.writeInt(array.length);
+                for (float element : array)
+                {
+                    out.writeFloat(element);
+                }
+                break;
+            }
+            case TAG_DOUBLE_ARRAY:
+            {
+                final double[] array = (double[]) value;
+                out.writeInt(array.length);
+                for (double element : array)
+                {
+                    out.writeDouble(element);
+                }
+                break;
+            }
+            case TAG_ENTITY_REF_ARRAY:
+            {
+                final EntityRef[] array = (EntityRef[]) value;
+                out.writeInt(array.length);
+                for (EntityRef element : array)
+                {
+                    out.writeBoolean(element != null);
+                    if (element != null)
+                    {
+                        writeUUID(out, element.getId());
+                    }
+                }
+                break;
+            }
+            case TAG_SERIALIZABLE:
+                writeSerializable(out, value);
+                break;
+            default:
+                throw new IOException("Unknown tag: " + tag);
+        }
+    }
+
+    public static Object readValue(DataInput in, byte tag, Class<?> type, Context context)
+    throws IOException
+    {
+        if (tag <= TAG_DOUBLE)
+        {
+            return readPrimitive(in, tag);
+        }
+
+        if (!in.readBoolean())
+        {
+            return null;
+        }
+
+        switch (tag)
+        {
+            case TAG_BOOLEAN_OBJECT:
+            case TAG_BYTE_OBJECT:
+            case TAG_SHORT_OBJECT:
+            case TAG_CHAR_OBJECT:
+            case TAG_INT_OBJECT:
+            case TAG_LONG_OBJECT:
+            case TAG_FLOAT_OBJECT:
+            case TAG_DOUBLE_OBJECT:
+                return readPrimitive(in, (byte) (tag - TAG_DOUBLE));
+            case TAG_STRING:
+                return readString(in);
+            case TAG_ENTITY_REF:
+                return resolveEntity(context, readUUID(in));
+            case TAG_ENUM:
+            {
+                final String name = readString(in);
+                return type != null && type.isEnum() ? enumConstantOf(type, name) : null;
+            }
+            case TAG_BOOLEAN_ARRAY:
+            {
+                final boolean[] array = new boolean[in.readInt()];
+                for (int i = 0; i < array.length; ++i)
+                {
+                    array[i] = in.readBoolean();
+                }
+                return array;
+            }
+            case TAG_BYTE_ARRAY:
+            {
+                final byte[] array = new byte[in.readInt()];
+                in.readFully(array);
+                return array;
+            }
+            case TAG_SHORT_ARRAY:
+            {
+                final short[] array = new short[in.readInt()];
+                for (int i = 0; i < array.length; ++i)
+                {
+                    array[i] = in.readShort();
+                }
+                return array;
+            }
+            case TAG_CHAR_ARRAY:
+            {
+                final char[] array = new char[in.readInt()];
+                for (int i = 0; i < array.length; ++i)
+                {
+                    array[i] = in.readChar();
+                }
+                return array;
+            }
+            case TAG_INT_ARRAY:
+            {
+                final int[] array = new int[in.readInt()];
+                for (int i = 0; i < array.length; ++i)
+                {
+                    array[i] = in.readInt();
+                }
+                return array;
+            }
+            case TAG_LONG_ARRAY:
+            {
+                final long[] array = new long[in.readInt()];
+                for (int i = 0; i < array.length; ++i)
+                {
+                    array[i] = in.readLong();
+                }
+                return array;
+            }
+            case TAG_FLOAT_ARRAY:
+            {
+                final float[] array = new float[in.readInt()];
+                for (int i = 0; i < array.length; ++i)
+                {
+                    array[i] = in.readFloat();
+                }
+                return array;
+            }
+            case TAG_DOUBLE_ARRAY:
+            {
+                final double[] array = new double[in.readInt()];
+                for (int i = 0; i < array.length; ++i)
+                {
+                    array[i] = in.readDouble();
+                }
+                return array;
+            }
+            case TAG_ENTITY_REF_ARRAY:
+            {
+                final EntityRef[] array = new EntityRef[in.readInt()];
+                for (int i = 0; i < array.length; ++i)
+                {
+                    array[i] = in.readBoolean() ? resolveEntity(context, readUUID(in)) : null;
+                }
+                return array;
+            }
+            case TAG_SERIALIZABLE:
+                return readSerializable(in);
+            default:
+                throw new IOException("Unknown tag: " + tag);
+        }
+    }
+
+    public static void writeString(DataOutput out, String value)
+    throws IOException
+    {
+        final byte[] bytes = value.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in)
+    throws IOException
+    {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    public static void writeUUID(DataOutput out, UUID id)
+    throws IOException
+    {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    public static UUID readUUID(DataInput in)
+    throws IOException
+    {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    public static Object enumConstantOf(Class<?> type, String name)
+    {
+        for (Object constant : type.getEnumConstants())
+        {
+            if (((Enum<?>) constant).name().equals(name))
+            {
+                return constant;
+            }
+        }
+
+        throw new IllegalArgumentException("No enum constant " + type.getName() + "." + name);
+    }
+
+    private static EntityRef resolveEntity(Context context, UUID id)
+    {
+        return ((StorageImpl) context.get(STORAGE_KEY)).resolveEntity(id);
+    }
+
+    private static void writePrimitive(DataOutput out, byte tag, Object value)
+    throws IOException
+    {
+        switch (tag)
+        {
+            case TAG_BOOLEAN:
+                out.writeBoolean((Boolean) value);
+                break;
+            case TAG_BYTE:
+                out.writeByte((Byte) value);
+                break;
+            case TAG_SHORT:
+                out.writeShort((Short) value);
+                break;
+            case TAG_CHAR:
+                out.writeChar((Character) value);
+                break;
+            case TAG_INT:
+                out.writeInt((Integer) value);
+                break;
+            case TAG_LONG:
+                out.writeLong((Long) value);
+                break;
+            case TAG_FLOAT:
+                out.writeFloat((Float) value);
+                break;
+            case TAG_DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            default:
+                throw new IOException("Unknown tag: " + tag);
+        }
+    }
+
+    private static Object readPrimitive(DataInput in, byte tag)
+    throws IOException
+    {
+        switch (tag)
+        {
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_SHORT:
+                return in.readShort();
+            case TAG_CHAR:
+                return in.readChar();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            default:
+                throw new IOException("Unknown tag: " + tag);
+        }
+    }
+
+    private static void writeSerializable(DataOutput out, Object value)
+    throws IOException
+    {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final ObjectOutputStream stream = new ObjectOutputStream(buffer);
+
+        try
+        {
+            stream.writeObject(value);
+            stream.flush();
+        }
+        finally
+        {
+            closeQuietly(stream);
+        }
+
+        out.writeInt(buffer.size());
+        out.write(buffer.toByteArray());
+    }
+
+    private static Object readSerializable(DataInput in)
+    throws IOException
+    {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+
+        ObjectInputStream stream = null;
+        try
+        {
+            stream = new ObjectInputStream(new ByteArrayInputStream(bytes));
+            return stream.readObject();
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new IOException("Failed to deserialize a property value!", e);
+        }
+        finally
+        {
+            closeQuietly(stream);
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.jayware.e2.component.impl;
 
 import org.jayware.e2.component.api.AbstractComponent;
 import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentCodec;
 import org.jayware.e2.component.api.ComponentFactory;
 import org.jayware.e2.component.api.ComponentFactoryException;
 import org.jayware.e2.component.api.ComponentInstancer;
@@ -31,6 +32,7 @@ import org.jayware.e2.component.api.generation.analyse.ComponentPropertyAccessor
 import org.jayware.e2.component.api.generation.analyse.ComponentPropertyDescriptor;
 import org.jayware.e2.component.impl.generation.analyse.ComponentAnalyserImpl;
 import org.jayware.e2.component.impl.generation.analyse.DefaultComponentAnalyserFactory;
+import org.jayware.e2.component.impl.generation.writer.ComponentCodecWriter;
 import org.jayware.e2.component.impl.generation.writer.ComponentCopyConstructorWriter;
 import org.jayware.e2.component.impl.generation.writer.ComponentCopyOtherMethodWriter;
 import org.jayware.e2.component.impl.generation.writer.ComponentCopyThisMethodWriter;
@@ -51,6 +53,7 @@ import org.jayware.e2.component.impl.generation.writer.ComponentStaticInitialize
 import org.jayware.e2.component.impl.generation.writer.ComponentToStringMethodWriter;
 import org.jayware.e2.component.impl.generation.writer.ComponentTypeMethodWriter;
 import org.jayware.e2.component.impl.generation.writer.ComponentWriterFactory;
+import org.jayware.e2.diagnostic.impl.FlightEvents.ComponentGenerationEvent;
 import org.objectweb.asm.ClassWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +67,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static java.lang.Class.forName;
+import static org.jayware.e2.diagnostic.impl.FlightEvents.COMPONENT_GENERATION;
 import static org.jayware.e2.component.api.generation.analyse.ComponentPropertyAccessorDescriptor.AccessorType.READ;
 import static org.jayware.e2.component.api.generation.analyse.ComponentPropertyAccessorDescriptor.AccessorType.WRITE;
 import static org.jayware.e2.util.IOUtil.closeQuietly;
@@ -88,6 +92,8 @@ implements ComponentFactory
     private final File myOutputDirectory;
 
     private final Map<String, ComponentInstancer<?>> myCache;
+    private final Map<String, ComponentCodec<?>> myCodecCache;
+    private final Map<String, ComponentDescriptor> myDescriptorCache;
 
     private boolean forceClassGeneration = true;
 
@@ -107,6 +113,8 @@ implements ComponentFactory
             }
 
             myCache = new ConcurrentHashMap<String, ComponentInstancer<?>>();
+            myCodecCache = new ConcurrentHashMap<String, ComponentCodec<?>>();
+            myDescriptorCache = new ConcurrentHashMap<String, ComponentDescriptor>();
         }
         catch (Exception e)
         {
@@ -180,20 +188,71 @@ implements ComponentFactory
         return createComponent((Class<C>) forName(componentClass));
     }
 
+    @Override
+    public <C extends Component> ComponentCodec<C> createCodec(Class<C> componentClass)
+    {
+        checkNotNull(componentClass, "The component's class mustn't be null to create a codec!");
+
+        try
+        {
+            if (!isComponentPrepared(componentClass))
+            {
+                prepareComponent(componentClass);
+            }
+
+            @SuppressWarnings("unchecked")
+            final ComponentCodec<C> codec = (ComponentCodec<C>) myCodecCache.get(componentClass.getName());
+
+            if (codec == null)
+            {
+                throw new ComponentFactoryException("Unprepared component! Cannot create codec for: " + componentClass);
+            }
+
+            return codec;
+        }
+        catch (Exception e)
+        {
+            throw new ComponentFactoryException("Something went wrong on creating a codec for: " + componentClass, e);
+        }
+    }
+
     @Override
     public boolean isComponentPrepared(final Class<? extends Component> componentClass)
     {
         return myCache.containsKey(componentClass.getName());
     }
 
+    public ComponentDescriptor getComponentDescriptor(final Class<? extends Component> componentClass)
+    {
+        return myDescriptorCache.get(componentClass.getName());
+    }
+
+    public int getNumberOfGeneratedClasses()
+    {
+        return myCache.size() + myCodecCache.size();
+    }
+
+    public int getNumberOfClassLoaders()
+    {
+        return myCache.size();
+    }
+
     private void prepareComponent(final Class<? extends Component> componentClass)
     {
         synchronized (myLock)
         {
             if (!isComponentPrepared(componentClass))
             {
+                final ComponentGenerationEvent flightEvent = COMPONENT_GENERATION.begin();
+
                 log.debug("Preparing Component: {}", componentClass.getName());
                 generateComponentClass(myComponentAnalyser.analyse(componentClass));
+
+                if (flightEvent != null)
+                {
+                    flightEvent.setComponentType(componentClass.getName());
+                    flightEvent.commit();
+                }
             }
         }
     }
@@ -219,6 +278,7 @@ implements ComponentFactory
         final ComponentEqualsMethodWriter equalsMethodWriter = myWriterFactory.createComponentEqualsMethodWriter();
         final ComponentHashCodeMethodWriter hashCodeMethodWriter = myWriterFactory.createComponentHashcodeMethodWriter();
         final ComponentToStringMethodWriter toStringMethodWriter = myWriterFactory.createComponentToStringMethodWriter();
+        final ComponentCodecWriter codecWriter = myWriterFactory.createComponentCodecWriter();
 
         final Class<? extends Component> componentClass = descriptor.getDeclaringComponent();
         final ComponentGenerationContext generationContext = new ComponentGenerationContext(descriptor, myOutputDirectory);
@@ -292,9 +352,12 @@ implements ComponentFactory
 
         toStringMethodWriter.writeToStringMethodFor(generationContext, descriptor);
 
+        codecWriter.writeCodecClassFor(generationContext, descriptor);
+
         try
         {
             writeBytes(generationContext.getGeneratedClassFile(), classWriter.toByteArray());
+            writeBytes(generationContext.getGeneratedCodecClassFile(), generationContext.getCodecClassWriter().toByteArray());
         }
         catch (IOException e)
         {
@@ -306,7 +369,10 @@ implements ComponentFactory
         {
             classLoader = new URLClassLoader(new URL[]{myOutputDirectory.toURI().toURL()}, componentClass.getClassLoader());
             final Class<? extends Component> loadedClass = (Class<? extends Component>) classLoader.loadClass(generationContext.getGeneratedClassName());
+            final Class<?> loadedCodecClass = classLoader.loadClass(generationContext.getGeneratedCodecClassName());
 
+            myCodecCache.put(componentClass.getName(), (ComponentCodec<?>) loadedCodecClass.getDeclaredConstructor().newInstance());
+            myDescriptorCache.put(componentClass.getName(), descriptor);
             myCache.put(componentClass.getName(), new ComponentInstancerImpl<Component, Component>(loadedClass));
 
             log.debug("Component prepared: {}", componentClass.getName());
@@ -333,6 +399,7 @@ implements ComponentFactory
     public static class ComponentGenerationContext
     {
         private final ClassWriter myClassWriter;
+        private final ClassWriter myCodecClassWriter;
         private final File myOutputDirectory;
         private final File myGeneratedClassFile;
         private final String myGeneratedClassName;
@@ -343,6 +410,7 @@ implements ComponentFactory
             final Class<? extends Component> declaringComponent = descriptor.getDeclaringComponent();
 
             myClassWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+            myCodecClassWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
             myOutputDirectory = outputDirectory;
             myGeneratedClassPackageName = declaringComponent.getPackage().getName();
             myGeneratedClassName = "_generated_" + declaringComponent.getSimpleName();
@@ -354,11 +422,21 @@ implements ComponentFactory
             return myClassWriter;
         }
 
+        public ClassWriter getCodecClassWriter()
+        {
+            return myCodecClassWriter;
+        }
+
         public File getGeneratedClassFile()
         {
             return myGeneratedClassFile;
         }
 
+        public File getGeneratedCodecClassFile()
+        {
+            return new File(myOutputDirectory, getGeneratedCodecClassInternalName() + ".class");
+        }
+
         public String getGeneratedClassName()
         {
             return getGeneratedClassPackageName() + "." + myGeneratedClassName;
@@ -369,6 +447,16 @@ implements ComponentFactory
             return getGeneratedClassPackagePath() + myGeneratedClassName;
         }
 
+        public String getGeneratedCodecClassName()
+        {
+            return getGeneratedClassName() + "Codec";
+        }
+
+        public String getGeneratedCodecClassInternalName()
+        {
+            return getGeneratedClassInternalName() + "Codec";
+        }
+
         public String getGeneratedClassPackagePath()
         {
             return getGeneratedClassPackageName().replace(".", "/") + "/";
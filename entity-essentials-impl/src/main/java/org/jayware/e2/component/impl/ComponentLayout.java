@@ -0,0 +1,174 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.impl;
+
+import org.jayware.e2.component.api.AbstractComponent;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.jayware.e2.component.impl.ComponentCodecSupport.readValue;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.tagOf;
+
+
+public class ComponentLayout
+{
+    private static final Logger log = LoggerFactory.getLogger(ComponentLayout.class);
+
+    private final Class<? extends Component> myType;
+    private final String[] myNames;
+    private final String[] myTypeNames;
+    private final byte[] myTags;
+    private final Class<?>[] myTypes;
+    private final boolean myExactMatch;
+
+    private ComponentLayout(Class<? extends Component> type, String[] names, String[] typeNames, byte[] tags, Class<?>[] types, boolean exactMatch)
+    {
+        myType = type;
+        myNames = names;
+        myTypeNames = typeNames;
+        myTags = tags;
+        myTypes = types;
+        myExactMatch = exactMatch;
+    }
+
+    // The properties are ordered by name, which is the order the generated codecs write them in.
+    public static ComponentLayout layoutOf(Component component)
+    {
+        final AbstractComponent prototype = (AbstractComponent) component;
+        final List<String> names = prototype.getPropertyNames();
+        final List<?> types = prototype.getPropertyTypes();
+        final TreeMap<String, Class<?>> properties = new TreeMap<String, Class<?>>();
+
+        for (int i = 0; i < names.size(); ++i)
+        {
+            properties.put(names.get(i), (Class<?>) types.get(i));
+        }
+
+        final String[] layoutNames = new String[properties.size()];
+        final String[] layoutTypeNames = new String[properties.size()];
+        final byte[] layoutTags = new byte[properties.size()];
+        final Class<?>[] layoutTypes = new Class<?>[properties.size()];
+
+        int i = 0;
+        for (Map.Entry<String, Class<?>> property : properties.entrySet())
+        {
+            layoutNames[i] = property.getKey();
+            layoutTypeNames[i] = property.getValue().getName();
+            layoutTags[i] = tagOf(property.getValue());
+            layoutTypes[i] = property.getValue();
+            ++i;
+        }
+
+        return new ComponentLayout(prototype.type(), layoutNames, layoutTypeNames, layoutTags, layoutTypes, true);
+    }
+
+    // Reads a layout written by write(DataOutput) and matches it against the current declaration of the prototype.
+    public static ComponentLayout readLayout(DataInput in, Component prototype)
+    throws IOException
+    {
+        final ComponentLayout current = layoutOf(prototype);
+        final int numberOfProperties = in.readInt();
+        final String[] names = new String[numberOfProperties];
+        final String[] typeNames = new String[numberOfProperties];
+        final byte[] tags = new byte[numberOfProperties];
+        final Class<?>[] types = new Class<?>[numberOfProperties];
+
+        for (int i = 0; i < numberOfProperties; ++i)
+        {
+            names[i] = in.readUTF();
+            typeNames[i] = in.readUTF();
+            tags[i] = in.readByte();
+        }
+
+        boolean exactMatch = Arrays.equals(names, current.myNames) && Arrays.equals(typeNames, current.myTypeNames);
+
+        for (int i = 0; i < numberOfProperties; ++i)
+        {
+            final int index = Arrays.asList(current.myNames).indexOf(names[i]);
+
+            if (index >= 0 && current.myTypeNames[index].equals(typeNames[i]))
+            {
+                types[i] = current.myTypes[index];
+            }
+            else
+            {
+                exactMatch = false;
+                log.warn("Skipping property '{}' of '{}' because it does not match the current declaration.", names[i], current.myType.getName());
+            }
+        }
+
+        return new ComponentLayout(current.myType, names, typeNames, tags, types, exactMatch);
+    }
+
+    public Class<? extends Component> getType()
+    {
+        return myType;
+    }
+
+    public boolean isExactMatch()
+    {
+        return myExactMatch;
+    }
+
+    public void write(DataOutput out)
+    throws IOException
+    {
+        out.writeInt(myNames.length);
+
+        for (int i = 0; i < myNames.length; ++i)
+        {
+            out.writeUTF(myNames[i]);
+            out.writeUTF(myTypeNames[i]);
+            out.writeByte(myTags[i]);
+        }
+    }
+
+    // Reads the properties written by a codec with this layout, property by property if the declaration has changed.
+    public <C extends Component> void read(C component, ComponentCodec<C> codec, DataInput in)
+    throws IOException
+    {
+        if (myExactMatch)
+        {
+            codec.read(component, in);
+            return;
+        }
+
+        final AbstractComponent target = (AbstractComponent) component;
+
+        for (int i = 0; i < myNames.length; ++i)
+        {
+            final Object value = readValue(in, myTags[i], myTypes[i], target.getContext());
+
+            if (myTypes[i] != null)
+            {
+                target.set(myNames[i], value);
+            }
+        }
+    }
+}
@@ -40,7 +40,10 @@ import org.jayware.e2.component.api.ComponentFactory;
 import org.jayware.e2.component.api.ComponentNotFoundException;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.context.api.Resettable;
+import org.jayware.e2.diagnostic.impl.RecordedLock;
 import org.jayware.e2.entity.api.EntityEvent.EntityDeletedEvent;
+import org.jayware.e2.entity.api.EntityEvent.FindEntitiesByPropertyEvent;
 import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.event.api.Event;
 import org.jayware.e2.event.api.EventManager;
@@ -49,10 +52,13 @@ import org.jayware.e2.event.api.Param;
 import org.jayware.e2.event.api.Query;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -68,13 +74,19 @@ import static org.jayware.e2.component.api.ComponentEvent.ComponentTypeCollectio
 import static org.jayware.e2.component.api.ComponentEvent.ComponentTypeParam;
 import static org.jayware.e2.entity.api.EntityEvent.EntityChangedEvent.EntityRefParam;
 import static org.jayware.e2.entity.api.EntityEvent.EntityIdParam;
+import static org.jayware.e2.entity.api.EntityEvent.EntityRefListParam;
+import static org.jayware.e2.entity.api.EntityEvent.LowerBoundParam;
+import static org.jayware.e2.entity.api.EntityEvent.PropertyComponentParam;
+import static org.jayware.e2.entity.api.EntityEvent.PropertyNameParam;
+import static org.jayware.e2.entity.api.EntityEvent.PropertyValueParam;
+import static org.jayware.e2.entity.api.EntityEvent.UpperBoundParam;
 import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
 import static org.jayware.e2.event.api.Parameters.param;
 import static org.jayware.e2.event.api.Presence.Optional;
 
 
 public class ComponentStore
-implements Disposable
+implements Disposable, Resettable
 {
     private final Context myContext;
 
@@ -84,10 +96,12 @@ implements Disposable
 
     private final Map<String, Class<? extends Component>> myComponentClassMap;
     private final Map<Class<? extends Component>, Map<EntityRef, Component>> myComponentDatabase;
+    private final Map<Class<? extends Component>, List<PropertyIndex>> myIndexes;
+    private final Map<Class<? extends Component>, Long> myRevisions;
 
     private final ReadWriteLock myReadWriteLock = new ReentrantReadWriteLock();
-    private final Lock myReadLock = myReadWriteLock.readLock();
-    private final Lock myWriteLock = myReadWriteLock.writeLock();
+    private final Lock myReadLock = new RecordedLock(myReadWriteLock.readLock(), "ComponentStore.read");
+    private final Lock myWriteLock = new RecordedLock(myReadWriteLock.writeLock(), "ComponentStore.write");
 
     public ComponentStore(Context context)
     {
@@ -97,6 +111,8 @@ implements Disposable
 
         myComponentClassMap = new HashMap<String, Class<? extends Component>>();
         myComponentDatabase = new HashMap<Class<? extends Component>, Map<EntityRef, Component>>();
+        myIndexes = new HashMap<Class<? extends Component>, List<PropertyIndex>>();
+        myRevisions = new ConcurrentHashMap<Class<? extends Component>, Long>();
 
         myEventManager.subscribe(context, this);
     }
@@ -112,6 +128,7 @@ implements Disposable
             {
                 myComponentFactory.prepareComponent(component);
                 myComponentClassMap.put(component.getName(), component);
+                indexesOf(component);
 
                 fireEvents = true;
             }
@@ -311,6 +328,26 @@ implements Disposable
         }
     }
 
+    public Map<Class<? extends Component>, Integer> countComponents()
+    {
+        final Map<Class<? extends Component>, Integer> result = new HashMap<Class<? extends Component>, Integer>();
+
+        myReadLock.lock();
+        try
+        {
+            for (Map.Entry<Class<? extends Component>, Map<EntityRef, Component>> row : myComponentDatabase.entrySet())
+            {
+                result.put(row.getKey(), row.getValue().size());
+            }
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+
+        return result;
+    }
+
     public int numberOfComponents(EntityRef ref)
     {
         int result = 0;
@@ -347,6 +384,233 @@ implements Disposable
         }
     }
 
+    public Map<EntityRef, Component> copyComponents(Class<? extends Component> type)
+    {
+        myReadLock.lock();
+        try
+        {
+            final Map<EntityRef, Component> row = myComponentDatabase.get(type);
+            final Map<EntityRef, Component> result = new HashMap<EntityRef, Component>(row != null ? row.size() : 0);
+
+            if (row != null)
+            {
+                for (Map.Entry<EntityRef, Component> entry : row.entrySet())
+                {
+                    result.put(entry.getKey(), ((AbstractComponent) entry.getValue()).copy());
+                }
+            }
+
+            return result;
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    public void restoreComponents(Class<? extends Component> type, Map<EntityRef, Component> components)
+    {
+        myWriteLock.lock();
+        try
+        {
+            Map<EntityRef, Component> row = myComponentDatabase.get(type);
+
+            if (row == null)
+            {
+                row = new HashMap<EntityRef, Component>(components.size());
+                myComponentDatabase.put(type, row);
+            }
+
+            row.putAll(components);
+
+            for (PropertyIndex index : indexesOf(type))
+            {
+                index.updateAll(components);
+            }
+
+            bumpRevision(type);
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
+    public boolean restoreComponentIfAbsent(EntityRef ref, Component component)
+    {
+        myWriteLock.lock();
+        try
+        {
+            Map<EntityRef, Component> row = myComponentDatabase.get(component.type());
+
+            if (row == null)
+            {
+                row = new HashMap<EntityRef, Component>();
+                myComponentDatabase.put(component.type(), row);
+            }
+
+            if (row.containsKey(ref))
+            {
+                return false;
+            }
+
+            row.put(ref, component);
+            updateIndexes(ref, component);
+            bumpRevision(component.type());
+            return true;
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
+    public void purgeComponent(EntityRef ref, Class<? extends Component> type)
+    {
+        myWriteLock.lock();
+        try
+        {
+            final Map<EntityRef, Component> row = myComponentDatabase.get(type);
+
+            if (row != null && row.remove(ref) != null)
+            {
+                bumpRevision(type);
+            }
+
+            removeFromIndexes(type, ref);
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
+    public void purgeComponents(EntityRef ref)
+    {
+        myWriteLock.lock();
+        try
+        {
+            for (Map.Entry<Class<? extends Component>, Map<EntityRef, Component>> row : myComponentDatabase.entrySet())
+            {
+                if (row.getValue().remove(ref) != null)
+                {
+                    bumpRevision(row.getKey());
+                }
+            }
+
+            for (Class<? extends Component> type : myIndexes.keySet())
+            {
+                removeFromIndexes(type, ref);
+            }
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
+    // Incremented whenever components of the type change without events being fired (restore, purge, reset).
+    public long revisionOf(Class<? extends Component> type)
+    {
+        final Long revision = myRevisions.get(type);
+        return revision != null ? revision : 0;
+    }
+
+    private void bumpRevision(Class<? extends Component> type)
+    {
+        final Long revision = myRevisions.get(type);
+        myRevisions.put(type, revision != null ? revision + 1 : 1);
+    }
+
+    public void applyChanges(List<Change> changes)
+    {
+        myWriteLock.lock();
+        try
+        {
+            for (Change change : changes)
+            {
+                // An entity deleted since recording would be left with orphaned rows. Checked under the write lock,
+                // a deletion afterwards is followed by the EntityDeletedEvent which purges the rows again.
+                if (change.myRef.isInvalid())
+                {
+                    continue;
+                }
+
+                Map<EntityRef, Component> row = myComponentDatabase.get(change.myType);
+                AbstractComponent instance = row != null ? (AbstractComponent) row.get(change.myRef) : null;
+
+                if (change.myRemove)
+                {
+                    if (instance != null)
+                    {
+                        change.myOldAspect = getAspect(change.myRef);
+                        row.remove(change.myRef);
+                        removeFromIndexes(change.myType, change.myRef);
+                        change.myNewAspect = getAspect(change.myRef);
+                        change.myInstance = instance;
+                    }
+
+                    continue;
+                }
+
+                if (row == null)
+                {
+                    row = new HashMap<EntityRef, Component>();
+                    myComponentDatabase.put(change.myType, row);
+                }
+
+                if (instance == null)
+                {
+                    change.myOldAspect = getAspect(change.myRef);
+                    instance = (AbstractComponent) instantiateComponent(change.myType);
+                    row.put(change.myRef, instance);
+                    change.myNewAspect = getAspect(change.myRef);
+                    change.myAdded = true;
+                }
+
+                if (change.myComponent != null)
+                {
+                    change.myOldComponent = instance.copy();
+                    instance.copy(change.myComponent);
+                    change.myNewComponent = instance.copy();
+                }
+
+                updateIndexes(change.myRef, instance);
+                change.myInstance = instance;
+            }
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+
+        for (Change change : changes)
+        {
+            if (change.myInstance == null)
+            {
+                continue;
+            }
+
+            if (change.myRemove)
+            {
+                fireComponentRemovedEvent(change.myRef, change.myInstance);
+                fireAspectLostEvent(change.myRef, change.myNewAspect, change.myOldAspect);
+                continue;
+            }
+
+            if (change.myAdded)
+            {
+                fireComponentAddedEvent(change.myRef, change.myInstance);
+                fireAspectGainedEvent(change.myRef, change.myNewAspect, change.myOldAspect);
+            }
+
+            if (change.myNewComponent != null)
+            {
+                fireComponentPushedEvent(change.myRef, change.myNewComponent, change.myOldComponent);
+            }
+        }
+    }
+
     public Class<? extends Component> resolveComponent(String name)
     {
         final Class<?> potentialComponent;
@@ -418,6 +682,7 @@ implements Disposable
                     if (instance != null)
                     {
                         row.remove(ref);
+                        removeFromIndexes(component.type(), ref);
                     }
                 }
             }
@@ -495,6 +760,11 @@ implements Disposable
 
                 firePushedEvent = true;
             }
+
+            if (fireEvents || firePushedEvent)
+            {
+                updateIndexes(ref, instance);
+            }
         }
         finally
         {
@@ -545,6 +815,7 @@ implements Disposable
                     newAspect = aspect(getComponentTypes(ref));
 
                     row.remove(ref);
+                    removeFromIndexes(componentType, ref);
 
                     removedComponent = true;
                 }
@@ -618,6 +889,7 @@ implements Disposable
             {
                 oldComponent = instance.copy();
                 instance.copy(newComponent);
+                updateIndexes(ref, instance);
 
                 fireEvents = true;
             }
@@ -654,6 +926,109 @@ implements Disposable
         }
     }
 
+    @Handle(FindEntitiesByPropertyEvent.class)
+    public void handleFindEntitiesByPropertyEvent(Query query,
+                                                  @Param(PropertyComponentParam) Class<? extends Component> componentType,
+                                                  @Param(PropertyNameParam) String property,
+                                                  @Param(value = PropertyValueParam, presence = Optional) Object value,
+                                                  @Param(value = LowerBoundParam, presence = Optional) Object from,
+                                                  @Param(value = UpperBoundParam, presence = Optional) Object to)
+    {
+        final Class<?> propertyType = PropertyIndex.boxed(PropertyIndex.propertyType(componentType, property));
+        final List<EntityRef> result;
+
+        if (value == null && !Comparable.class.isAssignableFrom(propertyType))
+        {
+            throw new IllegalArgumentException(format("The property '%s' of '%s' is not comparable!", property, componentType.getName()));
+        }
+
+        myReadLock.lock();
+        try
+        {
+            final PropertyIndex index = findIndex(componentType, property, value == null);
+            final Map<EntityRef, Component> row = myComponentDatabase.get(componentType);
+
+            if (value != null)
+            {
+                result = index != null ? index.find(value) : PropertyIndex.scan(row, property, value);
+            }
+            else
+            {
+                result = index != null ? index.findRange(from, to) : PropertyIndex.scanRange(row, property, from, to);
+            }
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+
+        query.result(EntityRefListParam, Collections.unmodifiableList(result));
+    }
+
+    private PropertyIndex findIndex(Class<? extends Component> type, String property, boolean sorted)
+    {
+        // The indexes of a type are created as soon as the type is prepared or its first component is stored.
+        final List<PropertyIndex> indexes = myIndexes.get(type);
+
+        if (indexes != null)
+        {
+            for (PropertyIndex candidate : indexes)
+            {
+                if (candidate.getProperty().equals(property) && (candidate.isSorted() || !sorted))
+                {
+                    return candidate;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private List<PropertyIndex> indexesOf(Class<? extends Component> type)
+    {
+        List<PropertyIndex> indexes = myIndexes.get(type);
+
+        if (indexes == null)
+        {
+            final Map<EntityRef, Component> row = myComponentDatabase.get(type);
+
+            indexes = PropertyIndex.declaredIndexes(type);
+
+            if (row != null)
+            {
+                for (PropertyIndex index : indexes)
+                {
+                    index.updateAll(row);
+                }
+            }
+
+            myIndexes.put(type, indexes);
+        }
+
+        return indexes;
+    }
+
+    private void updateIndexes(EntityRef ref, Component component)
+    {
+        for (PropertyIndex index : indexesOf(component.type()))
+        {
+            index.update(ref, component);
+        }
+    }
+
+    private void removeFromIndexes(Class<? extends Component> type, EntityRef ref)
+    {
+        final List<PropertyIndex> indexes = myIndexes.get(type);
+
+        if (indexes != null)
+        {
+            for (PropertyIndex index : indexes)
+            {
+                index.remove(ref);
+            }
+        }
+    }
+
     private Set<Class<? extends Component>> getComponentTypes(@Param(EntityRefParam) EntityRef ref)
     {
         final Set<Class<? extends Component>> types = new HashSet<Class<? extends Component>>();
@@ -680,6 +1055,32 @@ implements Disposable
         return myComponentFactory.createComponent(type).newInstance(myContext);
     }
 
+    @Override
+    public void reset(Context context)
+    {
+        myWriteLock.lock();
+        try
+        {
+            for (Map.Entry<Class<? extends Component>, Map<EntityRef, Component>> row : myComponentDatabase.entrySet())
+            {
+                row.getValue().clear();
+                bumpRevision(row.getKey());
+            }
+
+            for (List<PropertyIndex> indexes : myIndexes.values())
+            {
+                for (PropertyIndex index : indexes)
+                {
+                    index.clear();
+                }
+            }
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
     @Override
     public void dispose(Context context)
     {
@@ -692,6 +1093,15 @@ implements Disposable
                 row.clear();
             }
             myComponentDatabase.clear();
+
+            for (List<PropertyIndex> indexes : myIndexes.values())
+            {
+                for (PropertyIndex index : indexes)
+                {
+                    index.clear();
+                }
+            }
+            myIndexes.clear();
         }
         finally
         {
@@ -806,4 +1216,37 @@ implements Disposable
             param(OldAspectParam, oldAspect)
         );
     }
+
+    public static class Change
+    {
+        private final EntityRef myRef;
+        private final Class<? extends Component> myType;
+        private final Component myComponent;
+        private final boolean myRemove;
+
+        private AbstractComponent myInstance;
+        private Component myOldComponent;
+        private Component myNewComponent;
+        private Aspect myOldAspect;
+        private Aspect myNewAspect;
+        private boolean myAdded;
+
+        private Change(EntityRef ref, Class<? extends Component> type, Component component, boolean remove)
+        {
+            myRef = ref;
+            myType = type;
+            myComponent = component;
+            myRemove = remove;
+        }
+
+        public static Change addComponent(EntityRef ref, Class<? extends Component> type, Component component)
+        {
+            return new Change(ref, type, component, false);
+        }
+
+        public static Change removeComponent(EntityRef ref, Class<? extends Component> type)
+        {
+            return new Change(ref, type, null, true);
+        }
+    }
 }
@@ -0,0 +1,339 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.impl;
+
+
+import org.jayware.e2.component.api.AbstractComponent;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.IndexType;
+import org.jayware.e2.component.api.Indexed;
+import org.jayware.e2.component.api.MalformedComponentException;
+import org.jayware.e2.entity.api.EntityRef;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+import static org.jayware.e2.component.api.IndexType.Sorted;
+
+
+class PropertyIndex
+{
+    private static final Map<Class<?>, Class<?>> ourBoxedTypes = new HashMap<Class<?>, Class<?>>();
+
+    static
+    {
+        ourBoxedTypes.put(boolean.class, Boolean.class);
+        ourBoxedTypes.put(byte.class, Byte.class);
+        ourBoxedTypes.put(char.class, Character.class);
+        ourBoxedTypes.put(short.class, Short.class);
+        ourBoxedTypes.put(int.class, Integer.class);
+        ourBoxedTypes.put(long.class, Long.class);
+        ourBoxedTypes.put(float.class, Float.class);
+        ourBoxedTypes.put(double.class, Double.class);
+    }
+
+    private final Class<? extends Component> myComponent;
+    private final String myProperty;
+    private final Class<?> myValueType;
+    private final IndexType myIndexType;
+
+    private final Map<Object, Set<EntityRef>> myEntries;
+    private final Map<EntityRef, Object> myValues;
+
+    PropertyIndex(Class<? extends Component> component, String property, Class<?> valueType, IndexType indexType)
+    {
+        myComponent = component;
+        myProperty = property;
+        myValueType = boxed(valueType);
+        myIndexType = indexType;
+
+        if (myIndexType == Sorted)
+        {
+            myEntries = new TreeMap<Object, Set<EntityRef>>();
+        }
+        else
+        {
+            myEntries = new HashMap<Object, Set<EntityRef>>();
+        }
+
+        myValues = new HashMap<EntityRef, Object>();
+    }
+
+    static List<PropertyIndex> declaredIndexes(Class<? extends Component> component)
+    {
+        final List<PropertyIndex> result = new ArrayList<PropertyIndex>();
+
+        for (Method method : component.getMethods())
+        {
+            final Indexed indexed = method.getAnnotation(Indexed.class);
+
+            if (indexed == null)
+            {
+                continue;
+            }
+
+            final String name = method.getName();
+            final Class<?> type = method.getReturnType();
+
+            if (!name.startsWith("get") || name.length() == 3 || void.class.equals(type) || method.getParameterTypes().length != 0)
+            {
+                throw new MalformedComponentException(format("Only getters can be indexed: %s", method));
+            }
+
+            if (type.isArray())
+            {
+                throw new MalformedComponentException(format("Array properties cannot be indexed: %s", method));
+            }
+
+            if (indexed.value() == Sorted && !Comparable.class.isAssignableFrom(boxed(type)))
+            {
+                throw new MalformedComponentException(format("Only comparable properties can be sorted: %s", method));
+            }
+
+            result.add(new PropertyIndex(component, name.substring(3, 4).toLowerCase() + name.substring(4), type, indexed.value()));
+        }
+
+        return result;
+    }
+
+    static Class<?> propertyType(Class<? extends Component> component, String property)
+    {
+        try
+        {
+            return component.getMethod("get" + property.substring(0, 1).toUpperCase() + property.substring(1)).getReturnType();
+        }
+        catch (Exception e)
+        {
+            throw new IllegalArgumentException(format("The component '%s' does not have a property '%s'!", component.getName(), property), e);
+        }
+    }
+
+    static Class<?> boxed(Class<?> type)
+    {
+        final Class<?> boxed = ourBoxedTypes.get(type);
+        return boxed != null ? boxed : type;
+    }
+
+    String getProperty()
+    {
+        return myProperty;
+    }
+
+    boolean isSorted()
+    {
+        return myIndexType == Sorted;
+    }
+
+    void update(EntityRef ref, Component component)
+    {
+        final Object value = ((AbstractComponent) component).get(myProperty);
+
+        if (myValues.containsKey(ref))
+        {
+            final Object oldValue = myValues.get(ref);
+
+            if (oldValue == null ? value == null : oldValue.equals(value))
+            {
+                return;
+            }
+
+            remove(ref);
+        }
+
+        if (value == null && isSorted())
+        {
+            return;
+        }
+
+        Set<EntityRef> refs = myEntries.get(value);
+
+        if (refs == null)
+        {
+            refs = new LinkedHashSet<EntityRef>();
+            myEntries.put(value, refs);
+        }
+
+        refs.add(ref);
+        myValues.put(ref, value);
+    }
+
+    void updateAll(Map<EntityRef, Component> row)
+    {
+        for (Map.Entry<EntityRef, Component> entry : row.entrySet())
+        {
+            update(entry.getKey(), entry.getValue());
+        }
+    }
+
+    void remove(EntityRef ref)
+    {
+        if (!myValues.containsKey(ref))
+        {
+            return;
+        }
+
+        final Object value = myValues.remove(ref);
+        final Set<EntityRef> refs = myEntries.get(value);
+
+        if (refs != null)
+        {
+            refs.remove(ref);
+
+            if (refs.isEmpty())
+            {
+                myEntries.remove(value);
+            }
+        }
+    }
+
+    void clear()
+    {
+        myEntries.clear();
+        myValues.clear();
+    }
+
+    List<EntityRef> find(Object value)
+    {
+        checkValue(value);
+
+        final Set<EntityRef> refs = myEntries.get(value);
+
+        if (refs == null)
+        {
+            return Collections.<EntityRef>emptyList();
+        }
+
+        return new ArrayList<EntityRef>(refs);
+    }
+
+    List<EntityRef> findRange(Object from, Object to)
+    {
+        NavigableMap<Object, Set<EntityRef>> range = (NavigableMap<Object, Set<EntityRef>>) myEntries;
+
+        checkValue(from);
+        checkValue(to);
+
+        if (from != null && to != null)
+        {
+            if (compare(from, to) > 0)
+            {
+                return Collections.<EntityRef>emptyList();
+            }
+
+            range = range.subMap(from, true, to, true);
+        }
+        else if (from != null)
+        {
+            range = range.tailMap(from, true);
+        }
+        else if (to != null)
+        {
+            range = range.headMap(to, true);
+        }
+
+        return flatten(range.values());
+    }
+
+    // The values of a sorted index are checked to be comparable with each other when they are passed in.
+    @SuppressWarnings("unchecked")
+    private static int compare(Object value, Object other)
+    {
+        return ((Comparable<Object>) value).compareTo(other);
+    }
+
+    static List<EntityRef> scan(Map<EntityRef, Component> row, String property, Object value)
+    {
+        final List<EntityRef> result = new ArrayList<EntityRef>();
+
+        if (row != null)
+        {
+            for (Map.Entry<EntityRef, Component> entry : row.entrySet())
+            {
+                if (value.equals(((AbstractComponent) entry.getValue()).get(property)))
+                {
+                    result.add(entry.getKey());
+                }
+            }
+        }
+
+        return result;
+    }
+
+    static List<EntityRef> scanRange(Map<EntityRef, Component> row, String property, Object from, Object to)
+    {
+        final NavigableMap<Object, List<EntityRef>> matches = new TreeMap<Object, List<EntityRef>>();
+
+        if (row != null)
+        {
+            for (Map.Entry<EntityRef, Component> entry : row.entrySet())
+            {
+                final Object value = ((AbstractComponent) entry.getValue()).get(property);
+
+                if (value == null
+                    || (from != null && compare(value, from) < 0)
+                    || (to != null && compare(value, to) > 0))
+                {
+                    continue;
+                }
+
+                List<EntityRef> refs = matches.get(value);
+
+                if (refs == null)
+                {
+                    refs = new ArrayList<EntityRef>();
+                    matches.put(value, refs);
+                }
+
+                refs.add(entry.getKey());
+            }
+        }
+
+        return flatten(matches.values());
+    }
+
+    private void checkValue(Object value)
+    {
+        if (value != null && !myValueType.isInstance(value))
+        {
+            throw new IllegalArgumentException(format("The property '%s' of '%s' is of type '%s' but '%s' was passed!", myProperty, myComponent.getName(), myValueType.getName(), value.getClass().getName()));
+        }
+    }
+
+    private static List<EntityRef> flatten(Collection<? extends Collection<EntityRef>> values)
+    {
+        final List<EntityRef> result = new ArrayList<EntityRef>();
+
+        for (Collection<EntityRef> refs : values)
+        {
+            result.addAll(refs);
+        }
+
+        return result;
+    }
+}
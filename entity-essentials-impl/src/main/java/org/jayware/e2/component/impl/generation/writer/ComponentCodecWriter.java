@@ -0,0 +1,218 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.impl.generation.writer;
+
+
+import org.jayware.e2.component.api.AbstractComponent;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentCodec;
+import org.jayware.e2.component.api.generation.analyse.ComponentDescriptor;
+import org.jayware.e2.component.api.generation.analyse.ComponentPropertyDescriptor;
+import org.jayware.e2.component.impl.ComponentCodecSupport;
+import org.jayware.e2.component.impl.ComponentFactoryImpl.ComponentGenerationContext;
+import org.jayware.e2.component.impl.generation.asm.MethodBuilder;
+import org.jayware.e2.context.api.Context;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Type;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.jayware.e2.component.impl.ComponentCodecSupport.tagOf;
+import static org.jayware.e2.component.impl.generation.asm.TypeUtil.isPrimitiveType;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.V1_6;
+import static org.objectweb.asm.Type.getDescriptor;
+import static org.objectweb.asm.Type.getInternalName;
+import static org.objectweb.asm.Type.getType;
+
+
+public class ComponentCodecWriter
+{
+    private static final int COMPONENT_ARG = 1;
+    private static final int STREAM_ARG = 2;
+    private static final int CASTED_COMPONENT = 3;
+    private static final int CONTEXT = 4;
+
+    private static final String[] IO_EXCEPTION = new String[]{getInternalName(IOException.class)};
+
+    public void writeCodecClassFor(ComponentGenerationContext generationContext, ComponentDescriptor descriptor)
+    {
+        final ClassWriter classWriter = generationContext.getCodecClassWriter();
+
+        classWriter.visit(
+            V1_6,
+            ACC_PUBLIC + ACC_SUPER,
+            generationContext.getGeneratedCodecClassInternalName(),
+            null,
+            getInternalName(Object.class),
+            new String[]{getInternalName(ComponentCodec.class)}
+        );
+
+        writeConstructor(classWriter);
+        writeWriteMethod(generationContext, descriptor);
+        writeReadMethod(generationContext, descriptor);
+
+        classWriter.visitEnd();
+    }
+
+    private void writeConstructor(ClassWriter classWriter)
+    {
+        final MethodBuilder methodBuilder = MethodBuilder.createMethodBuilder(classWriter, ACC_PUBLIC, "<init>", "()V");
+        methodBuilder.beginMethod();
+        methodBuilder.loadThis();
+        methodBuilder.invokeConstructor(Object.class);
+        methodBuilder.returnVoid();
+        methodBuilder.endMethod();
+    }
+
+    private void writeWriteMethod(ComponentGenerationContext generationContext, ComponentDescriptor descriptor)
+    {
+        final String componentName = generationContext.getGeneratedClassInternalName();
+        final String methodDescriptor = "(" + getDescriptor(Component.class) + getDescriptor(DataOutput.class) + ")V";
+        final MethodBuilder methodBuilder = MethodBuilder.createMethodBuilder(generationContext.getCodecClassWriter(), ACC_PUBLIC, "write", methodDescriptor, null, IO_EXCEPTION);
+        methodBuilder.beginMethod();
+
+        methodBuilder.loadReferenceVariable(COMPONENT_ARG);
+        methodBuilder.castTo(componentName);
+        methodBuilder.storeReferenceVariable(CASTED_COMPONENT);
+
+        for (ComponentPropertyDescriptor propertyDescriptor : sortedByName(descriptor))
+        {
+            final String propertyName = propertyDescriptor.getPropertyName();
+            final Class<?> propertyType = propertyDescriptor.getPropertyType();
+
+            methodBuilder.loadReferenceVariable(STREAM_ARG);
+
+            if (isPrimitiveType(propertyType))
+            {
+                methodBuilder.loadReferenceVariable(CASTED_COMPONENT);
+                methodBuilder.loadField(componentName, propertyName, propertyType);
+                methodBuilder.invokeInterfaceMethod(DataOutput.class, "write" + primitiveName(propertyType), void.class, stackType(propertyType));
+            }
+            else
+            {
+                methodBuilder.custom().visitIntInsn(BIPUSH, tagOf(propertyType));
+                methodBuilder.loadReferenceVariable(CASTED_COMPONENT);
+                methodBuilder.loadField(componentName, propertyName, propertyType);
+                methodBuilder.invokeStaticMethod(ComponentCodecSupport.class, "writeValue", void.class, DataOutput.class, byte.class, Object.class);
+            }
+        }
+
+        methodBuilder.returnVoid();
+        methodBuilder.endMethod();
+    }
+
+    private void writeReadMethod(ComponentGenerationContext generationContext, ComponentDescriptor descriptor)
+    {
+        final String componentName = generationContext.getGeneratedClassInternalName();
+        final String methodDescriptor = "(" + getDescriptor(Component.class) + getDescriptor(DataInput.class) + ")V";
+        final MethodBuilder methodBuilder = MethodBuilder.createMethodBuilder(generationContext.getCodecClassWriter(), ACC_PUBLIC, "read", methodDescriptor, null, IO_EXCEPTION);
+        methodBuilder.beginMethod();
+
+        methodBuilder.loadReferenceVariable(COMPONENT_ARG);
+        methodBuilder.castTo(componentName);
+        methodBuilder.storeReferenceVariable(CASTED_COMPONENT);
+
+        methodBuilder.loadReferenceVariable(CASTED_COMPONENT);
+        methodBuilder.invokeVirtualMethod(AbstractComponent.class, "getContext", Context.class);
+        methodBuilder.storeReferenceVariable(CONTEXT);
+
+        for (ComponentPropertyDescriptor propertyDescriptor : sortedByName(descriptor))
+        {
+            final String propertyName = propertyDescriptor.getPropertyName();
+            final Class<?> propertyType = propertyDescriptor.getPropertyType();
+
+            methodBuilder.loadReferenceVariable(CASTED_COMPONENT);
+            methodBuilder.loadReferenceVariable(STREAM_ARG);
+
+            if (isPrimitiveType(propertyType))
+            {
+                methodBuilder.invokeInterfaceMethod(DataInput.class, "read" + primitiveName(propertyType), propertyType);
+            }
+            else
+            {
+                methodBuilder.custom().visitIntInsn(BIPUSH, tagOf(propertyType));
+                methodBuilder.loadConstant(propertyType);
+                methodBuilder.loadReferenceVariable(CONTEXT);
+                methodBuilder.invokeStaticMethod(ComponentCodecSupport.class, "readValue", Object.class, DataInput.class, byte.class, Class.class, Context.class);
+                methodBuilder.castTo(propertyType);
+            }
+
+            methodBuilder.storeField(componentName, propertyName, propertyType);
+        }
+
+        methodBuilder.returnVoid();
+        methodBuilder.endMethod();
+    }
+
+    // The properties are written ordered by name, see ComponentLayout.
+    private static List<ComponentPropertyDescriptor> sortedByName(ComponentDescriptor descriptor)
+    {
+        final List<ComponentPropertyDescriptor> result = new ArrayList<ComponentPropertyDescriptor>(descriptor.getPropertyDescriptors());
+
+        Collections.sort(result, new Comparator<ComponentPropertyDescriptor>()
+        {
+            @Override
+            public int compare(ComponentPropertyDescriptor first, ComponentPropertyDescriptor second)
+            {
+                return first.getPropertyName().compareTo(second.getPropertyName());
+            }
+        });
+
+        return result;
+    }
+
+    private static String primitiveName(Class<?> type)
+    {
+        switch (getType(type).getSort())
+        {
+            case Type.BOOLEAN: return "Boolean";
+            case Type.BYTE: return "Byte";
+            case Type.CHAR: return "Char";
+            case Type.SHORT: return "Short";
+            case Type.INT: return "Int";
+            case Type.LONG: return "Long";
+            case Type.FLOAT: return "Float";
+            case Type.DOUBLE: return "Double";
+            default:
+                throw new IllegalArgumentException("Not a primitive type: " + type);
+        }
+    }
+
+    private static Class<?> stackType(Class<?> type)
+    {
+        switch (getType(type).getSort())
+        {
+            case Type.BYTE:
+            case Type.CHAR:
+            case Type.SHORT:
+                return int.class;
+            default:
+                return type;
+        }
+    }
+}
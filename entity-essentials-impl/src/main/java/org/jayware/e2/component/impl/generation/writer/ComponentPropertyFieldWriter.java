@@ -23,13 +23,12 @@ import org.jayware.e2.component.api.generation.analyse.ComponentPropertyDescript
 import org.jayware.e2.component.impl.ComponentFactoryImpl.ComponentGenerationContext;
 import org.objectweb.asm.Type;
 
-import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
-
 
 public class ComponentPropertyFieldWriter
 {
     public void writePropertyFieldFor(ComponentGenerationContext generationContext, ComponentPropertyDescriptor descriptor)
     {
-        generationContext.getClassWriter().visitField(ACC_PRIVATE, descriptor.getPropertyName(), Type.getDescriptor(descriptor.getPropertyType()), null, null);
+        // Package-private, so that the generated codec can access the field directly.
+        generationContext.getClassWriter().visitField(0, descriptor.getPropertyName(), Type.getDescriptor(descriptor.getPropertyType()), null, null);
     }
 }
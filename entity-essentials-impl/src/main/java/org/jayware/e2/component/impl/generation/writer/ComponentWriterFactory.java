@@ -115,4 +115,9 @@ public class ComponentWriterFactory
     {
         return new ComponentPropertySetMethodWriter();
     }
+
+    public ComponentCodecWriter createComponentCodecWriter()
+    {
+        return new ComponentCodecWriter();
+    }
 }
@@ -22,11 +22,14 @@ import com.googlecode.concurentlocks.ReadWriteUpdateLock;
 import com.googlecode.concurentlocks.ReentrantReadWriteUpdateLock;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.context.api.Resettable;
 import org.jayware.e2.context.api.ServiceProvider;
 import org.jayware.e2.context.api.ServiceUnavailableException;
+import org.jayware.e2.diagnostic.impl.FlightEvents.ContextEvent;
 import org.jayware.e2.util.Key;
 import org.jayware.e2.util.ObjectUtil;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -35,6 +38,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 
 import static java.util.UUID.randomUUID;
+import static org.jayware.e2.diagnostic.impl.FlightEvents.CONTEXT;
 import static org.jayware.e2.util.Key.createKey;
 import static org.jayware.e2.util.Preconditions.checkNotNull;
 
@@ -77,6 +81,12 @@ implements Context
         return myContextState.get().isDisposed();
     }
 
+    @Override
+    public void reset()
+    {
+        myContextState.get().reset();
+    }
+
     @Override
     public <T> void put(Key<T> key, T value)
     {
@@ -185,13 +195,13 @@ implements Context
         private final Lock myWriteLock = myLock.writeLock();
         private final Lock myUpdateLock = myLock.updateLock();
 
-        private final Map<Key, Object> myMap;
+        private volatile Map<Key<?>, Object> myMap;
         private boolean isDisposing = false;
 
         public DefaultContext(ServiceProvider serviceProvider)
         {
             myServiceProvider = serviceProvider;
-            myMap = new HashMap<Key, Object>();
+            myMap = Collections.emptyMap();
         }
 
         @Override
@@ -208,9 +218,11 @@ implements Context
             {
                 if (!isDisposing)
                 {
+                    final ContextEvent flightEvent = CONTEXT.begin();
+
                     isDisposing = true;
 
-                    final HashSet toDispose = new HashSet(myMap.values());
+                    final HashSet<Object> toDispose = new HashSet<Object>(myMap.values());
 
                     myWriteLock.unlock();
 
@@ -225,7 +237,14 @@ implements Context
                     myContextState.set(new DisposedContext());
 
                     myWriteLock.lock();
-                    myMap.clear();
+                    myMap = Collections.emptyMap();
+
+                    if (flightEvent != null)
+                    {
+                        flightEvent.setContext(String.valueOf(myContextId));
+                        flightEvent.setAction("Dispose");
+                        flightEvent.commit();
+                    }
                 }
             }
             finally
@@ -240,6 +259,28 @@ implements Context
             return false;
         }
 
+        @Override
+        public void reset()
+        {
+            myUpdateLock.lock();
+            try
+            {
+                checkDisposing();
+            }
+            finally
+            {
+                myUpdateLock.unlock();
+            }
+
+            for (Object obj : new HashSet<Object>(myMap.values()))
+            {
+                if (obj instanceof Resettable)
+                {
+                    ((Resettable) obj).reset(ContextImpl.this);
+                }
+            }
+        }
+
         @Override
         public <T> void put(Key<T> key, T value)
         {
@@ -248,7 +289,7 @@ implements Context
             try
             {
                 checkDisposing();
-                myMap.put(key, value);
+                publish(key, value);
             }
             finally
             {
@@ -274,7 +315,7 @@ implements Context
                 if (!myMap.containsKey(key))
                 {
                     checkDisposing();
-                    myMap.put(key, value);
+                    publish(key, value);
                     return true;
                 }
 
@@ -292,13 +333,18 @@ implements Context
             checkNotNull(key, NULL_KEY_ERROR_MESSAGE);
             checkNotNull(valueProvider, "ValueProvider mustn't be null!");
 
+            if (myMap.containsKey(key))
+            {
+                return false;
+            }
+
             myWriteLock.lock();
             try
             {
                 if (!myMap.containsKey(key))
                 {
                     checkDisposing();
-                    myMap.put(key, valueProvider.provide(ContextImpl.this));
+                    publish(key, valueProvider.provide(ContextImpl.this));
                     return true;
                 }
 
@@ -314,15 +360,21 @@ implements Context
         public <T> void remove(Key<T> key)
         {
             checkNotNull(key, NULL_KEY_ERROR_MESSAGE);
-            myUpdateLock.lock();
+            myWriteLock.lock();
             try
             {
                 checkDisposing();
-                myMap.remove(key);
+
+                if (myMap.containsKey(key))
+                {
+                    final Map<Key<?>, Object> map = new HashMap<Key<?>, Object>(myMap);
+                    map.remove(key);
+                    myMap = map;
+                }
             }
             finally
             {
-                myUpdateLock.unlock();
+                myWriteLock.unlock();
             }
         }
 
@@ -330,36 +382,27 @@ implements Context
         public <T> T get(Key<T> key)
         {
             checkNotNull(key, NULL_KEY_ERROR_MESSAGE);
-            myUpdateLock.lock();
-            try
-            {
-                return (T) myMap.get(key);
-            }
-            finally
-            {
-                myUpdateLock.unlock();
-            }
+            return valueOf(myMap.get(key));
         }
 
         @Override
         public <T> T get(Key<T> key, T defaultValue)
         {
             checkNotNull(key, NULL_KEY_ERROR_MESSAGE);
-            myUpdateLock.lock();
-            try
-            {
-                final T value = (T) myMap.get(key);
-                return value != null ? value : defaultValue;
-            }
-            finally
-            {
-                myUpdateLock.unlock();
-            }
+            final T value = valueOf(myMap.get(key));
+            return value != null ? value : defaultValue;
         }
 
         @Override
         public <T> T getOrCreate(final Key<T> key, final ValueProvider<T> provider)
         {
+            final Map<Key<?>, Object> snapshot = myMap;
+
+            if (snapshot.containsKey(key))
+            {
+                return valueOf(snapshot.get(key));
+            }
+
             myUpdateLock.lock();
             try
             {
@@ -368,7 +411,7 @@ implements Context
                     myWriteLock.lock();
                     try
                     {
-                        myMap.put(key, provider.provide(ContextImpl.this));
+                        publish(key, provider.provide(ContextImpl.this));
                     }
                     finally
                     {
@@ -376,7 +419,7 @@ implements Context
                     }
                 }
 
-                return (T) myMap.get(key);
+                return valueOf(myMap.get(key));
             }
             finally
             {
@@ -387,15 +430,7 @@ implements Context
         @Override
         public boolean contains(Key key)
         {
-            myUpdateLock.lock();
-            try
-            {
-                return myMap.containsKey(key);
-            }
-            finally
-            {
-                myUpdateLock.unlock();
-            }
+            return myMap.containsKey(key);
         }
 
         @Override
@@ -414,10 +449,18 @@ implements Context
         @Override
         public <S> S findService(Class<? extends S> service)
         {
+            final Key<S> key = createKey(service.getName());
+            final Object existing = myMap.get(key);
+
+            if (existing != null && service.isAssignableFrom(existing.getClass()))
+            {
+                return service.cast(existing);
+            }
+
             myUpdateLock.lock();
             try
             {
-                Object instance = myMap.get(createKey(service.getName()));
+                Object instance = myMap.get(key);
 
                 if (instance == null || !service.isAssignableFrom(instance.getClass()))
                 {
@@ -425,7 +468,7 @@ implements Context
                     myWriteLock.lock();
                     try
                     {
-                        myMap.put(createKey(service.getName()), instance);
+                        publish(key, instance);
                     }
                     finally
                     {
@@ -433,7 +476,7 @@ implements Context
                     }
                 }
 
-                return (S) instance;
+                return service.cast(instance);
             }
             finally
             {
@@ -441,6 +484,20 @@ implements Context
             }
         }
 
+        private void publish(Key<?> key, Object value)
+        {
+            final Map<Key<?>, Object> map = new HashMap<Key<?>, Object>(myMap);
+            map.put(key, value);
+            myMap = map;
+        }
+
+        // The values are put by their keys only, hence a value is of the type of its key.
+        @SuppressWarnings("unchecked")
+        private <T> T valueOf(Object value)
+        {
+            return (T) value;
+        }
+
         private void checkDisposing()
         {
             if (isDisposing)
@@ -471,6 +528,12 @@ implements Context
             return true;
         }
 
+        @Override
+        public void reset()
+        {
+            throw new IllegalStateException(DISPOSED_CONTEXT_ERROR_MESSAGE);
+        }
+
         @Override
         public <T> void put(Key<T> key, T value)
         {
@@ -0,0 +1,109 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.context.impl;
+
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextPool;
+import org.jayware.e2.context.api.ContextProvider;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.util.Preconditions.checkState;
+
+
+public class ContextPoolImpl
+implements ContextPool
+{
+    private final ContextProvider myContextProvider;
+    private final int myCapacity;
+
+    private final Deque<Context> myIdleContexts = new ArrayDeque<Context>();
+    private boolean isDisposed = false;
+
+    ContextPoolImpl(ContextProvider contextProvider, int capacity)
+    {
+        myContextProvider = contextProvider;
+        myCapacity = capacity;
+    }
+
+    @Override
+    public Context acquire()
+    {
+        final Context context;
+
+        synchronized (myIdleContexts)
+        {
+            checkState(!isDisposed);
+            context = myIdleContexts.pollFirst();
+        }
+
+        return context != null ? context : myContextProvider.createContext();
+    }
+
+    @Override
+    public void release(Context context)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        context.reset();
+
+        synchronized (myIdleContexts)
+        {
+            if (!isDisposed && myIdleContexts.size() < myCapacity)
+            {
+                myIdleContexts.addFirst(context);
+                return;
+            }
+        }
+
+        context.dispose();
+    }
+
+    @Override
+    public int getIdleCount()
+    {
+        synchronized (myIdleContexts)
+        {
+            return myIdleContexts.size();
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        final List<Context> contexts;
+
+        synchronized (myIdleContexts)
+        {
+            isDisposed = true;
+            contexts = new ArrayList<Context>(myIdleContexts);
+            myIdleContexts.clear();
+        }
+
+        for (Context context : contexts)
+        {
+            context.dispose();
+        }
+    }
+}
@@ -22,15 +22,28 @@ package org.jayware.e2.context.impl;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.ContextInitializationException;
 import org.jayware.e2.context.api.ContextInitializer;
+import org.jayware.e2.context.api.ContextPool;
 import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.diagnostic.impl.FlightEvents.ContextEvent;
 
-import java.util.Iterator;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+
+import static org.jayware.e2.diagnostic.impl.FlightEvents.CONTEXT;
+import static org.jayware.e2.util.Preconditions.checkArgument;
 
 
 public class ContextProviderImpl
 extends ContextProvider
 {
+    // The initializers are held softly, otherwise they would keep their class loaders alive.
+    private static final Map<ClassLoader, SoftReference<List<ContextInitializer>>> ourInitializers = new WeakHashMap<ClassLoader, SoftReference<List<ContextInitializer>>>();
+
     @Override
     public Context createContext()
     {
@@ -40,21 +53,35 @@ extends ContextProvider
     @Override
     public Context createContext(ClassLoader classLoader)
     {
+        final ContextEvent flightEvent = CONTEXT.begin();
         final Context context = new ContextImpl(new DefaultServiceProviderImpl(classLoader));
 
         initialize(context, classLoader);
 
+        if (flightEvent != null)
+        {
+            flightEvent.setContext(String.valueOf(context.getId()));
+            flightEvent.setAction("Create");
+            flightEvent.commit();
+        }
+
         return context;
     }
 
+    @Override
+    public ContextPool createContextPool(int capacity)
+    {
+        checkArgument(capacity >= 0);
+
+        return new ContextPoolImpl(this, capacity);
+    }
+
     private static void initialize(Context context, ClassLoader classLoader)
     {
-        final Iterator<ContextInitializer> services = ServiceLoader.load(ContextInitializer.class, classLoader).iterator();
         try
         {
-            while (services.hasNext())
+            for (ContextInitializer initializer : initializersOf(classLoader))
             {
-                final ContextInitializer initializer = services.next();
                 initializer.initialize(context);
             }
         }
@@ -64,4 +91,28 @@ extends ContextProvider
             throw new ContextInitializationException("Failed to initialize context!", e);
         }
     }
+
+    private static List<ContextInitializer> initializersOf(ClassLoader classLoader)
+    {
+        synchronized (ourInitializers)
+        {
+            final SoftReference<List<ContextInitializer>> reference = ourInitializers.get(classLoader);
+            List<ContextInitializer> initializers = reference != null ? reference.get() : null;
+
+            if (initializers == null)
+            {
+                initializers = new ArrayList<ContextInitializer>();
+
+                for (ContextInitializer initializer : ServiceLoader.load(ContextInitializer.class, classLoader))
+                {
+                    initializers.add(initializer);
+                }
+
+                initializers = Collections.unmodifiableList(initializers);
+                ourInitializers.put(classLoader, new SoftReference<List<ContextInitializer>>(initializers));
+            }
+
+            return initializers;
+        }
+    }
 }
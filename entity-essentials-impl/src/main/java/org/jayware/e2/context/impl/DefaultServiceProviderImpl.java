@@ -22,13 +22,20 @@ package org.jayware.e2.context.impl;
 import org.jayware.e2.context.api.ServiceProvider;
 import org.jayware.e2.context.api.ServiceUnavailableException;
 
+import java.lang.ref.WeakReference;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.ServiceLoader;
+import java.util.WeakHashMap;
 
 
 public class DefaultServiceProviderImpl
 implements ServiceProvider
 {
+    // Services and implementations are held weakly, otherwise the values would keep their class loaders alive.
+    private static final Map<ClassLoader, Map<Class<?>, WeakReference<Class<?>>>> ourImplementations = new WeakHashMap<ClassLoader, Map<Class<?>, WeakReference<Class<?>>>>();
+    private static final WeakReference<Class<?>> NO_IMPLEMENTATION = new WeakReference<Class<?>>(null);
+
     private final ClassLoader myClassLoader;
 
     public DefaultServiceProviderImpl(ClassLoader classLoader)
@@ -52,13 +59,57 @@ implements ServiceProvider
     @Override
     public <S> S findService(Class<? extends S> service)
     {
+        final Map<Class<?>, WeakReference<Class<?>>> implementations;
+
+        synchronized (ourImplementations)
+        {
+            Map<Class<?>, WeakReference<Class<?>>> map = ourImplementations.get(myClassLoader);
+
+            if (map == null)
+            {
+                map = new WeakHashMap<Class<?>, WeakReference<Class<?>>>();
+                ourImplementations.put(myClassLoader, map);
+            }
+
+            implementations = map;
+        }
+
+        synchronized (implementations)
+        {
+            final WeakReference<Class<?>> reference = implementations.get(service);
+            final Class<?> implementation = reference != null ? reference.get() : null;
+
+            if (reference == NO_IMPLEMENTATION || implementation != null)
+            {
+                return instantiate(service, implementation);
+            }
+        }
+
         final Iterator<? extends S> iterator = ServiceLoader.load(service, myClassLoader).iterator();
+        final S result = iterator.hasNext() ? iterator.next() : null;
 
-        if (iterator.hasNext())
+        synchronized (implementations)
         {
-            return iterator.next();
+            implementations.put(service, result != null ? new WeakReference<Class<?>>(result.getClass()) : NO_IMPLEMENTATION);
         }
 
-        return null;
+        return result;
+    }
+
+    private static <S> S instantiate(Class<? extends S> service, Class<?> implementation)
+    {
+        if (implementation == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return service.cast(implementation.getDeclaredConstructor().newInstance());
+        }
+        catch (Exception e)
+        {
+            throw new ServiceUnavailableException(service, e);
+        }
     }
 }
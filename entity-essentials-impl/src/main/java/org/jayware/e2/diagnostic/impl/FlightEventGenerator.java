@@ -0,0 +1,165 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.jayware.e2.diagnostic.impl.FlightEvents.Definition;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+
+import static org.jayware.e2.util.ConfigurationUtil.getPropertyOrDefault;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_7;
+import static org.objectweb.asm.Type.getInternalName;
+import static org.objectweb.asm.Type.getMethodDescriptor;
+
+
+class FlightEventGenerator
+{
+    static final String PROPERTY_FLIGHT_EVENTS = "org.jayware.e2.flight-events";
+
+    private static final String JFR_EVENT_CLASS = "jdk.jfr.Event";
+    private static final String JFR_EVENT_INTERNAL_NAME = "jdk/jfr/Event";
+    private static final String JFR_NAME_DESCRIPTOR = "Ljdk/jfr/Name;";
+    private static final String JFR_LABEL_DESCRIPTOR = "Ljdk/jfr/Label;";
+    private static final String JFR_CATEGORY_DESCRIPTOR = "Ljdk/jfr/Category;";
+
+    private static final String GENERATED_CLASS_SUFFIX = "_FlightEvent";
+
+    private FlightEventGenerator()
+    {
+    }
+
+    static boolean isFlightRecorderAvailable()
+    {
+        if (!Boolean.parseBoolean(String.valueOf(getPropertyOrDefault(System.getProperties(), PROPERTY_FLIGHT_EVENTS, "true"))))
+        {
+            return false;
+        }
+
+        try
+        {
+            Class.forName(JFR_EVENT_CLASS, false, FlightEventGenerator.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException e)
+        {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T extends FlightEvent> Class<? extends T> generate(Class<T> definition)
+    {
+        final Definition annotation = definition.getAnnotation(Definition.class);
+        final String className = definition.getName() + GENERATED_CLASS_SUFFIX;
+        final String classInternalName = className.replace('.', '/');
+        final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+
+        classWriter.visit(V1_7, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, classInternalName, null, JFR_EVENT_INTERNAL_NAME, new String[]{getInternalName(definition)});
+
+        visitStringAnnotation(classWriter.visitAnnotation(JFR_NAME_DESCRIPTOR, true), annotation.name());
+        visitStringAnnotation(classWriter.visitAnnotation(JFR_LABEL_DESCRIPTOR, true), annotation.label());
+
+        {
+            final AnnotationVisitor av = classWriter.visitAnnotation(JFR_CATEGORY_DESCRIPTOR, true);
+            final AnnotationVisitor values = av.visitArray("value");
+            values.visit(null, FlightEvents.CATEGORY);
+            values.visitEnd();
+            av.visitEnd();
+        }
+
+        {
+            final MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, JFR_EVENT_INTERNAL_NAME, "<init>", "()V", false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        for (Method method : definition.getDeclaredMethods())
+        {
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+
+            if (!method.getName().startsWith("set") || parameterTypes.length != 1)
+            {
+                throw new IllegalArgumentException("Not a setter: " + method);
+            }
+
+            final String property = method.getName().substring(3);
+            final String fieldName = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+            final Type fieldType = Type.getType(parameterTypes[0]);
+
+            {
+                final FieldVisitor fv = classWriter.visitField(ACC_PRIVATE, fieldName, fieldType.getDescriptor(), null, null);
+                visitStringAnnotation(fv.visitAnnotation(JFR_LABEL_DESCRIPTOR, true), property);
+                fv.visitEnd();
+            }
+
+            {
+                final MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, method.getName(), getMethodDescriptor(method), null, null);
+                mv.visitCode();
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(fieldType.getOpcode(ILOAD), 1);
+                mv.visitFieldInsn(PUTFIELD, classInternalName, fieldName, fieldType.getDescriptor());
+                mv.visitInsn(RETURN);
+                mv.visitMaxs(0, 0);
+                mv.visitEnd();
+            }
+        }
+
+        classWriter.visitEnd();
+
+        return (Class<? extends T>) new FlightEventClassLoader(definition.getClassLoader()).define(className, classWriter.toByteArray());
+    }
+
+    private static void visitStringAnnotation(AnnotationVisitor av, String value)
+    {
+        av.visit("value", value);
+        av.visitEnd();
+    }
+
+    private static class FlightEventClassLoader
+    extends ClassLoader
+    {
+        private FlightEventClassLoader(ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] bytes)
+        {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
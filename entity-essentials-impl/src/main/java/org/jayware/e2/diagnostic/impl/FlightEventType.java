@@ -0,0 +1,96 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+
+
+public class FlightEventType<T extends FlightEvent>
+{
+    private static final Logger log = LoggerFactory.getLogger(FlightEventType.class);
+
+    private final Constructor<? extends T> myConstructor;
+    private final T myPrototype;
+
+    FlightEventType(Class<T> definition)
+    {
+        Constructor<? extends T> constructor = null;
+        T prototype = null;
+
+        try
+        {
+            if (FlightEventGenerator.isFlightRecorderAvailable())
+            {
+                constructor = FlightEventGenerator.generate(definition).getDeclaredConstructor();
+                prototype = constructor.newInstance();
+            }
+        }
+        catch (Throwable e)
+        {
+            log.debug("Flight recorder events of type '{}' are not available.", definition.getName(), e);
+            constructor = null;
+            prototype = null;
+        }
+
+        myConstructor = constructor;
+        myPrototype = prototype;
+    }
+
+    public boolean isAvailable()
+    {
+        return myPrototype != null;
+    }
+
+    public boolean isEnabled()
+    {
+        return myPrototype != null && myPrototype.isEnabled();
+    }
+
+    public T create()
+    {
+        if (!isEnabled())
+        {
+            return null;
+        }
+
+        try
+        {
+            return myConstructor.newInstance();
+        }
+        catch (Exception e)
+        {
+            return null;
+        }
+    }
+
+    public T begin()
+    {
+        final T event = create();
+
+        if (event != null)
+        {
+            event.begin();
+        }
+
+        return event;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+
+
+public class FlightEvents
+{
+    public static final String CATEGORY = "Entity Essentials";
+
+    public static final FlightEventType<DispatchEvent> DISPATCH = new FlightEventType<DispatchEvent>(DispatchEvent.class);
+    public static final FlightEventType<QueryStateEvent> QUERY_STATE = new FlightEventType<QueryStateEvent>(QueryStateEvent.class);
+    public static final FlightEventType<LockWaitEvent> LOCK_WAIT = new FlightEventType<LockWaitEvent>(LockWaitEvent.class);
+    public static final FlightEventType<ComponentGenerationEvent> COMPONENT_GENERATION = new FlightEventType<ComponentGenerationEvent>(ComponentGenerationEvent.class);
+    public static final FlightEventType<ContextEvent> CONTEXT = new FlightEventType<ContextEvent>(ContextEvent.class);
+
+    private FlightEvents()
+    {
+    }
+
+    @Definition(name = "org.jayware.e2.EventDispatch", label = "Event Dispatch")
+    public interface DispatchEvent
+    extends FlightEvent
+    {
+        void setEventType(String eventType);
+
+        void setSubscriber(String subscriber);
+    }
+
+    @Definition(name = "org.jayware.e2.QueryState", label = "Query State")
+    public interface QueryStateEvent
+    extends FlightEvent
+    {
+        void setQueryType(String queryType);
+
+        void setQueryId(String queryId);
+
+        void setState(String state);
+    }
+
+    @Definition(name = "org.jayware.e2.LockWait", label = "Lock Wait")
+    public interface LockWaitEvent
+    extends FlightEvent
+    {
+        void setLock(String lock);
+    }
+
+    @Definition(name = "org.jayware.e2.ComponentGeneration", label = "Component Generation")
+    public interface ComponentGenerationEvent
+    extends FlightEvent
+    {
+        void setComponentType(String componentType);
+    }
+
+    @Definition(name = "org.jayware.e2.Context", label = "Context Lifecycle")
+    public interface ContextEvent
+    extends FlightEvent
+    {
+        void setContext(String context);
+
+        void setAction(String action);
+    }
+
+    @Target(TYPE)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Definition
+    {
+        String name();
+
+        String label();
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+import org.jayware.e2.diagnostic.api.Footprint;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+
+public class FootprintImpl
+implements Footprint
+{
+    private final Context myContext;
+
+    int myNumberOfEntities;
+    Map<Class<? extends Component>, Integer> myComponents = Collections.emptyMap();
+    Map<Class<? extends Component>, Long> myBytes = Collections.emptyMap();
+    int myNumberOfSubscriptions;
+    int myNumberOfEntitySubscriptions;
+    int myNumberOfPendingDispatches;
+    int myNumberOfGeneratedComponentClasses;
+    int myNumberOfComponentClassLoaders;
+    int myNumberOfGeneratedDispatcherClasses;
+
+    FootprintImpl(Context context)
+    {
+        myContext = context;
+    }
+
+    @Override
+    public int getNumberOfEntities()
+    {
+        return myNumberOfEntities;
+    }
+
+    @Override
+    public Set<Class<? extends Component>> getComponentTypes()
+    {
+        return Collections.unmodifiableSet(myComponents.keySet());
+    }
+
+    @Override
+    public int getNumberOfComponents(Class<? extends Component> type)
+    {
+        final Integer count = myComponents.get(type);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public long getEstimatedBytes(Class<? extends Component> type)
+    {
+        final Long bytes = myBytes.get(type);
+        return bytes != null ? bytes : 0;
+    }
+
+    @Override
+    public long getEstimatedBytes()
+    {
+        long result = 0;
+
+        for (Long bytes : myBytes.values())
+        {
+            result += bytes;
+        }
+
+        return result;
+    }
+
+    @Override
+    public int getNumberOfSubscriptions()
+    {
+        return myNumberOfSubscriptions;
+    }
+
+    @Override
+    public int getNumberOfEntitySubscriptions()
+    {
+        return myNumberOfEntitySubscriptions;
+    }
+
+    @Override
+    public int getNumberOfPendingDispatches()
+    {
+        return myNumberOfPendingDispatches;
+    }
+
+    @Override
+    public int getNumberOfGeneratedComponentClasses()
+    {
+        return myNumberOfGeneratedComponentClasses;
+    }
+
+    @Override
+    public int getNumberOfComponentClassLoaders()
+    {
+        return myNumberOfComponentClassLoaders;
+    }
+
+    @Override
+    public int getNumberOfGeneratedDispatcherClasses()
+    {
+        return myNumberOfGeneratedDispatcherClasses;
+    }
+
+    @Override
+    public Context getContext()
+    {
+        return myContext;
+    }
+
+    @Override
+    public boolean belongsTo(Context context)
+    {
+        return myContext.equals(context);
+    }
+
+    @Override
+    public boolean belongsTo(Contextual contextual)
+    {
+        return contextual != null && myContext.equals(contextual.getContext());
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("Footprint{")
+        .append("entities=").append(myNumberOfEntities)
+        .append(", components={");
+
+        boolean first = true;
+        for (Map.Entry<Class<? extends Component>, Integer> entry : myComponents.entrySet())
+        {
+            builder.append(first ? "" : ", ")
+                   .append(entry.getKey().getSimpleName()).append('=').append(entry.getValue())
+                   .append(" (").append(getEstimatedBytes(entry.getKey())).append(" bytes)");
+            first = false;
+        }
+
+        return builder.append("}")
+        .append(", estimatedBytes=").append(getEstimatedBytes())
+        .append(", subscriptions=").append(myNumberOfSubscriptions)
+        .append(", entitySubscriptions=").append(myNumberOfEntitySubscriptions)
+        .append(", pendingDispatches=").append(myNumberOfPendingDispatches)
+        .append(", componentClasses=").append(myNumberOfGeneratedComponentClasses)
+        .append(", componentClassLoaders=").append(myNumberOfComponentClassLoaders)
+        .append(", dispatcherClasses=").append(myNumberOfGeneratedDispatcherClasses)
+        .append('}').toString();
+    }
+}
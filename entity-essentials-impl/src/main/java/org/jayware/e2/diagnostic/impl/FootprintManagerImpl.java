@@ -0,0 +1,100 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentFactory;
+import org.jayware.e2.component.api.generation.analyse.ComponentDescriptor;
+import org.jayware.e2.component.impl.ComponentFactoryImpl;
+import org.jayware.e2.component.impl.ComponentStore;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.diagnostic.api.Footprint;
+import org.jayware.e2.diagnostic.api.FootprintManager;
+import org.jayware.e2.event.impl.EventBus;
+import org.jayware.e2.storage.api.Storage;
+import org.jayware.e2.storage.impl.StorageImpl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_FACTORY;
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.diagnostic.impl.ObjectLayout.HASH_MAP_ENTRY_SIZE;
+import static org.jayware.e2.diagnostic.impl.ObjectLayout.HEADER_SIZE;
+import static org.jayware.e2.diagnostic.impl.ObjectLayout.instanceSizeOf;
+import static org.jayware.e2.event.impl.EventManagerImpl.EVENT_BUS;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+
+
+public class FootprintManagerImpl
+implements FootprintManager
+{
+    @Override
+    public Footprint measure(Context context)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        final FootprintImpl footprint = new FootprintImpl(context);
+
+        final Storage storage = context.get(STORAGE_KEY);
+        if (storage instanceof StorageImpl)
+        {
+            footprint.myNumberOfEntities = ((StorageImpl) storage).numberOfEntities();
+        }
+
+        final ComponentFactory componentFactory = context.get(COMPONENT_FACTORY);
+        final ComponentFactoryImpl factory = componentFactory instanceof ComponentFactoryImpl ? (ComponentFactoryImpl) componentFactory : null;
+        if (factory != null)
+        {
+            footprint.myNumberOfGeneratedComponentClasses = factory.getNumberOfGeneratedClasses();
+            footprint.myNumberOfComponentClassLoaders = factory.getNumberOfClassLoaders();
+        }
+
+        final ComponentStore store = context.get(COMPONENT_STORE);
+        if (store != null)
+        {
+            final Map<Class<? extends Component>, Integer> counts = store.countComponents();
+            final Map<Class<? extends Component>, Long> bytes = new HashMap<Class<? extends Component>, Long>();
+
+            for (Map.Entry<Class<? extends Component>, Integer> entry : counts.entrySet())
+            {
+                final ComponentDescriptor descriptor = factory != null ? factory.getComponentDescriptor(entry.getKey()) : null;
+                final int instanceSize = descriptor != null ? instanceSizeOf(descriptor) : HEADER_SIZE;
+
+                bytes.put(entry.getKey(), (long) entry.getValue() * (instanceSize + HASH_MAP_ENTRY_SIZE));
+            }
+
+            footprint.myComponents = counts;
+            footprint.myBytes = bytes;
+        }
+
+        final EventBus eventBus = context.get(EVENT_BUS);
+        if (eventBus != null)
+        {
+            footprint.myNumberOfSubscriptions = eventBus.numberOfSubscriptions();
+            footprint.myNumberOfEntitySubscriptions = eventBus.numberOfEntitySubscriptions();
+            footprint.myNumberOfPendingDispatches = eventBus.numberOfPendingDispatches();
+        }
+
+        footprint.myNumberOfGeneratedDispatcherClasses = EventBus.numberOfGeneratedDispatcherClasses();
+
+        return footprint;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.jayware.e2.component.api.generation.analyse.ComponentDescriptor;
+import org.jayware.e2.component.api.generation.analyse.ComponentPropertyDescriptor;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+
+public class ObjectLayout
+{
+    public static final int REFERENCE_SIZE = referenceSize();
+    public static final int HEADER_SIZE = REFERENCE_SIZE == 4 ? 12 : 16;
+
+    // A HashMap entry (hash, key, value, next) plus its slot in the table.
+    public static final int HASH_MAP_ENTRY_SIZE = align(HEADER_SIZE + 4 + 3 * REFERENCE_SIZE) + REFERENCE_SIZE;
+
+    // Every generated component extends AbstractComponent which holds a Context and a ComponentManager.
+    private static final int ABSTRACT_COMPONENT_FIELDS = 2;
+
+    private ObjectLayout()
+    {
+    }
+
+    public static int instanceSizeOf(ComponentDescriptor descriptor)
+    {
+        final List<ComponentPropertyDescriptor> properties = descriptor.getPropertyDescriptors();
+        int size = HEADER_SIZE + ABSTRACT_COMPONENT_FIELDS * REFERENCE_SIZE;
+
+        for (ComponentPropertyDescriptor property : properties)
+        {
+            size += fieldSizeOf(property.getPropertyType());
+        }
+
+        return align(size);
+    }
+
+    public static int fieldSizeOf(Class<?> type)
+    {
+        if (type == long.class || type == double.class)
+        {
+            return 8;
+        }
+
+        if (type == int.class || type == float.class)
+        {
+            return 4;
+        }
+
+        if (type == short.class || type == char.class)
+        {
+            return 2;
+        }
+
+        if (type == byte.class || type == boolean.class)
+        {
+            return 1;
+        }
+
+        return REFERENCE_SIZE;
+    }
+
+    public static int align(int size)
+    {
+        return (size + 7) & ~7;
+    }
+
+    // Compressed references are used by 64-bit VMs as long as the heap is smaller than 32 GB.
+    private static int referenceSize()
+    {
+        final String model = System.getProperty("sun.arch.data.model", System.getProperty("os.arch", ""));
+
+        if (!model.contains("64"))
+        {
+            return 4;
+        }
+
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments())
+        {
+            if (argument.equals("-XX:-UseCompressedOops"))
+            {
+                return 8;
+            }
+        }
+
+        return Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024 ? 4 : 8;
+    }
+}
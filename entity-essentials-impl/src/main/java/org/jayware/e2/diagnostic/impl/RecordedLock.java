@@ -0,0 +1,126 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.jayware.e2.diagnostic.impl.FlightEvents.LockWaitEvent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+import static org.jayware.e2.diagnostic.impl.FlightEvents.LOCK_WAIT;
+
+
+public class RecordedLock
+implements Lock
+{
+    private final Lock myLock;
+    private final String myName;
+
+    public RecordedLock(Lock lock, String name)
+    {
+        myLock = lock;
+        myName = name;
+    }
+
+    @Override
+    public void lock()
+    {
+        // Probing with tryLock() barges past queued writers, so only do it while recording.
+        if (!LOCK_WAIT.isEnabled())
+        {
+            myLock.lock();
+            return;
+        }
+
+        // Only contended acquisitions are worth a flight event.
+        if (myLock.tryLock())
+        {
+            return;
+        }
+
+        final LockWaitEvent event = LOCK_WAIT.begin();
+
+        myLock.lock();
+
+        commit(event);
+    }
+
+    @Override
+    public void lockInterruptibly()
+    throws InterruptedException
+    {
+        if (!LOCK_WAIT.isEnabled())
+        {
+            myLock.lockInterruptibly();
+            return;
+        }
+
+        if (myLock.tryLock())
+        {
+            return;
+        }
+
+        final LockWaitEvent event = LOCK_WAIT.begin();
+
+        myLock.lockInterruptibly();
+
+        commit(event);
+    }
+
+    @Override
+    public boolean tryLock()
+    {
+        return myLock.tryLock();
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit)
+    throws InterruptedException
+    {
+        return myLock.tryLock(time, unit);
+    }
+
+    @Override
+    public void unlock()
+    {
+        myLock.unlock();
+    }
+
+    @Override
+    public Condition newCondition()
+    {
+        return myLock.newCondition();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RecordedLock { " + myName + " }";
+    }
+
+    private void commit(LockWaitEvent event)
+    {
+        if (event != null)
+        {
+            event.setLock(myName);
+            event.commit();
+        }
+    }
+}
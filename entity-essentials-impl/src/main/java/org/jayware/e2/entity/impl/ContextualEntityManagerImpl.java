@@ -19,11 +19,13 @@
 package org.jayware.e2.entity.impl;
 
 import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Contextual;
 import org.jayware.e2.entity.api.ContextualEntityManager;
 import org.jayware.e2.entity.api.EntityManager;
 import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.entity.api.EntityVisitor;
 import org.jayware.e2.util.Filter;
 
 import java.util.List;
@@ -109,6 +111,56 @@ implements ContextualEntityManager
         return myDelegate.findEntities(myContext, aspect, filters);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<EntityRef> findEntities(Aspect aspect, int offset, int limit, Filter<EntityRef>... filters)
+    {
+        checkNotNull(aspect);
+        checkNotNull(filters);
+        checkContextNotNullAndNotDisposed(myContext);
+
+        return myDelegate.findEntities(myContext, aspect, offset, limit, filters);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void visitEntities(Aspect aspect, EntityVisitor visitor, Filter<EntityRef>... filters)
+    {
+        checkNotNull(aspect);
+        checkNotNull(visitor);
+        checkNotNull(filters);
+        checkContextNotNullAndNotDisposed(myContext);
+
+        myDelegate.visitEntities(myContext, aspect, visitor, filters);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<EntityRef> findEntitiesInParallel(Aspect aspect, Filter<EntityRef>... filters)
+    {
+        checkNotNull(aspect);
+        checkNotNull(filters);
+        checkContextNotNullAndNotDisposed(myContext);
+
+        return myDelegate.findEntitiesInParallel(myContext, aspect, filters);
+    }
+
+    @Override
+    public List<EntityRef> findEntitiesByProperty(Class<? extends Component> component, String property, Object value)
+    {
+        checkContextNotNullAndNotDisposed(myContext);
+
+        return myDelegate.findEntitiesByProperty(myContext, component, property, value);
+    }
+
+    @Override
+    public List<EntityRef> findEntitiesByPropertyRange(Class<? extends Component> component, String property, Comparable<?> from, Comparable<?> to)
+    {
+        checkContextNotNullAndNotDisposed(myContext);
+
+        return myDelegate.findEntitiesByPropertyRange(myContext, component, property, from, to);
+    }
+
     @Override
     public Context getContext()
     {
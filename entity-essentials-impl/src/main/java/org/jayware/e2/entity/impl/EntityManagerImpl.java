@@ -20,26 +20,33 @@ package org.jayware.e2.entity.impl;
 
 
 import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.entity.api.ContextualEntityManager;
 import org.jayware.e2.entity.api.EntityEvent.CreateEntityEvent;
 import org.jayware.e2.entity.api.EntityEvent.DeleteEntitiesEvent;
 import org.jayware.e2.entity.api.EntityEvent.DeleteEntityEvent;
+import org.jayware.e2.entity.api.EntityEvent.FindEntitiesByPropertyEvent;
 import org.jayware.e2.entity.api.EntityEvent.FindEntitiesEvent;
 import org.jayware.e2.entity.api.EntityEvent.ResolveEntityEvent;
 import org.jayware.e2.entity.api.EntityManager;
 import org.jayware.e2.entity.api.EntityManagerException;
 import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.entity.api.EntityVisitor;
 import org.jayware.e2.event.api.EventManager;
 import org.jayware.e2.event.api.QueryBuilder;
 import org.jayware.e2.event.api.ResultSet;
+import org.jayware.e2.storage.impl.StorageImpl;
 import org.jayware.e2.util.Filter;
 import org.jayware.e2.util.TimeoutException;
 
+import java.lang.reflect.Array;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 import static org.jayware.e2.component.api.Aspect.ANY;
 import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
@@ -48,10 +55,20 @@ import static org.jayware.e2.entity.api.EntityEvent.CreateEntityEvent.EntityIdPa
 import static org.jayware.e2.entity.api.EntityEvent.CreateEntityEvent.EntityRefParam;
 import static org.jayware.e2.entity.api.EntityEvent.EntityRefListParam;
 import static org.jayware.e2.entity.api.EntityEvent.FilterListParam;
+import static org.jayware.e2.entity.api.EntityEvent.LimitParam;
+import static org.jayware.e2.entity.api.EntityEvent.LowerBoundParam;
+import static org.jayware.e2.entity.api.EntityEvent.OffsetParam;
+import static org.jayware.e2.entity.api.EntityEvent.ParallelParam;
+import static org.jayware.e2.entity.api.EntityEvent.PropertyComponentParam;
+import static org.jayware.e2.entity.api.EntityEvent.PropertyNameParam;
+import static org.jayware.e2.entity.api.EntityEvent.PropertyValueParam;
+import static org.jayware.e2.entity.api.EntityEvent.UpperBoundParam;
 import static org.jayware.e2.entity.api.Preconditions.checkRefNotNullAndValid;
 import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
 import static org.jayware.e2.event.api.Parameters.param;
 import static org.jayware.e2.event.api.Query.State.Success;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+import static org.jayware.e2.util.Preconditions.checkArgument;
 import static org.jayware.e2.util.Preconditions.checkNotNull;
 
 
@@ -176,20 +193,26 @@ implements EntityManager
 
     @Override
     public List<EntityRef> findEntities(Context context, Aspect aspect, Filter<EntityRef>... filters)
+    {
+        return findEntities(context, aspect, 0, Integer.MAX_VALUE, filters);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EntityRef> queryEntities(Context context, Aspect aspect, int offset, int limit, boolean parallel, Filter<EntityRef>... filters)
     {
         final EventManager eventManager;
         final ResultSet resultSet;
         final QueryBuilder builder;
 
-        checkContextNotNullAndNotDisposed(context);
-        checkNotNull(aspect, "Aspect mustn' t be null");
-
         try
         {
             eventManager = context.getService(EventManager.class);
             builder = eventManager.createQuery(FindEntitiesEvent.class);
             builder.set(ContextParam).to(context)
-                   .set(AspectParam).to(aspect);
+                   .set(AspectParam).to(aspect)
+                   .set(OffsetParam).to(offset)
+                   .set(LimitParam).to(limit)
+                   .set(ParallelParam).to(parallel);
 
             if (filters != null)
             {
@@ -255,4 +278,122 @@ implements EntityManager
         checkContextNotNullAndNotDisposed(context);
         return new ContextualEntityManagerImpl(context, this);
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<EntityRef> findEntities(Context context, Aspect aspect, int offset, int limit, Filter<EntityRef>... filters)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(aspect, "Aspect mustn' t be null");
+        checkArgument(offset >= 0, "Offset mustn't be negative!");
+        checkArgument(limit >= 0, "Limit mustn't be negative!");
+
+        return queryEntities(context, aspect, offset, limit, false, filters);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void visitEntities(Context context, Aspect aspect, EntityVisitor visitor, Filter<EntityRef>... filters)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(aspect, "Aspect mustn' t be null");
+        checkNotNull(visitor, "EntityVisitor mustn' t be null");
+
+        final List<Filter<EntityRef>> filterList = filters != null ? asList(filters) : null;
+
+        ((StorageImpl) context.get(STORAGE_KEY)).visitEntities(aspect, filterList, visitor);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<EntityRef> findEntitiesInParallel(Context context, Aspect aspect, Filter<EntityRef>... filters)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(aspect, "Aspect mustn' t be null");
+
+        return queryEntities(context, aspect, 0, Integer.MAX_VALUE, true, filters);
+    }
+
+    @Override
+    public List<EntityRef> findEntitiesByProperty(Context context, Class<? extends Component> component, String property, Object value)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(component, "Component mustn' t be null");
+        checkNotNull(property, "Property mustn' t be null");
+        checkNotNull(value, "Value mustn' t be null");
+        checkProperty(component, property, value, false);
+
+        return queryEntitiesByProperty(context, component, property, value, null, null);
+    }
+
+    @Override
+    public List<EntityRef> findEntitiesByPropertyRange(Context context, Class<? extends Component> component, String property, Comparable<?> from, Comparable<?> to)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(component, "Component mustn' t be null");
+        checkNotNull(property, "Property mustn' t be null");
+        checkProperty(component, property, from, true);
+        checkProperty(component, property, to, true);
+
+        return queryEntitiesByProperty(context, component, property, null, from, to);
+    }
+
+    private List<EntityRef> queryEntitiesByProperty(Context context, Class<? extends Component> component, String property, Object value, Object from, Object to)
+    {
+        final EventManager eventManager;
+        final ResultSet resultSet;
+        final QueryBuilder builder;
+
+        try
+        {
+            eventManager = context.getService(EventManager.class);
+            builder = eventManager.createQuery(FindEntitiesByPropertyEvent.class);
+            builder.set(ContextParam).to(context)
+                   .set(PropertyComponentParam).to(component)
+                   .set(PropertyNameParam).to(property)
+                   .set(PropertyValueParam).to(value)
+                   .set(LowerBoundParam).to(from)
+                   .set(UpperBoundParam).to(to);
+
+            resultSet = eventManager.query(builder);
+
+            resultSet.timeout(Success, TIMEOUT_IN_MILLISECONDS, "Failed to find entities by property within %sms", TIMEOUT_IN_MILLISECONDS);
+
+            return resultSet.get(EntityRefListParam);
+        }
+        catch (TimeoutException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new EntityManagerException(e, "Failed to find entities by property '%s' of '%s'!", property, component.getName());
+        }
+    }
+
+    static void checkProperty(Class<? extends Component> component, String property, Object value, boolean comparable)
+    {
+        final Class<?> declaredType;
+
+        try
+        {
+            declaredType = component.getMethod("get" + property.substring(0, 1).toUpperCase() + property.substring(1)).getReturnType();
+        }
+        catch (Exception e)
+        {
+            throw new IllegalArgumentException(format("The component '%s' does not have a property '%s'!", component.getName(), property), e);
+        }
+
+        final Class<?> type = declaredType.isPrimitive() ? Array.get(Array.newInstance(declaredType, 1), 0).getClass() : declaredType;
+
+        if (comparable && !Comparable.class.isAssignableFrom(type))
+        {
+            throw new IllegalArgumentException(format("The property '%s' of '%s' is not comparable!", property, component.getName()));
+        }
+
+        if (value != null && !type.isInstance(value))
+        {
+            throw new IllegalArgumentException(format("The property '%s' of '%s' is of type '%s' but '%s' was passed!", property, component.getName(), type.getName(), value.getClass().getName()));
+        }
+    }
 }
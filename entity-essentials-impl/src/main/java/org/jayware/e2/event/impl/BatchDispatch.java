@@ -0,0 +1,165 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventFilter;
+import org.jayware.e2.event.api.EventInstrumentation;
+import org.jayware.e2.event.api.EventType;
+import org.jayware.e2.event.api.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+public class BatchDispatch
+implements Runnable
+{
+    private static final Logger log = LoggerFactory.getLogger(BatchDispatch.class);
+
+    private final Context myContext;
+    private final List<Event> myEvents;
+    private final Map<Class<? extends EventType>, List<Event>> myBatches;
+    private final Iterable<Subscription> mySubscriptions;
+    private final EntitySubscriptions myEntitySubscriptions;
+    private final EventInstrumentation myInstrumentation;
+
+    BatchDispatch(Context context, List<Event> events, Iterable<Subscription> subscriptions, EntitySubscriptions entitySubscriptions, EventInstrumentation instrumentation)
+    {
+        myContext = context;
+        myEvents = events;
+        myBatches = batchesOf(events);
+        mySubscriptions = subscriptions;
+        myEntitySubscriptions = entitySubscriptions;
+        myInstrumentation = instrumentation;
+    }
+
+    public Set<Class<? extends EventType>> getEventTypes()
+    {
+        return myBatches.keySet();
+    }
+
+    public void run()
+    {
+        for (Event event : myEvents)
+        {
+            new EventDispatch(myContext, event, myEntitySubscriptions.route(mySubscriptions, event), myInstrumentation).run();
+        }
+
+        for (Subscription subscription : mySubscriptions)
+        {
+            final Object subscriber = subscription.getSubscriber();
+            final BatchHandlers handlers = subscriber != null ? BatchHandlers.of(subscriber.getClass()) : null;
+
+            if (handlers == null || handlers.isEmpty())
+            {
+                continue;
+            }
+
+            for (Map.Entry<Class<? extends EventType>, List<Event>> entry : myBatches.entrySet())
+            {
+                if (!handlers.accepts(entry.getKey()))
+                {
+                    continue;
+                }
+
+                try
+                {
+                    final List<Event> batch = filter(entry.getValue(), subscription.getFilters());
+
+                    if (!batch.isEmpty())
+                    {
+                        handlers.dispatch(entry.getKey(), Collections.unmodifiableList(batch), subscriber);
+                    }
+                }
+                catch (Exception e)
+                {
+                    log.error("Failed to dispatch batch of " + entry.getKey().getSimpleName() + " to: " + subscriber, e);
+                }
+            }
+        }
+    }
+
+    // Only @HandleBatch methods receive the events grouped by type, the order within a type is kept.
+    private static Map<Class<? extends EventType>, List<Event>> batchesOf(List<Event> events)
+    {
+        final Map<Class<? extends EventType>, List<Event>> result = new LinkedHashMap<Class<? extends EventType>, List<Event>>();
+
+        for (Event event : events)
+        {
+            List<Event> batch = result.get(event.getType());
+
+            if (batch == null)
+            {
+                batch = new ArrayList<Event>();
+                result.put(event.getType(), batch);
+            }
+
+            batch.add(event);
+        }
+
+        return result;
+    }
+
+    private List<Event> filter(List<Event> events, EventFilter[] filters)
+    {
+        if (filters.length == 0)
+        {
+            return events;
+        }
+
+        final List<Event> result = new ArrayList<Event>(events.size());
+
+        for (Event event : events)
+        {
+            if (passedFilters(event, filters))
+            {
+                result.add(event);
+            }
+        }
+
+        return result;
+    }
+
+    private boolean passedFilters(Event event, EventFilter[] filters)
+    {
+        for (EventFilter filter : filters)
+        {
+            if (!filter.accepts(myContext, event))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BatchDispatch { " + myBatches.keySet() + " }";
+    }
+}
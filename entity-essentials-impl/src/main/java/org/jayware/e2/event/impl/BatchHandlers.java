@@ -0,0 +1,149 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventType;
+import org.jayware.e2.event.api.HandleBatch;
+import org.jayware.e2.event.api.IllegalHandlerException;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static java.lang.String.format;
+
+
+class BatchHandlers
+{
+    static final BatchHandlers NONE = new BatchHandlers(new ArrayList<Method>());
+
+    // The handlers reference the methods and thereby the class loader of the subscriber class,
+    // hence they are held softly to let the loader be collected.
+    private static final Map<Class<?>, SoftReference<BatchHandlers>> ourHandlers = new WeakHashMap<Class<?>, SoftReference<BatchHandlers>>();
+
+    private final List<Method> myMethods;
+
+    private BatchHandlers(List<Method> methods)
+    {
+        myMethods = methods;
+    }
+
+    static BatchHandlers of(Class<?> subscriberClass)
+    {
+        BatchHandlers handlers;
+
+        synchronized (ourHandlers)
+        {
+            final SoftReference<BatchHandlers> reference = ourHandlers.get(subscriberClass);
+            handlers = reference != null ? reference.get() : null;
+        }
+
+        if (handlers == null)
+        {
+            handlers = handlersOf(subscriberClass);
+
+            synchronized (ourHandlers)
+            {
+                ourHandlers.put(subscriberClass, new SoftReference<BatchHandlers>(handlers));
+            }
+        }
+
+        return handlers;
+    }
+
+    private static BatchHandlers handlersOf(Class<?> subscriberClass)
+    {
+        final List<Method> methods = new ArrayList<Method>();
+
+        for (Method method : subscriberClass.getMethods())
+        {
+            if (method.getAnnotation(HandleBatch.class) == null)
+            {
+                continue;
+            }
+
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+
+            if (parameterTypes.length != 1 || !parameterTypes[0].isAssignableFrom(List.class))
+            {
+                throw new IllegalHandlerException(format("A batch handler has to accept exactly one List: %s", method));
+            }
+
+            method.setAccessible(true);
+            methods.add(method);
+        }
+
+        return methods.isEmpty() ? NONE : new BatchHandlers(methods);
+    }
+
+    boolean isEmpty()
+    {
+        return myMethods.isEmpty();
+    }
+
+    boolean accepts(Class<? extends EventType> type)
+    {
+        for (Method method : myMethods)
+        {
+            if (accepts(method, type))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    void dispatch(Class<? extends EventType> type, List<Event> events, Object subscriber)
+    throws Exception
+    {
+        for (Method method : myMethods)
+        {
+            if (accepts(method, type))
+            {
+                try
+                {
+                    method.invoke(subscriber, events);
+                }
+                catch (InvocationTargetException e)
+                {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+    }
+
+    private static boolean accepts(Method method, Class<? extends EventType> type)
+    {
+        for (Class<? extends EventType> handledType : method.getAnnotation(HandleBatch.class).value())
+        {
+            if (handledType.isAssignableFrom(type))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.entity.api.EntityEvent.EntityDeletedEvent;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.jayware.e2.entity.api.EntityEvent.EntityRefParam;
+
+
+public class EntitySubscriptions
+{
+    private static final Subscription[] EMPTY_SUBSCRIPTIONS = new Subscription[0];
+
+    private final Map<Object, Subscription> mySubscriptions = new WeakHashMap<Object, Subscription>();
+    private final Map<Object, Set<EntityRef>> myEntities = new WeakHashMap<Object, Set<EntityRef>>();
+    private final ConcurrentMap<EntityRef, Subscription[]> myIndex = new ConcurrentHashMap<EntityRef, Subscription[]>();
+
+    private final Object myLock = new Object();
+
+    public Subscription getSubscription(Object subscriber)
+    {
+        synchronized (myLock)
+        {
+            return mySubscriptions.get(subscriber);
+        }
+    }
+
+    public void subscribe(EntityRef ref, Subscription subscription)
+    {
+        final Object subscriber = subscription.getSubscriber();
+
+        synchronized (myLock)
+        {
+            Set<EntityRef> entities = myEntities.get(subscriber);
+
+            if (entities == null)
+            {
+                entities = new HashSet<EntityRef>();
+                myEntities.put(subscriber, entities);
+                mySubscriptions.put(subscriber, subscription);
+            }
+
+            if (!entities.add(ref))
+            {
+                return;
+            }
+
+            final Subscription[] subscriptions = myIndex.get(ref);
+
+            if (subscriptions == null)
+            {
+                myIndex.put(ref, new Subscription[] {mySubscriptions.get(subscriber)});
+            }
+            else
+            {
+                final Subscription[] extended = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+                extended[subscriptions.length] = mySubscriptions.get(subscriber);
+                myIndex.put(ref, extended);
+            }
+        }
+    }
+
+    public void unsubscribe(EntityRef ref, Object subscriber)
+    {
+        synchronized (myLock)
+        {
+            final Set<EntityRef> entities = myEntities.get(subscriber);
+
+            if (entities == null || !entities.remove(ref))
+            {
+                return;
+            }
+
+            if (entities.isEmpty())
+            {
+                myEntities.remove(subscriber);
+                mySubscriptions.remove(subscriber);
+            }
+
+            removeFromIndex(ref, subscriber);
+        }
+    }
+
+    public void unsubscribe(Object subscriber)
+    {
+        synchronized (myLock)
+        {
+            final Set<EntityRef> entities = myEntities.remove(subscriber);
+
+            if (entities == null)
+            {
+                return;
+            }
+
+            mySubscriptions.remove(subscriber);
+
+            for (EntityRef ref : entities)
+            {
+                removeFromIndex(ref, subscriber);
+            }
+        }
+    }
+
+    public Iterable<Subscription> route(Iterable<Subscription> subscriptions, Event event)
+    {
+        if (myIndex.isEmpty() || !event.hasParameter(EntityRefParam))
+        {
+            return subscriptions;
+        }
+
+        final Object ref = event.getParameter(EntityRefParam);
+
+        if (!(ref instanceof EntityRef))
+        {
+            return subscriptions;
+        }
+
+        final Subscription[] scoped = myIndex.get(ref);
+
+        if (scoped == null)
+        {
+            return subscriptions;
+        }
+
+        // The routing of the deletion is the last one for the entity, hence its subscriptions can be revoked.
+        if (event.matches(EntityDeletedEvent.class))
+        {
+            remove((EntityRef) ref);
+        }
+
+        return new Concatenation(subscriptions, scoped);
+    }
+
+    public int size()
+    {
+        synchronized (myLock)
+        {
+            return mySubscriptions.size();
+        }
+    }
+
+    public void clear()
+    {
+        synchronized (myLock)
+        {
+            mySubscriptions.clear();
+            myEntities.clear();
+            myIndex.clear();
+        }
+    }
+
+    private void remove(EntityRef ref)
+    {
+        synchronized (myLock)
+        {
+            final Subscription[] subscriptions = myIndex.remove(ref);
+
+            if (subscriptions == null)
+            {
+                return;
+            }
+
+            for (Subscription subscription : subscriptions)
+            {
+                final Object subscriber = subscription.getSubscriber();
+                final Set<EntityRef> entities = subscriber != null ? myEntities.get(subscriber) : null;
+
+                if (entities != null)
+                {
+                    entities.remove(ref);
+
+                    if (entities.isEmpty())
+                    {
+                        myEntities.remove(subscriber);
+                        mySubscriptions.remove(subscriber);
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeFromIndex(EntityRef ref, Object subscriber)
+    {
+        final Subscription[] subscriptions = myIndex.get(ref);
+
+        if (subscriptions == null)
+        {
+            return;
+        }
+
+        final List<Subscription> remaining = new ArrayList<Subscription>(subscriptions.length);
+
+        for (Subscription subscription : subscriptions)
+        {
+            final Object other = subscription.getSubscriber();
+
+            if (other != null && !other.equals(subscriber))
+            {
+                remaining.add(subscription);
+            }
+        }
+
+        if (remaining.isEmpty())
+        {
+            myIndex.remove(ref);
+        }
+        else
+        {
+            myIndex.put(ref, remaining.toArray(EMPTY_SUBSCRIPTIONS));
+        }
+    }
+
+    private static class Concatenation
+    implements Iterable<Subscription>
+    {
+        private final Iterable<Subscription> myFirst;
+        private final Subscription[] mySecond;
+
+        private Concatenation(Iterable<Subscription> first, Subscription[] second)
+        {
+            myFirst = first;
+            mySecond = second;
+        }
+
+        @Override
+        public Iterator<Subscription> iterator()
+        {
+            final Iterator<Subscription> first = myFirst.iterator();
+
+            return new Iterator<Subscription>()
+            {
+                private int myIndex = 0;
+
+                @Override
+                public boolean hasNext()
+                {
+                    if (first.hasNext())
+                    {
+                        return true;
+                    }
+
+                    // Skip subscriptions whose subscriber has already been garbage collected.
+                    while (myIndex < mySecond.length && mySecond[myIndex].getSubscriber() == null)
+                    {
+                        ++myIndex;
+                    }
+
+                    return myIndex < mySecond.length;
+                }
+
+                @Override
+                public Subscription next()
+                {
+                    if (!hasNext())
+                    {
+                        throw new NoSuchElementException();
+                    }
+
+                    return first.hasNext() ? first.next() : mySecond[myIndex++];
+                }
+
+                @Override
+                public void remove()
+                {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
@@ -20,51 +20,100 @@ package org.jayware.e2.event.impl;
 
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.context.api.Resettable;
+import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.event.api.Event;
 import org.jayware.e2.event.api.EventDispatcher;
 import org.jayware.e2.event.api.EventDispatcherFactory;
 import org.jayware.e2.event.api.EventFilter;
+import org.jayware.e2.event.api.EventInstrumentation;
+import org.jayware.e2.event.api.EventType;
+import org.jayware.e2.event.api.EventType.Notification;
 import org.jayware.e2.event.api.Query;
 import org.jayware.e2.event.api.ResultSet;
 import org.jayware.e2.event.api.Subscription;
 import org.jayware.e2.event.api.SubscriptionBookkeeper;
 import org.jayware.e2.event.api.SubscriptionFactory;
+import org.jayware.e2.event.impl.EventRecorderImpl.NestedDispatch;
 import org.jayware.e2.util.ReferenceType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.jayware.e2.event.impl.EventManagerImpl.EMPTY_FILTER_ARRAY;
 import static org.jayware.e2.util.ObjectUtil.getClassNameOf;
 
 
 public class EventBus
-implements Disposable
+implements Disposable, Resettable
 {
     private static final Logger log = LoggerFactory.getLogger(EventBus.class);
 
+    private static final int WORKER_COUNT = 4;
+    private static final int WORKER_QUEUE_CAPACITY = 256;
+    private static final long WORKER_KEEP_ALIVE_IN_SECONDS = 60;
+
+    private static final EventDispatcherFactory ourEventDispatcherFactory = new EventDispatcherFactoryImpl();
+
+    private static final ScheduledExecutorService ourFlushTimer = createFlushTimer();
+
     private final Context myContext;
 
-    private final EventDispatcherFactory myEventDispatcherFactory;
     private final SubscriptionFactory mySubscriptionFactory;
 
     private final SubscriptionBookkeeper myBookkeeper;
+    private final EntitySubscriptions myEntitySubscriptions;
 
-    private final ThreadPoolExecutor myWorkerPool;
+    private volatile ExecutorService myWorkerPool;
+    private volatile boolean mySharingEventLoopGroup;
+
+    private volatile EventInstrumentation myInstrumentation;
+    private volatile EventRecorderImpl myRecorder;
+
+    private volatile NotificationBuffer myNotificationBuffer;
+    private volatile long myBatchingWindow;
+
+    private final Executor myCallerRuns = new Executor()
+    {
+        @Override
+        public void execute(Runnable runnable)
+        {
+            countCallerRuns(runnable);
+            runnable.run();
+        }
+    };
+
+    private final Runnable myFlushTask = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            flushNotifications();
+        }
+    };
 
     public EventBus(Context context)
     {
         myContext = context;
-        myEventDispatcherFactory = new EventDispatcherFactoryImpl();
         mySubscriptionFactory = new SubscriptionFactoryImpl();
         myBookkeeper = new SubscriptionBookkeeperImpl();
-        myWorkerPool = new ThreadPoolExecutor(4, 4, 0L, SECONDS, new ArrayBlockingQueue<Runnable>(256), new EventBusThreadFactory(), new CallerRunsPolicy());
+        myEntitySubscriptions = new EntitySubscriptions();
+        final ThreadPoolExecutor workerPool = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, WORKER_KEEP_ALIVE_IN_SECONDS, SECONDS, new ArrayBlockingQueue<Runnable>(WORKER_QUEUE_CAPACITY), new EventBusThreadFactory(), new RedirectOrCallerRunsPolicy());
+        workerPool.allowCoreThreadTimeOut(true);
+        myWorkerPool = workerPool;
     }
 
     public void subscribe(Object subscriber, ReferenceType referenceType, EventFilter[] filters)
@@ -77,43 +126,230 @@ implements Disposable
             return;
         }
 
-        eventDispatcher = myEventDispatcherFactory.createEventDispatcher(subscriber.getClass());
+        eventDispatcher = ourEventDispatcherFactory.createEventDispatcher(subscriber.getClass());
         subscription = mySubscriptionFactory.createSubscription(subscriber, referenceType, filters, eventDispatcher);
 
+        // Fails early on malformed batch handlers and warms up the cache.
+        BatchHandlers.of(subscriber.getClass());
+
         myBookkeeper.subscribe(subscription);
+        myEntitySubscriptions.unsubscribe(subscriber);
 
         log.debug("Subscribe: [ {} ] {} Dispatcher: {}", subscription.getReferenceType(), getClassNameOf(subscription), getClassNameOf(subscription.getEventDispatcher()));
     }
 
+    public void subscribe(EntityRef ref, Object subscriber, ReferenceType referenceType)
+    {
+        Subscription subscription;
+
+        if (myBookkeeper.isSubscribed(subscriber))
+        {
+            return;
+        }
+
+        subscription = myEntitySubscriptions.getSubscription(subscriber);
+
+        if (subscription == null)
+        {
+            final EventDispatcher eventDispatcher = ourEventDispatcherFactory.createEventDispatcher(subscriber.getClass());
+            subscription = mySubscriptionFactory.createSubscription(subscriber, referenceType, EMPTY_FILTER_ARRAY, eventDispatcher);
+        }
+
+        myEntitySubscriptions.subscribe(ref, subscription);
+
+        log.debug("Subscribe: [ {} ] {} for entity: {}", subscription.getReferenceType(), getClassNameOf(subscription), ref);
+    }
+
     public void unsubscribe(Object subscriber)
     {
         myBookkeeper.unsubscribe(subscriber);
+        myEntitySubscriptions.unsubscribe(subscriber);
 
         log.debug("Unsubscribe: {}", getClassNameOf(subscriber));
     }
 
+    public void unsubscribe(EntityRef ref, Object subscriber)
+    {
+        myEntitySubscriptions.unsubscribe(ref, subscriber);
+
+        log.debug("Unsubscribe: {} from entity: {}", getClassNameOf(subscriber), ref);
+    }
+
     public void send(Event event)
     {
-        final EventDispatch dispatch = createEventDispatch(event);
-        dispatch.run();
+        final EventInstrumentation instrumentation = myInstrumentation;
+
+        if (instrumentation != null)
+        {
+            instrumentation.onSend(event.getType());
+        }
+
+        final EventDispatch dispatch = createEventDispatch(event, instrumentation);
+        final EventRecorderImpl recorder = myRecorder;
+
+        if (recorder != null)
+        {
+            recorder.nested(dispatch).run();
+        }
+        else
+        {
+            dispatch.run();
+        }
     }
 
     public void post(Event event)
     {
-        final EventDispatch dispatch = createEventDispatch(event);
-        myWorkerPool.execute(dispatch);
+        final EventInstrumentation instrumentation = myInstrumentation;
+        final NotificationBuffer buffer = myNotificationBuffer;
+
+        if (instrumentation != null)
+        {
+            instrumentation.onPost(event.getType());
+        }
+
+        if (buffer != null && event.matches(Notification.class))
+        {
+            if (buffer.add(event))
+            {
+                ourFlushTimer.schedule(myFlushTask, myBatchingWindow, NANOSECONDS);
+            }
+
+            return;
+        }
+
+        final EventDispatch dispatch = createEventDispatch(event, instrumentation);
+        execute(dispatch, instrumentation);
+    }
+
+    public synchronized void enableNotificationBatching(long windowInNanos)
+    {
+        myBatchingWindow = windowInNanos;
+
+        if (myNotificationBuffer == null)
+        {
+            myNotificationBuffer = new NotificationBuffer();
+        }
+    }
+
+    public synchronized void disableNotificationBatching()
+    {
+        final NotificationBuffer buffer = myNotificationBuffer;
+
+        myNotificationBuffer = null;
+
+        if (buffer != null)
+        {
+            flush(buffer);
+        }
+    }
+
+    public void flushNotifications()
+    {
+        final NotificationBuffer buffer = myNotificationBuffer;
+
+        if (buffer != null)
+        {
+            flush(buffer);
+        }
+    }
+
+    public synchronized void useSharedEventLoopGroup()
+    {
+        final ExecutorService workerPool = myWorkerPool;
+
+        if (mySharingEventLoopGroup || workerPool.isShutdown())
+        {
+            return;
+        }
+
+        myWorkerPool = EventLoopGroup.getSharedInstance().createLane(WORKER_COUNT, WORKER_QUEUE_CAPACITY, myCallerRuns);
+        mySharingEventLoopGroup = true;
+
+        workerPool.shutdown();
+    }
+
+    public boolean isSharingEventLoopGroup()
+    {
+        return mySharingEventLoopGroup;
     }
 
     public ResultSet query(Query query)
     {
-        final QueryDispatch dispatch = createQueryDispatch(query);
-        myWorkerPool.execute(dispatch);
+        final EventInstrumentation instrumentation = myInstrumentation;
+
+        if (instrumentation != null)
+        {
+            instrumentation.onQuery(query.getType());
+        }
+
+        final QueryDispatch dispatch = createQueryDispatch(query, instrumentation);
+        execute(dispatch, instrumentation);
         return dispatch.getResult();
     }
 
+    public EventInstrumentation getInstrumentation()
+    {
+        return myInstrumentation;
+    }
+
+    public void setInstrumentation(EventInstrumentation instrumentation)
+    {
+        myInstrumentation = instrumentation;
+    }
+
+    public EventRecorderImpl getRecorder()
+    {
+        return myRecorder;
+    }
+
+    public void setRecorder(EventRecorderImpl recorder)
+    {
+        myRecorder = recorder;
+    }
+
+    public int numberOfSubscriptions()
+    {
+        int count = 0;
+
+        for (Subscription ignored : myBookkeeper.subscriptions())
+        {
+            ++count;
+        }
+
+        return count;
+    }
+
+    public int numberOfEntitySubscriptions()
+    {
+        return myEntitySubscriptions.size();
+    }
+
+    public int numberOfPendingDispatches()
+    {
+        return EventLoopGroup.queueDepthOf(myWorkerPool);
+    }
+
+    public static int numberOfGeneratedDispatcherClasses()
+    {
+        return ((EventDispatcherFactoryImpl) ourEventDispatcherFactory).numberOfGeneratedDispatchers();
+    }
+
+    @Override
+    public void reset(Context context)
+    {
+        final NotificationBuffer buffer = myNotificationBuffer;
+
+        if (buffer != null)
+        {
+            buffer.drain();
+        }
+    }
+
     @Override
     public void dispose(Context context)
     {
+        myNotificationBuffer = null;
+
         final List<Runnable> neverCommencedRunnables = myWorkerPool.shutdownNow();
 
         for (Runnable runnable : neverCommencedRunnables)
@@ -122,16 +358,107 @@ implements Disposable
         }
 
         myBookkeeper.clear();
+        myEntitySubscriptions.clear();
     }
 
-    private EventDispatch createEventDispatch(Event event)
+    private void flush(NotificationBuffer buffer)
     {
-        return new EventDispatch(myContext, event, myBookkeeper.subscriptions());
+        final List<Event> events = buffer.drain();
+
+        if (!events.isEmpty() && !myWorkerPool.isShutdown())
+        {
+            final Runnable dispatch = new BatchDispatch(myContext, events, myBookkeeper.subscriptions(), myEntitySubscriptions, myInstrumentation);
+            final EventRecorderImpl recorder = myRecorder;
+
+            myWorkerPool.execute(recorder != null ? recorder.nested(dispatch) : dispatch);
+        }
+    }
+
+    private void execute(Runnable dispatch, EventInstrumentation instrumentation)
+    {
+        final ExecutorService workerPool = myWorkerPool;
+        final EventRecorderImpl recorder = myRecorder;
+
+        if (instrumentation != null)
+        {
+            instrumentation.onQueueDepth(EventLoopGroup.queueDepthOf(workerPool));
+        }
+
+        workerPool.execute(recorder != null ? recorder.nested(dispatch) : dispatch);
+    }
+
+    private void countCallerRuns(Runnable runnable)
+    {
+        final EventInstrumentation instrumentation = myInstrumentation;
+
+        if (instrumentation == null)
+        {
+            return;
+        }
+
+        final Runnable dispatch = runnable instanceof NestedDispatch ? ((NestedDispatch) runnable).getDispatch() : runnable;
+
+        if (dispatch instanceof EventDispatch)
+        {
+            instrumentation.onCallerRuns(((EventDispatch) dispatch).getEvent().getType());
+        }
+        else if (dispatch instanceof BatchDispatch)
+        {
+            for (Class<? extends EventType> type : ((BatchDispatch) dispatch).getEventTypes())
+            {
+                instrumentation.onCallerRuns(type);
+            }
+        }
+    }
+
+    private EventDispatch createEventDispatch(Event event, EventInstrumentation instrumentation)
+    {
+        return new EventDispatch(myContext, event, myEntitySubscriptions.route(myBookkeeper.subscriptions(), event), instrumentation);
+    }
+
+    private QueryDispatch createQueryDispatch(Query query, EventInstrumentation instrumentation)
+    {
+        return new QueryDispatch(myContext, (QueryImpl) query, myEntitySubscriptions.route(myBookkeeper.subscriptions(), query), instrumentation);
     }
 
-    private QueryDispatch createQueryDispatch(Query query)
+    private static ScheduledExecutorService createFlushTimer()
     {
-        return new QueryDispatch(myContext, (QueryImpl) query, myBookkeeper.subscriptions());
+        return new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "entity-essentials-flush");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private class RedirectOrCallerRunsPolicy
+    implements RejectedExecutionHandler
+    {
+        private final CallerRunsPolicy myCallerRunsPolicy = new CallerRunsPolicy();
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor)
+        {
+            final ExecutorService workerPool = myWorkerPool;
+
+            if (executor.isShutdown() && workerPool != executor)
+            {
+                workerPool.execute(runnable);
+            }
+            else
+            {
+                if (!executor.isShutdown())
+                {
+                    countCallerRuns(runnable);
+                }
+
+                myCallerRunsPolicy.rejectedExecution(runnable, executor);
+            }
+        }
     }
 
     private static class EventBusThreadFactory
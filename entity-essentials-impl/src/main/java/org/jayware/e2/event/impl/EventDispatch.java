@@ -19,16 +19,20 @@
 package org.jayware.e2.event.impl;
 
 import org.jayware.e2.context.api.Context;
+import org.jayware.e2.diagnostic.impl.FlightEvents.DispatchEvent;
 import org.jayware.e2.event.api.Event;
 import org.jayware.e2.event.api.EventDispatcher;
 import org.jayware.e2.event.api.EventFilter;
+import org.jayware.e2.event.api.EventInstrumentation;
 import org.jayware.e2.event.api.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.CountDownLatch;
 
+import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
+import static org.jayware.e2.diagnostic.impl.FlightEvents.DISPATCH;
 import static org.jayware.e2.event.api.EventDispatchException.throwEventDispatchException;
 import static org.jayware.e2.event.api.EventDispatchException.throwEventDispatchExceptionWithReport;
 
@@ -41,13 +45,20 @@ implements Runnable
     protected final Context myContext;
     protected final Event myEvent;
     protected final Iterable<Subscription> mySubscriptions;
+    protected final EventInstrumentation myInstrumentation;
     protected final CountDownLatch isDispatched;
 
     EventDispatch(Context context, Event event, Iterable<Subscription> subscriptions)
+    {
+        this(context, event, subscriptions, null);
+    }
+
+    EventDispatch(Context context, Event event, Iterable<Subscription> subscriptions, EventInstrumentation instrumentation)
     {
         myContext = context;
         myEvent = event;
         mySubscriptions = subscriptions;
+        myInstrumentation = instrumentation;
         isDispatched = new CountDownLatch(1);
     }
 
@@ -75,6 +86,8 @@ implements Runnable
 
     public void run()
     {
+        final long start = myInstrumentation != null ? nanoTime() : 0;
+
         try
         {
             for (Subscription subscription : mySubscriptions)
@@ -91,6 +104,11 @@ implements Runnable
         }
         finally
         {
+            if (myInstrumentation != null)
+            {
+                myInstrumentation.onDispatch(myEvent.getType(), nanoTime() - start);
+            }
+
             isDispatched.countDown();
         }
     }
@@ -99,6 +117,9 @@ implements Runnable
     {
         if (acceptedEvent(dispatcher) && passedFilters(filters))
         {
+            final long start = myInstrumentation != null ? nanoTime() : 0;
+            final DispatchEvent flightEvent = DISPATCH.begin();
+
             try
             {
                 dispatcher.dispatch(myEvent, subscriber);
@@ -107,6 +128,30 @@ implements Runnable
             {
                 throwEventDispatchExceptionWithReport(cause, myEvent, "Failed to dispatch event to: %s", subscriber);
             }
+            finally
+            {
+                handled(subscriber, start, flightEvent);
+            }
+        }
+    }
+
+    protected void handled(final Object subscriber, final long start, final DispatchEvent flightEvent)
+    {
+        if (subscriber == null)
+        {
+            return;
+        }
+
+        if (myInstrumentation != null)
+        {
+            myInstrumentation.onHandle(myEvent.getType(), subscriber.getClass(), nanoTime() - start);
+        }
+
+        if (flightEvent != null)
+        {
+            flightEvent.setEventType(myEvent.getType().getName());
+            flightEvent.setSubscriber(subscriber.getClass().getName());
+            flightEvent.commit();
         }
     }
 
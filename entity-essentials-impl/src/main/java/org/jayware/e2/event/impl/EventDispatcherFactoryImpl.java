@@ -39,6 +39,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URL;
@@ -54,6 +55,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import static java.nio.charset.Charset.forName;
 import static java.util.Arrays.asList;
@@ -62,27 +64,34 @@ import static org.jayware.e2.util.ConfigurationUtil.getPropertyOrDefault;
 import static org.jayware.e2.util.IOUtil.closeQuietly;
 import static org.jayware.e2.util.IOUtil.writeBytes;
 import static org.jayware.e2.util.Parameter.parametersFrom;
+import static org.objectweb.asm.Opcodes.AASTORE;
 import static org.objectweb.asm.Opcodes.ACC_FINAL;
 import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
 import static org.objectweb.asm.Opcodes.ACC_STATIC;
 import static org.objectweb.asm.Opcodes.ACC_SUPER;
 import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ANEWARRAY;
 import static org.objectweb.asm.Opcodes.ASTORE;
 import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
 import static org.objectweb.asm.Opcodes.GETSTATIC;
 import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.IAND;
 import static org.objectweb.asm.Opcodes.ICONST_0;
 import static org.objectweb.asm.Opcodes.ICONST_1;
 import static org.objectweb.asm.Opcodes.IFEQ;
 import static org.objectweb.asm.Opcodes.IFNE;
 import static org.objectweb.asm.Opcodes.IFNONNULL;
 import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.ILOAD;
 import static org.objectweb.asm.Opcodes.INSTANCEOF;
 import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
 import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
 import static org.objectweb.asm.Opcodes.INVOKESTATIC;
 import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
 import static org.objectweb.asm.Opcodes.IRETURN;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.NEW;
 import static org.objectweb.asm.Opcodes.PUTSTATIC;
 import static org.objectweb.asm.Opcodes.RETURN;
 import static org.objectweb.asm.Opcodes.V1_6;
@@ -100,7 +109,8 @@ implements EventDispatcherFactory
     private File myOutputDirectory;
     private MessageDigest myMessageDigest;
 
-    private final Map<Class<?>, TargetDescriptor> myTargetDescriptionMap;
+    // Weak keys and soft values, so that a shared factory does not keep the class loaders of its targets alive.
+    private final Map<Class<?>, SoftReference<TargetDescriptor>> myTargetDescriptionMap;
 
     public EventDispatcherFactoryImpl()
     {
@@ -110,7 +120,7 @@ implements EventDispatcherFactory
     public EventDispatcherFactoryImpl(Dictionary<String, ?> properties)
     {
         myOutputDirectory = new File(getPropertyOrDefault(properties, PROPERTY_OUT_DIRECTORY, System.getProperty("user.dir") + "/.generated"));
-        myTargetDescriptionMap = new HashMap<Class<?>, TargetDescriptor>();
+        myTargetDescriptionMap = new WeakHashMap<Class<?>, SoftReference<TargetDescriptor>>();
 
         try
         {
@@ -124,7 +134,8 @@ implements EventDispatcherFactory
 
     public synchronized EventDispatcher createEventDispatcher(Class<?> target)
     {
-        TargetDescriptor targetDescriptor = myTargetDescriptionMap.get(target);
+        final SoftReference<TargetDescriptor> reference = myTargetDescriptionMap.get(target);
+        TargetDescriptor targetDescriptor = reference != null ? reference.get() : null;
 
         if (targetDescriptor == null)
         {
@@ -140,12 +151,29 @@ implements EventDispatcherFactory
                 throw e;
             }
 
-            myTargetDescriptionMap.put(target, targetDescriptor);
+            myTargetDescriptionMap.put(target, new SoftReference<TargetDescriptor>(targetDescriptor));
         }
 
         return targetDescriptor.eventDispatcher;
     }
 
+    public synchronized int numberOfGeneratedDispatchers()
+    {
+        int count = 0;
+
+        for (SoftReference<TargetDescriptor> reference : myTargetDescriptionMap.values())
+        {
+            final TargetDescriptor targetDescriptor = reference.get();
+
+            if (targetDescriptor != null && targetDescriptor.eventDispatcher != null)
+            {
+                ++count;
+            }
+        }
+
+        return count;
+    }
+
     private TargetDescriptor createTargetDescription(Class<?> target)
     {
         if (!Modifier.isPublic(target.getModifiers()))
@@ -212,6 +240,8 @@ implements EventDispatcherFactory
         final String classInternalName = className.replace('.', '/');
         final String classFileName = classInternalName + ".class";
         final File classFile = new File(myOutputDirectory, classFileName);
+        final List<Class<? extends EventType>> eventTypes = new ArrayList<Class<? extends EventType>>(targetDescriptor.getEventTypeSet());
+        final boolean useTable = eventTypes.size() <= EventTypeTable.MAX_TYPES;
 
         classWriter.visit(
             V1_6,
@@ -226,12 +256,37 @@ implements EventDispatcherFactory
             final FieldVisitor fv = classWriter.visitField(ACC_PUBLIC + ACC_STATIC + ACC_FINAL, "log", getDescriptor(Logger.class), null, null);
         }
 
+        if (useTable)
+        {
+            final FieldVisitor fv = classWriter.visitField(ACC_PUBLIC + ACC_STATIC + ACC_FINAL, "table", getDescriptor(EventTypeTable.class), null, null);
+        }
+
         {   // <static>
             final MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC + ACC_STATIC, "<clinit>", "()V", null, null);
             mv.visitCode();
             mv.visitLdcInsn(getType(EventDispatcher.class));
             mv.visitMethodInsn(INVOKESTATIC, getInternalName(LoggerFactory.class), "getLogger", "(Ljava/lang/Class;)" + getDescriptor(Logger.class), false);
             mv.visitFieldInsn(PUTSTATIC, classInternalName, "log", getDescriptor(Logger.class));
+
+            if (useTable)
+            {
+                // The table maps the id of an event's type to a mask which denotes the handled event-types
+                // the event matches. The i-th bit of the mask belongs to the i-th handled event-type.
+                mv.visitTypeInsn(NEW, getInternalName(EventTypeTable.class));
+                mv.visitInsn(DUP);
+                mv.visitLdcInsn(eventTypes.size());
+                mv.visitTypeInsn(ANEWARRAY, getInternalName(Class.class));
+                for (int i = 0; i < eventTypes.size(); ++i)
+                {
+                    mv.visitInsn(DUP);
+                    mv.visitLdcInsn(i);
+                    mv.visitLdcInsn(getType(eventTypes.get(i)));
+                    mv.visitInsn(AASTORE);
+                }
+                mv.visitMethodInsn(INVOKESPECIAL, getInternalName(EventTypeTable.class), "<init>", "([Ljava/lang/Class;)V", false);
+                mv.visitFieldInsn(PUTSTATIC, classInternalName, "table", getDescriptor(EventTypeTable.class));
+            }
+
             mv.visitInsn(RETURN);
             mv.visitMaxs(0, 0);
             mv.visitEnd();
@@ -266,15 +321,38 @@ implements EventDispatcherFactory
             mv.visitTypeInsn(CHECKCAST, targetDescriptor.getTargetInternalName());
             mv.visitVarInsn(ASTORE, 3);
 
-            for (Class<? extends EventType> eventType : targetDescriptor.getEventTypeSet())
+            if (useTable)
+            {
+                // Look up which of the handled event-types the event matches.
+                mv.visitFieldInsn(GETSTATIC, classInternalName, "table", getDescriptor(EventTypeTable.class));
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEINTERFACE, getInternalName(Event.class), "getType", "()Ljava/lang/Class;", true);
+                mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(EventTypeTable.class), "maskOf", "(Ljava/lang/Class;)I", false);
+                mv.visitVarInsn(ISTORE, 4);
+                mv.visitVarInsn(ILOAD, 4);
+                mv.visitJumpInsn(IFEQ, endMethod);
+            }
+
+            for (int eventTypeIndex = 0; eventTypeIndex < eventTypes.size(); ++eventTypeIndex)
             {
+                final Class<? extends EventType> eventType = eventTypes.get(eventTypeIndex);
                 final Label endEvenType = new Label();
 
                 // Does the event match an event-type one of the handlers is interested?
-                mv.visitVarInsn(ALOAD, 1);
-                mv.visitLdcInsn(getType(eventType));
-                mv.visitMethodInsn(INVOKEINTERFACE, getInternalName(Event.class), "matches", "(Ljava/lang/Class;)Z", true);
-                mv.visitJumpInsn(IFEQ, endEvenType);
+                if (useTable)
+                {
+                    mv.visitVarInsn(ILOAD, 4);
+                    mv.visitLdcInsn(1 << eventTypeIndex);
+                    mv.visitInsn(IAND);
+                    mv.visitJumpInsn(IFEQ, endEvenType);
+                }
+                else
+                {
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitLdcInsn(getType(eventType));
+                    mv.visitMethodInsn(INVOKEINTERFACE, getInternalName(Event.class), "matches", "(Ljava/lang/Class;)Z", true);
+                    mv.visitJumpInsn(IFEQ, endEvenType);
+                }
 
                 for (HandlerDescriptor descriptor : targetDescriptor.eventTypeHandlerDescriptorMap.get(eventType))
                 {
@@ -301,7 +379,7 @@ implements EventDispatcherFactory
                         }
                     }
 
-                    final int startIndex = 4;
+                    final int startIndex = 5;
                     int index = startIndex;
                     for (HandlerDescriptor.ParameterDescriptor parameter : descriptor.getParameters())
                     {
@@ -466,19 +544,35 @@ implements EventDispatcherFactory
         {   // accepts
             final MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "accepts", "(Ljava/lang/Class;)Z", null, null);
             mv.visitCode();
-            for (Class<?> eventType : targetDescriptor.getEventTypeSet())
+            if (useTable)
             {
-                final Label endIf = new Label();
-                mv.visitLdcInsn(getType(eventType));
+                final Label notAccepted = new Label();
+                mv.visitFieldInsn(GETSTATIC, classInternalName, "table", getDescriptor(EventTypeTable.class));
                 mv.visitVarInsn(ALOAD, 1);
-                mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(Class.class), "isAssignableFrom", "(Ljava/lang/Class;)Z", false);
-                mv.visitJumpInsn(IFEQ, endIf);
+                mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(EventTypeTable.class), "maskOf", "(Ljava/lang/Class;)I", false);
+                mv.visitJumpInsn(IFEQ, notAccepted);
                 mv.visitInsn(ICONST_1);
                 mv.visitInsn(IRETURN);
-                mv.visitLabel(endIf);
+                mv.visitLabel(notAccepted);
+                mv.visitInsn(ICONST_0);
+                mv.visitInsn(IRETURN);
+            }
+            else
+            {
+                for (Class<?> eventType : eventTypes)
+                {
+                    final Label endIf = new Label();
+                    mv.visitLdcInsn(getType(eventType));
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitMethodInsn(INVOKEVIRTUAL, getInternalName(Class.class), "isAssignableFrom", "(Ljava/lang/Class;)Z", false);
+                    mv.visitJumpInsn(IFEQ, endIf);
+                    mv.visitInsn(ICONST_1);
+                    mv.visitInsn(IRETURN);
+                    mv.visitLabel(endIf);
+                }
+                mv.visitInsn(ICONST_0);
+                mv.visitInsn(IRETURN);
             }
-            mv.visitInsn(ICONST_0);
-            mv.visitInsn(IRETURN);
             mv.visitMaxs(0, 0);
             mv.visitEnd();
         }
@@ -0,0 +1,272 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.jayware.e2.util.Preconditions.checkArgument;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+
+
+public class EventLoopGroup
+{
+    static final int QUANTUM = 64;
+
+    private static final Executor CALLER_RUNS = new Executor()
+    {
+        @Override
+        public void execute(Runnable command)
+        {
+            command.run();
+        }
+    };
+
+    private final ThreadPoolExecutor myExecutor;
+
+    public EventLoopGroup(int size)
+    {
+        checkArgument(size > 0);
+
+        myExecutor = new ThreadPoolExecutor(size, size, 0L, SECONDS, new LinkedBlockingQueue<Runnable>(), new EventLoopThreadFactory());
+    }
+
+    public static EventLoopGroup getSharedInstance()
+    {
+        return SharedInstanceHolder.INSTANCE;
+    }
+
+    public int size()
+    {
+        return myExecutor.getCorePoolSize();
+    }
+
+    public ExecutorService createLane(int parallelism, int capacity)
+    {
+        return createLane(parallelism, capacity, CALLER_RUNS);
+    }
+
+    // A saturated lane hands further tasks to the overflow executor instead of queueing them.
+    public ExecutorService createLane(int parallelism, int capacity, Executor overflow)
+    {
+        checkArgument(parallelism > 0);
+        checkArgument(capacity > 0);
+        checkNotNull(overflow);
+
+        return new Lane(parallelism, capacity, overflow);
+    }
+
+    static int queueDepthOf(ExecutorService executor)
+    {
+        if (executor instanceof ThreadPoolExecutor)
+        {
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        }
+
+        if (executor instanceof EventLoopGroup.Lane)
+        {
+            return ((EventLoopGroup.Lane) executor).myPending.get();
+        }
+
+        return 0;
+    }
+
+    private class Lane
+    extends AbstractExecutorService
+    {
+        private final Queue<Runnable> myQueue = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicInteger myPending = new AtomicInteger();
+        private final AtomicInteger myActive = new AtomicInteger();
+        private final CountDownLatch myTermination = new CountDownLatch(1);
+
+        private final int myParallelism;
+        private final int myCapacity;
+        private final Executor myOverflow;
+
+        private volatile boolean myShutdown;
+
+        private final Runnable myDrain = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                drain();
+            }
+        };
+
+        private Lane(int parallelism, int capacity, Executor overflow)
+        {
+            myParallelism = parallelism;
+            myCapacity = capacity;
+            myOverflow = overflow;
+        }
+
+        @Override
+        public void execute(Runnable command)
+        {
+            if (myShutdown)
+            {
+                return;
+            }
+
+            if (myPending.get() >= myCapacity)
+            {
+                myOverflow.execute(command);
+                return;
+            }
+
+            myPending.incrementAndGet();
+            myQueue.add(command);
+            schedule();
+        }
+
+        @Override
+        public void shutdown()
+        {
+            myShutdown = true;
+            terminateIfIdle();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow()
+        {
+            final List<Runnable> neverCommenced = new ArrayList<Runnable>();
+
+            myShutdown = true;
+
+            Runnable runnable;
+            while ((runnable = myQueue.poll()) != null)
+            {
+                myPending.decrementAndGet();
+                neverCommenced.add(runnable);
+            }
+
+            terminateIfIdle();
+
+            return neverCommenced;
+        }
+
+        @Override
+        public boolean isShutdown()
+        {
+            return myShutdown;
+        }
+
+        @Override
+        public boolean isTerminated()
+        {
+            return myTermination.getCount() == 0;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit)
+        throws InterruptedException
+        {
+            return myTermination.await(timeout, unit);
+        }
+
+        private void schedule()
+        {
+            for (;;)
+            {
+                final int active = myActive.get();
+
+                if (active >= myParallelism || myQueue.isEmpty())
+                {
+                    return;
+                }
+
+                if (myActive.compareAndSet(active, active + 1))
+                {
+                    try
+                    {
+                        myExecutor.execute(myDrain);
+                    }
+                    catch (RejectedExecutionException e)
+                    {
+                        myActive.decrementAndGet();
+                        throw e;
+                    }
+
+                    return;
+                }
+            }
+        }
+
+        private void drain()
+        {
+            try
+            {
+                Runnable runnable;
+                for (int i = 0; i < QUANTUM && (runnable = myQueue.poll()) != null; ++i)
+                {
+                    myPending.decrementAndGet();
+                    runnable.run();
+                }
+            }
+            finally
+            {
+                myActive.decrementAndGet();
+                schedule();
+                terminateIfIdle();
+            }
+        }
+
+        private void terminateIfIdle()
+        {
+            if (myShutdown && myActive.get() == 0 && myQueue.isEmpty())
+            {
+                myTermination.countDown();
+            }
+        }
+    }
+
+    private static class SharedInstanceHolder
+    {
+        private static final EventLoopGroup INSTANCE = new EventLoopGroup(Runtime.getRuntime().availableProcessors());
+    }
+
+    private static class EventLoopThreadFactory
+    implements ThreadFactory
+    {
+        private final ThreadGroup myThreadGroup = new ThreadGroup("entity-essentials");
+        private final AtomicInteger nextLoopId = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            final Thread thread = new Thread(myThreadGroup, runnable, myThreadGroup.getName() + "-loop-" + nextLoopId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
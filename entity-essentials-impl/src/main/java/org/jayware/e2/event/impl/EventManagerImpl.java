@@ -20,9 +20,11 @@ package org.jayware.e2.event.impl;
 
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Context.ValueProvider;
+import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.event.api.Event;
 import org.jayware.e2.event.api.EventBuilder;
 import org.jayware.e2.event.api.EventFilter;
+import org.jayware.e2.event.api.EventInstrumentation;
 import org.jayware.e2.event.api.EventManager;
 import org.jayware.e2.event.api.EventType;
 import org.jayware.e2.event.api.EventType.RootEvent;
@@ -44,12 +46,19 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 
+import static java.lang.System.nanoTime;
 import static java.util.UUID.randomUUID;
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
 import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
 import static org.jayware.e2.event.api.Preconditions.checkEventNotNull;
 import static org.jayware.e2.event.impl.EventBuilderImpl.createEventBuilder;
+import static org.jayware.e2.event.impl.EventRecorderImpl.POST_MODE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.QUERY_MODE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.SEND_MODE;
 import static org.jayware.e2.event.impl.QueryBuilderImpl.createQueryBuilder;
+import static org.jayware.e2.util.Preconditions.checkArgument;
 import static org.jayware.e2.util.Preconditions.checkNotNull;
 import static org.jayware.e2.util.ReferenceType.WEAK;
 
@@ -57,7 +66,7 @@ import static org.jayware.e2.util.ReferenceType.WEAK;
 public class EventManagerImpl
 implements EventManager
 {
-    static final Key<EventBus> EVENT_BUS = Key.createKey("org.jayware.e2.EventBus");
+    public static final Key<EventBus> EVENT_BUS = Key.createKey("org.jayware.e2.EventBus");
     static final EventFilter[] EMPTY_FILTER_ARRAY = new EventFilter[0];
     static final ValueProvider<EventBus> EVENT_BUS_VALUE_PROVIDER = new ValueProvider<EventBus>()
     {
@@ -163,6 +172,35 @@ implements EventManager
         eventBus.unsubscribe(subscriber);
     }
 
+    @Override
+    public void subscribe(EntityRef ref, Object subscriber)
+    {
+        subscribe(ref, subscriber, WEAK);
+    }
+
+    @Override
+    public void subscribe(EntityRef ref, Object subscriber, ReferenceType referenceType)
+    {
+        checkNotNull(ref);
+        checkNotNull(subscriber);
+        checkNotNull(referenceType);
+
+        final Context context = checkContextNotNullAndNotDisposed(ref.getContext());
+
+        context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER).subscribe(ref, subscriber, referenceType);
+    }
+
+    @Override
+    public void unsubscribe(EntityRef ref, Object subscriber)
+    {
+        checkNotNull(ref);
+        checkNotNull(subscriber);
+
+        final Context context = checkNotNull(ref.getContext());
+
+        context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER).unsubscribe(ref, subscriber);
+    }
+
     @Override
     public void send(Class<? extends RootEvent> type, Parameter... parameters)
     {
@@ -193,6 +231,7 @@ implements EventManager
         context = (Context) checkNotNull(event.getParameter(ContextParam));
         eventBus = context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER);
 
+        record(eventBus, SEND_MODE, event);
         eventBus.send(event);
     }
 
@@ -227,6 +266,7 @@ implements EventManager
         context = (Context) checkNotNull(event.getParameter(ContextParam));
         eventBus = context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER);
 
+        record(eventBus, POST_MODE, event);
         eventBus.post(event);
     }
 
@@ -259,10 +299,108 @@ implements EventManager
         final Context context = (Context) checkNotNull(query.getParameter(ContextParam));
         final EventBus eventBus = context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER);
 
+        record(eventBus, QUERY_MODE, query);
         return eventBus.query(query);
     }
 
+    @Override
+    public void enableNotificationBatching(Context context, long window, TimeUnit unit)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(unit);
+        checkArgument(window >= 0);
+
+        context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER).enableNotificationBatching(unit.toNanos(window));
+    }
+
+    @Override
+    public void disableNotificationBatching(Context context)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER).disableNotificationBatching();
+    }
+
+    @Override
+    public void flushNotifications(Context context)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER).flushNotifications();
+    }
+
+    @Override
+    public void useSharedEventLoopGroup(Context context)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER).useSharedEventLoopGroup();
+    }
+
+    @Override
+    public void setInstrumentation(Context context, EventInstrumentation instrumentation)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER).setInstrumentation(instrumentation);
+    }
+
+    @Override
+    public EventInstrumentation getInstrumentation(Context context)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        final EventBus eventBus = context.get(EVENT_BUS);
+
+        return eventBus != null ? eventBus.getInstrumentation() : null;
+    }
+
+    private static void record(EventBus eventBus, byte mode, Event event)
+    {
+        final EventRecorderImpl recorder = eventBus.getRecorder();
+
+        if (recorder != null)
+        {
+            recorder.record(mode, event);
+        }
+    }
+
     private static void sanityCheck(Event event)
+    {
+        final EventInstrumentation instrumentation = instrumentationOf(event);
+
+        if (instrumentation == null)
+        {
+            applySanityCheckers(event);
+            return;
+        }
+
+        final long start = nanoTime();
+
+        try
+        {
+            applySanityCheckers(event);
+        }
+        finally
+        {
+            instrumentation.onSanityCheck(event.getType(), nanoTime() - start);
+        }
+    }
+
+    private static EventInstrumentation instrumentationOf(Event event)
+    {
+        final Object context = event.getParameter(ContextParam);
+
+        if (context instanceof Context && !((Context) context).isDisposed())
+        {
+            final EventBus eventBus = ((Context) context).get(EVENT_BUS);
+            return eventBus != null ? eventBus.getInstrumentation() : null;
+        }
+
+        return null;
+    }
+
+    private static void applySanityCheckers(Event event)
     {
         final Queue<Class<? extends EventType>> queue = new LinkedList<Class<? extends EventType>>();
         final List<SanityChecker> checkerList = new LinkedList<SanityChecker>();
@@ -0,0 +1,266 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.event.api.EventInstrumentation;
+import org.jayware.e2.event.api.EventType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class EventMetricsRecorder
+implements EventInstrumentation, EventMetricsMXBean
+{
+    private static final String OBJECT_NAME_PREFIX = "org.jayware.e2:type=EventMetrics,name=";
+
+    private final ConcurrentMap<Class<?>, AtomicLong> mySendCounts = new ConcurrentHashMap<Class<?>, AtomicLong>();
+    private final ConcurrentMap<Class<?>, AtomicLong> myPostCounts = new ConcurrentHashMap<Class<?>, AtomicLong>();
+    private final ConcurrentMap<Class<?>, AtomicLong> myQueryCounts = new ConcurrentHashMap<Class<?>, AtomicLong>();
+    private final ConcurrentMap<Class<?>, AtomicLong> myCallerRunsCounts = new ConcurrentHashMap<Class<?>, AtomicLong>();
+
+    private final ConcurrentMap<Class<?>, LatencyHistogram> myDispatchLatencies = new ConcurrentHashMap<Class<?>, LatencyHistogram>();
+    private final ConcurrentMap<Class<?>, LatencyHistogram> myHandlerLatencies = new ConcurrentHashMap<Class<?>, LatencyHistogram>();
+    private final ConcurrentMap<Class<?>, LatencyHistogram> mySanityCheckLatencies = new ConcurrentHashMap<Class<?>, LatencyHistogram>();
+    private final ConcurrentMap<Class<?>, LatencyHistogram> myQueryLatencies = new ConcurrentHashMap<Class<?>, LatencyHistogram>();
+
+    private final AtomicInteger myQueueDepth = new AtomicInteger();
+    private final AtomicInteger myMaxQueueDepth = new AtomicInteger();
+
+    @Override
+    public void onSend(Class<? extends EventType> type)
+    {
+        counterOf(mySendCounts, type).incrementAndGet();
+    }
+
+    @Override
+    public void onPost(Class<? extends EventType> type)
+    {
+        counterOf(myPostCounts, type).incrementAndGet();
+    }
+
+    @Override
+    public void onQuery(Class<? extends EventType> type)
+    {
+        counterOf(myQueryCounts, type).incrementAndGet();
+    }
+
+    @Override
+    public void onSanityCheck(Class<? extends EventType> type, long nanos)
+    {
+        histogramOf(mySanityCheckLatencies, type).record(nanos);
+    }
+
+    @Override
+    public void onDispatch(Class<? extends EventType> type, long nanos)
+    {
+        histogramOf(myDispatchLatencies, type).record(nanos);
+    }
+
+    @Override
+    public void onHandle(Class<? extends EventType> type, Class<?> subscriberType, long nanos)
+    {
+        histogramOf(myHandlerLatencies, subscriberType).record(nanos);
+    }
+
+    @Override
+    public void onQueueDepth(int depth)
+    {
+        int max;
+
+        myQueueDepth.set(depth);
+
+        while ((max = myMaxQueueDepth.get()) < depth && !myMaxQueueDepth.compareAndSet(max, depth))
+        {
+            // retry
+        }
+    }
+
+    @Override
+    public void onCallerRuns(Class<? extends EventType> type)
+    {
+        counterOf(myCallerRunsCounts, type).incrementAndGet();
+    }
+
+    @Override
+    public void onQuerySuccess(Class<? extends EventType> type, long nanos)
+    {
+        histogramOf(myQueryLatencies, type).record(nanos);
+    }
+
+    @Override
+    public Map<String, Long> getSendCounts()
+    {
+        return countsOf(mySendCounts);
+    }
+
+    @Override
+    public Map<String, Long> getPostCounts()
+    {
+        return countsOf(myPostCounts);
+    }
+
+    @Override
+    public Map<String, Long> getQueryCounts()
+    {
+        return countsOf(myQueryCounts);
+    }
+
+    @Override
+    public Map<String, Long> getCallerRunsCounts()
+    {
+        return countsOf(myCallerRunsCounts);
+    }
+
+    @Override
+    public int getQueueDepth()
+    {
+        return myQueueDepth.get();
+    }
+
+    @Override
+    public int getMaxQueueDepth()
+    {
+        return myMaxQueueDepth.get();
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getDispatchLatencies()
+    {
+        return snapshotsOf(myDispatchLatencies);
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getHandlerLatencies()
+    {
+        return snapshotsOf(myHandlerLatencies);
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getSanityCheckLatencies()
+    {
+        return snapshotsOf(mySanityCheckLatencies);
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getQueryLatencies()
+    {
+        return snapshotsOf(myQueryLatencies);
+    }
+
+    @Override
+    public void reset()
+    {
+        mySendCounts.clear();
+        myPostCounts.clear();
+        myQueryCounts.clear();
+        myCallerRunsCounts.clear();
+        myDispatchLatencies.clear();
+        myHandlerLatencies.clear();
+        mySanityCheckLatencies.clear();
+        myQueryLatencies.clear();
+        myQueueDepth.set(0);
+        myMaxQueueDepth.set(0);
+    }
+
+    public ObjectName registerMBean(String name)
+    throws JMException
+    {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+
+        server.registerMBean(this, objectName);
+
+        return objectName;
+    }
+
+    public void unregisterMBean(String name)
+    throws JMException
+    {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name)));
+    }
+
+    private static AtomicLong counterOf(ConcurrentMap<Class<?>, AtomicLong> counters, Class<?> type)
+    {
+        AtomicLong counter = counters.get(type);
+
+        if (counter == null)
+        {
+            final AtomicLong newCounter = new AtomicLong();
+            counter = counters.putIfAbsent(type, newCounter);
+
+            if (counter == null)
+            {
+                counter = newCounter;
+            }
+        }
+
+        return counter;
+    }
+
+    private static LatencyHistogram histogramOf(ConcurrentMap<Class<?>, LatencyHistogram> histograms, Class<?> type)
+    {
+        LatencyHistogram histogram = histograms.get(type);
+
+        if (histogram == null)
+        {
+            final LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(type, newHistogram);
+
+            if (histogram == null)
+            {
+                histogram = newHistogram;
+            }
+        }
+
+        return histogram;
+    }
+
+    private static Map<String, Long> countsOf(Map<Class<?>, AtomicLong> counters)
+    {
+        final Map<String, Long> result = new TreeMap<String, Long>();
+
+        for (Map.Entry<Class<?>, AtomicLong> entry : counters.entrySet())
+        {
+            result.put(entry.getKey().getName(), entry.getValue().get());
+        }
+
+        return result;
+    }
+
+    private static Map<String, LatencySnapshot> snapshotsOf(Map<Class<?>, LatencyHistogram> histograms)
+    {
+        final Map<String, LatencySnapshot> result = new TreeMap<String, LatencySnapshot>();
+
+        for (Map.Entry<Class<?>, LatencyHistogram> entry : histograms.entrySet())
+        {
+            result.put(entry.getKey().getName(), entry.getValue().snapshot());
+        }
+
+        return result;
+    }
+}
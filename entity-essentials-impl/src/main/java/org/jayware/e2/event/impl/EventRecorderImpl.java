@@ -0,0 +1,527 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentFactory;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventRecorder;
+import org.jayware.e2.event.api.EventRecorderException;
+import org.jayware.e2.event.api.Parameters.Parameter;
+import org.jayware.e2.util.Key;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.lang.System.nanoTime;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.writeUUID;
+import static org.jayware.e2.util.IOUtil.closeQuietly;
+import static org.jayware.e2.util.Key.createKey;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+
+
+public class EventRecorderImpl
+implements EventRecorder, Disposable
+{
+    public static final Key<EventRecorder> EVENT_RECORDER_KEY = createKey("org.jayware.e2.EventRecorder");
+
+    static final int MAGIC = 0x45324552;
+    static final short VERSION = 1;
+
+    static final byte SEND_MODE = 1;
+    static final byte POST_MODE = 2;
+    static final byte QUERY_MODE = 3;
+
+    static final byte NESTED_FLAG = 0x10;
+    static final byte MODE_MASK = 0x0F;
+
+    static final byte NULL_VALUE = 0;
+    static final byte BOOLEAN_VALUE = 1;
+    static final byte BYTE_VALUE = 2;
+    static final byte SHORT_VALUE = 3;
+    static final byte CHAR_VALUE = 4;
+    static final byte INT_VALUE = 5;
+    static final byte LONG_VALUE = 6;
+    static final byte FLOAT_VALUE = 7;
+    static final byte DOUBLE_VALUE = 8;
+    static final byte STRING_VALUE = 9;
+    static final byte UUID_VALUE = 10;
+    static final byte ENUM_VALUE = 11;
+    static final byte CLASS_VALUE = 12;
+    static final byte LIST_VALUE = 13;
+    static final byte CONTEXT_VALUE = 14;
+    static final byte ENTITY_REF_VALUE = 15;
+    static final byte COMPONENT_VALUE = 16;
+    static final byte UNSUPPORTED_VALUE = 17;
+
+    private static final int FRAME_HEADER_SIZE = 4;
+    private static final int MAX_STRING_LENGTH = 16 * 1024;
+
+    // The depth of dispatches which are running on a thread, to tell events issued by subscribers apart.
+    private static final ThreadLocal<int[]> ourDispatchDepth = new ThreadLocal<int[]>()
+    {
+        @Override
+        protected int[] initialValue()
+        {
+            return new int[1];
+        }
+    };
+
+    private final Context myContext;
+    private final EventBus myEventBus;
+    private final ComponentFactory myComponentFactory;
+    private final long myOrigin;
+
+    private final byte[] myRing;
+    private int myHead;
+    private int myTail;
+    private int myUsed;
+    private int myCount;
+    private long myTotal;
+
+    private final ByteArrayOutputStream myScratch;
+    private final DataOutputStream myScratchStream;
+
+    private final Map<String, Integer> myStringIds;
+    private final List<String> myStrings;
+
+    private final Object myLock = new Object();
+
+    private volatile boolean myClosed;
+
+    public EventRecorderImpl(Context context, EventBus eventBus, int capacity)
+    {
+        myContext = context;
+        myEventBus = eventBus;
+        myComponentFactory = context.getService(ComponentFactory.class);
+        myOrigin = nanoTime();
+
+        myRing = new byte[capacity];
+
+        myScratch = new ByteArrayOutputStream(256);
+        myScratchStream = new DataOutputStream(myScratch);
+
+        myStringIds = new HashMap<String, Integer>();
+        myStrings = new ArrayList<String>();
+
+        eventBus.setRecorder(this);
+    }
+
+    public void record(byte mode, Event event)
+    {
+        final Thread thread = Thread.currentThread();
+        final long timestamp = nanoTime() - myOrigin;
+
+        synchronized (myLock)
+        {
+            if (myClosed)
+            {
+                return;
+            }
+
+            try
+            {
+                myScratch.reset();
+                myScratchStream.writeByte(ourDispatchDepth.get()[0] > 0 ? mode | NESTED_FLAG : mode);
+                myScratchStream.writeLong(timestamp);
+                myScratchStream.writeLong(thread.getId());
+                myScratchStream.writeInt(stringId(thread.getName()));
+                myScratchStream.writeInt(stringId(event.getType().getName()));
+
+                int numberOfParameters = 0;
+                for (Parameter ignored : event.getParameters())
+                {
+                    ++numberOfParameters;
+                }
+
+                myScratchStream.writeShort(numberOfParameters);
+                for (Parameter parameter : event.getParameters())
+                {
+                    myScratchStream.writeInt(stringId(parameter.getName()));
+                    writeValue(parameter.getValue());
+                }
+
+                append(myScratch.toByteArray());
+                ++myTotal;
+            }
+            catch (IOException e)
+            {
+                throw new EventRecorderException("Failed to record: %s", e, event);
+            }
+        }
+    }
+
+    public Runnable nested(Runnable dispatch)
+    {
+        return new NestedDispatch(dispatch);
+    }
+
+    @Override
+    public int getCapacity()
+    {
+        return myRing.length;
+    }
+
+    @Override
+    public int getNumberOfBufferedEvents()
+    {
+        synchronized (myLock)
+        {
+            return myCount;
+        }
+    }
+
+    @Override
+    public long getNumberOfRecordedEvents()
+    {
+        synchronized (myLock)
+        {
+            return myTotal;
+        }
+    }
+
+    @Override
+    public void dump(File file)
+    {
+        checkNotNull(file, "The file to dump to mustn't be null!");
+
+        final byte[] events;
+        final List<String> strings;
+        final int count;
+
+        synchronized (myLock)
+        {
+            events = new byte[myUsed];
+            copy(myHead, events, myUsed);
+            strings = new ArrayList<String>(myStrings);
+            count = myCount;
+        }
+
+        DataOutputStream out = null;
+
+        try
+        {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+
+            out.writeInt(strings.size());
+            for (String string : strings)
+            {
+                out.writeUTF(string);
+            }
+
+            out.writeInt(count);
+            out.write(events);
+            out.flush();
+        }
+        catch (IOException e)
+        {
+            throw new EventRecorderException("Failed to dump recorded events to: %s", e, file.getAbsolutePath());
+        }
+        finally
+        {
+            closeQuietly(out);
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        synchronized (myLock)
+        {
+            myHead = 0;
+            myTail = 0;
+            myUsed = 0;
+            myCount = 0;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (myClosed)
+        {
+            return;
+        }
+
+        myClosed = true;
+        myEventBus.setRecorder(null);
+
+        if (!myContext.isDisposed())
+        {
+            myContext.remove(EVENT_RECORDER_KEY);
+        }
+    }
+
+    @Override
+    public void dispose(Context context)
+    {
+        myClosed = true;
+    }
+
+    @Override
+    public Context getContext()
+    {
+        return myContext;
+    }
+
+    @Override
+    public boolean belongsTo(Context context)
+    {
+        return myContext.equals(context);
+    }
+
+    @Override
+    public boolean belongsTo(Contextual contextual)
+    {
+        return contextual != null && myContext.equals(contextual.getContext());
+    }
+
+    private void writeValue(Object value)
+    throws IOException
+    {
+        final DataOutputStream out = myScratchStream;
+
+        if (value == null)
+        {
+            out.writeByte(NULL_VALUE);
+        }
+        else if (value instanceof Boolean)
+        {
+            out.writeByte(BOOLEAN_VALUE);
+            out.writeBoolean((Boolean) value);
+        }
+        else if (value instanceof Byte)
+        {
+            out.writeByte(BYTE_VALUE);
+            out.writeByte((Byte) value);
+        }
+        else if (value instanceof Short)
+        {
+            out.writeByte(SHORT_VALUE);
+            out.writeShort((Short) value);
+        }
+        else if (value instanceof Character)
+        {
+            out.writeByte(CHAR_VALUE);
+            out.writeChar((Character) value);
+        }
+        else if (value instanceof Integer)
+        {
+            out.writeByte(INT_VALUE);
+            out.writeInt((Integer) value);
+        }
+        else if (value instanceof Long)
+        {
+            out.writeByte(LONG_VALUE);
+            out.writeLong((Long) value);
+        }
+        else if (value instanceof Float)
+        {
+            out.writeByte(FLOAT_VALUE);
+            out.writeFloat((Float) value);
+        }
+        else if (value instanceof Double)
+        {
+            out.writeByte(DOUBLE_VALUE);
+            out.writeDouble((Double) value);
+        }
+        else if (value instanceof String && ((String) value).length() <= MAX_STRING_LENGTH)
+        {
+            out.writeByte(STRING_VALUE);
+            out.writeUTF((String) value);
+        }
+        else if (value instanceof UUID)
+        {
+            out.writeByte(UUID_VALUE);
+            writeUUID(out, (UUID) value);
+        }
+        else if (value instanceof Enum)
+        {
+            out.writeByte(ENUM_VALUE);
+            out.writeInt(stringId(((Enum) value).getDeclaringClass().getName()));
+            out.writeInt(stringId(((Enum) value).name()));
+        }
+        else if (value instanceof Class)
+        {
+            out.writeByte(CLASS_VALUE);
+            out.writeInt(stringId(((Class) value).getName()));
+        }
+        else if (value instanceof List)
+        {
+            final List<?> list = (List<?>) value;
+
+            out.writeByte(LIST_VALUE);
+            out.writeInt(list.size());
+            for (Object element : list)
+            {
+                writeValue(element);
+            }
+        }
+        else if (value instanceof Context)
+        {
+            out.writeByte(CONTEXT_VALUE);
+        }
+        else if (value instanceof EntityRef)
+        {
+            out.writeByte(ENTITY_REF_VALUE);
+            writeUUID(out, ((EntityRef) value).getId());
+        }
+        else if (value instanceof Component)
+        {
+            final Class<? extends Component> type = ((Component) value).type();
+
+            out.writeByte(COMPONENT_VALUE);
+            out.writeInt(stringId(type.getName()));
+            writeComponent(type, (Component) value, out);
+        }
+        else
+        {
+            out.writeByte(UNSUPPORTED_VALUE);
+            out.writeInt(stringId(value.getClass().getName()));
+        }
+    }
+
+    private <C extends Component> void writeComponent(Class<C> type, Component component, DataOutputStream out)
+    throws IOException
+    {
+        myComponentFactory.createCodec(type).write(type.cast(component), out);
+    }
+
+    private int stringId(String string)
+    {
+        Integer id = myStringIds.get(string);
+
+        if (id == null)
+        {
+            id = myStrings.size();
+            myStrings.add(string);
+            myStringIds.put(string, id);
+        }
+
+        return id;
+    }
+
+    private void append(byte[] payload)
+    {
+        final int length = FRAME_HEADER_SIZE + payload.length;
+
+        if (length > myRing.length)
+        {
+            return;
+        }
+
+        while (myRing.length - myUsed < length)
+        {
+            evict();
+        }
+
+        put((byte) (payload.length >>> 24));
+        put((byte) (payload.length >>> 16));
+        put((byte) (payload.length >>> 8));
+        put((byte) payload.length);
+
+        final int first = Math.min(payload.length, myRing.length - myTail);
+        System.arraycopy(payload, 0, myRing, myTail, first);
+        System.arraycopy(payload, first, myRing, 0, payload.length - first);
+        myTail = (myTail + payload.length) % myRing.length;
+
+        myUsed += length;
+        ++myCount;
+    }
+
+    private void evict()
+    {
+        int length = 0;
+
+        for (int i = 0; i < FRAME_HEADER_SIZE; ++i)
+        {
+            length = (length << 8) | (myRing[(myHead + i) % myRing.length] & 0xFF);
+        }
+
+        myHead = (myHead + FRAME_HEADER_SIZE + length) % myRing.length;
+        myUsed -= FRAME_HEADER_SIZE + length;
+        --myCount;
+    }
+
+    private void put(byte value)
+    {
+        myRing[myTail] = value;
+        myTail = (myTail + 1) % myRing.length;
+    }
+
+    private void copy(int from, byte[] destination, int length)
+    {
+        final int first = Math.min(length, myRing.length - from);
+        System.arraycopy(myRing, from, destination, 0, first);
+        System.arraycopy(myRing, 0, destination, first, length - first);
+    }
+
+    static class NestedDispatch
+    implements Runnable
+    {
+        private final Runnable myDispatch;
+
+        private NestedDispatch(Runnable dispatch)
+        {
+            myDispatch = dispatch;
+        }
+
+        public Runnable getDispatch()
+        {
+            return myDispatch;
+        }
+
+        @Override
+        public void run()
+        {
+            final int[] depth = ourDispatchDepth.get();
+
+            ++depth[0];
+            try
+            {
+                myDispatch.run();
+            }
+            finally
+            {
+                --depth[0];
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return myDispatch.toString();
+        }
+    }
+}
@@ -0,0 +1,524 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentFactory;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Context.ValueProvider;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.EventInstrumentation;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.EventRecorder;
+import org.jayware.e2.event.api.EventRecorderException;
+import org.jayware.e2.event.api.EventRecorderManager;
+import org.jayware.e2.event.api.EventType.RootEvent;
+import org.jayware.e2.event.api.Parameters;
+import org.jayware.e2.event.api.ReplayReport;
+import org.jayware.e2.event.api.ResultSet;
+import org.jayware.e2.storage.impl.StorageImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Class.forName;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.enumConstantOf;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.readUUID;
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.event.api.Query.State.Failed;
+import static org.jayware.e2.event.api.Query.State.Success;
+import static org.jayware.e2.event.impl.EventManagerImpl.EVENT_BUS;
+import static org.jayware.e2.event.impl.EventManagerImpl.EVENT_BUS_VALUE_PROVIDER;
+import static org.jayware.e2.event.impl.EventRecorderImpl.BOOLEAN_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.BYTE_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.CHAR_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.CLASS_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.COMPONENT_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.CONTEXT_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.DOUBLE_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.ENTITY_REF_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.ENUM_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.EVENT_RECORDER_KEY;
+import static org.jayware.e2.event.impl.EventRecorderImpl.FLOAT_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.INT_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.LIST_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.LONG_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.MAGIC;
+import static org.jayware.e2.event.impl.EventRecorderImpl.MODE_MASK;
+import static org.jayware.e2.event.impl.EventRecorderImpl.NESTED_FLAG;
+import static org.jayware.e2.event.impl.EventRecorderImpl.NULL_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.POST_MODE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.QUERY_MODE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.SHORT_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.STRING_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.UNSUPPORTED_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.UUID_VALUE;
+import static org.jayware.e2.event.impl.EventRecorderImpl.VERSION;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+import static org.jayware.e2.util.IOUtil.closeQuietly;
+import static org.jayware.e2.util.Preconditions.checkArgument;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+
+
+public class EventRecorderManagerImpl
+implements EventRecorderManager
+{
+    private static final long QUIET_PERIOD_IN_MILLIS = 50;
+    private static final long DRAIN_TIMEOUT_IN_MILLIS = 30000;
+
+    private final Logger log = LoggerFactory.getLogger(EventRecorderManagerImpl.class);
+
+    @Override
+    public EventRecorder openRecorder(final Context context, final int capacity)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkArgument(capacity > 0);
+
+        final EventBus eventBus = context.getOrCreate(EVENT_BUS, EVENT_BUS_VALUE_PROVIDER);
+
+        context.putIfAbsent(EVENT_RECORDER_KEY, new ValueProvider<EventRecorder>()
+        {
+            @Override
+            public EventRecorder provide(Context context)
+            {
+                return new EventRecorderImpl(context, eventBus, capacity);
+            }
+        });
+
+        return context.get(EVENT_RECORDER_KEY);
+    }
+
+    @Override
+    public ReplayReport replay(Context context, File file, ReplayMode mode)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(file, "The file to replay mustn't be null!");
+        checkNotNull(mode, "The replay mode mustn't be null!");
+
+        final List<RecordedEvent> events = read(context, file);
+        final EventManager eventManager = context.getService(EventManager.class);
+        final EventInstrumentation previous = eventManager.getInstrumentation(context);
+        final ReplayReportImpl report = new ReplayReportImpl();
+        final AtomicLong currentHandlerTime = new AtomicLong();
+
+        eventManager.setInstrumentation(context, report.collector(previous, currentHandlerTime));
+
+        try
+        {
+            final long start = nanoTime();
+
+            if (mode == ReplayMode.SEQUENTIAL)
+            {
+                replaySequential(eventManager, context, events, report, currentHandlerTime);
+            }
+            else
+            {
+                replayTimed(eventManager, context, events, report);
+            }
+
+            report.setElapsedTime(nanoTime() - start);
+        }
+        finally
+        {
+            if (!context.isDisposed())
+            {
+                eventManager.setInstrumentation(context, previous);
+            }
+        }
+
+        log.debug("Replayed {} events of '{}' into '{}'.", report.getNumberOfEvents(), file.getAbsolutePath(), context);
+
+        return report;
+    }
+
+    private void replaySequential(EventManager eventManager, Context context, List<RecordedEvent> events, ReplayReportImpl report, AtomicLong currentHandlerTime)
+    {
+        for (RecordedEvent event : events)
+        {
+            currentHandlerTime.set(0);
+
+            try
+            {
+                if (event.mode == QUERY_MODE)
+                {
+                    awaitCompletion(eventManager.query(eventManager.createQuery(event.type, event.parameters)));
+                }
+                else
+                {
+                    eventManager.send(eventManager.createEvent(event.type, event.parameters));
+                }
+
+                report.replayed(event.type, event.incomplete);
+                report.maxHandlerTime(event.type, currentHandlerTime.get());
+            }
+            catch (RuntimeException e)
+            {
+                report.failed();
+                log.debug("Failed to replay: {}", event.type.getName(), e);
+            }
+        }
+    }
+
+    private void replayTimed(final EventManager eventManager, final Context context, List<RecordedEvent> events, final ReplayReportImpl report)
+    {
+        final Map<Long, List<RecordedEvent>> threads = new LinkedHashMap<Long, List<RecordedEvent>>();
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final List<Thread> replayThreads = new ArrayList<Thread>();
+        final AtomicLong numberOfDispatches = new AtomicLong();
+        final long origin = events.isEmpty() ? 0 : events.get(0).timestamp;
+        final long[] start = new long[1];
+
+        for (RecordedEvent event : events)
+        {
+            List<RecordedEvent> thread = threads.get(event.threadId);
+            if (thread == null)
+            {
+                thread = new ArrayList<RecordedEvent>();
+                threads.put(event.threadId, thread);
+            }
+            thread.add(event);
+        }
+
+        for (final List<RecordedEvent> thread : threads.values())
+        {
+            final Thread replayThread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        startSignal.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+
+                    for (RecordedEvent event : thread)
+                    {
+                        final long delay = start[0] + (event.timestamp - origin) - nanoTime();
+                        if (delay > 0)
+                        {
+                            try
+                            {
+                                NANOSECONDS.sleep(delay);
+                            }
+                            catch (InterruptedException e)
+                            {
+                                return;
+                            }
+                        }
+
+                        try
+                        {
+                            if (event.mode == QUERY_MODE)
+                            {
+                                awaitCompletion(eventManager.query(eventManager.createQuery(event.type, event.parameters)));
+                            }
+                            else if (event.mode == POST_MODE)
+                            {
+                                eventManager.post(eventManager.createEvent(event.type, event.parameters));
+                                numberOfDispatches.incrementAndGet();
+                            }
+                            else
+                            {
+                                eventManager.send(eventManager.createEvent(event.type, event.parameters));
+                                numberOfDispatches.incrementAndGet();
+                            }
+
+                            report.replayed(event.type, event.incomplete);
+                        }
+                        catch (RuntimeException e)
+                        {
+                            report.failed();
+                            log.debug("Failed to replay: {}", event.type.getName(), e);
+                        }
+                    }
+                }
+            }, "entity-essentials-replay-" + thread.get(0).threadName);
+
+            replayThread.setDaemon(true);
+            replayThreads.add(replayThread);
+            replayThread.start();
+        }
+
+        start[0] = nanoTime();
+        startSignal.countDown();
+
+        try
+        {
+            for (Thread replayThread : replayThreads)
+            {
+                replayThread.join();
+            }
+
+            awaitDispatches(report, numberOfDispatches.get());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Posted events are still being dispatched when the replay threads are done.
+    private static void awaitDispatches(ReplayReportImpl report, long expected)
+    throws InterruptedException
+    {
+        final long deadline = nanoTime() + MILLISECONDS.toNanos(DRAIN_TIMEOUT_IN_MILLIS);
+        long before;
+
+        do
+        {
+            before = report.getNumberOfDispatches();
+            MILLISECONDS.sleep(QUIET_PERIOD_IN_MILLIS);
+        }
+        while ((report.getNumberOfDispatches() < expected || report.getNumberOfDispatches() != before) && nanoTime() < deadline);
+    }
+
+    private static void awaitCompletion(ResultSet resultSet)
+    {
+        while (!resultSet.hasStatus(Success) && !resultSet.hasStatus(Failed))
+        {
+            resultSet.await(Success, QUIET_PERIOD_IN_MILLIS, MILLISECONDS);
+        }
+    }
+
+    private List<RecordedEvent> read(Context context, File file)
+    {
+        final Decoder decoder = new Decoder(context);
+        DataInputStream in = null;
+
+        try
+        {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+
+            if (in.readInt() != MAGIC)
+            {
+                throw new EventRecorderException("Not a dump of recorded events: %s", file.getAbsolutePath());
+            }
+
+            final short version = in.readShort();
+            if (version != VERSION)
+            {
+                throw new EventRecorderException("Unsupported version %d of: %s", version, file.getAbsolutePath());
+            }
+
+            final int numberOfStrings = in.readInt();
+            for (int i = 0; i < numberOfStrings; ++i)
+            {
+                decoder.myStrings.add(in.readUTF());
+            }
+
+            final int numberOfEvents = in.readInt();
+            final List<RecordedEvent> events = new ArrayList<RecordedEvent>(numberOfEvents);
+
+            for (int i = 0; i < numberOfEvents; ++i)
+            {
+                final byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+
+                final RecordedEvent event = decoder.decode(new DataInputStream(new ByteArrayInputStream(payload)));
+                if (!event.nested)
+                {
+                    events.add(event);
+                }
+            }
+
+            return events;
+        }
+        catch (IOException e)
+        {
+            throw new EventRecorderException("Failed to read recorded events from: %s", e, file.getAbsolutePath());
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new EventRecorderException("Failed to resolve a recorded type of: %s", e, file.getAbsolutePath());
+        }
+        finally
+        {
+            closeQuietly(in);
+        }
+    }
+
+    private static class Decoder
+    {
+        private final Context myContext;
+        private final StorageImpl myStorage;
+        private final ComponentFactory myComponentFactory;
+        private final Map<UUID, EntityRef> myRefs = new HashMap<UUID, EntityRef>();
+
+        private final List<String> myStrings = new ArrayList<String>();
+
+        private boolean myIncomplete;
+
+        private Decoder(Context context)
+        {
+            myContext = context;
+            myStorage = (StorageImpl) context.get(STORAGE_KEY);
+            myComponentFactory = context.getService(ComponentFactory.class);
+        }
+
+        private RecordedEvent decode(DataInputStream in)
+        throws IOException, ClassNotFoundException
+        {
+            final RecordedEvent event = new RecordedEvent();
+            final byte mode = in.readByte();
+
+            event.mode = (byte) (mode & MODE_MASK);
+            event.nested = (mode & NESTED_FLAG) != 0;
+            event.timestamp = in.readLong();
+            event.threadId = in.readLong();
+            event.threadName = myStrings.get(in.readInt());
+            event.type = forName(myStrings.get(in.readInt())).asSubclass(RootEvent.class);
+            event.parameters = new Parameters();
+
+            // Nested events are not replayed, hence their parameters don't matter.
+            if (event.nested)
+            {
+                return event;
+            }
+
+            myIncomplete = false;
+
+            final int numberOfParameters = in.readShort();
+            for (int i = 0; i < numberOfParameters; ++i)
+            {
+                final String name = myStrings.get(in.readInt());
+                event.parameters.set(name, readValue(in));
+            }
+
+            event.incomplete = myIncomplete;
+
+            return event;
+        }
+
+        private Object readValue(DataInputStream in)
+        throws IOException, ClassNotFoundException
+        {
+            final byte tag = in.readByte();
+
+            switch (tag)
+            {
+                case NULL_VALUE:
+                    return null;
+                case BOOLEAN_VALUE:
+                    return in.readBoolean();
+                case BYTE_VALUE:
+                    return in.readByte();
+                case SHORT_VALUE:
+                    return in.readShort();
+                case CHAR_VALUE:
+                    return in.readChar();
+                case INT_VALUE:
+                    return in.readInt();
+                case LONG_VALUE:
+                    return in.readLong();
+                case FLOAT_VALUE:
+                    return in.readFloat();
+                case DOUBLE_VALUE:
+                    return in.readDouble();
+                case STRING_VALUE:
+                    return in.readUTF();
+                case UUID_VALUE:
+                    return readUUID(in);
+                case ENUM_VALUE:
+                {
+                    final Class<?> type = forName(myStrings.get(in.readInt()));
+                    return enumConstantOf(type, myStrings.get(in.readInt()));
+                }
+                case CLASS_VALUE:
+                    return forName(myStrings.get(in.readInt()));
+                case LIST_VALUE:
+                {
+                    final int size = in.readInt();
+                    final List<Object> list = new ArrayList<Object>(size);
+                    for (int i = 0; i < size; ++i)
+                    {
+                        list.add(readValue(in));
+                    }
+                    return list;
+                }
+                case CONTEXT_VALUE:
+                    return myContext;
+                case ENTITY_REF_VALUE:
+                {
+                    final UUID id = readUUID(in);
+                    EntityRef ref = myRefs.get(id);
+                    if (ref == null)
+                    {
+                        ref = myStorage.restoreEntities(singletonList(id)).get(0);
+                        myRefs.put(id, ref);
+                    }
+                    return ref;
+                }
+                case COMPONENT_VALUE:
+                {
+                    return readComponent(forName(myStrings.get(in.readInt())).asSubclass(Component.class), in);
+                }
+                case UNSUPPORTED_VALUE:
+                {
+                    in.readInt();
+                    myIncomplete = true;
+                    return null;
+                }
+                default:
+                    throw new EventRecorderException("Malformed dump! Unknown value type: %d", tag);
+            }
+        }
+
+        private <C extends Component> C readComponent(Class<C> type, DataInputStream in)
+        throws IOException
+        {
+            final C component = myComponentFactory.createComponent(type).newInstance(myContext);
+            myComponentFactory.createCodec(type).read(component, in);
+            return component;
+        }
+    }
+
+    private static class RecordedEvent
+    {
+        private byte mode;
+        private boolean nested;
+        private long timestamp;
+        private long threadId;
+        private String threadName;
+        private Class<? extends RootEvent> type;
+        private Parameters parameters;
+        private boolean incomplete;
+    }
+}
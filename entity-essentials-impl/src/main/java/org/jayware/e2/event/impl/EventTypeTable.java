@@ -0,0 +1,99 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.event.api.EventType;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.jayware.e2.util.Preconditions.checkArgument;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+
+
+public class EventTypeTable
+{
+    public static final int MAX_TYPES = 31;
+
+    private static final int COMPUTED = 1 << 31;
+
+    private static final ConcurrentMap<Class<?>, Integer> ourIds = new ConcurrentHashMap<Class<?>, Integer>();
+    private static final AtomicInteger ourNextId = new AtomicInteger();
+
+    private final Class<? extends EventType>[] myTypes;
+
+    private volatile int[] myMasks = new int[0];
+
+    public EventTypeTable(Class<? extends EventType>[] types)
+    {
+        checkNotNull(types);
+        checkArgument(types.length <= MAX_TYPES);
+
+        myTypes = types.clone();
+    }
+
+    public static int idOf(Class<?> type)
+    {
+        final Integer id = ourIds.get(type);
+
+        if (id != null)
+        {
+            return id;
+        }
+
+        final Integer newId = ourNextId.getAndIncrement();
+        final Integer existing = ourIds.putIfAbsent(type, newId);
+
+        return existing != null ? existing : newId;
+    }
+
+    public int maskOf(Class<?> type)
+    {
+        final int id = idOf(type);
+        final int[] masks = myMasks;
+
+        if (id < masks.length && masks[id] != 0)
+        {
+            return masks[id] & ~COMPUTED;
+        }
+
+        return compute(id, type);
+    }
+
+    private synchronized int compute(int id, Class<?> type)
+    {
+        int mask = 0;
+
+        for (int index = 0; index < myTypes.length; ++index)
+        {
+            if (myTypes[index].isAssignableFrom(type))
+            {
+                mask |= 1 << index;
+            }
+        }
+
+        final int[] masks = Arrays.copyOf(myMasks, Math.max(myMasks.length, id + 1));
+        masks[id] = mask | COMPUTED;
+        myMasks = masks;
+
+        return mask;
+    }
+}
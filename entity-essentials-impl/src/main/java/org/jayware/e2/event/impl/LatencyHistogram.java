@@ -0,0 +1,90 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.Long.numberOfLeadingZeros;
+
+
+public class LatencyHistogram
+{
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray myBuckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mySum = new AtomicLong();
+    private final AtomicLong myMax = new AtomicLong();
+
+    public void record(long nanos)
+    {
+        final long value = nanos > 0 ? nanos : 0;
+
+        // Bucket i holds the values in [2^(i-1), 2^i), bucket 0 holds only zero.
+        myBuckets.incrementAndGet(BUCKET_COUNT - numberOfLeadingZeros(value));
+        mySum.addAndGet(value);
+
+        long max;
+        while ((max = myMax.get()) < value && !myMax.compareAndSet(max, value))
+        {
+            // retry
+        }
+    }
+
+    public LatencySnapshot snapshot()
+    {
+        final long[] buckets = new long[BUCKET_COUNT];
+        long count = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i)
+        {
+            buckets[i] = myBuckets.get(i);
+            count += buckets[i];
+        }
+
+        final long max = myMax.get();
+        final long mean = count > 0 ? mySum.get() / count : 0;
+
+        return new LatencySnapshot(count, mean, percentile(buckets, count, max, 0.5), percentile(buckets, count, max, 0.9), percentile(buckets, count, max, 0.99), max);
+    }
+
+    private static long percentile(long[] buckets, long count, long max, double quantile)
+    {
+        final long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+
+        if (count == 0)
+        {
+            return 0;
+        }
+
+        for (int i = 0; i < buckets.length; ++i)
+        {
+            seen += buckets[i];
+
+            if (seen >= rank)
+            {
+                final long upperBound = i == 0 ? 0 : i == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+                return Math.min(upperBound, max);
+            }
+        }
+
+        return max;
+    }
+}
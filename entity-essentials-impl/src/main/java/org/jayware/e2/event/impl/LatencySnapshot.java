@@ -0,0 +1,79 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import java.beans.ConstructorProperties;
+
+
+public class LatencySnapshot
+{
+    private final long myCount;
+    private final long myMean;
+    private final long myP50;
+    private final long myP90;
+    private final long myP99;
+    private final long myMax;
+
+    @ConstructorProperties({"count", "mean", "p50", "p90", "p99", "max"})
+    public LatencySnapshot(long count, long mean, long p50, long p90, long p99, long max)
+    {
+        myCount = count;
+        myMean = mean;
+        myP50 = p50;
+        myP90 = p90;
+        myP99 = p99;
+        myMax = max;
+    }
+
+    public long getCount()
+    {
+        return myCount;
+    }
+
+    public long getMean()
+    {
+        return myMean;
+    }
+
+    public long getP50()
+    {
+        return myP50;
+    }
+
+    public long getP90()
+    {
+        return myP90;
+    }
+
+    public long getP99()
+    {
+        return myP99;
+    }
+
+    public long getMax()
+    {
+        return myMax;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LatencySnapshot { count=" + myCount + ", mean=" + myMean + ", p50=" + myP50 + ", p90=" + myP90 + ", p99=" + myP99 + ", max=" + myMax + " }";
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.event.api.Coalesce;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventType;
+import org.jayware.e2.event.api.Parameters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+class NotificationBuffer
+{
+    private final Map<Class<? extends EventType>, Coalesce> myCoalescing = new HashMap<Class<? extends EventType>, Coalesce>();
+
+    // Keyed by event id, or by type and coalescing key for coalesced types, in posting order.
+    private Map<Object, Event> myEvents = new LinkedHashMap<Object, Event>();
+
+    synchronized boolean add(Event event)
+    {
+        final Coalesce coalesce = coalescingOf(event.getType());
+        final boolean first = myEvents.isEmpty();
+
+        if (coalesce != null)
+        {
+            final Object key = Arrays.asList(event.getType(), keyOf(event, coalesce));
+            final Event previous = myEvents.remove(key);
+
+            // The coalesced event takes the position of the last one, behind every event posted in between.
+            myEvents.put(key, previous != null ? coalesce(previous, event, coalesce) : event);
+        }
+        else
+        {
+            myEvents.put(event.getId(), event);
+        }
+
+        return first;
+    }
+
+    synchronized List<Event> drain()
+    {
+        final List<Event> result = new ArrayList<Event>(myEvents.values());
+
+        myEvents = new LinkedHashMap<Object, Event>();
+
+        return result;
+    }
+
+    private Coalesce coalescingOf(Class<? extends EventType> type)
+    {
+        if (!myCoalescing.containsKey(type))
+        {
+            myCoalescing.put(type, type.getAnnotation(Coalesce.class));
+        }
+
+        return myCoalescing.get(type);
+    }
+
+    private static Object keyOf(Event event, Coalesce coalesce)
+    {
+        final Object[] key = new Object[coalesce.value().length];
+
+        for (int i = 0; i < key.length; ++i)
+        {
+            key[i] = event.getParameter(coalesce.value()[i]);
+        }
+
+        return Arrays.asList(key);
+    }
+
+    private static Event coalesce(Event first, Event last, Coalesce coalesce)
+    {
+        final Parameters parameters = new Parameters();
+
+        parameters.set(last.getParameters());
+
+        for (String name : coalesce.keepFirst())
+        {
+            parameters.set(name, first.getParameter(name));
+        }
+
+        return new EventImpl(last.getId(), last.getType(), parameters);
+    }
+}
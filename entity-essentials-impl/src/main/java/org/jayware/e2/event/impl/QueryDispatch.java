@@ -19,12 +19,16 @@
 package org.jayware.e2.event.impl;
 
 import org.jayware.e2.context.api.Context;
+import org.jayware.e2.diagnostic.impl.FlightEvents.DispatchEvent;
 import org.jayware.e2.event.api.EventDispatcher;
 import org.jayware.e2.event.api.EventFilter;
+import org.jayware.e2.event.api.EventInstrumentation;
 import org.jayware.e2.event.api.Query;
 import org.jayware.e2.event.api.ResultSet;
 import org.jayware.e2.event.api.Subscription;
 
+import static java.lang.System.nanoTime;
+import static org.jayware.e2.diagnostic.impl.FlightEvents.DISPATCH;
 import static org.jayware.e2.event.api.EventDispatchException.throwEventDispatchExceptionWithReport;
 import static org.jayware.e2.event.api.Query.State.Failed;
 import static org.jayware.e2.event.api.Query.State.Running;
@@ -35,11 +39,18 @@ public class QueryDispatch
 extends EventDispatch
 {
     private final QueryWrapper myQuery;
+    private final long myIssueTime;
 
     public QueryDispatch(Context context, QueryImpl query, Iterable<Subscription> subscriptions)
     {
-        super(context, new QueryWrapper(query, new QueryResultSet(query)), subscriptions);
+        this(context, query, subscriptions, null);
+    }
+
+    public QueryDispatch(Context context, QueryImpl query, Iterable<Subscription> subscriptions, EventInstrumentation instrumentation)
+    {
+        super(context, new QueryWrapper(query, new QueryResultSet(query)), subscriptions, instrumentation);
         myQuery = (QueryWrapper) myEvent;
+        myIssueTime = instrumentation != null ? nanoTime() : 0;
     }
 
     public Query getQuery()
@@ -80,6 +91,11 @@ extends EventDispatch
             }
             else
             {
+                if (myInstrumentation != null)
+                {
+                    myInstrumentation.onQuerySuccess(myQuery.getType(), nanoTime() - myIssueTime);
+                }
+
                 result.signal(Success);
             }
         }
@@ -93,6 +109,9 @@ extends EventDispatch
     {
         if (acceptedEvent(dispatcher) && passedFilters(filters))
         {
+            final long start = myInstrumentation != null ? nanoTime() : 0;
+            final DispatchEvent flightEvent = DISPATCH.begin();
+
             try
             {
                 dispatcher.dispatch(myQuery, subscriber);
@@ -102,6 +121,10 @@ extends EventDispatch
                 throwEventDispatchExceptionWithReport(cause, myEvent, "Failed to dispatch event to: %s", subscriber);
                 return true;
             }
+            finally
+            {
+                handled(subscriber, start, flightEvent);
+            }
         }
 
         return false;
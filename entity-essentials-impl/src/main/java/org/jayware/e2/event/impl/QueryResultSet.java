@@ -18,6 +18,7 @@
  */
 package org.jayware.e2.event.impl;
 
+import org.jayware.e2.diagnostic.impl.FlightEvents.QueryStateEvent;
 import org.jayware.e2.event.api.MissingResultException;
 import org.jayware.e2.event.api.Query;
 import org.jayware.e2.event.api.Result;
@@ -34,6 +35,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jayware.e2.diagnostic.impl.FlightEvents.QUERY_STATE;
 import static org.jayware.e2.event.api.Query.State.Success;
 import static org.jayware.e2.util.NotationUtil.shortNotationOf;
 
@@ -57,6 +59,8 @@ implements ResultSet
         myStateLatch = new StateLatch<Query.State>(Query.State.class);
         myResultMap = new ConcurrentHashMap<Object, Object>();
         myConsumers = query.getConsumers();
+
+        record(Query.State.Ready);
     }
 
     @Override
@@ -187,6 +191,7 @@ implements ResultSet
 
     public void signal(Query.State state)
     {
+        record(state);
         myStateLatch.signal(state);
 
         try
@@ -203,6 +208,19 @@ implements ResultSet
         }
     }
 
+    private void record(Query.State state)
+    {
+        final QueryStateEvent event = QUERY_STATE.create();
+
+        if (event != null)
+        {
+            event.setQueryType(myQuery.getType().getName());
+            event.setQueryId(String.valueOf(myQuery.getId()));
+            event.setState(state.name());
+            event.commit();
+        }
+    }
+
     private abstract class AbstractQueryResult<T>
     implements Result<T>
     {
@@ -0,0 +1,345 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.event.api.EventInstrumentation;
+import org.jayware.e2.event.api.EventType;
+import org.jayware.e2.event.api.ReplayReport;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+
+public class ReplayReportImpl
+implements ReplayReport
+{
+    private final ConcurrentMap<Class<? extends EventType>, AtomicInteger> myCounts = new ConcurrentHashMap<Class<? extends EventType>, AtomicInteger>();
+    private final ConcurrentMap<Class<? extends EventType>, AtomicLong> myHandlerTimes = new ConcurrentHashMap<Class<? extends EventType>, AtomicLong>();
+    private final ConcurrentMap<Class<? extends EventType>, AtomicLong> myMaxHandlerTimes = new ConcurrentHashMap<Class<? extends EventType>, AtomicLong>();
+    private final ConcurrentMap<Class<? extends EventType>, ConcurrentMap<Class<?>, AtomicLong>> mySubscriberTimes = new ConcurrentHashMap<Class<? extends EventType>, ConcurrentMap<Class<?>, AtomicLong>>();
+
+    private final AtomicInteger myNumberOfEvents = new AtomicInteger();
+    private final AtomicInteger myNumberOfIncompleteEvents = new AtomicInteger();
+    private final AtomicInteger myNumberOfFailedEvents = new AtomicInteger();
+    private final AtomicLong myNumberOfDispatches = new AtomicLong();
+
+    private volatile long myElapsedTime;
+
+    void replayed(Class<? extends EventType> type, boolean incomplete)
+    {
+        counterOf(myCounts, type).incrementAndGet();
+        myNumberOfEvents.incrementAndGet();
+
+        if (incomplete)
+        {
+            myNumberOfIncompleteEvents.incrementAndGet();
+        }
+    }
+
+    void failed()
+    {
+        myNumberOfFailedEvents.incrementAndGet();
+    }
+
+    void handled(Class<? extends EventType> type, Class<?> subscriberType, long nanos)
+    {
+        timeOf(myHandlerTimes, type).addAndGet(nanos);
+
+        ConcurrentMap<Class<?>, AtomicLong> subscribers = mySubscriberTimes.get(type);
+        if (subscribers == null)
+        {
+            final ConcurrentMap<Class<?>, AtomicLong> candidate = new ConcurrentHashMap<Class<?>, AtomicLong>();
+            subscribers = mySubscriberTimes.putIfAbsent(type, candidate);
+            subscribers = subscribers != null ? subscribers : candidate;
+        }
+
+        timeOf(subscribers, subscriberType).addAndGet(nanos);
+    }
+
+    void dispatched()
+    {
+        myNumberOfDispatches.incrementAndGet();
+    }
+
+    long getNumberOfDispatches()
+    {
+        return myNumberOfDispatches.get();
+    }
+
+    void maxHandlerTime(Class<? extends EventType> type, long nanos)
+    {
+        final AtomicLong max = timeOf(myMaxHandlerTimes, type);
+
+        long current = max.get();
+        while (nanos > current && !max.compareAndSet(current, nanos))
+        {
+            current = max.get();
+        }
+    }
+
+    void setElapsedTime(long nanos)
+    {
+        myElapsedTime = nanos;
+    }
+
+    @Override
+    public int getNumberOfEvents()
+    {
+        return myNumberOfEvents.get();
+    }
+
+    @Override
+    public int getNumberOfIncompleteEvents()
+    {
+        return myNumberOfIncompleteEvents.get();
+    }
+
+    @Override
+    public int getNumberOfFailedEvents()
+    {
+        return myNumberOfFailedEvents.get();
+    }
+
+    @Override
+    public long getElapsedTime(TimeUnit unit)
+    {
+        return unit.convert(myElapsedTime, NANOSECONDS);
+    }
+
+    @Override
+    public Set<Class<? extends EventType>> getEventTypes()
+    {
+        return Collections.unmodifiableSet(new HashSet<Class<? extends EventType>>(myCounts.keySet()));
+    }
+
+    @Override
+    public int getNumberOfEvents(Class<? extends EventType> type)
+    {
+        final AtomicInteger count = myCounts.get(type);
+        return count != null ? count.get() : 0;
+    }
+
+    @Override
+    public Set<Class<?>> getSubscriberTypes(Class<? extends EventType> type)
+    {
+        final Map<Class<?>, AtomicLong> subscribers = mySubscriberTimes.get(type);
+
+        if (subscribers == null)
+        {
+            return Collections.emptySet();
+        }
+
+        return Collections.unmodifiableSet(new HashSet<Class<?>>(subscribers.keySet()));
+    }
+
+    @Override
+    public long getHandlerTime(Class<? extends EventType> type, TimeUnit unit)
+    {
+        return unit.convert(nanosOf(myHandlerTimes, type), NANOSECONDS);
+    }
+
+    @Override
+    public long getHandlerTime(Class<? extends EventType> type, Class<?> subscriberType, TimeUnit unit)
+    {
+        final Map<Class<?>, AtomicLong> subscribers = mySubscriberTimes.get(type);
+        return subscribers != null ? unit.convert(nanosOf(subscribers, subscriberType), NANOSECONDS) : 0;
+    }
+
+    @Override
+    public long getMaxHandlerTime(Class<? extends EventType> type, TimeUnit unit)
+    {
+        return unit.convert(nanosOf(myMaxHandlerTimes, type), NANOSECONDS);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder("ReplayReport{");
+        sb.append("events=").append(getNumberOfEvents());
+        sb.append(", incomplete=").append(getNumberOfIncompleteEvents());
+        sb.append(", failed=").append(getNumberOfFailedEvents());
+        sb.append(", elapsed=").append(getElapsedTime(TimeUnit.MICROSECONDS)).append("us");
+
+        final Map<String, Class<? extends EventType>> types = new TreeMap<String, Class<? extends EventType>>();
+        for (Class<? extends EventType> type : myCounts.keySet())
+        {
+            types.put(type.getName(), type);
+        }
+
+        for (Class<? extends EventType> type : types.values())
+        {
+            sb.append(", ").append(type.getSimpleName());
+            sb.append("={count=").append(getNumberOfEvents(type));
+            sb.append(", handler=").append(getHandlerTime(type, TimeUnit.MICROSECONDS)).append("us");
+            sb.append(", max=").append(getMaxHandlerTime(type, TimeUnit.MICROSECONDS)).append("us}");
+        }
+
+        sb.append('}');
+        return sb.toString();
+    }
+
+    EventInstrumentation collector(EventInstrumentation delegate, AtomicLong currentHandlerTime)
+    {
+        return new Collector(delegate, currentHandlerTime);
+    }
+
+    private static <K> AtomicInteger counterOf(ConcurrentMap<K, AtomicInteger> counters, K key)
+    {
+        AtomicInteger counter = counters.get(key);
+
+        if (counter == null)
+        {
+            final AtomicInteger candidate = new AtomicInteger();
+            counter = counters.putIfAbsent(key, candidate);
+            counter = counter != null ? counter : candidate;
+        }
+
+        return counter;
+    }
+
+    private static <K> AtomicLong timeOf(ConcurrentMap<K, AtomicLong> times, K key)
+    {
+        AtomicLong time = times.get(key);
+
+        if (time == null)
+        {
+            final AtomicLong candidate = new AtomicLong();
+            time = times.putIfAbsent(key, candidate);
+            time = time != null ? time : candidate;
+        }
+
+        return time;
+    }
+
+    private static <K> long nanosOf(Map<K, AtomicLong> times, K key)
+    {
+        final AtomicLong time = times.get(key);
+        return time != null ? time.get() : 0;
+    }
+
+    // Collects the handler times while a replay is running and forwards everything to a previously installed instrumentation.
+    private class Collector
+    implements EventInstrumentation
+    {
+        private final EventInstrumentation myDelegate;
+        private final AtomicLong myCurrentHandlerTime;
+
+        private Collector(EventInstrumentation delegate, AtomicLong currentHandlerTime)
+        {
+            myDelegate = delegate;
+            myCurrentHandlerTime = currentHandlerTime;
+        }
+
+        @Override
+        public void onSend(Class<? extends EventType> type)
+        {
+            if (myDelegate != null)
+            {
+                myDelegate.onSend(type);
+            }
+        }
+
+        @Override
+        public void onPost(Class<? extends EventType> type)
+        {
+            if (myDelegate != null)
+            {
+                myDelegate.onPost(type);
+            }
+        }
+
+        @Override
+        public void onQuery(Class<? extends EventType> type)
+        {
+            if (myDelegate != null)
+            {
+                myDelegate.onQuery(type);
+            }
+        }
+
+        @Override
+        public void onSanityCheck(Class<? extends EventType> type, long nanos)
+        {
+            if (myDelegate != null)
+            {
+                myDelegate.onSanityCheck(type, nanos);
+            }
+        }
+
+        @Override
+        public void onDispatch(Class<? extends EventType> type, long nanos)
+        {
+            dispatched();
+
+            if (myDelegate != null)
+            {
+                myDelegate.onDispatch(type, nanos);
+            }
+        }
+
+        @Override
+        public void onHandle(Class<? extends EventType> type, Class<?> subscriberType, long nanos)
+        {
+            handled(type, subscriberType, nanos);
+            myCurrentHandlerTime.addAndGet(nanos);
+
+            if (myDelegate != null)
+            {
+                myDelegate.onHandle(type, subscriberType, nanos);
+            }
+        }
+
+        @Override
+        public void onQueueDepth(int depth)
+        {
+            if (myDelegate != null)
+            {
+                myDelegate.onQueueDepth(depth);
+            }
+        }
+
+        @Override
+        public void onCallerRuns(Class<? extends EventType> type)
+        {
+            if (myDelegate != null)
+            {
+                myDelegate.onCallerRuns(type);
+            }
+        }
+
+        @Override
+        public void onQuerySuccess(Class<? extends EventType> type, long nanos)
+        {
+            if (myDelegate != null)
+            {
+                myDelegate.onQuerySuccess(type, nanos);
+            }
+        }
+    }
+}
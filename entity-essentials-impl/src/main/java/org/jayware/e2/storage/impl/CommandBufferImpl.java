@@ -0,0 +1,187 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.AbstractComponent;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.impl.ComponentStore;
+import org.jayware.e2.component.impl.ComponentStore.Change;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.CommandBuffer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Collections.singletonList;
+import static java.util.UUID.randomUUID;
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.context.api.Preconditions.checkContextualNotNullAndBelongsToContext;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+
+
+public class CommandBufferImpl
+implements CommandBuffer
+{
+    private final Context myContext;
+    private final Thread myOwner;
+
+    private final List<UUID> myCreatedEntities = new ArrayList<UUID>();
+    private final List<Change> myComponentChanges = new ArrayList<Change>();
+    private final List<EntityRef> myDeletedEntities = new ArrayList<EntityRef>();
+
+    public CommandBufferImpl(Context context, Thread owner)
+    {
+        myContext = context;
+        myOwner = owner;
+    }
+
+    @Override
+    public EntityRef createEntity()
+    {
+        final UUID id = randomUUID();
+
+        myCreatedEntities.add(id);
+
+        return ((StorageImpl) myContext.get(STORAGE_KEY)).createEntityRef(id);
+    }
+
+    @Override
+    public void deleteEntity(EntityRef ref)
+    {
+        checkContextualNotNullAndBelongsToContext(ref, myContext);
+
+        myDeletedEntities.add(ref);
+    }
+
+    @Override
+    public <T extends Component> void addComponent(EntityRef ref, Class<T> component)
+    {
+        checkContextualNotNullAndBelongsToContext(ref, myContext);
+        checkNotNull(component, "Component mustn't be null!");
+
+        myComponentChanges.add(Change.addComponent(ref, component, null));
+    }
+
+    @Override
+    public <T extends Component> void addComponent(EntityRef ref, T component)
+    {
+        checkContextualNotNullAndBelongsToContext(ref, myContext);
+        checkNotNull(component, "Component mustn't be null!");
+
+        myComponentChanges.add(Change.addComponent(ref, component.type(), ((AbstractComponent) component).copy()));
+    }
+
+    @Override
+    public void removeComponent(EntityRef ref, Class<? extends Component> component)
+    {
+        checkContextualNotNullAndBelongsToContext(ref, myContext);
+        checkNotNull(component, "Component mustn't be null!");
+
+        myComponentChanges.add(Change.removeComponent(ref, component));
+    }
+
+    @Override
+    public int size()
+    {
+        return myCreatedEntities.size() + myComponentChanges.size() + myDeletedEntities.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public void playback()
+    {
+        playback(myContext, singletonList(this));
+    }
+
+    @Override
+    public void clear()
+    {
+        myCreatedEntities.clear();
+        myComponentChanges.clear();
+        myDeletedEntities.clear();
+    }
+
+    boolean isOwnerAlive()
+    {
+        return myOwner == null || myOwner.isAlive();
+    }
+
+    static int playback(Context context, Collection<CommandBufferImpl> buffers)
+    {
+        final List<UUID> createdEntities = new ArrayList<UUID>();
+        final List<Change> componentChanges = new ArrayList<Change>();
+        final List<EntityRef> deletedEntities = new ArrayList<EntityRef>();
+
+        checkContextNotNullAndNotDisposed(context);
+
+        for (CommandBufferImpl buffer : buffers)
+        {
+            createdEntities.addAll(buffer.myCreatedEntities);
+            componentChanges.addAll(buffer.myComponentChanges);
+            deletedEntities.addAll(buffer.myDeletedEntities);
+            buffer.clear();
+        }
+
+        if (!createdEntities.isEmpty())
+        {
+            ((StorageImpl) context.get(STORAGE_KEY)).createEntities(createdEntities);
+        }
+
+        if (!componentChanges.isEmpty())
+        {
+            context.get(COMPONENT_STORE).applyChanges(componentChanges);
+        }
+
+        if (!deletedEntities.isEmpty())
+        {
+            ((StorageImpl) context.get(STORAGE_KEY)).deleteEntities(deletedEntities);
+        }
+
+        return createdEntities.size() + componentChanges.size() + deletedEntities.size();
+    }
+
+    @Override
+    public Context getContext()
+    {
+        return myContext;
+    }
+
+    @Override
+    public boolean belongsTo(Context context)
+    {
+        return myContext.equals(context);
+    }
+
+    @Override
+    public boolean belongsTo(Contextual contextual)
+    {
+        return contextual != null && myContext.equals(contextual.getContext());
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Context.ValueProvider;
+import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.context.api.Resettable;
+import org.jayware.e2.storage.api.CommandBuffer;
+import org.jayware.e2.storage.api.CommandBufferManager;
+import org.jayware.e2.util.Key;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.util.Key.createKey;
+
+
+public class CommandBufferManagerImpl
+implements CommandBufferManager
+{
+    static final Key<CommandBuffers> COMMAND_BUFFERS_KEY = createKey("org.jayware.e2.CommandBuffers");
+
+    @Override
+    public CommandBuffer getCommandBuffer(Context context)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        return commandBuffersOf(context).get();
+    }
+
+    @Override
+    public int playback(Context context)
+    {
+        checkContextNotNullAndNotDisposed(context);
+
+        return commandBuffersOf(context).playback();
+    }
+
+    private CommandBuffers commandBuffersOf(Context context)
+    {
+        context.putIfAbsent(COMMAND_BUFFERS_KEY, new ValueProvider<CommandBuffers>()
+        {
+            @Override
+            public CommandBuffers provide(Context context)
+            {
+                return new CommandBuffers(context);
+            }
+        });
+
+        return context.get(COMMAND_BUFFERS_KEY);
+    }
+
+    static class CommandBuffers
+    extends ThreadLocal<CommandBufferImpl>
+    implements Disposable, Resettable
+    {
+        private final Context myContext;
+        private final List<CommandBufferImpl> myBuffers = new CopyOnWriteArrayList<CommandBufferImpl>();
+
+        CommandBuffers(Context context)
+        {
+            myContext = context;
+        }
+
+        @Override
+        protected CommandBufferImpl initialValue()
+        {
+            final CommandBufferImpl buffer = new CommandBufferImpl(myContext, Thread.currentThread());
+            myBuffers.add(buffer);
+            return buffer;
+        }
+
+        int playback()
+        {
+            final int result = CommandBufferImpl.playback(myContext, myBuffers);
+
+            for (CommandBufferImpl buffer : myBuffers)
+            {
+                if (!buffer.isOwnerAlive())
+                {
+                    myBuffers.remove(buffer);
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public void reset(Context context)
+        {
+            for (CommandBufferImpl buffer : myBuffers)
+            {
+                buffer.clear();
+            }
+        }
+
+        @Override
+        public void dispose(Context context)
+        {
+            for (CommandBufferImpl buffer : myBuffers)
+            {
+                buffer.clear();
+            }
+
+            myBuffers.clear();
+        }
+    }
+}
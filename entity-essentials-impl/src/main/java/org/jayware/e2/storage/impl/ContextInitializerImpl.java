@@ -29,6 +29,7 @@ import org.jayware.e2.storage.api.Storage;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
 
@@ -41,7 +42,7 @@ implements ContextInitializer
     {
         final EventManager eventManager = context.getService(EventManager.class);
         final ComponentDatabase componentDatabase = new ComponentDatabaseImpl(new HashMap<Class<? extends Component >, Map<EntityRef, Component>>());
-        final Storage storage = new StorageImpl(context, new HashMap<UUID, EntityRef>(), componentDatabase);
+        final Storage storage = new StorageImpl(context, new ConcurrentHashMap<UUID, EntityRef>(), componentDatabase);
 
         context.put(STORAGE_KEY, storage);
 
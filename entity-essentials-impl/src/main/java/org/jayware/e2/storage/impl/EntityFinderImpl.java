@@ -21,46 +21,182 @@ package org.jayware.e2.storage.impl;
 import org.jayware.e2.component.api.Aspect;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.entity.api.EntityVisitor;
 import org.jayware.e2.storage.api.EntityFinder;
 import org.jayware.e2.storage.api.EntityFinderException;
 import org.jayware.e2.util.Filter;
-import org.jayware.e2.util.Provider;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 
 public class EntityFinderImpl
 implements EntityFinder
 {
+    static final int PARALLEL_THRESHOLD = 8192;
+
+    private static final int MIN_CHUNK_SIZE = 1024;
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static final ExecutorService ourParallelPool = createParallelPool();
+
     private final Context myContext;
-    private final Provider<List<EntityRef>> myListProvider;
 
-    public EntityFinderImpl(final Context context, final Provider<List<EntityRef>> listProvider)
+    public EntityFinderImpl(final Context context)
     {
         myContext = context;
-        myListProvider = listProvider;
     }
 
     @Override
     public List<EntityRef> filter(final Collection<EntityRef> entities, final Aspect aspect, final List<Filter<EntityRef>> filters)
     {
-        final List<EntityRef> result = myListProvider.provide();
+        return filter(entities, aspect, filters, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<EntityRef> filter(final Collection<EntityRef> entities, final Aspect aspect, final List<Filter<EntityRef>> filters, final int offset, final int limit)
+    {
+        final List<EntityRef> result = new ArrayList<EntityRef>();
+
+        visit(entities, aspect, filters, offset, limit, new EntityVisitor()
+        {
+            @Override
+            public boolean visit(EntityRef ref)
+            {
+                result.add(ref);
+                return true;
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public int visit(final Collection<EntityRef> entities, final Aspect aspect, final List<Filter<EntityRef>> filters, final int offset, final int limit, final EntityVisitor visitor)
+    {
         final Aspect computationAspect = aspect != null ? aspect : Aspect.ANY;
         final List<Filter<EntityRef>> computationFilterList = filters != null ? filters : Collections.<Filter<EntityRef>>emptyList();
 
+        int skipped = 0;
+        int visited = 0;
+
+        if (limit <= 0)
+        {
+            return visited;
+        }
+
         for (EntityRef ref : entities)
         {
-            boolean addToResult = filterEntity(ref, computationAspect, computationFilterList);
+            if (!filterEntity(ref, computationAspect, computationFilterList))
+            {
+                continue;
+            }
 
-            if (addToResult)
+            if (skipped < offset)
             {
-                result.add(ref);
+                ++skipped;
+                continue;
+            }
+
+            ++visited;
+
+            if (!visitor.visit(ref) || visited >= limit)
+            {
+                break;
             }
         }
 
-        return result;
+        return visited;
+    }
+
+    @Override
+    public List<EntityRef> filterInParallel(final Collection<EntityRef> entities, final Aspect aspect, final List<Filter<EntityRef>> filters)
+    {
+        return filterInParallel(entities, aspect, filters, 0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<EntityRef> filterInParallel(final Collection<EntityRef> entities, final Aspect aspect, final List<Filter<EntityRef>> filters, final int offset, final int limit)
+    {
+        final EntityRef[] candidates = entities.toArray(new EntityRef[entities.size()]);
+        final Aspect computationAspect = aspect != null ? aspect : Aspect.ANY;
+        final List<Filter<EntityRef>> computationFilterList = filters != null ? filters : Collections.<Filter<EntityRef>>emptyList();
+        final long pageEnd = (long) offset + limit;
+
+        // A find issued by a filter on a worker runs inline, waiting for the pool there could starve it.
+        if (candidates.length < PARALLEL_THRESHOLD || PARALLELISM < 2 || Thread.currentThread() instanceof FinderThread)
+        {
+            return page(filterChunk(candidates, 0, candidates.length, computationAspect, computationFilterList), offset, pageEnd);
+        }
+
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE, (candidates.length + PARALLELISM * 4 - 1) / (PARALLELISM * 4));
+        final List<Future<List<EntityRef>>> futures = new ArrayList<Future<List<EntityRef>>>();
+
+        try
+        {
+            for (int from = chunkSize; from < candidates.length; from += chunkSize)
+            {
+                final int start = from;
+                final int end = Math.min(from + chunkSize, candidates.length);
+
+                futures.add(ourParallelPool.submit(new Callable<List<EntityRef>>()
+                {
+                    @Override
+                    public List<EntityRef> call()
+                    {
+                        return filterChunk(candidates, start, end, computationAspect, computationFilterList);
+                    }
+                }));
+            }
+
+            final List<EntityRef> result = filterChunk(candidates, 0, chunkSize, computationAspect, computationFilterList);
+
+            // The chunks are merged in order, so the page is the same as the one of a sequential search.
+            for (Future<List<EntityRef>> future : futures)
+            {
+                if (result.size() >= pageEnd)
+                {
+                    break;
+                }
+
+                result.addAll(future.get());
+            }
+
+            return page(result, offset, pageEnd);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new EntityFinderException("Failed to filter entities in parallel!", e.getCause());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new EntityFinderException("Interrupted while filtering entities in parallel!", e);
+        }
+        finally
+        {
+            for (Future<List<EntityRef>> future : futures)
+            {
+                future.cancel(false);
+            }
+        }
     }
 
     boolean filterEntity(final EntityRef ref, final Aspect aspect, final List<Filter<EntityRef>> filters)
@@ -81,6 +217,36 @@ implements EntityFinder
         return true;
     }
 
+    private List<EntityRef> filterChunk(final EntityRef[] candidates, final int from, final int to, final Aspect aspect, final List<Filter<EntityRef>> filters)
+    {
+        final List<EntityRef> result = new ArrayList<EntityRef>(to - from);
+
+        for (int i = from; i < to; ++i)
+        {
+            if (filterEntity(candidates[i], aspect, filters))
+            {
+                result.add(candidates[i]);
+            }
+        }
+
+        return result;
+    }
+
+    private static List<EntityRef> page(final List<EntityRef> result, final int offset, final long end)
+    {
+        if (offset == 0 && end >= result.size())
+        {
+            return result;
+        }
+
+        if (offset >= result.size())
+        {
+            return new ArrayList<EntityRef>();
+        }
+
+        return new ArrayList<EntityRef>(result.subList(offset, (int) Math.min(end, result.size())));
+    }
+
     private boolean applyFilter(final EntityRef ref, final Filter<EntityRef> filter)
     {
         try
@@ -92,4 +258,32 @@ implements EntityFinder
             throw new EntityFinderException("Failed to apply filter '%s' on entity '%s' because filter threw exception!", e, filter, ref);
         }
     }
+
+    private static ExecutorService createParallelPool()
+    {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 30L, SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+        {
+            private final AtomicInteger nextWorkerId = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new FinderThread(runnable, "entity-essentials-finder-" + nextWorkerId.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static class FinderThread
+    extends Thread
+    {
+        private FinderThread(Runnable runnable, String name)
+        {
+            super(runnable, name);
+        }
+    }
 }
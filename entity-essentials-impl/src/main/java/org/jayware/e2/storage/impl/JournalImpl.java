@@ -0,0 +1,463 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentEvent.ComponentAddedEvent;
+import org.jayware.e2.component.api.ComponentEvent.ComponentPushedEvent;
+import org.jayware.e2.component.api.ComponentEvent.ComponentRemovedEvent;
+import org.jayware.e2.component.api.ComponentFactory;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.entity.api.EntityEvent.EntityCreatedEvent;
+import org.jayware.e2.entity.api.EntityEvent.EntityDeletedEvent;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.Handle;
+import org.jayware.e2.event.api.Param;
+import org.jayware.e2.storage.api.Journal;
+import org.jayware.e2.storage.api.JournalException;
+import org.jayware.e2.storage.api.SnapshotManager;
+import org.jayware.e2.util.Key;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jayware.e2.component.api.ComponentEvent.ComponentParam;
+import static org.jayware.e2.component.api.ComponentEvent.ComponentTypeParam;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.writeUUID;
+import static org.jayware.e2.component.impl.ComponentLayout.layoutOf;
+import static org.jayware.e2.entity.api.EntityEvent.EntityIdParam;
+import static org.jayware.e2.util.IOUtil.closeQuietly;
+import static org.jayware.e2.util.Key.createKey;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+
+
+public class JournalImpl
+implements Journal, Disposable
+{
+    public static final Key<Journal> JOURNAL_KEY = createKey("org.jayware.e2.Journal");
+
+    static final String JOURNAL_FILE_NAME = "journal.e2j";
+    static final String SNAPSHOT_FILE_NAME = "snapshot.e2s";
+
+    static final byte TYPE_ENTRY = 1;
+    static final byte ENTITY_CREATED_ENTRY = 2;
+    static final byte ENTITY_DELETED_ENTRY = 3;
+    static final byte COMPONENT_ADDED_ENTRY = 4;
+    static final byte COMPONENT_REMOVED_ENTRY = 5;
+    static final byte COMPONENT_PUSHED_ENTRY = 6;
+
+    static final int FRAME_HEADER_SIZE = 8;
+
+    private static final long FLUSH_INTERVAL_IN_MILLIS = 20;
+    private static final long COMPACTION_THRESHOLD = 64L * 1024 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(JournalImpl.class);
+
+    private final Context myContext;
+    private final EventManager myEventManager;
+    private final ComponentFactory myComponentFactory;
+    private final SnapshotManager mySnapshotManager;
+
+    private final File myDirectory;
+    private final RandomAccessFile myFile;
+    private final FileChannel myChannel;
+
+    private final ByteArrayOutputStream myBuffer;
+    private final DataOutputStream myBufferStream;
+    private final Map<Class<? extends Component>, Integer> myTypeIds;
+
+    private final ScheduledExecutorService myFlusher;
+
+    private final Object myLock = new Object();
+    private final Object myCommitLock = new Object();
+
+    private volatile boolean myClosed;
+
+    public JournalImpl(Context context, File directory)
+    throws IOException
+    {
+        myContext = context;
+        myEventManager = context.getService(EventManager.class);
+        myComponentFactory = context.getService(ComponentFactory.class);
+        mySnapshotManager = context.getService(SnapshotManager.class);
+
+        if (!directory.exists() && !directory.mkdirs())
+        {
+            throw new IOException("Failed to create journal directory: " + directory.getAbsolutePath());
+        }
+
+        myDirectory = directory;
+        myFile = new RandomAccessFile(new File(directory, JOURNAL_FILE_NAME), "rw");
+        myChannel = myFile.getChannel();
+
+        final long validLength = validLength(myChannel);
+        if (validLength < myChannel.size())
+        {
+            log.warn("Truncating a partially written batch at the end of: {}", directory.getAbsolutePath());
+            myChannel.truncate(validLength);
+        }
+        myChannel.position(validLength);
+
+        myBuffer = new ByteArrayOutputStream(64 * 1024);
+        myBufferStream = new DataOutputStream(myBuffer);
+        myTypeIds = new HashMap<Class<? extends Component>, Integer>();
+
+        myFlusher = new ScheduledThreadPoolExecutor(1, new JournalThreadFactory());
+        myFlusher.scheduleWithFixedDelay(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                flushAndCompactIfNecessary();
+            }
+        }, FLUSH_INTERVAL_IN_MILLIS, FLUSH_INTERVAL_IN_MILLIS, MILLISECONDS);
+
+        myEventManager.subscribe(context, this, STRONG);
+    }
+
+    @Handle(EntityCreatedEvent.class)
+    public void handleEntityCreatedEvent(@Param(EntityIdParam) UUID id)
+    {
+        record(ENTITY_CREATED_ENTRY, id, null, null);
+    }
+
+    @Handle(EntityDeletedEvent.class)
+    public void handleEntityDeletedEvent(@Param(EntityIdParam) UUID id)
+    {
+        record(ENTITY_DELETED_ENTRY, id, null, null);
+    }
+
+    @Handle(ComponentAddedEvent.class)
+    public void handleComponentAddedEvent(@Param(EntityIdParam) UUID id, @Param(ComponentTypeParam) Class<? extends Component> type)
+    {
+        record(COMPONENT_ADDED_ENTRY, id, type, null);
+    }
+
+    @Handle(ComponentRemovedEvent.class)
+    public void handleComponentRemovedEvent(@Param(EntityIdParam) UUID id, @Param(ComponentTypeParam) Class<? extends Component> type)
+    {
+        record(COMPONENT_REMOVED_ENTRY, id, type, null);
+    }
+
+    @Handle(ComponentPushedEvent.class)
+    public void handleComponentPushedEvent(@Param(EntityIdParam) UUID id, @Param(ComponentParam) Component component)
+    {
+        record(COMPONENT_PUSHED_ENTRY, id, component.type(), component);
+    }
+
+    @Override
+    public File getDirectory()
+    {
+        return myDirectory;
+    }
+
+    @Override
+    public void flush()
+    {
+        checkNotClosed();
+
+        try
+        {
+            synchronized (myCommitLock)
+            {
+                commit();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new JournalException("Failed to flush journal: %s", e, myDirectory.getAbsolutePath());
+        }
+    }
+
+    @Override
+    public void compact()
+    {
+        checkNotClosed();
+
+        try
+        {
+            synchronized (myCommitLock)
+            {
+                // Only the swap happens under the lock, so changes are still recorded while the snapshot is written.
+                // They stay in the buffer until the journal has been truncated and, as every entry sets a state, it
+                // does not matter whether the snapshot already contains them.
+                commit();
+
+                synchronized (myLock)
+                {
+                    commit();
+                    myTypeIds.clear();
+                }
+
+                mySnapshotManager.writeSnapshot(myContext, new File(myDirectory, SNAPSHOT_FILE_NAME));
+
+                myChannel.truncate(0);
+                myChannel.position(0);
+                myChannel.force(true);
+            }
+
+            log.debug("Compacted journal: {}", myDirectory.getAbsolutePath());
+        }
+        catch (IOException e)
+        {
+            throw new JournalException("Failed to compact journal: %s", e, myDirectory.getAbsolutePath());
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (myClosed)
+        {
+            return;
+        }
+
+        myFlusher.shutdown();
+
+        if (!myContext.isDisposed())
+        {
+            myEventManager.unsubscribe(myContext, this);
+        }
+
+        try
+        {
+            synchronized (myCommitLock)
+            {
+                commit();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new JournalException("Failed to close journal: %s", e, myDirectory.getAbsolutePath());
+        }
+        finally
+        {
+            myClosed = true;
+            closeQuietly(myFile);
+        }
+    }
+
+    @Override
+    public void dispose(Context context)
+    {
+        close();
+    }
+
+    @Override
+    public Context getContext()
+    {
+        return myContext;
+    }
+
+    @Override
+    public boolean belongsTo(Context context)
+    {
+        return myContext.equals(context);
+    }
+
+    @Override
+    public boolean belongsTo(Contextual contextual)
+    {
+        return contextual != null && myContext.equals(contextual.getContext());
+    }
+
+    static long validLength(FileChannel channel)
+    throws IOException
+    {
+        final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        final long size = channel.size();
+        long position = 0;
+
+        while (position + FRAME_HEADER_SIZE <= size)
+        {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+
+            final int length = header.getInt();
+            final int checksum = header.getInt();
+
+            if (length < 0 || position + FRAME_HEADER_SIZE + length > size)
+            {
+                break;
+            }
+
+            final ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + FRAME_HEADER_SIZE);
+
+            if (checksum(payload.array(), length) != checksum)
+            {
+                break;
+            }
+
+            position += FRAME_HEADER_SIZE + length;
+        }
+
+        return position;
+    }
+
+    static int checksum(byte[] data, int length)
+    {
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private void record(byte entry, UUID id, Class<? extends Component> type, Component component)
+    {
+        synchronized (myLock)
+        {
+            if (myClosed)
+            {
+                return;
+            }
+
+            try
+            {
+                final int typeId = type != null ? typeId(type) : -1;
+
+                myBufferStream.writeByte(entry);
+                writeUUID(myBufferStream, id);
+
+                if (type != null)
+                {
+                    myBufferStream.writeInt(typeId);
+                }
+
+                if (component != null)
+                {
+                    writeComponent(type, component);
+                }
+            }
+            catch (IOException e)
+            {
+                throw new JournalException("Failed to record journal entry for entity '%s'!", e, id);
+            }
+        }
+    }
+
+    private int typeId(Class<? extends Component> type)
+    throws IOException
+    {
+        Integer id = myTypeIds.get(type);
+
+        if (id == null)
+        {
+            id = myTypeIds.size();
+            myTypeIds.put(type, id);
+
+            myBufferStream.writeByte(TYPE_ENTRY);
+            myBufferStream.writeInt(id);
+            myBufferStream.writeUTF(type.getName());
+            layoutOf(myComponentFactory.createComponent(type).newInstance(myContext)).write(myBufferStream);
+        }
+
+        return id;
+    }
+
+    private <C extends Component> void writeComponent(Class<C> type, Component component)
+    throws IOException
+    {
+        myComponentFactory.createCodec(type).write(type.cast(component), myBufferStream);
+    }
+
+    private void commit()
+    throws IOException
+    {
+        final byte[] batch;
+
+        synchronized (myLock)
+        {
+            if (myBuffer.size() == 0)
+            {
+                return;
+            }
+
+            batch = myBuffer.toByteArray();
+            myBuffer.reset();
+        }
+
+        final ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + batch.length);
+        frame.putInt(batch.length);
+        frame.putInt(checksum(batch, batch.length));
+        frame.put(batch);
+        frame.flip();
+
+        while (frame.hasRemaining())
+        {
+            myChannel.write(frame);
+        }
+
+        myChannel.force(false);
+    }
+
+    private void flushAndCompactIfNecessary()
+    {
+        try
+        {
+            flush();
+
+            if (myChannel.size() > COMPACTION_THRESHOLD)
+            {
+                compact();
+            }
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to flush journal: {}", myDirectory.getAbsolutePath(), e);
+        }
+    }
+
+    private void checkNotClosed()
+    {
+        if (myClosed)
+        {
+            throw new IllegalStateException("The journal has been closed: " + myDirectory.getAbsolutePath());
+        }
+    }
+
+    private static class JournalThreadFactory
+    implements ThreadFactory
+    {
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "entity-essentials-journal");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentFactory;
+import org.jayware.e2.component.impl.ComponentLayout;
+import org.jayware.e2.component.impl.ComponentStore;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Context.ValueProvider;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.Journal;
+import org.jayware.e2.storage.api.JournalException;
+import org.jayware.e2.storage.api.JournalManager;
+import org.jayware.e2.storage.api.SnapshotManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.readUUID;
+import static org.jayware.e2.component.impl.ComponentLayout.readLayout;
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.storage.impl.JournalImpl.COMPONENT_ADDED_ENTRY;
+import static org.jayware.e2.storage.impl.JournalImpl.COMPONENT_PUSHED_ENTRY;
+import static org.jayware.e2.storage.impl.JournalImpl.COMPONENT_REMOVED_ENTRY;
+import static org.jayware.e2.storage.impl.JournalImpl.ENTITY_CREATED_ENTRY;
+import static org.jayware.e2.storage.impl.JournalImpl.ENTITY_DELETED_ENTRY;
+import static org.jayware.e2.storage.impl.JournalImpl.FRAME_HEADER_SIZE;
+import static org.jayware.e2.storage.impl.JournalImpl.JOURNAL_FILE_NAME;
+import static org.jayware.e2.storage.impl.JournalImpl.JOURNAL_KEY;
+import static org.jayware.e2.storage.impl.JournalImpl.SNAPSHOT_FILE_NAME;
+import static org.jayware.e2.storage.impl.JournalImpl.TYPE_ENTRY;
+import static org.jayware.e2.storage.impl.JournalImpl.validLength;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+import static org.jayware.e2.util.IOUtil.closeQuietly;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+
+
+public class JournalManagerImpl
+implements JournalManager
+{
+    private final Logger log = LoggerFactory.getLogger(JournalManagerImpl.class);
+
+    @Override
+    public Journal openJournal(final Context context, final File directory)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(directory, "The directory of the journal mustn't be null!");
+
+        context.putIfAbsent(JOURNAL_KEY, new ValueProvider<Journal>()
+        {
+            @Override
+            public Journal provide(Context context)
+            {
+                try
+                {
+                    return new JournalImpl(context, directory);
+                }
+                catch (IOException e)
+                {
+                    throw new JournalException("Failed to open journal: %s", e, directory.getAbsolutePath());
+                }
+            }
+        });
+
+        return context.get(JOURNAL_KEY);
+    }
+
+    @Override
+    public void restore(Context context, File directory)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(directory, "The directory of the journal mustn't be null!");
+
+        final File snapshotFile = new File(directory, SNAPSHOT_FILE_NAME);
+        final File journalFile = new File(directory, JOURNAL_FILE_NAME);
+
+        if (snapshotFile.exists())
+        {
+            context.getService(SnapshotManager.class).readSnapshot(context, snapshotFile);
+        }
+
+        if (!journalFile.exists())
+        {
+            return;
+        }
+
+        RandomAccessFile file = null;
+
+        try
+        {
+            file = new RandomAccessFile(journalFile, "r");
+            replay(context, file.getChannel());
+        }
+        catch (IOException e)
+        {
+            throw new JournalException("Failed to restore '%s' from: %s", e, context, directory.getAbsolutePath());
+        }
+        finally
+        {
+            closeQuietly(file);
+        }
+    }
+
+    private void replay(Context context, FileChannel channel)
+    throws IOException
+    {
+        final StorageImpl storage = (StorageImpl) context.get(STORAGE_KEY);
+        final ComponentStore componentStore = context.get(COMPONENT_STORE);
+        final ComponentFactory componentFactory = context.getService(ComponentFactory.class);
+        final Map<Integer, ComponentLayout> layouts = new HashMap<Integer, ComponentLayout>();
+
+        final long length = validLength(channel);
+        final ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        long position = 0;
+        int numberOfBatches = 0;
+
+        while (position < length)
+        {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+
+            final ByteBuffer payload = ByteBuffer.allocate(header.getInt());
+            channel.read(payload, position + FRAME_HEADER_SIZE);
+
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+            while (in.available() > 0)
+            {
+                apply(in, context, storage, componentStore, componentFactory, layouts);
+            }
+
+            position += FRAME_HEADER_SIZE + payload.capacity();
+            ++numberOfBatches;
+        }
+
+        if (length < channel.size())
+        {
+            log.warn("Ignored a partially written batch at the end of the journal of '{}'.", context);
+        }
+
+        log.debug("Replayed {} batches of the journal into '{}'.", numberOfBatches, context);
+    }
+
+    private void apply(DataInputStream in, Context context, StorageImpl storage, ComponentStore componentStore, ComponentFactory componentFactory, Map<Integer, ComponentLayout> layouts)
+    throws IOException
+    {
+        final byte entry = in.readByte();
+
+        if (entry == TYPE_ENTRY)
+        {
+            final int id = in.readInt();
+            final Class<? extends Component> type = componentStore.resolveComponent(in.readUTF());
+            layouts.put(id, readLayout(in, componentFactory.createComponent(type).newInstance(context)));
+            return;
+        }
+
+        final UUID id = readUUID(in);
+
+        switch (entry)
+        {
+            case ENTITY_CREATED_ENTRY:
+            {
+                storage.restoreEntities(singletonList(id));
+                break;
+            }
+            case ENTITY_DELETED_ENTRY:
+            {
+                final EntityRef ref = storage.purgeEntity(id);
+                if (ref != null)
+                {
+                    componentStore.purgeComponents(ref);
+                }
+                break;
+            }
+            case COMPONENT_ADDED_ENTRY:
+            {
+                final Class<? extends Component> type = layouts.get(in.readInt()).getType();
+                final EntityRef ref = storage.restoreEntities(singletonList(id)).get(0);
+                componentStore.restoreComponentIfAbsent(ref, componentFactory.createComponent(type).newInstance(context));
+                break;
+            }
+            case COMPONENT_REMOVED_ENTRY:
+            {
+                final Class<? extends Component> type = layouts.get(in.readInt()).getType();
+                componentStore.purgeComponent(storage.resolveEntity(id), type);
+                break;
+            }
+            case COMPONENT_PUSHED_ENTRY:
+            {
+                final ComponentLayout layout = layouts.get(in.readInt());
+                final EntityRef ref = storage.restoreEntities(singletonList(id)).get(0);
+                componentStore.restoreComponents(layout.getType(), singletonMap(ref, readComponent(in, context, componentFactory, layout, layout.getType())));
+                break;
+            }
+            default:
+            {
+                throw new JournalException("Malformed journal! Unknown entry type: %d", entry);
+            }
+        }
+    }
+
+    private <C extends Component> Component readComponent(DataInputStream in, Context context, ComponentFactory componentFactory, ComponentLayout layout, Class<C> type)
+    throws IOException
+    {
+        final C component = componentFactory.createComponent(type).newInstance(context);
+        layout.read(component, componentFactory.createCodec(type), in);
+        return component;
+    }
+}
@@ -0,0 +1,358 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.AbstractComponent;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentFactory;
+import org.jayware.e2.component.impl.ComponentStore;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.Replica;
+import org.jayware.e2.storage.api.ReplicationException;
+import org.jayware.e2.storage.impl.ReplicatorImpl.HandleAllocator;
+import org.jayware.e2.storage.impl.ReplicatorImpl.Layout;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.jayware.e2.component.impl.ComponentCodecSupport.readUUID;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.readValue;
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.HEADER_SIZE;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.KIND_BOOLEAN;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.KIND_DOUBLE;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.KIND_FLOAT;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.KIND_INTEGER;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.MAGIC;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.VERSION;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.readVarLong;
+import static org.jayware.e2.storage.impl.ReplicatorImpl.unZigZag;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+
+
+public class ReplicaImpl
+implements Replica
+{
+    private final Context myContext;
+    private final StorageImpl myStorage;
+    private final ComponentStore myComponentStore;
+    private final ComponentFactory myComponentFactory;
+    private final ReadableByteChannel myChannel;
+
+    private final List<Layout> myLayouts = new ArrayList<Layout>();
+    private final List<EntityRef> myEntities = new ArrayList<EntityRef>();
+    private final HandleAllocator myHandleAllocator = new HandleAllocator();
+    private final ByteBuffer myFrameHeader = ByteBuffer.allocate(4);
+
+    private final Object myLock = new Object();
+
+    private double myResolution = -1;
+    private volatile long myNumberOfFrames;
+
+    public ReplicaImpl(Context context, ReadableByteChannel channel)
+    {
+        myContext = context;
+        myStorage = (StorageImpl) context.get(STORAGE_KEY);
+        myComponentStore = context.get(COMPONENT_STORE);
+        myComponentFactory = context.getService(ComponentFactory.class);
+        myChannel = channel;
+    }
+
+    @Override
+    public boolean apply()
+    {
+        synchronized (myLock)
+        {
+            if (myContext.isDisposed())
+            {
+                throw new IllegalStateException("The context of the replica has been disposed: " + myContext);
+            }
+
+            try
+            {
+                if (myResolution < 0 && !readStreamHeader())
+                {
+                    return false;
+                }
+
+                if (!readFully(myFrameHeader, true))
+                {
+                    return false;
+                }
+
+                final ByteBuffer payload = ByteBuffer.allocate(myFrameHeader.getInt());
+                readFully(payload, false);
+
+                applyFrame(new DataInputStream(new ByteArrayInputStream(payload.array())));
+                myNumberOfFrames = myNumberOfFrames + 1;
+
+                return true;
+            }
+            catch (ReplicationException e)
+            {
+                throw e;
+            }
+            catch (Exception e)
+            {
+                throw new ReplicationException("Failed to apply frame %d to '%s'!", e, myNumberOfFrames, myContext);
+            }
+        }
+    }
+
+    @Override
+    public long getNumberOfFrames()
+    {
+        return myNumberOfFrames;
+    }
+
+    @Override
+    public Context getContext()
+    {
+        return myContext;
+    }
+
+    @Override
+    public boolean belongsTo(Context context)
+    {
+        return myContext.equals(context);
+    }
+
+    @Override
+    public boolean belongsTo(Contextual contextual)
+    {
+        return contextual != null && myContext.equals(contextual.getContext());
+    }
+
+    private boolean readStreamHeader()
+    throws IOException
+    {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        if (!readFully(header, true))
+        {
+            return false;
+        }
+
+        if (header.getInt() != MAGIC)
+        {
+            throw new ReplicationException("Malformed replication stream! Unexpected magic number.");
+        }
+
+        final int version = header.getInt();
+        if (version != VERSION)
+        {
+            throw new ReplicationException("Unsupported replication stream version: %d", version);
+        }
+
+        myResolution = header.getDouble();
+        return true;
+    }
+
+    private void applyFrame(DataInputStream in)
+    throws IOException
+    {
+        final long frameNumber = readVarLong(in);
+
+        if (frameNumber != myNumberOfFrames)
+        {
+            throw new ReplicationException("Malformed replication stream! Expected frame %d but got %d.", myNumberOfFrames, frameNumber);
+        }
+
+        for (long count = readVarLong(in); count > 0; --count)
+        {
+            final Class<? extends Component> type = myComponentStore.resolveComponent(in.readUTF());
+            myLayouts.add(new Layout((AbstractComponent) myComponentFactory.createComponent(type).newInstance(myContext)));
+        }
+
+        for (long count = readVarLong(in); count > 0; --count)
+        {
+            final int handle = (int) readVarLong(in);
+            final EntityRef ref = myStorage.purgeEntity(entity(handle).getId());
+
+            if (ref != null)
+            {
+                myComponentStore.purgeComponents(ref);
+            }
+
+            myEntities.set(handle, null);
+            myHandleAllocator.release(handle);
+        }
+
+        final List<UUID> created = new ArrayList<UUID>();
+        for (long count = readVarLong(in); count > 0; --count)
+        {
+            created.add(readUUID(in));
+        }
+
+        for (EntityRef ref : myStorage.restoreEntities(created))
+        {
+            final int handle = myHandleAllocator.allocate();
+
+            while (myEntities.size() <= handle)
+            {
+                myEntities.add(null);
+            }
+
+            myEntities.set(handle, ref);
+        }
+
+        for (long count = readVarLong(in); count > 0; --count)
+        {
+            final EntityRef ref = entity((int) readVarLong(in));
+            myComponentStore.purgeComponent(ref, layout((int) readVarLong(in)).myType);
+        }
+
+        final Map<Class<? extends Component>, Map<EntityRef, Component>> updates = new LinkedHashMap<Class<? extends Component>, Map<EntityRef, Component>>();
+        for (long count = readVarLong(in); count > 0; --count)
+        {
+            final EntityRef ref = entity((int) readVarLong(in));
+            final Layout layout = layout((int) readVarLong(in));
+            final byte[] mask = new byte[layout.myMask.length];
+            in.readFully(mask);
+
+            AbstractComponent component = (AbstractComponent) myComponentStore.findComponent(ref, layout.myType);
+            if (component == null)
+            {
+                component = (AbstractComponent) myComponentFactory.createComponent(layout.myType).newInstance(myContext);
+            }
+
+            for (int i = 0; i < layout.myNames.length; ++i)
+            {
+                if ((mask[i >> 3] & (1 << (i & 7))) != 0)
+                {
+                    component.set(layout.myNames[i], readProperty(in, layout, i));
+                }
+            }
+
+            Map<EntityRef, Component> row = updates.get(layout.myType);
+            if (row == null)
+            {
+                row = new HashMap<EntityRef, Component>();
+                updates.put(layout.myType, row);
+            }
+
+            row.put(ref, component);
+        }
+
+        for (Map.Entry<Class<? extends Component>, Map<EntityRef, Component>> row : updates.entrySet())
+        {
+            myComponentStore.restoreComponents(row.getKey(), row.getValue());
+        }
+    }
+
+    private Object readProperty(DataInputStream in, Layout layout, int index)
+    throws IOException
+    {
+        final Class<?> type = layout.myTypes[index];
+
+        switch (layout.myKinds[index])
+        {
+            case KIND_BOOLEAN:
+                return in.readByte() != 0;
+            case KIND_INTEGER:
+            {
+                final long value = unZigZag(readVarLong(in));
+
+                if (type == byte.class)
+                {
+                    return (byte) value;
+                }
+
+                if (type == short.class)
+                {
+                    return (short) value;
+                }
+
+                if (type == char.class)
+                {
+                    return (char) value;
+                }
+
+                if (type == int.class)
+                {
+                    return (int) value;
+                }
+
+                return value;
+            }
+            case KIND_FLOAT:
+                return myResolution > 0 ? (float) (unZigZag(readVarLong(in)) * myResolution) : Float.intBitsToFloat(in.readInt());
+            case KIND_DOUBLE:
+                return myResolution > 0 ? unZigZag(readVarLong(in)) * myResolution : Double.longBitsToDouble(in.readLong());
+            default:
+                return readValue(in, layout.myTags[index], type, myContext);
+        }
+    }
+
+    private EntityRef entity(int handle)
+    {
+        final EntityRef ref = handle >= 0 && handle < myEntities.size() ? myEntities.get(handle) : null;
+
+        if (ref == null)
+        {
+            throw new ReplicationException("Malformed replication stream! Unknown entity handle: %d", handle);
+        }
+
+        return ref;
+    }
+
+    private Layout layout(int id)
+    {
+        if (id < 0 || id >= myLayouts.size())
+        {
+            throw new ReplicationException("Malformed replication stream! Unknown component type: %d", id);
+        }
+
+        return myLayouts.get(id);
+    }
+
+    private boolean readFully(ByteBuffer buffer, boolean endOfStreamAllowed)
+    throws IOException
+    {
+        buffer.clear();
+
+        while (buffer.hasRemaining())
+        {
+            if (myChannel.read(buffer) < 0)
+            {
+                if (endOfStreamAllowed && buffer.position() == 0)
+                {
+                    return false;
+                }
+
+                throw new EOFException("Unexpected end of the replication stream!");
+            }
+        }
+
+        buffer.flip();
+        return true;
+    }
+}
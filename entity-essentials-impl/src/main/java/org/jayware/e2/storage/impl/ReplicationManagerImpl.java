@@ -0,0 +1,70 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.storage.api.Replica;
+import org.jayware.e2.storage.api.ReplicationException;
+import org.jayware.e2.storage.api.ReplicationManager;
+import org.jayware.e2.storage.api.Replicator;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.util.Preconditions.checkArgument;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+
+
+public class ReplicationManagerImpl
+implements ReplicationManager
+{
+    @Override
+    public Replicator openReplicator(Context context, WritableByteChannel channel)
+    {
+        return openReplicator(context, channel, 0);
+    }
+
+    @Override
+    public Replicator openReplicator(Context context, WritableByteChannel channel, double resolution)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(channel, "The channel to write the frames to mustn't be null!");
+        checkArgument(resolution >= 0);
+
+        try
+        {
+            return new ReplicatorImpl(context, channel, resolution);
+        }
+        catch (IOException e)
+        {
+            throw new ReplicationException("Failed to open replicator of '%s'!", e, context);
+        }
+    }
+
+    @Override
+    public Replica openReplica(Context context, ReadableByteChannel channel)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(channel, "The channel to read the frames from mustn't be null!");
+
+        return new ReplicaImpl(context, channel);
+    }
+}
@@ -0,0 +1,731 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.AbstractComponent;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentEvent.ComponentAddedEvent;
+import org.jayware.e2.component.api.ComponentEvent.ComponentPushedEvent;
+import org.jayware.e2.component.api.ComponentEvent.ComponentRemovedEvent;
+import org.jayware.e2.component.impl.ComponentStore;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+import org.jayware.e2.entity.api.EntityEvent.EntityCreatedEvent;
+import org.jayware.e2.entity.api.EntityEvent.EntityDeletedEvent;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.Handle;
+import org.jayware.e2.event.api.Param;
+import org.jayware.e2.storage.api.ReplicationException;
+import org.jayware.e2.storage.api.Replicator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.jayware.e2.component.api.ComponentEvent.ComponentTypeParam;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.tagOf;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.writeUUID;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.writeValue;
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
+import static org.jayware.e2.entity.api.EntityEvent.EntityIdParam;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+
+
+public class ReplicatorImpl
+implements Replicator
+{
+    static final int MAGIC = 0x45325250;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final byte KIND_BOOLEAN = 1;
+    static final byte KIND_INTEGER = 2;
+    static final byte KIND_FLOAT = 3;
+    static final byte KIND_DOUBLE = 4;
+    static final byte KIND_OBJECT = 5;
+
+    private final Context myContext;
+    private final EventManager myEventManager;
+    private final StorageImpl myStorage;
+    private final ComponentStore myComponentStore;
+    private final WritableByteChannel myChannel;
+    private final double myResolution;
+
+    private final Map<UUID, Integer> myHandles = new HashMap<UUID, Integer>();
+    private final HandleAllocator myHandleAllocator = new HandleAllocator();
+    private final Map<Class<? extends Component>, Integer> myTypeIds = new HashMap<Class<? extends Component>, Integer>();
+    private final Map<Class<? extends Component>, Layout> myLayouts = new HashMap<Class<? extends Component>, Layout>();
+    private final Map<UUID, Map<Class<? extends Component>, Shadow>> myShadows = new HashMap<UUID, Map<Class<? extends Component>, Shadow>>();
+
+    private Set<UUID> myDirtyEntities = new HashSet<UUID>();
+    private Map<UUID, Set<Class<? extends Component>>> myDirtyComponents = new HashMap<UUID, Set<Class<? extends Component>>>();
+
+    private final ByteArrayOutputStream myFrame = new ByteArrayOutputStream(16 * 1024);
+    private final DataOutputStream myFrameStream = new DataOutputStream(myFrame);
+    private final ByteArrayOutputStream myRemovals = new ByteArrayOutputStream(1024);
+    private final DataOutputStream myRemovalsStream = new DataOutputStream(myRemovals);
+    private final ByteArrayOutputStream myUpdates = new ByteArrayOutputStream(16 * 1024);
+    private final DataOutputStream myUpdatesStream = new DataOutputStream(myUpdates);
+    private final ByteArrayOutputStream myScratch = new ByteArrayOutputStream(256);
+    private final DataOutputStream myScratchStream = new DataOutputStream(myScratch);
+
+    private final Object myLock = new Object();
+    private final Object myFlushLock = new Object();
+
+    private volatile long myNumberOfFrames;
+    private volatile long myNumberOfBytes;
+    private volatile boolean myClosed;
+
+    public ReplicatorImpl(Context context, WritableByteChannel channel, double resolution)
+    throws IOException
+    {
+        myContext = context;
+        myEventManager = context.getService(EventManager.class);
+        myStorage = (StorageImpl) context.get(STORAGE_KEY);
+        myComponentStore = context.get(COMPONENT_STORE);
+        myChannel = channel;
+        myResolution = resolution;
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putDouble(resolution);
+        header.flip();
+        writeFully(channel, header);
+        myNumberOfBytes = HEADER_SIZE;
+
+        myEventManager.subscribe(context, this, STRONG);
+
+        for (EntityRef ref : myStorage.getEntities())
+        {
+            markEntity(ref.getId());
+        }
+
+        for (Class<? extends Component> type : myComponentStore.getComponentClasses())
+        {
+            for (EntityRef ref : myComponentStore.copyComponents(type).keySet())
+            {
+                markComponent(ref.getId(), type);
+            }
+        }
+    }
+
+    @Handle(EntityCreatedEvent.class)
+    public void handleEntityCreatedEvent(@Param(EntityIdParam) UUID id)
+    {
+        markEntity(id);
+    }
+
+    @Handle(EntityDeletedEvent.class)
+    public void handleEntityDeletedEvent(@Param(EntityIdParam) UUID id)
+    {
+        markEntity(id);
+    }
+
+    @Handle(ComponentAddedEvent.class)
+    public void handleComponentAddedEvent(@Param(EntityIdParam) UUID id, @Param(ComponentTypeParam) Class<? extends Component> type)
+    {
+        markComponent(id, type);
+    }
+
+    @Handle(ComponentRemovedEvent.class)
+    public void handleComponentRemovedEvent(@Param(EntityIdParam) UUID id, @Param(ComponentTypeParam) Class<? extends Component> type)
+    {
+        markComponent(id, type);
+    }
+
+    @Handle(ComponentPushedEvent.class)
+    public void handleComponentPushedEvent(@Param(EntityIdParam) UUID id, @Param(ComponentTypeParam) Class<? extends Component> type)
+    {
+        markComponent(id, type);
+    }
+
+    @Override
+    public int flush()
+    {
+        checkNotClosed();
+
+        synchronized (myFlushLock)
+        {
+            final Set<UUID> dirtyEntities;
+            final Map<UUID, Set<Class<? extends Component>>> dirtyComponents;
+
+            synchronized (myLock)
+            {
+                dirtyEntities = myDirtyEntities;
+                dirtyComponents = myDirtyComponents;
+                myDirtyEntities = new HashSet<UUID>();
+                myDirtyComponents = new HashMap<UUID, Set<Class<? extends Component>>>();
+            }
+
+            boolean written = false;
+
+            try
+            {
+                final int size = writeFrame(dirtyEntities, dirtyComponents);
+                written = true;
+                return size;
+            }
+            catch (IOException e)
+            {
+                throw new ReplicationException("Failed to write frame %d of '%s'! The replicator has been closed.", e, myNumberOfFrames, myContext);
+            }
+            finally
+            {
+                myFrame.reset();
+                myRemovals.reset();
+                myUpdates.reset();
+
+                // The handles and shadows already account for the failed frame, which the replica never received
+                // completely. Hence, the replica can not be brought up to date anymore.
+                if (!written)
+                {
+                    close();
+                }
+            }
+        }
+    }
+
+    @Override
+    public long getNumberOfFrames()
+    {
+        return myNumberOfFrames;
+    }
+
+    @Override
+    public long getNumberOfBytes()
+    {
+        return myNumberOfBytes;
+    }
+
+    @Override
+    public void close()
+    {
+        if (myClosed)
+        {
+            return;
+        }
+
+        myClosed = true;
+
+        if (!myContext.isDisposed())
+        {
+            myEventManager.unsubscribe(myContext, this);
+        }
+    }
+
+    @Override
+    public Context getContext()
+    {
+        return myContext;
+    }
+
+    @Override
+    public boolean belongsTo(Context context)
+    {
+        return myContext.equals(context);
+    }
+
+    @Override
+    public boolean belongsTo(Contextual contextual)
+    {
+        return contextual != null && myContext.equals(contextual.getContext());
+    }
+
+    private int writeFrame(Set<UUID> dirtyEntities, Map<UUID, Set<Class<? extends Component>>> dirtyComponents)
+    throws IOException
+    {
+        final Set<UUID> ids = new LinkedHashSet<UUID>(dirtyEntities);
+        final List<EntityRef> alive = new ArrayList<EntityRef>(ids.size());
+        final List<Integer> deleted = new ArrayList<Integer>();
+        final List<UUID> created = new ArrayList<UUID>();
+        final List<Class<? extends Component>> newTypes = new ArrayList<Class<? extends Component>>();
+        int numberOfRemovals = 0;
+        int numberOfUpdates = 0;
+
+        ids.addAll(dirtyComponents.keySet());
+
+        // Handles of deleted entities have to be released before new ones are allocated, because the replica
+        // allocates them in the same order.
+        for (UUID id : ids)
+        {
+            final EntityRef ref = myStorage.resolveEntity(id);
+
+            if (ref.isValid())
+            {
+                alive.add(ref);
+                continue;
+            }
+
+            final Integer handle = myHandles.remove(id);
+
+            if (handle != null)
+            {
+                deleted.add(handle);
+                myHandleAllocator.release(handle);
+                myShadows.remove(id);
+            }
+        }
+
+        for (EntityRef ref : alive)
+        {
+            final UUID id = ref.getId();
+            final Set<Class<? extends Component>> types = dirtyComponents.get(id);
+            Integer handle = myHandles.get(id);
+
+            if (handle == null)
+            {
+                handle = myHandleAllocator.allocate();
+                myHandles.put(id, handle);
+                created.add(id);
+            }
+
+            if (types == null)
+            {
+                continue;
+            }
+
+            Map<Class<? extends Component>, Shadow> shadows = myShadows.get(id);
+
+            if (shadows == null)
+            {
+                shadows = new HashMap<Class<? extends Component>, Shadow>();
+                myShadows.put(id, shadows);
+            }
+
+            for (Class<? extends Component> type : types)
+            {
+                final AbstractComponent component = (AbstractComponent) myComponentStore.findComponent(ref, type);
+                final Shadow shadow = shadows.get(type);
+
+                if (component == null)
+                {
+                    if (shadow != null)
+                    {
+                        shadows.remove(type);
+                        writeVarLong(myRemovalsStream, handle);
+                        writeVarLong(myRemovalsStream, typeId(type, newTypes));
+                        ++numberOfRemovals;
+                    }
+
+                    continue;
+                }
+
+                if (shadow == null)
+                {
+                    final Shadow initial = new Shadow(layoutOf(component));
+                    shadows.put(type, initial);
+                    writeUpdate(handle, type, component, initial, true, newTypes);
+                    ++numberOfUpdates;
+                }
+                else if (writeUpdate(handle, type, component, shadow, false, newTypes))
+                {
+                    ++numberOfUpdates;
+                }
+            }
+        }
+
+        if (deleted.isEmpty() && created.isEmpty() && numberOfRemovals == 0 && numberOfUpdates == 0)
+        {
+            return 0;
+        }
+
+        writeVarLong(myFrameStream, myNumberOfFrames);
+
+        writeVarLong(myFrameStream, newTypes.size());
+        for (Class<? extends Component> type : newTypes)
+        {
+            myFrameStream.writeUTF(type.getName());
+        }
+
+        writeVarLong(myFrameStream, deleted.size());
+        for (Integer handle : deleted)
+        {
+            writeVarLong(myFrameStream, handle);
+        }
+
+        writeVarLong(myFrameStream, created.size());
+        for (UUID id : created)
+        {
+            writeUUID(myFrameStream, id);
+        }
+
+        writeVarLong(myFrameStream, numberOfRemovals);
+        myRemovals.writeTo(myFrameStream);
+
+        writeVarLong(myFrameStream, numberOfUpdates);
+        myUpdates.writeTo(myFrameStream);
+
+        final ByteBuffer frame = ByteBuffer.allocate(4 + myFrame.size());
+        frame.putInt(myFrame.size());
+        frame.put(myFrame.toByteArray());
+        frame.flip();
+
+        writeFully(myChannel, frame);
+
+        myNumberOfFrames = myNumberOfFrames + 1;
+        myNumberOfBytes = myNumberOfBytes + frame.capacity();
+
+        return frame.capacity();
+    }
+
+    private boolean writeUpdate(int handle, Class<? extends Component> type, AbstractComponent component, Shadow shadow, boolean full, List<Class<? extends Component>> newTypes)
+    throws IOException
+    {
+        final Layout layout = shadow.myLayout;
+        final byte[] mask = layout.myMask;
+        boolean changed = full;
+
+        Arrays.fill(mask, (byte) 0);
+
+        for (int i = 0; i < layout.myNames.length; ++i)
+        {
+            final Object value = component.get(layout.myNames[i]);
+
+            if (layout.myKinds[i] == KIND_OBJECT)
+            {
+                myScratch.reset();
+                writeValue(myScratchStream, layout.myTags[i], value);
+                final byte[] bytes = myScratch.toByteArray();
+
+                if (full || !Arrays.equals(bytes, shadow.myObjects[i]))
+                {
+                    shadow.myObjects[i] = bytes;
+                    mask[i >> 3] |= 1 << (i & 7);
+                    changed = true;
+                }
+            }
+            else
+            {
+                final long bits = toBits(layout.myKinds[i], value);
+
+                if (full || bits != shadow.myPrimitives[i])
+                {
+                    shadow.myPrimitives[i] = bits;
+                    mask[i >> 3] |= 1 << (i & 7);
+                    changed = true;
+                }
+            }
+        }
+
+        if (!changed)
+        {
+            return false;
+        }
+
+        writeVarLong(myUpdatesStream, handle);
+        writeVarLong(myUpdatesStream, typeId(type, newTypes));
+        myUpdatesStream.write(mask);
+
+        for (int i = 0; i < layout.myNames.length; ++i)
+        {
+            if ((mask[i >> 3] & (1 << (i & 7))) == 0)
+            {
+                continue;
+            }
+
+            final long bits = shadow.myPrimitives[i];
+
+            switch (layout.myKinds[i])
+            {
+                case KIND_BOOLEAN:
+                    myUpdatesStream.writeByte((int) bits);
+                    break;
+                case KIND_INTEGER:
+                    writeVarLong(myUpdatesStream, zigZag(bits));
+                    break;
+                case KIND_FLOAT:
+                    if (myResolution > 0)
+                    {
+                        writeVarLong(myUpdatesStream, zigZag(bits));
+                    }
+                    else
+                    {
+                        myUpdatesStream.writeInt((int) bits);
+                    }
+                    break;
+                case KIND_DOUBLE:
+                    if (myResolution > 0)
+                    {
+                        writeVarLong(myUpdatesStream, zigZag(bits));
+                    }
+                    else
+                    {
+                        myUpdatesStream.writeLong(bits);
+                    }
+                    break;
+                default:
+                    myUpdatesStream.write(shadow.myObjects[i]);
+            }
+        }
+
+        return true;
+    }
+
+    private long toBits(byte kind, Object value)
+    {
+        switch (kind)
+        {
+            case KIND_BOOLEAN:
+                return (Boolean) value ? 1 : 0;
+            case KIND_INTEGER:
+                return value instanceof Character ? (Character) value : ((Number) value).longValue();
+            case KIND_FLOAT:
+                return myResolution > 0 ? quantize((Float) value) : Float.floatToIntBits((Float) value);
+            default:
+                return myResolution > 0 ? quantize((Double) value) : Double.doubleToLongBits((Double) value);
+        }
+    }
+
+    private long quantize(double value)
+    {
+        final double steps = value / myResolution;
+
+        // Math.round maps NaN to zero and saturates at the bounds of long, which would go unnoticed at the replica.
+        if (Double.isNaN(steps) || Math.abs(steps) >= Long.MAX_VALUE)
+        {
+            throw new ReplicationException("The value %s can not be quantized with a resolution of %s!", value, myResolution);
+        }
+
+        return Math.round(steps);
+    }
+
+    private int typeId(Class<? extends Component> type, List<Class<? extends Component>> newTypes)
+    {
+        Integer id = myTypeIds.get(type);
+
+        if (id == null)
+        {
+            id = myTypeIds.size();
+            myTypeIds.put(type, id);
+            newTypes.add(type);
+        }
+
+        return id;
+    }
+
+    private Layout layoutOf(AbstractComponent component)
+    {
+        Layout layout = myLayouts.get(component.type());
+
+        if (layout == null)
+        {
+            layout = new Layout(component);
+            myLayouts.put(component.type(), layout);
+        }
+
+        return layout;
+    }
+
+    private void markEntity(UUID id)
+    {
+        synchronized (myLock)
+        {
+            myDirtyEntities.add(id);
+        }
+    }
+
+    private void markComponent(UUID id, Class<? extends Component> type)
+    {
+        synchronized (myLock)
+        {
+            Set<Class<? extends Component>> types = myDirtyComponents.get(id);
+
+            if (types == null)
+            {
+                types = new HashSet<Class<? extends Component>>(4);
+                myDirtyComponents.put(id, types);
+            }
+
+            types.add(type);
+        }
+    }
+
+    private void checkNotClosed()
+    {
+        if (myClosed)
+        {
+            throw new IllegalStateException("The replicator has been closed: " + myContext);
+        }
+    }
+
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer)
+    throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
+
+    static void writeVarLong(DataOutput out, long value)
+    throws IOException
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in)
+    throws IOException
+    {
+        long result = 0;
+
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            final byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+            {
+                return result;
+            }
+        }
+
+        throw new ReplicationException("Malformed frame! A variable-length integer exceeds 64 bits.");
+    }
+
+    static long zigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static class Layout
+    {
+        final Class<? extends Component> myType;
+        final String[] myNames;
+        final Class<?>[] myTypes;
+        final byte[] myKinds;
+        final byte[] myTags;
+        final byte[] myMask;
+
+        // The properties are ordered by name, so that both ends agree on the order regardless of the order the
+        // generated classes report them.
+        Layout(AbstractComponent prototype)
+        {
+            final List<String> names = prototype.getPropertyNames();
+            final List<?> types = prototype.getPropertyTypes();
+            final TreeMap<String, Class<?>> properties = new TreeMap<String, Class<?>>();
+
+            for (int i = 0; i < names.size(); ++i)
+            {
+                properties.put(names.get(i), (Class<?>) types.get(i));
+            }
+
+            myType = prototype.type();
+            myNames = new String[properties.size()];
+            myTypes = new Class<?>[properties.size()];
+            myKinds = new byte[properties.size()];
+            myTags = new byte[properties.size()];
+            myMask = new byte[(properties.size() + 7) / 8];
+
+            int i = 0;
+            for (Map.Entry<String, Class<?>> property : properties.entrySet())
+            {
+                myNames[i] = property.getKey();
+                myTypes[i] = property.getValue();
+                myKinds[i] = kindOf(property.getValue());
+                myTags[i] = tagOf(property.getValue());
+                ++i;
+            }
+        }
+
+        private static byte kindOf(Class<?> type)
+        {
+            if (type == boolean.class)
+            {
+                return KIND_BOOLEAN;
+            }
+
+            if (type == byte.class || type == short.class || type == char.class || type == int.class || type == long.class)
+            {
+                return KIND_INTEGER;
+            }
+
+            if (type == float.class)
+            {
+                return KIND_FLOAT;
+            }
+
+            if (type == double.class)
+            {
+                return KIND_DOUBLE;
+            }
+
+            return KIND_OBJECT;
+        }
+    }
+
+    static class HandleAllocator
+    {
+        private final Deque<Integer> myReleased = new ArrayDeque<Integer>();
+        private int myNext;
+
+        int allocate()
+        {
+            return myReleased.isEmpty() ? myNext++ : myReleased.pop();
+        }
+
+        void release(int handle)
+        {
+            myReleased.push(handle);
+        }
+    }
+
+    private static class Shadow
+    {
+        private final Layout myLayout;
+        private final long[] myPrimitives;
+        private final byte[][] myObjects;
+
+        private Shadow(Layout layout)
+        {
+            myLayout = layout;
+            myPrimitives = new long[layout.myNames.length];
+            myObjects = new byte[layout.myNames.length][];
+        }
+    }
+}
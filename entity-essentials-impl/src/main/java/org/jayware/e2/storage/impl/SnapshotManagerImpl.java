@@ -0,0 +1,307 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentCodec;
+import org.jayware.e2.component.api.ComponentFactory;
+import org.jayware.e2.component.api.ComponentInstancer;
+import org.jayware.e2.component.impl.ComponentLayout;
+import org.jayware.e2.component.impl.ComponentStore;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.SnapshotException;
+import org.jayware.e2.storage.api.SnapshotManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.readUUID;
+import static org.jayware.e2.component.impl.ComponentCodecSupport.writeUUID;
+import static org.jayware.e2.component.impl.ComponentLayout.layoutOf;
+import static org.jayware.e2.component.impl.ComponentLayout.readLayout;
+import static org.jayware.e2.storage.impl.StorageImpl.STORAGE_KEY;
+import static org.jayware.e2.util.IOUtil.closeQuietly;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+
+
+public class SnapshotManagerImpl
+implements SnapshotManager
+{
+    private static final int MAGIC = 0x45325350;
+    private static final int VERSION = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(SnapshotManagerImpl.class);
+
+    @Override
+    public void writeSnapshot(Context context, WritableByteChannel channel)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(channel, "The channel to write the snapshot to mustn't be null!");
+
+        try
+        {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            writeSnapshot(context, out);
+            out.flush();
+        }
+        catch (SnapshotException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new SnapshotException("Failed to write snapshot of '%s'!", e, context);
+        }
+    }
+
+    @Override
+    public void writeSnapshot(Context context, File file)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(file, "The file to write the snapshot to mustn't be null!");
+
+        final File temporaryFile = new File(file.getPath() + ".tmp");
+        FileOutputStream stream = null;
+
+        try
+        {
+            stream = new FileOutputStream(temporaryFile);
+            writeSnapshot(context, stream.getChannel());
+            stream.getFD().sync();
+            stream.close();
+
+            if (!temporaryFile.renameTo(file) && !(file.delete() && temporaryFile.renameTo(file)))
+            {
+                throw new IOException("Failed to replace '" + file.getAbsolutePath() + "'");
+            }
+        }
+        catch (SnapshotException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new SnapshotException("Failed to write snapshot of '%s' to: %s", e, context, file.getAbsolutePath());
+        }
+        finally
+        {
+            closeQuietly(stream);
+            temporaryFile.delete();
+        }
+    }
+
+    @Override
+    public void readSnapshot(Context context, ReadableByteChannel channel)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(channel, "The channel to read the snapshot from mustn't be null!");
+
+        try
+        {
+            readSnapshot(context, new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE)));
+        }
+        catch (SnapshotException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new SnapshotException("Failed to read snapshot into '%s'!", e, context);
+        }
+    }
+
+    @Override
+    public void readSnapshot(Context context, File file)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(file, "The file to read the snapshot from mustn't be null!");
+
+        FileInputStream stream = null;
+
+        try
+        {
+            stream = new FileInputStream(file);
+            readSnapshot(context, stream.getChannel());
+        }
+        catch (SnapshotException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new SnapshotException("Failed to read snapshot into '%s' from: %s", e, context, file.getAbsolutePath());
+        }
+        finally
+        {
+            closeQuietly(stream);
+        }
+    }
+
+    private void writeSnapshot(Context context, DataOutputStream out)
+    throws IOException
+    {
+        final StorageImpl storage = (StorageImpl) context.get(STORAGE_KEY);
+        final ComponentStore componentStore = context.get(COMPONENT_STORE);
+        final ComponentFactory componentFactory = context.getService(ComponentFactory.class);
+
+        final List<EntityRef> entities = storage.getEntities();
+        final Map<EntityRef, Integer> entityIndex = new HashMap<EntityRef, Integer>(entities.size() * 2);
+        final List<Class<? extends Component>> types = new ArrayList<Class<? extends Component>>(componentStore.getComponentClasses());
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeInt(entities.size());
+        for (int i = 0; i < entities.size(); ++i)
+        {
+            final EntityRef ref = entities.get(i);
+            entityIndex.put(ref, i);
+            writeUUID(out, ref.getId());
+        }
+
+        out.writeInt(types.size());
+        for (Class<? extends Component> type : types)
+        {
+            writeComponentTable(out, type, componentFactory, componentStore.copyComponents(type), entityIndex);
+        }
+
+        log.debug("Wrote snapshot of '{}' with {} entities and {} component types.", context, entities.size(), types.size());
+    }
+
+    private <C extends Component> void writeComponentTable(DataOutputStream out, Class<C> type, ComponentFactory componentFactory, Map<EntityRef, Component> components, Map<EntityRef, Integer> entityIndex)
+    throws IOException
+    {
+        final ComponentCodec<C> codec = componentFactory.createCodec(type);
+        final List<C> rows = new ArrayList<C>(components.size());
+        final int[] rowEntities = new int[components.size()];
+
+        for (Map.Entry<EntityRef, Component> entry : components.entrySet())
+        {
+            final Integer index = entityIndex.get(entry.getKey());
+
+            if (index != null)
+            {
+                rowEntities[rows.size()] = index;
+                rows.add(type.cast(entry.getValue()));
+            }
+        }
+
+        out.writeUTF(type.getName());
+
+        if (rows.isEmpty())
+        {
+            out.writeInt(0);
+            out.writeInt(0);
+            return;
+        }
+
+        layoutOf(rows.get(0)).write(out);
+
+        out.writeInt(rows.size());
+        for (int i = 0; i < rows.size(); ++i)
+        {
+            out.writeInt(rowEntities[i]);
+            codec.write(rows.get(i), out);
+        }
+    }
+
+    private void readSnapshot(Context context, DataInputStream in)
+    throws IOException
+    {
+        final StorageImpl storage = (StorageImpl) context.get(STORAGE_KEY);
+        final ComponentStore componentStore = context.get(COMPONENT_STORE);
+        final ComponentFactory componentFactory = context.getService(ComponentFactory.class);
+
+        if (in.readInt() != MAGIC)
+        {
+            throw new SnapshotException("Malformed snapshot! The stream does not start with the expected magic number.");
+        }
+
+        final int version = in.readInt();
+        if (version != VERSION)
+        {
+            throw new SnapshotException("Unsupported snapshot version %d! Expected version %d.", version, VERSION);
+        }
+
+        final int numberOfEntities = in.readInt();
+        final List<UUID> ids = new ArrayList<UUID>(numberOfEntities);
+        for (int i = 0; i < numberOfEntities; ++i)
+        {
+            ids.add(readUUID(in));
+        }
+
+        final List<EntityRef> entities = storage.restoreEntities(ids);
+
+        final int numberOfTypes = in.readInt();
+        for (int i = 0; i < numberOfTypes; ++i)
+        {
+            readComponentTable(in, context, componentStore, componentFactory, entities);
+        }
+
+        log.debug("Restored snapshot into '{}' with {} entities and {} component types.", context, numberOfEntities, numberOfTypes);
+    }
+
+    private void readComponentTable(DataInputStream in, Context context, ComponentStore componentStore, ComponentFactory componentFactory, List<EntityRef> entities)
+    throws IOException
+    {
+        readComponentTable(in, context, componentStore.resolveComponent(in.readUTF()), componentStore, componentFactory, entities);
+    }
+
+    private <C extends Component> void readComponentTable(DataInputStream in, Context context, Class<C> type, ComponentStore componentStore, ComponentFactory componentFactory, List<EntityRef> entities)
+    throws IOException
+    {
+        final ComponentInstancer<C> instancer = componentFactory.createComponent(type);
+        final ComponentCodec<C> codec = componentFactory.createCodec(type);
+        final ComponentLayout layout = readLayout(in, instancer.newInstance(context));
+
+        final int numberOfRows = in.readInt();
+        final Map<EntityRef, Component> components = new HashMap<EntityRef, Component>(numberOfRows * 2);
+
+        for (int i = 0; i < numberOfRows; ++i)
+        {
+            final EntityRef ref = entities.get(in.readInt());
+            final C component = instancer.newInstance(context);
+
+            layout.read(component, codec, in);
+            components.put(ref, component);
+        }
+
+        componentStore.restoreComponents(type, components);
+    }
+}
@@ -24,6 +24,7 @@ import org.jayware.e2.component.api.Aspect;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.Contextual;
 import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.context.api.Resettable;
 import org.jayware.e2.entity.api.EntityEvent.CreateEntityEvent;
 import org.jayware.e2.entity.api.EntityEvent.DeleteEntitiesEvent;
 import org.jayware.e2.entity.api.EntityEvent.DeleteEntityEvent;
@@ -33,6 +34,7 @@ import org.jayware.e2.entity.api.EntityEvent.EntityDeletingEvent;
 import org.jayware.e2.entity.api.EntityEvent.FindEntitiesEvent;
 import org.jayware.e2.entity.api.EntityEvent.ResolveEntityEvent;
 import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.entity.api.EntityVisitor;
 import org.jayware.e2.event.api.Event;
 import org.jayware.e2.event.api.EventManager;
 import org.jayware.e2.event.api.Handle;
@@ -45,14 +47,16 @@ import org.jayware.e2.storage.api.StorageException;
 import org.jayware.e2.util.Filter;
 import org.jayware.e2.util.Key;
 import org.jayware.e2.util.ObjectUtil;
-import org.jayware.e2.util.Provider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
 
@@ -61,6 +65,9 @@ import static org.jayware.e2.entity.api.EntityEvent.EntityIdParam;
 import static org.jayware.e2.entity.api.EntityEvent.EntityRefListParam;
 import static org.jayware.e2.entity.api.EntityEvent.EntityRefParam;
 import static org.jayware.e2.entity.api.EntityEvent.FilterListParam;
+import static org.jayware.e2.entity.api.EntityEvent.LimitParam;
+import static org.jayware.e2.entity.api.EntityEvent.OffsetParam;
+import static org.jayware.e2.entity.api.EntityEvent.ParallelParam;
 import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
 import static org.jayware.e2.event.api.Parameters.param;
 import static org.jayware.e2.event.api.Presence.Optional;
@@ -68,7 +75,7 @@ import static org.jayware.e2.util.Key.createKey;
 
 
 public class StorageImpl
-implements Storage, Disposable
+implements Storage, Disposable, Resettable
 {
     public static final Key<Storage> STORAGE_KEY = createKey("org.jayware.e2.Storage");
 
@@ -100,14 +107,7 @@ implements Storage, Disposable
         myUpdateLock = myLock.updateLock();
         myWriteLock = myLock.writeLock();
 
-        myEntityFinder = new EntityFinderImpl(context, new Provider<List<EntityRef>>()
-        {
-            @Override
-            public List<EntityRef> provide()
-            {
-                return new CopyOnWriteArrayList<EntityRef>();
-            }
-        });
+        myEntityFinder = new EntityFinderImpl(context);
     }
 
     @Handle(CreateEntityEvent.class)
@@ -205,6 +205,19 @@ implements Storage, Disposable
         }
     }
 
+    public int numberOfEntities()
+    {
+        myReadLock.lock();
+        try
+        {
+            return myEntities.size();
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
     @Handle(DeleteEntitiesEvent.class)
     public void handleDeleteEntitiesEvent(Event event)
     {
@@ -238,14 +251,38 @@ implements Storage, Disposable
 
     @Handle(FindEntitiesEvent.class)
     public void handleFindEntityEvent(Query query, @Param(value = AspectParam, presence = Optional) Aspect aspect,
-                                                   @Param(value = FilterListParam, presence = Optional) List<Filter<EntityRef>> filters)
+                                                   @Param(value = FilterListParam, presence = Optional) List<Filter<EntityRef>> filters,
+                                                   @Param(value = OffsetParam, presence = Optional) Integer offset,
+                                                   @Param(value = LimitParam, presence = Optional) Integer limit,
+                                                   @Param(value = ParallelParam, presence = Optional) Boolean parallel)
     {
+        final int computationOffset = offset != null ? offset : 0;
+        final int computationLimit = limit != null ? limit : Integer.MAX_VALUE;
+
         List<EntityRef> result = Collections.<EntityRef>emptyList();
 
+        if (parallel != null && parallel)
+        {
+            try
+            {
+                result = myEntityFinder.filterInParallel(getEntities(), aspect, filters, computationOffset, computationLimit);
+            }
+            catch (Exception e)
+            {
+                throw new StorageException("Failed to find entities!", e);
+            }
+            finally
+            {
+                query.result(EntityRefListParam, Collections.<EntityRef>unmodifiableList(result));
+            }
+
+            return;
+        }
+
         myReadLock.lock();
         try
         {
-            result = myEntityFinder.filter(myEntities.values(), aspect, filters);
+            result = myEntityFinder.filter(myEntities.values(), aspect, filters, computationOffset, computationLimit);
         }
         catch (Exception e)
         {
@@ -281,6 +318,185 @@ implements Storage, Disposable
         query.result(EntityRefParam, resolvedEntity);
     }
 
+    public List<EntityRef> getEntities()
+    {
+        myReadLock.lock();
+        try
+        {
+            return new ArrayList<EntityRef>(myEntities.values());
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    public void visitEntities(Aspect aspect, List<Filter<EntityRef>> filters, EntityVisitor visitor)
+    {
+        // A concurrent map can be walked while it is modified, so neither a copy nor a lock is needed and the
+        // visitor may create and delete entities. Any other map has to be copied first.
+        final Collection<EntityRef> entities = myEntities instanceof ConcurrentMap ? myEntities.values() : getEntities();
+
+        myEntityFinder.visit(entities, aspect, filters, 0, Integer.MAX_VALUE, visitor);
+    }
+
+    public EntityRef resolveEntity(UUID id)
+    {
+        myReadLock.lock();
+        try
+        {
+            final EntityRef ref = myEntities.get(id);
+            return ref != null ? ref : new EntityRefImpl(id);
+        }
+        finally
+        {
+            myReadLock.unlock();
+        }
+    }
+
+    public List<EntityRef> restoreEntities(List<UUID> ids)
+    {
+        final List<EntityRef> result = new ArrayList<EntityRef>(ids.size());
+
+        myWriteLock.lock();
+        try
+        {
+            for (UUID id : ids)
+            {
+                EntityRef ref = myEntities.get(id);
+
+                if (ref == null)
+                {
+                    ref = new EntityRefImpl(id);
+                    myEntities.put(id, ref);
+                }
+
+                result.add(ref);
+            }
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+
+        return result;
+    }
+
+    public EntityRef createEntityRef(UUID id)
+    {
+        return new EntityRefImpl(id);
+    }
+
+    public List<EntityRef> createEntities(Collection<UUID> ids)
+    {
+        final List<EntityRef> result = new ArrayList<EntityRef>(ids.size());
+
+        myUpdateLock.lock();
+        try
+        {
+            myWriteLock.lock();
+            try
+            {
+                for (UUID id : ids)
+                {
+                    if (!myEntities.containsKey(id))
+                    {
+                        final EntityRef ref = new EntityRefImpl(id);
+                        myEntities.put(id, ref);
+                        result.add(ref);
+                    }
+                }
+            }
+            finally
+            {
+                myWriteLock.unlock();
+            }
+        }
+        finally
+        {
+            myUpdateLock.unlock();
+        }
+
+        for (EntityRef ref : result)
+        {
+            postEntityCreatedEvent(ref);
+        }
+
+        return result;
+    }
+
+    public List<EntityRef> deleteEntities(Collection<EntityRef> refs)
+    {
+        final List<EntityRef> result = new ArrayList<EntityRef>(refs.size());
+
+        myUpdateLock.lock();
+        try
+        {
+            for (EntityRef ref : refs)
+            {
+                final EntityRef existing = myEntities.get(ref.getId());
+
+                if (existing != null)
+                {
+                    sendEntityDeletingEvent(existing);
+                    result.add(existing);
+                }
+            }
+
+            myWriteLock.lock();
+            try
+            {
+                for (EntityRef ref : result)
+                {
+                    myComponentDatabase.clear(ref);
+                    myEntities.remove(ref.getId());
+                }
+            }
+            finally
+            {
+                myWriteLock.unlock();
+            }
+        }
+        finally
+        {
+            myUpdateLock.unlock();
+        }
+
+        for (EntityRef ref : result)
+        {
+            postEntityDeletedEvent(ref);
+        }
+
+        return result;
+    }
+
+    public EntityRef purgeEntity(UUID id)
+    {
+        myWriteLock.lock();
+        try
+        {
+            return myEntities.remove(id);
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
+    @Override
+    public void reset(Context context)
+    {
+        myWriteLock.lock();
+        try
+        {
+            myEntities.clear();
+        }
+        finally
+        {
+            myWriteLock.unlock();
+        }
+    }
+
     @Override
     public void dispose(Context context)
     {
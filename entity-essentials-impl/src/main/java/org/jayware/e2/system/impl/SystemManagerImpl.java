@@ -0,0 +1,90 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.system.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Context.ValueProvider;
+import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.system.api.SystemManager;
+import org.jayware.e2.system.api.SystemScheduler;
+import org.jayware.e2.util.Key;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.util.Key.createKey;
+import static org.jayware.e2.util.Preconditions.checkArgument;
+
+
+public class SystemManagerImpl
+implements SystemManager
+{
+    static final Key<SystemSchedulers> SYSTEM_SCHEDULERS_KEY = createKey("org.jayware.e2.SystemSchedulers");
+
+    @Override
+    public SystemScheduler createScheduler(Context context)
+    {
+        return createScheduler(context, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public SystemScheduler createScheduler(Context context, int parallelism)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkArgument(parallelism > 0);
+
+        final SystemSchedulerImpl scheduler = new SystemSchedulerImpl(context, parallelism);
+
+        context.putIfAbsent(SYSTEM_SCHEDULERS_KEY, new ValueProvider<SystemSchedulers>()
+        {
+            @Override
+            public SystemSchedulers provide(Context context)
+            {
+                return new SystemSchedulers();
+            }
+        });
+
+        context.get(SYSTEM_SCHEDULERS_KEY).add(scheduler);
+
+        return scheduler;
+    }
+
+    static class SystemSchedulers
+    implements Disposable
+    {
+        private final List<SystemSchedulerImpl> mySchedulers = new CopyOnWriteArrayList<SystemSchedulerImpl>();
+
+        void add(SystemSchedulerImpl scheduler)
+        {
+            mySchedulers.add(scheduler);
+        }
+
+        @Override
+        public void dispose(Context context)
+        {
+            for (SystemSchedulerImpl scheduler : mySchedulers)
+            {
+                scheduler.dispose(context);
+            }
+
+            mySchedulers.clear();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.system.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Contextual;
+import org.jayware.e2.context.api.Disposable;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.system.api.EntitySystem;
+import org.jayware.e2.system.api.SystemScheduler;
+import org.jayware.e2.system.api.SystemSchedulerException;
+import org.jayware.e2.system.api.SystemStatistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
+import static org.jayware.e2.util.Preconditions.checkArgument;
+import static org.jayware.e2.util.Preconditions.checkNotNull;
+import static org.jayware.e2.util.Preconditions.checkState;
+
+
+public class SystemSchedulerImpl
+implements SystemScheduler, Disposable
+{
+    private static final AtomicInteger ourNextSchedulerId = new AtomicInteger();
+
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final Context myContext;
+    private final EntityManager myEntityManager;
+    private final int myParallelism;
+    private final ThreadPoolExecutor myPool;
+
+    private final List<EntitySystem> mySystems = new CopyOnWriteArrayList<EntitySystem>();
+    private final Map<EntitySystem, SystemStatisticsImpl> myStatistics = new ConcurrentHashMap<EntitySystem, SystemStatisticsImpl>();
+
+    private final Lock myTickLock = new ReentrantLock();
+    private volatile boolean myShutdown;
+
+    public SystemSchedulerImpl(Context context, int parallelism)
+    {
+        final int schedulerId = ourNextSchedulerId.getAndIncrement();
+
+        myContext = context;
+        myEntityManager = context.getService(EntityManager.class);
+        myParallelism = parallelism;
+
+        myPool = new ThreadPoolExecutor(parallelism, parallelism, 30L, SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+        {
+            private final AtomicInteger nextWorkerId = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "entity-essentials-system-" + schedulerId + "-" + nextWorkerId.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        myPool.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void addSystem(EntitySystem system)
+    {
+        checkNotNull(system, "EntitySystem mustn't be null!");
+
+        if (!myStatistics.containsKey(system))
+        {
+            myStatistics.put(system, new SystemStatisticsImpl(system));
+            mySystems.add(system);
+        }
+    }
+
+    @Override
+    public void removeSystem(EntitySystem system)
+    {
+        if (system != null)
+        {
+            mySystems.remove(system);
+            myStatistics.remove(system);
+        }
+    }
+
+    @Override
+    public List<EntitySystem> getSystems()
+    {
+        return Collections.unmodifiableList(new ArrayList<EntitySystem>(mySystems));
+    }
+
+    @Override
+    public void tick()
+    {
+        checkContextNotNullAndNotDisposed(myContext);
+        checkState(!myShutdown, "The SystemScheduler has been shut down!");
+
+        myTickLock.lock();
+        try
+        {
+            for (List<EntitySystem> stage : stagesOf(new ArrayList<EntitySystem>(mySystems)))
+            {
+                runStage(stage);
+            }
+        }
+        finally
+        {
+            myTickLock.unlock();
+        }
+    }
+
+    @Override
+    public SystemStatistics getStatistics(EntitySystem system)
+    {
+        final SystemStatistics statistics = system != null ? myStatistics.get(system) : null;
+
+        checkArgument(statistics != null, "The EntitySystem has not been added to this SystemScheduler!");
+
+        return statistics;
+    }
+
+    @Override
+    public void shutdown()
+    {
+        myShutdown = true;
+        myPool.shutdown();
+    }
+
+    @Override
+    public void dispose(Context context)
+    {
+        shutdown();
+    }
+
+    static List<List<EntitySystem>> stagesOf(List<EntitySystem> systems)
+    {
+        final List<List<EntitySystem>> stages = new ArrayList<List<EntitySystem>>();
+        final int[] stageOfSystem = new int[systems.size()];
+
+        for (int i = 0; i < systems.size(); ++i)
+        {
+            int stage = 0;
+
+            for (int j = 0; j < i; ++j)
+            {
+                if (conflicts(systems.get(j), systems.get(i)))
+                {
+                    stage = max(stage, stageOfSystem[j] + 1);
+                }
+            }
+
+            if (stage == stages.size())
+            {
+                stages.add(new ArrayList<EntitySystem>());
+            }
+
+            stageOfSystem[i] = stage;
+            stages.get(stage).add(systems.get(i));
+        }
+
+        return stages;
+    }
+
+    static boolean conflicts(EntitySystem first, EntitySystem second)
+    {
+        return intersects(first.getWriteComponents(), second.getReadComponents())
+            || intersects(first.getWriteComponents(), second.getWriteComponents())
+            || intersects(first.getReadComponents(), second.getWriteComponents());
+    }
+
+    private static boolean intersects(Set<Class<? extends Component>> first, Set<Class<? extends Component>> second)
+    {
+        for (Class<? extends Component> component : first)
+        {
+            if (second.contains(component))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void runStage(List<EntitySystem> stage)
+    {
+        final List<SystemRun> runs = new ArrayList<SystemRun>(stage.size());
+        final List<Future<?>> futures = new ArrayList<Future<?>>();
+        Throwable failure = null;
+
+        for (EntitySystem system : stage)
+        {
+            final SystemRun run = new SystemRun(system, myEntityManager.findEntities(myContext, system.getAspect()));
+            final int size = run.myEntities.size();
+            final int chunkSize = max(MIN_CHUNK_SIZE, (size + myParallelism * CHUNKS_PER_THREAD - 1) / (myParallelism * CHUNKS_PER_THREAD));
+
+            runs.add(run);
+
+            for (int start = 0; start < size; start += chunkSize)
+            {
+                futures.add(myPool.submit(new Chunk(run, start, min(start + chunkSize, size))));
+            }
+        }
+
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (ExecutionException e)
+            {
+                failure = failure != null ? failure : e.getCause();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                failure = failure != null ? failure : e;
+            }
+        }
+
+        for (SystemRun run : runs)
+        {
+            final SystemStatisticsImpl statistics = myStatistics.get(run.mySystem);
+
+            if (statistics != null)
+            {
+                statistics.record(run.myEntities.size(), run.time());
+            }
+        }
+
+        if (failure != null)
+        {
+            throw new SystemSchedulerException("Failed to run the systems of '%s'!", failure, myContext);
+        }
+    }
+
+    @Override
+    public Context getContext()
+    {
+        return myContext;
+    }
+
+    @Override
+    public boolean belongsTo(Context context)
+    {
+        return myContext.equals(context);
+    }
+
+    @Override
+    public boolean belongsTo(Contextual contextual)
+    {
+        return contextual != null && myContext.equals(contextual.getContext());
+    }
+
+    private static class SystemRun
+    {
+        private final EntitySystem mySystem;
+        private final List<EntityRef> myEntities;
+
+        private long myStart = Long.MAX_VALUE;
+        private long myEnd = Long.MIN_VALUE;
+
+        private SystemRun(EntitySystem system, List<EntityRef> entities)
+        {
+            mySystem = system;
+            myEntities = entities;
+        }
+
+        private synchronized void chunkDone(long start, long end)
+        {
+            myStart = min(myStart, start);
+            myEnd = max(myEnd, end);
+        }
+
+        private synchronized long time()
+        {
+            return myEnd >= myStart ? myEnd - myStart : 0;
+        }
+    }
+
+    private static class Chunk
+    implements Runnable
+    {
+        private final SystemRun myRun;
+        private final int myStart;
+        private final int myEnd;
+
+        private Chunk(SystemRun run, int start, int end)
+        {
+            myRun = run;
+            myStart = start;
+            myEnd = end;
+        }
+
+        @Override
+        public void run()
+        {
+            final long start = nanoTime();
+
+            try
+            {
+                for (int i = myStart; i < myEnd; ++i)
+                {
+                    myRun.mySystem.process(myRun.myEntities.get(i));
+                }
+            }
+            finally
+            {
+                myRun.chunkDone(start, nanoTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.system.impl;
+
+import org.jayware.e2.system.api.EntitySystem;
+import org.jayware.e2.system.api.SystemStatistics;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+
+public class SystemStatisticsImpl
+implements SystemStatistics
+{
+    private final EntitySystem mySystem;
+
+    private long myTicks;
+    private int myLastEntityCount;
+    private long myLastTime;
+    private long myTotalTime;
+
+    public SystemStatisticsImpl(EntitySystem system)
+    {
+        mySystem = system;
+    }
+
+    synchronized void record(int entityCount, long timeInNanos)
+    {
+        ++myTicks;
+        myLastEntityCount = entityCount;
+        myLastTime = timeInNanos;
+        myTotalTime += timeInNanos;
+    }
+
+    @Override
+    public EntitySystem getSystem()
+    {
+        return mySystem;
+    }
+
+    @Override
+    public synchronized long getTicks()
+    {
+        return myTicks;
+    }
+
+    @Override
+    public synchronized int getLastEntityCount()
+    {
+        return myLastEntityCount;
+    }
+
+    @Override
+    public synchronized long getLastTime(TimeUnit unit)
+    {
+        return unit.convert(myLastTime, NANOSECONDS);
+    }
+
+    @Override
+    public synchronized long getTotalTime(TimeUnit unit)
+    {
+        return unit.convert(myTotalTime, NANOSECONDS);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SystemStatistics{" +
+            "system=" + mySystem +
+            ", ticks=" + getTicks() +
+            ", lastEntityCount=" + getLastEntityCount() +
+            ", lastTime=" + getLastTime(NANOSECONDS) + "ns" +
+        '}';
+    }
+}
@@ -20,6 +20,7 @@ package org.jayware.e2.template.impl;
 
 import org.jayware.e2.component.api.AbstractComponent;
 import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentFactory;
 import org.jayware.e2.component.api.ComponentManager;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.entity.api.EntityRef;
@@ -30,8 +31,13 @@ import org.jayware.e2.template.api.PropertyTemplate;
 import org.jayware.e2.template.api.TemplateManager;
 import org.jayware.e2.template.api.TemplateProvider;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
+import static org.jayware.e2.component.impl.ComponentLayout.layoutOf;
+import static org.jayware.e2.component.impl.ComponentLayout.readLayout;
 import static org.jayware.e2.context.api.Preconditions.checkContextNotNullAndNotDisposed;
 import static org.jayware.e2.entity.api.Preconditions.checkRefNotNullAndValid;
 import static org.jayware.e2.util.Preconditions.checkNotNull;
@@ -142,4 +148,72 @@ implements TemplateManager
             throw new ImportException(e);
         }
     }
+
+    @Override
+    public void exportComponent(Component component, DataOutput out)
+    {
+        checkNotNull(component, "Component to export mustn't be null!");
+        checkNotNull(out, "To export a Component the DataOutput mustn't be null!");
+
+        try
+        {
+            final Context context = ((AbstractComponent) component).getContext();
+
+            out.writeUTF(component.type().getName());
+            layoutOf(component).write(out);
+            writeComponent(context.getService(ComponentFactory.class), component.type(), component, out);
+        }
+        catch (Exception e)
+        {
+            throw new ExportException(e);
+        }
+    }
+
+    @Override
+    public Component importComponent(Context context, DataInput in)
+    {
+        checkContextNotNullAndNotDisposed(context);
+        checkNotNull(in, "To import a Component the DataInput mustn't be null!");
+
+        try
+        {
+            final ComponentManager componentManager = context.getService(ComponentManager.class);
+            final ComponentFactory componentFactory = context.getService(ComponentFactory.class);
+            final Class<Component> type = componentManager.resolveComponent(context, in.readUTF());
+            final Component component = componentFactory.createComponent(type).newInstance(context);
+
+            readLayout(in, component).read(component, componentFactory.createCodec(type), in);
+
+            return component;
+        }
+        catch (Exception e)
+        {
+            throw new ImportException(e);
+        }
+    }
+
+    @Override
+    public Component importComponent(EntityRef ref, DataInput in)
+    {
+        checkRefNotNullAndValid(ref);
+        checkNotNull(in, "To import a Component the DataInput mustn't be null!");
+
+        final Component component = importComponent(ref.getContext(), in);
+
+        try
+        {
+            component.addTo(ref);
+            return component;
+        }
+        catch (Exception e)
+        {
+            throw new ImportException(e);
+        }
+    }
+
+    private static <C extends Component> void writeComponent(ComponentFactory componentFactory, Class<C> type, Component component, DataOutput out)
+    throws IOException
+    {
+        componentFactory.createCodec(type).write(type.cast(component), out);
+    }
 }
@@ -22,20 +22,29 @@ package org.jayware.e2.assembly.impl;
 import org.jayware.e2.assembly.api.Group;
 import org.jayware.e2.assembly.api.GroupManager;
 import org.jayware.e2.assembly.api.InvalidGroupException;
+import org.jayware.e2.assembly.api.components.GroupComponent;
+import org.jayware.e2.component.api.ComponentManager;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.ContextProvider;
 import org.jayware.e2.context.api.IllegalContextException;
 import org.jayware.e2.entity.api.EntityManager;
 import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.entity.api.InvalidEntityRefException;
+import org.jayware.e2.storage.api.SnapshotManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.List;
+import java.util.concurrent.Callable;
 
+import static java.nio.channels.Channels.newChannel;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -43,6 +52,8 @@ import static org.mockito.Mockito.when;
 
 public class GroupManagerTest
 {
+    private static final long TIMEOUT_IN_MILLIS = 5000;
+
     private GroupManager testee;
 
     private Context context;
@@ -436,4 +447,135 @@ public class GroupManagerTest
         assertThat(testee.isEntityMemberOfGroup(testEntityA, testGroup)).isFalse();
         assertThat(testee.isEntityMemberOfGroup(testEntityB, testGroup)).isFalse();
     }
+
+    @Test
+    public void test_findGroup_Returns_null_after_the_Group_has_been_deleted()
+    {
+        final Group testGroup = testee.createGroup(context, "fubar");
+
+        assertThat(testee.findGroup(context, "fubar")).isEqualTo(testGroup);
+
+        testee.deleteGroup(testGroup);
+
+        assertThat(testee.findGroup(context, "fubar")).isNull();
+    }
+
+    @Test
+    public void test_that_a_deleted_Entity_is_removed_from_its_Groups()
+    {
+        final Group testGroup = testee.createGroup(context);
+
+        testee.addEntityToGroup(testEntityA, testGroup);
+        testee.addEntityToGroup(testEntityB, testGroup);
+
+        context.getService(EntityManager.class).deleteEntity(testEntityA);
+
+        await().atMost(TIMEOUT_IN_MILLIS, MILLISECONDS).until(new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            {
+                return testee.getEntitiesOfGroup(testGroup).size() == 1 && membersOf(testGroup).length == 1;
+            }
+        });
+
+        assertThat(testee.getEntitiesOfGroup(testGroup)).containsExactly(testEntityB);
+        assertThat(testee.findGroups(testEntityB)).containsExactly(testGroup);
+        assertThat(membersOf(testGroup)).containsExactly(testEntityB);
+    }
+
+    @Test
+    public void test_that_the_GroupComponent_eventually_reflects_the_members_of_a_Group()
+    {
+        final Group testGroup = testee.createGroup(context);
+
+        testee.addEntityToGroup(testEntityA, testGroup);
+        testee.addEntityToGroup(testEntityB, testGroup);
+        testee.removeEntityFromGroup(testEntityA, testGroup);
+
+        await().atMost(TIMEOUT_IN_MILLIS, MILLISECONDS).until(new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            {
+                final EntityRef[] members = membersOf(testGroup);
+                return members.length == 1 && members[0].getId().equals(testEntityB.getId());
+            }
+        });
+    }
+
+    @Test
+    public void test_CreateGroupWithName_ThrowsIllegalArgumentExceptionWhenTheNameIsAlreadyTaken()
+    {
+        testee.createGroup(context, "fubar");
+
+        assertThrows(IllegalArgumentException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            {
+                testee.createGroup(context, "fubar");
+            }
+        });
+
+        assertThat(testee.findGroups(context)).hasSize(1);
+    }
+
+    @Test
+    public void test_that_Groups_are_forgotten_after_the_Context_has_been_reset()
+    {
+        testee.createGroup(context, "fubar");
+
+        context.reset();
+
+        assertThat(testee.findGroup(context, "fubar")).isNull();
+        assertThat(testee.findGroups(context)).isEmpty();
+        assertThat(testee.createGroup(context, "fubar")).isNotNull();
+    }
+
+    @Test
+    public void test_that_Groups_are_found_after_a_Snapshot_has_been_restored()
+    throws Exception
+    {
+        final Group testGroup = testee.createGroup(context, "fubar");
+        final Context target = ContextProvider.getInstance().createContext();
+        final SnapshotManager snapshotManager = context.getService(SnapshotManager.class);
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+
+        testee.addEntityToGroup(testEntityA, testGroup);
+
+        await().atMost(TIMEOUT_IN_MILLIS, MILLISECONDS).until(new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            {
+                return membersOf(testGroup).length == 1;
+            }
+        });
+
+        try
+        {
+            assertThat(testee.findGroup(target, "fubar")).isNull();
+
+            snapshotManager.writeSnapshot(context, newChannel(snapshot));
+            snapshotManager.readSnapshot(target, newChannel(new ByteArrayInputStream(snapshot.toByteArray())));
+
+            final Group restoredGroup = testee.findGroup(target, "fubar");
+            final EntityRef restoredEntityA = target.getService(EntityManager.class).resolveEntity(target, testEntityA.getId());
+
+            assertThat(restoredGroup).isNotNull();
+            assertThat(testee.getEntitiesOfGroup(restoredGroup)).containsExactly(restoredEntityA);
+            assertThat(testee.isEntityMemberOfGroup(restoredEntityA, restoredGroup)).isTrue();
+        }
+        finally
+        {
+            target.dispose();
+        }
+    }
+
+    private EntityRef[] membersOf(Group group)
+    {
+        final EntityRef[] members = context.getService(ComponentManager.class).getComponent(group, GroupComponent.class).getMembers();
+        return members != null ? members : new EntityRef[0];
+    }
 }
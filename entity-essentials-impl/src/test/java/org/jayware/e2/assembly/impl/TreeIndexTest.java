@@ -0,0 +1,123 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.assembly.impl;
+
+import org.jayware.e2.assembly.api.TreeManagerException;
+import org.jayware.e2.assembly.impl.TreeIndex.Entry;
+import org.jayware.e2.entity.api.EntityRef;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class TreeIndexTest
+{
+    private TreeIndex testee;
+
+    private Entry root;
+    private Entry a;
+    private Entry b;
+    private Entry c;
+    private Entry d;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testee = new TreeIndex();
+
+        root = testee.add(createRef(), createRef());
+        a = testee.add(createRef(), createRef());
+        b = testee.add(createRef(), createRef());
+        c = testee.add(createRef(), createRef());
+        d = testee.add(createRef(), createRef());
+
+        testee.attach(a, root);
+        testee.attach(b, root);
+        testee.attach(c, a);
+        testee.attach(d, a);
+    }
+
+    @Test
+    public void test_that_the_size_and_depth_of_every_entry_is_maintained()
+    {
+        assertThat(root.getSize()).isEqualTo(5);
+        assertThat(a.getSize()).isEqualTo(3);
+        assertThat(b.getSize()).isEqualTo(1);
+
+        assertThat(root.getDepth()).isEqualTo(0);
+        assertThat(a.getDepth()).isEqualTo(1);
+        assertThat(d.getDepth()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_that_the_traversals_return_the_entries_in_the_expected_order()
+    {
+        assertThat(testee.preOrder(root)).containsExactly(root, a, c, d, b);
+        assertThat(testee.postOrder(root)).containsExactly(c, d, a, b, root);
+        assertThat(testee.ancestors(d)).containsExactly(a, root);
+    }
+
+    @Test
+    public void test_that_attach_moves_a_subtree_to_the_new_parent()
+    {
+        testee.attach(a, b);
+
+        assertThat(root.getChildren()).containsExactly(b);
+        assertThat(b.getSize()).isEqualTo(4);
+        assertThat(root.getSize()).isEqualTo(5);
+        assertThat(d.getDepth()).isEqualTo(3);
+    }
+
+    @Test
+    public void test_that_remove_removes_the_whole_subtree()
+    {
+        assertThat(testee.remove(a)).containsExactly(c, d, a);
+
+        assertThat(root.getSize()).isEqualTo(2);
+        assertThat(testee.get(c.getNodeRef())).isNull();
+        assertThat(testee.get(b.getNodeRef())).isSameAs(b);
+    }
+
+    @Test
+    public void test_that_attach_Throws_TreeManagerException_if_a_node_would_become_its_own_descendant()
+    {
+        assertThrows(TreeManagerException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            {
+                testee.attach(a, c);
+            }
+        });
+    }
+
+    private EntityRef createRef()
+    {
+        final EntityRef ref = mock(EntityRef.class);
+        when(ref.getId()).thenReturn(UUID.randomUUID());
+        return ref;
+    }
+}
@@ -20,19 +20,32 @@ package org.jayware.e2.assembly.impl;
 
 import org.jayware.e2.assembly.api.TreeManager;
 import org.jayware.e2.assembly.api.TreeNode;
+import org.jayware.e2.assembly.api.components.TreeNodeComponent;
+import org.jayware.e2.component.api.ComponentManager;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.ContextProvider;
 import org.jayware.e2.entity.api.EntityManager;
 import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.SnapshotManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.Callable;
+
+import static java.nio.channels.Channels.newChannel;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.jayware.e2.assembly.impl.TreeManagerImpl.TREE_HUB;
 
 
 public class TreeNodeTest
 {
+    private static final long TIMEOUT_IN_MILLIS = 5000;
+
     private Context testContext;
     private TreeManager testTreeManager;
 
@@ -82,4 +95,112 @@ public class TreeNodeTest
     {
         assertThat(testNodeA.children()).isEmpty();
     }
+
+    @Test
+    public void test_addChild_Moves_a_TreeNode_from_its_previous_parent()
+    {
+        testNodeA.addChild(testNodeB);
+        testNodeA.addChild(testNodeC);
+        testNodeB.addChild(testNodeC);
+
+        assertThat(testNodeA.children()).containsExactly(testNodeB);
+        assertThat(testNodeB.children()).containsExactly(testNodeC);
+        assertThat(testNodeC.getParent()).isEqualTo(testNodeB);
+        assertThat(testTreeManager.depthOf(testNodeC)).isEqualTo(2);
+        assertThat(testTreeManager.sizeOf(testNodeA)).isEqualTo(3);
+        assertThat(testTreeManager.ancestorsOf(testNodeC)).containsExactly(testNodeB, testNodeA);
+    }
+
+    @Test
+    public void test_deleteTreeNode_Deletes_the_whole_subtree()
+    {
+        testNodeA.addChild(testNodeB);
+        testNodeB.addChild(testNodeC);
+
+        testTreeManager.deleteTreeNode(testNodeB);
+
+        assertThat(testNodeA.children()).isEmpty();
+        assertThat(testTreeManager.sizeOf(testNodeA)).isEqualTo(1);
+        assertThat(testNodeB.getNodeRef().isValid()).isFalse();
+        assertThat(testNodeC.getNodeRef().isValid()).isFalse();
+    }
+
+    @Test
+    public void test_that_the_TreeNodeComponents_eventually_reflect_the_tree()
+    {
+        testNodeA.addChild(testNodeB);
+        testNodeA.addChild(testNodeC);
+        testNodeB.addChild(testNodeC);
+
+        awaitTreeNodeComponents();
+
+        assertThat(componentOf(testNodeA).getChildren()).containsExactly(testNodeB.getNodeRef());
+        assertThat(componentOf(testNodeA).getParent()).isNull();
+        assertThat(componentOf(testNodeB).getChildren()).containsExactly(testNodeC.getNodeRef());
+        assertThat(componentOf(testNodeB).getParent()).isEqualTo(testNodeA.getNodeRef());
+        assertThat(componentOf(testNodeC).getParent()).isEqualTo(testNodeB.getNodeRef());
+    }
+
+    @Test
+    public void test_that_the_tree_is_available_after_a_Snapshot_has_been_restored()
+    throws Exception
+    {
+        final Context target = ContextProvider.getInstance().createContext();
+        final SnapshotManager snapshotManager = testContext.getService(SnapshotManager.class);
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+
+        testNodeA.addChild(testNodeB);
+        testNodeB.addChild(testNodeC);
+
+        awaitTreeNodeComponents();
+
+        try
+        {
+            snapshotManager.writeSnapshot(testContext, newChannel(snapshot));
+            snapshotManager.readSnapshot(target, newChannel(new ByteArrayInputStream(snapshot.toByteArray())));
+
+            final TreeManager targetTreeManager = target.getService(TreeManager.class);
+            final TreeNode restoredA = restore(target, testNodeA);
+            final TreeNode restoredB = restore(target, testNodeB);
+            final TreeNode restoredC = restore(target, testNodeC);
+
+            assertThat(restoredA.children()).containsExactly(restoredB);
+            assertThat(restoredC.getParent()).isEqualTo(restoredB);
+            assertThat(targetTreeManager.depthOf(restoredC)).isEqualTo(2);
+            assertThat(targetTreeManager.sizeOf(restoredA)).isEqualTo(3);
+
+            targetTreeManager.deleteTreeNode(restoredB);
+
+            assertThat(restoredA.children()).isEmpty();
+            assertThat(restoredC.getNodeRef().isValid()).isFalse();
+        }
+        finally
+        {
+            target.dispose();
+        }
+    }
+
+    private void awaitTreeNodeComponents()
+    {
+        await().atMost(TIMEOUT_IN_MILLIS, MILLISECONDS).until(new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            {
+                final EntityRef[] children = componentOf(testNodeB).getChildren();
+                return componentOf(testNodeC).getParent() != null && children != null && children.length == 1;
+            }
+        });
+    }
+
+    private TreeNodeComponent componentOf(TreeNode node)
+    {
+        return testContext.getService(ComponentManager.class).getComponent(node.getNodeRef(), TreeNodeComponent.class);
+    }
+
+    private TreeNode restore(Context target, TreeNode node)
+    {
+        final EntityRef ref = target.getService(EntityManager.class).resolveEntity(target, node.getNodeRef().getId());
+        return target.get(TREE_HUB).new TreeNodeImpl(ref);
+    }
 }
@@ -0,0 +1,163 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.component.impl;
+
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.component.impl.TestComponents.TestComponentB;
+import org.jayware.e2.component.impl.TestComponents.TestIndexedComponent;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class PropertyIndexIntegrationTest
+{
+    private Context context;
+    private EntityManager entityManager;
+    private ComponentManager componentManager;
+
+    @BeforeEach
+    public void setUp()
+    {
+        context = ContextProvider.getInstance().createContext();
+        entityManager = context.getService(EntityManager.class);
+        componentManager = context.getService(ComponentManager.class);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        context.dispose();
+    }
+
+    @Test
+    public void test_that_findEntitiesByProperty_follows_added_pushed_and_removed_Components()
+    {
+        final EntityRef pikachu = createEntity("Pikachu", 5);
+        final EntityRef raichu = createEntity("Raichu", 30);
+
+        assertThat(entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "name", "Pikachu")).containsExactly(pikachu);
+        assertThat(entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "name", "Raichu")).containsExactly(raichu);
+        assertThat(entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "name", "Bulbasaur")).isEmpty();
+
+        final TestIndexedComponent component = componentManager.getComponent(pikachu, TestIndexedComponent.class);
+        component.setName("Raichu");
+        component.pushTo(pikachu);
+
+        assertThat(entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "name", "Pikachu")).isEmpty();
+        assertThat(entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "name", "Raichu")).containsOnly(pikachu, raichu);
+
+        componentManager.removeComponent(raichu, TestIndexedComponent.class);
+
+        assertThat(entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "name", "Raichu")).containsExactly(pikachu);
+    }
+
+    @Test
+    public void test_that_findEntitiesByPropertyRange_returns_the_Entities_within_the_bounds_in_order()
+    {
+        final EntityRef a = createEntity("A", 30);
+        final EntityRef b = createEntity("B", 10);
+        final EntityRef c = createEntity("C", 20);
+        final EntityRef d = createEntity("D", 40);
+
+        assertThat(entityManager.findEntitiesByPropertyRange(context, TestIndexedComponent.class, "level", 10, 30)).containsExactly(b, c, a);
+        assertThat(entityManager.findEntitiesByPropertyRange(context, TestIndexedComponent.class, "level", 25, null)).containsExactly(a, d);
+        assertThat(entityManager.findEntitiesByPropertyRange(context, TestIndexedComponent.class, "level", null, 15)).containsExactly(b);
+        assertThat(entityManager.findEntitiesByPropertyRange(context, TestIndexedComponent.class, "level", 30, 10)).isEmpty();
+        assertThat(entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "level", 40)).containsExactly(d);
+    }
+
+    @Test
+    public void test_that_properties_without_an_index_are_looked_up_too()
+    {
+        final EntityRef ref = createEntity("Pikachu", 5);
+        final TestIndexedComponent component = componentManager.getComponent(ref, TestIndexedComponent.class);
+        component.setTitle("Mouse");
+        component.pushTo(ref);
+
+        createEntity("Raichu", 30);
+
+        assertThat(entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "title", "Mouse")).containsExactly(ref);
+        assertThat(entityManager.findEntitiesByPropertyRange(context, TestIndexedComponent.class, "name", "A", "Q")).containsExactly(ref);
+        assertThat(entityManager.findEntitiesByProperty(context, TestComponentB.class, "string", "Mouse")).isEmpty();
+    }
+
+    @Test
+    public void test_that_a_range_of_a_property_without_an_index_is_returned_in_order()
+    {
+        final EntityRef c = createEntity("Charmander", 1, "C");
+        final EntityRef a = createEntity("Abra", 2, "A");
+        final EntityRef b = createEntity("Bulbasaur", 3, "B");
+
+        createEntity("Pikachu", 4, null);
+
+        assertThat(entityManager.findEntitiesByPropertyRange(context, TestIndexedComponent.class, "title", "A", "B")).containsExactly(a, b);
+        assertThat(entityManager.findEntitiesByPropertyRange(context, TestIndexedComponent.class, "title", null, null)).containsExactly(a, b, c);
+    }
+
+    @Test
+    public void test_that_findEntitiesByProperty_throws_IllegalArgumentException_if_the_property_does_not_exist_or_the_value_does_not_match()
+    {
+        assertThrows(IllegalArgumentException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            throws Throwable
+            {
+                entityManager.findEntitiesByProperty(context, TestIndexedComponent.class, "unknown", "Pikachu");
+            }
+        });
+
+        assertThrows(IllegalArgumentException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            throws Throwable
+            {
+                entityManager.findEntitiesByPropertyRange(context, TestIndexedComponent.class, "level", 1L, null);
+            }
+        });
+    }
+
+    private EntityRef createEntity(String name, int level)
+    {
+        return createEntity(name, level, null);
+    }
+
+    private EntityRef createEntity(String name, int level, String title)
+    {
+        final EntityRef ref = entityManager.createEntity(context);
+        final TestIndexedComponent component = componentManager.createComponent(context, TestIndexedComponent.class);
+
+        component.setName(name);
+        component.setLevel(level);
+        component.setTitle(title);
+        componentManager.addComponent(ref, component);
+
+        return ref;
+    }
+}
@@ -20,12 +20,14 @@ package org.jayware.e2.component.impl;
 
 import org.jayware.e2.component.api.Component;
 import org.jayware.e2.component.api.ComponentProperty;
+import org.jayware.e2.component.api.Indexed;
 import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.util.ObjectUtil;
 
 import java.util.Arrays;
 
 import static org.jayware.e2.component.api.ComponentProperty.property;
+import static org.jayware.e2.component.api.IndexType.Sorted;
 
 
 public class TestComponents
@@ -333,4 +335,22 @@ public class TestComponents
             return ObjectUtil.hashCode(new Object[]{myArray, myEnum});
         }
     }
+
+    public interface TestIndexedComponent
+    extends Component
+    {
+        @Indexed
+        String getName();
+
+        void setName(String name);
+
+        @Indexed(Sorted)
+        int getLevel();
+
+        void setLevel(int level);
+
+        String getTitle();
+
+        void setTitle(String title);
+    }
 }
@@ -22,6 +22,7 @@ package org.jayware.e2.context.impl;
 import org.jayware.e2.assembly.api.GroupManager;
 import org.jayware.e2.component.api.ComponentManager;
 import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.Resettable;
 import org.jayware.e2.context.api.ServiceProvider;
 import org.jayware.e2.context.api.ServiceUnavailableException;
 import org.jayware.e2.entity.api.EntityManager;
@@ -32,7 +33,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.UUID.randomUUID;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -436,6 +443,87 @@ public class ContextImplTest
         }
     }
 
+    @Test
+    public void test_that_getOrCreate_provides_a_value_only_once_when_called_concurrently()
+    throws Exception
+    {
+        final AtomicInteger provided = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Object> values = new CopyOnWriteArrayList<Object>();
+        final List<Thread> threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < 8; ++i)
+        {
+            final Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        startLatch.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+
+                    values.add(testee.getOrCreate(keyA, new ValueProvider<Object>()
+                    {
+                        @Override
+                        public Object provide(Context context)
+                        {
+                            provided.incrementAndGet();
+                            return new Object();
+                        }
+                    }));
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        startLatch.countDown();
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertThat(provided.get()).isEqualTo(1);
+        assertThat(values).hasSize(8);
+        assertThat(new HashSet<Object>(values)).hasSize(1);
+    }
+
+    @Test
+    public void test_that_reset_resets_all_Resettables_and_keeps_the_values()
+    {
+        final Resettable resettable = mock(Resettable.class);
+
+        testee.put(keyA, resettable);
+        testee.reset();
+
+        verify(resettable, times(1)).reset(testee);
+        assertThat(testee.get(keyA)).isSameAs(resettable);
+    }
+
+    @Test
+    public void test_that_reset_throws_an_IllegalStateException_when_the_context_was_disposed()
+    {
+        testee.dispose();
+
+        try
+        {
+            testee.reset();
+            fail("IllegalStateException expected!");
+        }
+        catch (IllegalStateException ignored)
+        {
+
+        }
+    }
+
     @Test
     public void test_that_dispose_do_nothing_when_context_is_already_disposed()
     {
@@ -0,0 +1,116 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.context.impl;
+
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextPool;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentA;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class ContextPoolImplIntegrationTest
+{
+    private ContextPool testee;
+
+    @BeforeEach
+    public void setUp()
+    {
+        testee = ContextProvider.getInstance().createContextPool(1);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        testee.dispose();
+    }
+
+    @Test
+    public void test_that_a_released_Context_is_reset_and_handed_out_again()
+    {
+        final Context context = testee.acquire();
+        final EntityManager entityManager = context.getService(EntityManager.class);
+        final ComponentManager componentManager = context.getService(ComponentManager.class);
+
+        final EntityRef ref = entityManager.createEntity(context);
+        componentManager.addComponent(ref, TestComponentA.class);
+
+        testee.release(context);
+
+        assertThat(testee.getIdleCount()).isEqualTo(1);
+        assertThat(testee.acquire()).isSameAs(context);
+        assertThat(context.isDisposed()).isFalse();
+        assertThat(entityManager.findEntities(context)).isEmpty();
+        assertThat(ref.isValid()).isFalse();
+
+        final EntityRef other = entityManager.createEntity(context);
+        componentManager.addComponent(other, TestComponentA.class);
+
+        assertThat(entityManager.findEntities(context)).containsExactly(other);
+        assertThat(componentManager.hasComponent(other, TestComponentA.class)).isTrue();
+
+        testee.release(context);
+    }
+
+    @Test
+    public void test_that_a_Context_released_beyond_the_capacity_is_disposed()
+    {
+        final Context contextA = testee.acquire();
+        final Context contextB = testee.acquire();
+
+        assertThat(contextA).isNotSameAs(contextB);
+
+        testee.release(contextA);
+        testee.release(contextB);
+
+        assertThat(testee.getIdleCount()).isEqualTo(1);
+        assertThat(contextA.isDisposed()).isFalse();
+        assertThat(contextB.isDisposed()).isTrue();
+    }
+
+    @Test
+    public void test_that_dispose_disposes_the_idle_Contexts()
+    {
+        final Context context = testee.acquire();
+
+        testee.release(context);
+        testee.dispose();
+
+        assertThat(context.isDisposed()).isTrue();
+        assertThat(testee.getIdleCount()).isEqualTo(0);
+
+        assertThrows(IllegalStateException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            {
+                testee.acquire();
+            }
+        });
+    }
+}
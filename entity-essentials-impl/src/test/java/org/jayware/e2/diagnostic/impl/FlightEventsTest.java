@@ -0,0 +1,85 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.jayware.e2.diagnostic.impl.FlightEvents.DispatchEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.diagnostic.impl.FlightEvents.DISPATCH;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+public class FlightEventsTest
+{
+    @BeforeEach
+    public void setUp()
+    {
+        assumeTrue(DISPATCH.isAvailable(), "The flight recorder is not available.");
+    }
+
+    @Test
+    public void test_that_the_generated_flight_events_are_jfr_events()
+    throws Exception
+    {
+        final Class<?> jfrEvent = Class.forName("jdk.jfr.Event");
+
+        assertThat(FlightEvents.QUERY_STATE.isAvailable()).isTrue();
+        assertThat(FlightEvents.LOCK_WAIT.isAvailable()).isTrue();
+        assertThat(FlightEvents.COMPONENT_GENERATION.isAvailable()).isTrue();
+        assertThat(FlightEvents.CONTEXT.isAvailable()).isTrue();
+        assertThat(jfrEvent.isAssignableFrom(FlightEventGenerator.generate(DispatchEvent.class))).isTrue();
+    }
+
+    @Test
+    public void test_that_no_flight_event_is_created_without_a_recording()
+    {
+        assertThat(DISPATCH.isEnabled()).isFalse();
+        assertThat(DISPATCH.begin()).isNull();
+    }
+
+    @Test
+    public void test_that_flight_events_are_created_during_a_recording()
+    throws Exception
+    {
+        final Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        final Object recording = recordingClass.newInstance();
+
+        recordingClass.getMethod("enable", String.class).invoke(recording, "org.jayware.e2.EventDispatch");
+        recordingClass.getMethod("start").invoke(recording);
+
+        try
+        {
+            final DispatchEvent event = DISPATCH.begin();
+
+            assertThat(event).isNotNull();
+
+            event.setEventType("TestEvent");
+            event.setSubscriber("TestSubscriber");
+            event.commit();
+        }
+        finally
+        {
+            recordingClass.getMethod("close").invoke(recording);
+        }
+
+        assertThat(DISPATCH.isEnabled()).isFalse();
+    }
+}
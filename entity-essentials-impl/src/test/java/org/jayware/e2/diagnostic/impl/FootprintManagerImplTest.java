@@ -0,0 +1,151 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.component.impl.TestComponents.TestComponentA;
+import org.jayware.e2.component.impl.TestComponents.TestComponentB;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.diagnostic.api.Footprint;
+import org.jayware.e2.diagnostic.api.FootprintManager;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.Handle;
+import org.jayware.e2.event.api.Param;
+import org.jayware.e2.event.impl.TestEventTypeA;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class FootprintManagerImplTest
+{
+    private Context context;
+    private EntityManager entityManager;
+    private ComponentManager componentManager;
+    private EventManager eventManager;
+    private FootprintManager testee;
+
+    @BeforeEach
+    public void setUp()
+    {
+        context = ContextProvider.getInstance().createContext();
+        entityManager = context.getService(EntityManager.class);
+        componentManager = context.getService(ComponentManager.class);
+        eventManager = context.getService(EventManager.class);
+        testee = context.getService(FootprintManager.class);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        context.dispose();
+    }
+
+    @Test
+    public void test_that_measure_counts_entities_and_components_per_type()
+    {
+        for (int i = 0; i < 3; ++i)
+        {
+            final EntityRef ref = entityManager.createEntity(context);
+            componentManager.addComponent(ref, TestComponentB.class);
+
+            if (i == 0)
+            {
+                componentManager.addComponent(ref, TestComponentA.class);
+            }
+        }
+
+        final Footprint footprint = testee.measure(context);
+
+        assertThat(footprint.belongsTo(context)).isTrue();
+        assertThat(footprint.getNumberOfEntities()).isEqualTo(3);
+        assertThat(footprint.getComponentTypes()).contains(TestComponentA.class, TestComponentB.class);
+        assertThat(footprint.getNumberOfComponents(TestComponentA.class)).isEqualTo(1);
+        assertThat(footprint.getNumberOfComponents(TestComponentB.class)).isEqualTo(3);
+        assertThat(footprint.getNumberOfGeneratedComponentClasses()).isGreaterThanOrEqualTo(4);
+        assertThat(footprint.getNumberOfComponentClassLoaders()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    public void test_that_the_estimated_bytes_grow_with_the_number_of_components()
+    {
+        final EntityRef ref = entityManager.createEntity(context);
+        componentManager.addComponent(ref, TestComponentB.class);
+
+        final long single = testee.measure(context).getEstimatedBytes(TestComponentB.class);
+
+        componentManager.addComponent(entityManager.createEntity(context), TestComponentB.class);
+        componentManager.addComponent(entityManager.createEntity(context), TestComponentB.class);
+
+        final Footprint footprint = testee.measure(context);
+
+        assertThat(single).isGreaterThan(ObjectLayout.HASH_MAP_ENTRY_SIZE + ObjectLayout.HEADER_SIZE);
+        assertThat(footprint.getEstimatedBytes(TestComponentB.class)).isEqualTo(3 * single);
+        assertThat(footprint.getEstimatedBytes()).isGreaterThanOrEqualTo(3 * single);
+        assertThat(footprint.getEstimatedBytes(TestComponentA.class)).isZero();
+    }
+
+    @Test
+    public void test_that_measure_counts_subscriptions()
+    {
+        final Footprint before = testee.measure(context);
+        final EntityRef ref = entityManager.createEntity(context);
+
+        eventManager.subscribe(context, new TestSubscriber());
+        eventManager.subscribe(ref, new TestSubscriber());
+
+        final Footprint after = testee.measure(context);
+
+        assertThat(after.getNumberOfSubscriptions()).isEqualTo(before.getNumberOfSubscriptions() + 1);
+        assertThat(after.getNumberOfEntitySubscriptions()).isEqualTo(before.getNumberOfEntitySubscriptions() + 1);
+        assertThat(after.getNumberOfGeneratedDispatcherClasses()).isPositive();
+        assertThat(after.getNumberOfPendingDispatches()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void test_that_measure_throws_an_exception_if_the_context_is_disposed()
+    {
+        context.dispose();
+
+        assertThrows(IllegalStateException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            {
+                testee.measure(context);
+            }
+        });
+    }
+
+    public static class TestSubscriber
+    {
+        @Handle(TestEventTypeA.class)
+        public void handle(@Param(ContextParam) Context context)
+        {
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.diagnostic.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.jayware.e2.diagnostic.impl.FlightEvents.LOCK_WAIT;
+
+
+public class RecordedLockTest
+{
+    private static final long TIMEOUT_IN_MILLIS = 10000;
+
+    @Test
+    public void test_that_lock_and_unlock_are_delegated()
+    {
+        final ReentrantLock lock = new ReentrantLock();
+        final RecordedLock testee = new RecordedLock(lock, "test");
+
+        testee.lock();
+        assertThat(lock.isHeldByCurrentThread()).isTrue();
+        testee.unlock();
+        assertThat(lock.isLocked()).isFalse();
+
+        assertThat(testee.tryLock()).isTrue();
+        assertThat(lock.isHeldByCurrentThread()).isTrue();
+        testee.unlock();
+        assertThat(lock.isLocked()).isFalse();
+    }
+
+    @Test
+    public void test_that_lockInterruptibly_is_delegated()
+    throws Exception
+    {
+        final ReentrantLock lock = new ReentrantLock();
+        final RecordedLock testee = new RecordedLock(lock, "test");
+        final List<Throwable> failures = new CopyOnWriteArrayList<Throwable>();
+
+        testee.lockInterruptibly();
+        assertThat(lock.isHeldByCurrentThread()).isTrue();
+
+        final Thread waiter = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    testee.lockInterruptibly();
+                    testee.unlock();
+                }
+                catch (Throwable e)
+                {
+                    failures.add(e);
+                }
+            }
+        });
+
+        waiter.start();
+
+        await().atMost(TIMEOUT_IN_MILLIS, MILLISECONDS).until(new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            throws Exception
+            {
+                return lock.hasQueuedThread(waiter);
+            }
+        });
+
+        waiter.interrupt();
+        waiter.join(TIMEOUT_IN_MILLIS);
+        testee.unlock();
+
+        assertThat(failures).hasSize(1);
+        assertThat(failures.get(0)).isInstanceOf(InterruptedException.class);
+    }
+
+    @Test
+    public void test_that_a_reader_does_not_barge_past_a_queued_writer()
+    throws Exception
+    {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final RecordedLock readLock = new RecordedLock(lock.readLock(), "read");
+        final RecordedLock writeLock = new RecordedLock(lock.writeLock(), "write");
+        final List<String> order = new CopyOnWriteArrayList<String>();
+
+        assertThat(LOCK_WAIT.isEnabled()).isFalse();
+
+        readLock.lock();
+
+        final Thread writer = new Thread(new Acquire(writeLock, order, "writer"));
+        final Thread reader = new Thread(new Acquire(readLock, order, "reader"));
+
+        writer.start();
+        await().atMost(TIMEOUT_IN_MILLIS, MILLISECONDS).until(new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            throws Exception
+            {
+                return lock.hasQueuedThread(writer);
+            }
+        });
+
+        reader.start();
+        await().atMost(TIMEOUT_IN_MILLIS, MILLISECONDS).until(new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call()
+            throws Exception
+            {
+                return lock.hasQueuedThread(reader);
+            }
+        });
+
+        assertThat(order).isEmpty();
+
+        readLock.unlock();
+        writer.join(TIMEOUT_IN_MILLIS);
+        reader.join(TIMEOUT_IN_MILLIS);
+
+        assertThat(order).containsExactly("writer", "reader");
+    }
+
+    private static class Acquire
+    implements Runnable
+    {
+        private final RecordedLock myLock;
+        private final List<String> myOrder;
+        private final String myName;
+
+        private Acquire(RecordedLock lock, List<String> order, String name)
+        {
+            myLock = lock;
+            myOrder = order;
+            myName = name;
+        }
+
+        @Override
+        public void run()
+        {
+            myLock.lock();
+            try
+            {
+                myOrder.add(myName);
+            }
+            finally
+            {
+                myLock.unlock();
+            }
+        }
+    }
+}
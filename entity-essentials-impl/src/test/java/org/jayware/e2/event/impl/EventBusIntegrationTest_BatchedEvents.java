@@ -0,0 +1,213 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.event.api.Coalesce;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.EventType.Notification;
+import org.jayware.e2.event.api.Handle;
+import org.jayware.e2.event.api.HandleBatch;
+import org.jayware.e2.event.api.IllegalHandlerException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.jayware.e2.event.api.Parameters.param;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class EventBusIntegrationTest_BatchedEvents
+{
+    private static final long TIMEOUT_IN_SECONDS = 10;
+
+    private Context context;
+    private EventManager eventManager;
+
+    @BeforeEach
+    public void setUp()
+    {
+        context = ContextProvider.getInstance().createContext();
+        eventManager = context.getService(EventManager.class);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        context.dispose();
+    }
+
+    @Test
+    public void test_that_notifications_are_delivered_as_one_batch_on_flush()
+    throws Exception
+    {
+        final BatchHandler handler = new BatchHandler(1);
+
+        eventManager.subscribe(context, handler, STRONG);
+        eventManager.enableNotificationBatching(context, 1, MINUTES);
+
+        for (int i = 0; i < 100; ++i)
+        {
+            eventManager.post(TestNotification.class, param(ContextParam, context), param("key", i), param("value", i));
+        }
+
+        assertThat(handler.batchLatch.await(200, MILLISECONDS)).isFalse();
+
+        eventManager.flushNotifications(context);
+
+        assertThat(handler.batchLatch.await(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+        assertThat(handler.batches).hasSize(1);
+        assertThat(handler.batches.get(0)).hasSize(100);
+        assertThat(handler.batches.get(0).get(99).<Integer>getParameter("value")).isEqualTo(99);
+        assertThat(handler.handled.get()).isEqualTo(100);
+    }
+
+    @Test
+    public void test_that_repeated_notifications_are_coalesced_and_delivered_after_the_window()
+    throws Exception
+    {
+        final BatchHandler handler = new BatchHandler(1);
+
+        eventManager.subscribe(context, handler, STRONG);
+        eventManager.enableNotificationBatching(context, 50, MILLISECONDS);
+
+        for (int i = 0; i < 10; ++i)
+        {
+            eventManager.post(TestNotification.class, param(ContextParam, context), param("key", "A"), param("first", i), param("value", i));
+        }
+
+        assertThat(handler.batchLatch.await(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+        assertThat(handler.batches.get(0)).hasSize(1);
+        assertThat(handler.batches.get(0).get(0).<Integer>getParameter("first")).isEqualTo(0);
+        assertThat(handler.batches.get(0).get(0).<Integer>getParameter("value")).isEqualTo(9);
+    }
+
+    @Test
+    public void test_that_individual_handlers_receive_the_notifications_in_posting_order()
+    throws Exception
+    {
+        final OrderHandler handler = new OrderHandler(4);
+
+        eventManager.subscribe(context, handler, STRONG);
+        eventManager.enableNotificationBatching(context, 1, MINUTES);
+
+        eventManager.post(OtherNotification.class, param(ContextParam, context), param("value", 0));
+        eventManager.post(TestNotification.class, param(ContextParam, context), param("key", "A"), param("value", 1));
+        eventManager.post(OtherNotification.class, param(ContextParam, context), param("value", 2));
+        eventManager.post(TestNotification.class, param(ContextParam, context), param("key", "A"), param("value", 3));
+        eventManager.post(OtherNotification.class, param(ContextParam, context), param("value", 4));
+
+        eventManager.flushNotifications(context);
+
+        assertThat(handler.latch.await(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+        assertThat(handler.values).containsExactly(0, 2, 3, 4);
+    }
+
+    @Test
+    public void test_that_subscribe_throws_IllegalHandlerException_if_a_batch_handler_has_an_illegal_signature()
+    {
+        assertThrows(IllegalHandlerException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            throws Throwable
+            {
+                eventManager.subscribe(context, new IllegalBatchHandler(), STRONG);
+            }
+        });
+    }
+
+    @Coalesce(value = "key", keepFirst = "first")
+    public interface TestNotification
+    extends Notification
+    {
+
+    }
+
+    public interface OtherNotification
+    extends Notification
+    {
+
+    }
+
+    public static class OrderHandler
+    {
+        final List<Integer> values = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch latch;
+
+        public OrderHandler(int expectedEvents)
+        {
+            latch = new CountDownLatch(expectedEvents);
+        }
+
+        @Handle({TestNotification.class, OtherNotification.class})
+        public void handle(Event event)
+        {
+            values.add(event.<Integer>getParameter("value"));
+            latch.countDown();
+        }
+    }
+
+    public static class BatchHandler
+    {
+        final List<List<Event>> batches = new CopyOnWriteArrayList<List<Event>>();
+        final AtomicInteger handled = new AtomicInteger();
+        final CountDownLatch batchLatch;
+
+        public BatchHandler(int expectedBatches)
+        {
+            batchLatch = new CountDownLatch(expectedBatches);
+        }
+
+        @Handle(TestNotification.class)
+        public void handle(Event event)
+        {
+            handled.incrementAndGet();
+        }
+
+        @HandleBatch(TestNotification.class)
+        public void handleBatch(List<Event> events)
+        {
+            batches.add(events);
+            batchLatch.countDown();
+        }
+    }
+
+    public static class IllegalBatchHandler
+    {
+        @HandleBatch(TestNotification.class)
+        public void handleBatch(Event event)
+        {
+        }
+    }
+}
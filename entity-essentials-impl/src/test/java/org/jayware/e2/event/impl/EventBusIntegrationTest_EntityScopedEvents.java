@@ -0,0 +1,149 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityEvent.EntityChangedEvent;
+import org.jayware.e2.entity.api.EntityEvent.EntityDeletedEvent;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.Handle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.entity.api.EntityEvent.EntityRefParam;
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.jayware.e2.event.api.Parameters.param;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+
+
+public class EventBusIntegrationTest_EntityScopedEvents
+{
+    private static final long TIMEOUT_IN_SECONDS = 10;
+
+    private Context context;
+    private EventManager eventManager;
+    private EntityManager entityManager;
+
+    @BeforeEach
+    public void setUp()
+    {
+        context = ContextProvider.getInstance().createContext();
+        eventManager = context.getService(EventManager.class);
+        entityManager = context.getService(EntityManager.class);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        context.dispose();
+    }
+
+    @Test
+    public void test_that_an_entity_scoped_subscriber_only_receives_events_of_its_entity()
+    {
+        final EntityRef refA = entityManager.createEntity(context);
+        final EntityRef refB = entityManager.createEntity(context);
+        final EntityHandler handler = new EntityHandler();
+
+        eventManager.subscribe(refA, handler, STRONG);
+
+        eventManager.send(EntityChangedEvent.class, param(ContextParam, context), param(EntityRefParam, refB));
+        eventManager.send(EntityChangedEvent.class, param(ContextParam, context), param(EntityRefParam, refA));
+        eventManager.send(EntityChangedEvent.class, param(ContextParam, context), param(EntityRefParam, refB));
+
+        assertThat(handler.changed).containsExactly(refA);
+    }
+
+    @Test
+    public void test_that_an_entity_scoped_subscriber_does_not_receive_events_after_unsubscribe()
+    {
+        final EntityRef ref = entityManager.createEntity(context);
+        final EntityHandler handler = new EntityHandler();
+
+        eventManager.subscribe(ref, handler, STRONG);
+        eventManager.send(EntityChangedEvent.class, param(ContextParam, context), param(EntityRefParam, ref));
+
+        eventManager.unsubscribe(ref, handler);
+        eventManager.send(EntityChangedEvent.class, param(ContextParam, context), param(EntityRefParam, ref));
+
+        assertThat(handler.changed).containsExactly(ref);
+    }
+
+    @Test
+    public void test_that_a_global_subscription_supersedes_an_entity_scoped_one()
+    {
+        final EntityRef refA = entityManager.createEntity(context);
+        final EntityRef refB = entityManager.createEntity(context);
+        final EntityHandler handler = new EntityHandler();
+
+        eventManager.subscribe(refA, handler, STRONG);
+        eventManager.subscribe(context, handler, STRONG);
+
+        eventManager.send(EntityChangedEvent.class, param(ContextParam, context), param(EntityRefParam, refA));
+        eventManager.send(EntityChangedEvent.class, param(ContextParam, context), param(EntityRefParam, refB));
+
+        assertThat(handler.changed).containsExactly(refA, refB);
+    }
+
+    @Test
+    public void test_that_an_entity_scoped_subscription_is_revoked_when_the_entity_is_deleted()
+    throws Exception
+    {
+        final EntityRef ref = entityManager.createEntity(context);
+        final EntityHandler handler = new EntityHandler();
+
+        eventManager.subscribe(ref, handler, STRONG);
+        entityManager.deleteEntity(ref);
+
+        assertThat(handler.deletedLatch.await(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+
+        eventManager.send(EntityChangedEvent.class, param(ContextParam, context), param(EntityRefParam, ref));
+
+        assertThat(handler.changed).isEmpty();
+    }
+
+    public static class EntityHandler
+    {
+        final List<EntityRef> changed = new CopyOnWriteArrayList<EntityRef>();
+        final CountDownLatch deletedLatch = new CountDownLatch(1);
+
+        @Handle(EntityChangedEvent.class)
+        public void handleChanged(Event event)
+        {
+            changed.add(event.<EntityRef>getParameter(EntityRefParam));
+        }
+
+        @Handle(EntityDeletedEvent.class)
+        public void handleDeleted(Event event)
+        {
+            deletedLatch.countDown();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.Handle;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.jayware.e2.event.api.Parameters.param;
+import static org.jayware.e2.event.impl.EventLoopGroup.QUANTUM;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+
+
+public class EventLoopGroupTest
+{
+    private static final long TIMEOUT_IN_SECONDS = 10;
+
+    @Test
+    public void test_that_a_lane_starts_its_tasks_in_submission_order()
+    throws Exception
+    {
+        final EventLoopGroup testee = new EventLoopGroup(4);
+        final ExecutorService lane = testee.createLane(1, 1024);
+        final List<Integer> order = new CopyOnWriteArrayList<Integer>();
+        final int count = 3 * QUANTUM;
+
+        for (int i = 0; i < count; ++i)
+        {
+            lane.execute(new Record<Integer>(order, i));
+        }
+
+        lane.shutdown();
+
+        assertThat(lane.awaitTermination(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+        assertThat(order).hasSize(count);
+        assertThat(order).isSorted();
+    }
+
+    @Test
+    public void test_that_a_busy_lane_does_not_starve_another_lane()
+    throws Exception
+    {
+        final EventLoopGroup testee = new EventLoopGroup(1);
+        final ExecutorService gate = testee.createLane(1, 1024);
+        final ExecutorService busyLane = testee.createLane(1, 1024);
+        final ExecutorService idleLane = testee.createLane(1, 1024);
+        final List<String> order = new CopyOnWriteArrayList<String>();
+        final CountDownLatch gateLatch = new CountDownLatch(1);
+
+        gate.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    gateLatch.await(TIMEOUT_IN_SECONDS, SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        for (int i = 0; i < 10 * QUANTUM; ++i)
+        {
+            busyLane.execute(new Record<String>(order, "busy"));
+        }
+
+        idleLane.execute(new Record<String>(order, "idle"));
+        gateLatch.countDown();
+
+        busyLane.shutdown();
+        idleLane.shutdown();
+
+        assertThat(busyLane.awaitTermination(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+        assertThat(idleLane.awaitTermination(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+        assertThat(order.indexOf("idle")).isEqualTo(QUANTUM);
+    }
+
+    @Test
+    public void test_that_a_saturated_lane_hands_tasks_to_its_overflow_executor()
+    throws Exception
+    {
+        final EventLoopGroup testee = new EventLoopGroup(1);
+        final ExecutorService gate = testee.createLane(1, 1024);
+        final List<Integer> overflowed = new CopyOnWriteArrayList<Integer>();
+        final List<Integer> order = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch gateLatch = new CountDownLatch(1);
+        final ExecutorService lane = testee.createLane(1, 2, new Executor()
+        {
+            @Override
+            public void execute(Runnable command)
+            {
+                overflowed.add(overflowed.size());
+                command.run();
+            }
+        });
+
+        gate.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    gateLatch.await(TIMEOUT_IN_SECONDS, SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        for (int i = 0; i < 5; ++i)
+        {
+            lane.execute(new Record<Integer>(order, i));
+        }
+
+        assertThat(overflowed).hasSize(3);
+        assertThat(order).containsExactly(2, 3, 4);
+
+        gateLatch.countDown();
+        lane.shutdown();
+
+        assertThat(lane.awaitTermination(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+        assertThat(order).containsExactlyInAnyOrder(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void test_that_shutdownNow_returns_the_never_commenced_tasks()
+    throws Exception
+    {
+        final EventLoopGroup testee = new EventLoopGroup(1);
+        final ExecutorService gate = testee.createLane(1, 1024);
+        final ExecutorService lane = testee.createLane(1, 1024);
+        final List<Integer> order = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch gateLatch = new CountDownLatch(1);
+
+        gate.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    gateLatch.await(TIMEOUT_IN_SECONDS, SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        for (int i = 0; i < 10; ++i)
+        {
+            lane.execute(new Record<Integer>(order, i));
+        }
+
+        assertThat(lane.shutdownNow()).hasSize(10);
+        gateLatch.countDown();
+
+        assertThat(lane.awaitTermination(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+        assertThat(lane.isTerminated()).isTrue();
+        assertThat(order).isEmpty();
+    }
+
+    @Test
+    public void test_that_contexts_using_the_shared_group_dispatch_on_its_threads()
+    throws Exception
+    {
+        final Context contextA = ContextProvider.getInstance().createContext();
+        final Context contextB = ContextProvider.getInstance().createContext();
+        final int count = 100;
+        final Handler handler = new Handler(2 * count);
+
+        try
+        {
+            for (Context context : new Context[] {contextA, contextB})
+            {
+                final EventManager eventManager = context.getService(EventManager.class);
+                eventManager.useSharedEventLoopGroup(context);
+                eventManager.subscribe(context, handler, STRONG);
+
+                for (int i = 0; i < count; ++i)
+                {
+                    eventManager.post(TestEventTypeA.class, param(ContextParam, context));
+                }
+            }
+
+            assertThat(handler.latch.await(TIMEOUT_IN_SECONDS, SECONDS)).isTrue();
+            for (String thread : handler.threads)
+            {
+                assertThat(thread).startsWith("entity-essentials-loop-");
+            }
+        }
+        finally
+        {
+            contextA.dispose();
+            contextB.dispose();
+        }
+    }
+
+    private static class Record<T>
+    implements Runnable
+    {
+        private final List<T> myList;
+        private final T myValue;
+
+        private Record(List<T> list, T value)
+        {
+            myList = list;
+            myValue = value;
+        }
+
+        @Override
+        public void run()
+        {
+            myList.add(myValue);
+        }
+    }
+
+    public static class Handler
+    {
+        final List<String> threads = new CopyOnWriteArrayList<String>();
+        final CountDownLatch latch;
+
+        public Handler(int expected)
+        {
+            latch = new CountDownLatch(expected);
+        }
+
+        @Handle(TestEventTypeA.class)
+        public void handle(Event event)
+        {
+            threads.add(Thread.currentThread().getName());
+            latch.countDown();
+        }
+    }
+}
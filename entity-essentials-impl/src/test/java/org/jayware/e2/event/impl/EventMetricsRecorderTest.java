@@ -0,0 +1,151 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.event.api.Event;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.Handle;
+import org.jayware.e2.event.api.ResultSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.jayware.e2.event.api.Parameters.param;
+import static org.jayware.e2.event.api.Query.State.Success;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+
+
+public class EventMetricsRecorderTest
+{
+    private Context context;
+    private EventManager eventManager;
+    private EventMetricsRecorder testee;
+
+    @BeforeEach
+    public void setUp()
+    {
+        context = ContextProvider.getInstance().createContext();
+        eventManager = context.getService(EventManager.class);
+        testee = new EventMetricsRecorder();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        context.dispose();
+    }
+
+    @Test
+    public void test_that_a_LatencyHistogram_reports_upper_bounds_of_the_recorded_values()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 100; ++i)
+        {
+            histogram.record(i <= 90 ? 100 : 10000);
+        }
+
+        final LatencySnapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(100);
+        assertThat(snapshot.getMax()).isEqualTo(10000);
+        assertThat(snapshot.getMean()).isEqualTo(1090);
+        assertThat(snapshot.getP50()).isEqualTo(127);
+        assertThat(snapshot.getP90()).isEqualTo(127);
+        assertThat(snapshot.getP99()).isEqualTo(10000);
+    }
+
+    @Test
+    public void test_that_no_instrumentation_is_installed_by_default()
+    {
+        assertThat(eventManager.getInstrumentation(context)).isNull();
+    }
+
+    @Test
+    public void test_that_sent_events_and_queries_are_recorded()
+    {
+        final TestSubscriber subscriber = new TestSubscriber();
+
+        eventManager.subscribe(context, subscriber, STRONG);
+        eventManager.setInstrumentation(context, testee);
+
+        eventManager.send(TestEventTypeA.class, param(ContextParam, context));
+        eventManager.send(TestEventTypeA.class, param(ContextParam, context));
+
+        final ResultSet result = eventManager.query(TestEventTypeB.class, param(ContextParam, context));
+
+        assertThat(result.await(Success, 10, SECONDS)).isTrue();
+        assertThat(eventManager.getInstrumentation(context)).isSameAs(testee);
+        assertThat(testee.getSendCounts()).containsEntry(TestEventTypeA.class.getName(), 2L);
+        assertThat(testee.getQueryCounts()).containsEntry(TestEventTypeB.class.getName(), 1L);
+        assertThat(testee.getDispatchLatencies().get(TestEventTypeA.class.getName()).getCount()).isEqualTo(2);
+        assertThat(testee.getHandlerLatencies().get(TestSubscriber.class.getName()).getCount()).isEqualTo(3);
+        assertThat(testee.getSanityCheckLatencies()).containsKeys(TestEventTypeA.class.getName(), TestEventTypeB.class.getName());
+        assertThat(testee.getQueryLatencies().get(TestEventTypeB.class.getName()).getCount()).isEqualTo(1);
+
+        eventManager.setInstrumentation(context, null);
+        eventManager.send(TestEventTypeA.class, param(ContextParam, context));
+
+        assertThat(testee.getSendCounts()).containsEntry(TestEventTypeA.class.getName(), 2L);
+    }
+
+    @Test
+    public void test_that_the_recorder_can_be_read_through_JMX()
+    throws Exception
+    {
+        eventManager.setInstrumentation(context, testee);
+        eventManager.send(TestEventTypeA.class, param(ContextParam, context));
+
+        final ObjectName name = testee.registerMBean("EventMetricsRecorderTest");
+
+        try
+        {
+            final Object counts = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "SendCounts");
+            assertThat(counts).isNotNull();
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "DispatchLatencies")).isNotNull();
+        }
+        finally
+        {
+            testee.unregisterMBean("EventMetricsRecorderTest");
+        }
+
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(name)).isFalse();
+    }
+
+    public static class TestSubscriber
+    {
+        @Handle(TestEventTypeA.class)
+        public void handleA(Event event)
+        {
+        }
+
+        @Handle(TestEventTypeB.class)
+        public void handleB(Event event)
+        {
+        }
+    }
+}
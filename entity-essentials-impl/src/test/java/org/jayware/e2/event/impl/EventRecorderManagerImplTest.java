@@ -0,0 +1,256 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.EventRecorder;
+import org.jayware.e2.event.api.EventRecorderManager;
+import org.jayware.e2.event.api.Handle;
+import org.jayware.e2.event.api.Param;
+import org.jayware.e2.event.api.ReplayReport;
+import org.jayware.e2.util.ReferenceType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.event.api.EventRecorderManager.ReplayMode.SEQUENTIAL;
+import static org.jayware.e2.event.api.EventRecorderManager.ReplayMode.TIMED;
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.jayware.e2.event.api.Parameters.param;
+import static org.jayware.e2.event.api.Presence.Optional;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+import static org.jayware.e2.util.ReferenceType.WEAK;
+
+
+public class EventRecorderManagerImplTest
+{
+    private Context recordingContext;
+    private Context replayContext;
+    private EventManager eventManager;
+    private EventRecorderManager testee;
+
+    private File dump;
+
+    @BeforeEach
+    public void setUp()
+    throws IOException
+    {
+        recordingContext = ContextProvider.getInstance().createContext();
+        replayContext = ContextProvider.getInstance().createContext();
+        eventManager = recordingContext.getService(EventManager.class);
+        testee = recordingContext.getService(EventRecorderManager.class);
+
+        dump = File.createTempFile("events", ".e2r");
+        dump.deleteOnExit();
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        recordingContext.dispose();
+        replayContext.dispose();
+        dump.delete();
+    }
+
+    @Test
+    public void test_that_openRecorder_returns_the_same_recorder_for_the_same_context()
+    {
+        final EventRecorder recorder = testee.openRecorder(recordingContext, 1024);
+
+        assertThat(testee.openRecorder(recordingContext, 2048)).isSameAs(recorder);
+        assertThat(recorder.getCapacity()).isEqualTo(1024);
+        assertThat(recorder.belongsTo(recordingContext)).isTrue();
+    }
+
+    @Test
+    public void test_that_recorded_events_are_replayed_with_their_parameters()
+    {
+        final EntityRef ref = recordingContext.getService(EntityManager.class).createEntity(recordingContext);
+        final EventRecorder recorder = testee.openRecorder(recordingContext, 64 * 1024);
+        final TestSubscriber subscriber = new TestSubscriber();
+
+        eventManager.send(TestEventTypeA.class, param(ContextParam, recordingContext), param("ref", ref), param("text", "fubar"), param("number", 42), param("mode", WEAK));
+        eventManager.post(TestEventTypeA.class, param(ContextParam, recordingContext), param("ref", ref), param("text", "snafu"), param("number", 73), param("mode", STRONG));
+
+        assertThat(recorder.getNumberOfRecordedEvents()).isEqualTo(2);
+        assertThat(recorder.getNumberOfBufferedEvents()).isEqualTo(2);
+
+        recorder.dump(dump);
+
+        eventManager.subscribe(replayContext, subscriber, STRONG);
+        final ReplayReport report = testee.replay(replayContext, dump, SEQUENTIAL);
+
+        assertThat(report.getNumberOfEvents()).isEqualTo(2);
+        assertThat(report.getNumberOfIncompleteEvents()).isZero();
+        assertThat(report.getNumberOfFailedEvents()).isZero();
+        assertThat(report.getNumberOfEvents(TestEventTypeA.class)).isEqualTo(2);
+        assertThat(report.getSubscriberTypes(TestEventTypeA.class)).containsExactly(TestSubscriber.class);
+        assertThat(report.getHandlerTime(TestEventTypeA.class, NANOSECONDS)).isPositive();
+        assertThat(report.getHandlerTime(TestEventTypeA.class, TestSubscriber.class, NANOSECONDS)).isEqualTo(report.getHandlerTime(TestEventTypeA.class, NANOSECONDS));
+        assertThat(report.getMaxHandlerTime(TestEventTypeA.class, NANOSECONDS)).isPositive();
+
+        assertThat(subscriber.contexts).containsExactly(replayContext, replayContext);
+        assertThat(subscriber.texts).containsExactly("fubar", "snafu");
+        assertThat(subscriber.numbers).containsExactly(42, 73);
+        assertThat(subscriber.modes).containsExactly(WEAK, STRONG);
+        assertThat(subscriber.refs).hasSize(2);
+        assertThat(subscriber.refs.get(0).getId()).isEqualTo(ref.getId());
+        assertThat(subscriber.refs.get(0).belongsTo(replayContext)).isTrue();
+        assertThat(subscriber.refs.get(0).isValid()).isTrue();
+    }
+
+    @Test
+    public void test_that_the_oldest_events_are_discarded_when_the_buffer_is_full()
+    {
+        final EventRecorder recorder = testee.openRecorder(recordingContext, 512);
+        final TestSubscriber subscriber = new TestSubscriber();
+
+        for (int i = 0; i < 100; ++i)
+        {
+            eventManager.send(TestEventTypeA.class, param(ContextParam, recordingContext), param("number", i));
+        }
+
+        assertThat(recorder.getNumberOfRecordedEvents()).isEqualTo(100);
+        assertThat(recorder.getNumberOfBufferedEvents()).isBetween(1, 99);
+
+        recorder.dump(dump);
+
+        eventManager.subscribe(replayContext, subscriber, STRONG);
+        testee.replay(replayContext, dump, SEQUENTIAL);
+
+        assertThat(subscriber.numbers).hasSize(recorder.getNumberOfBufferedEvents());
+        assertThat(subscriber.numbers.get(subscriber.numbers.size() - 1)).isEqualTo(99);
+
+        recorder.clear();
+        assertThat(recorder.getNumberOfBufferedEvents()).isZero();
+    }
+
+    @Test
+    public void test_that_events_issued_by_subscribers_are_not_replayed()
+    {
+        final EventRecorder recorder = testee.openRecorder(recordingContext, 64 * 1024);
+        final ForwardingSubscriber recordingSubscriber = new ForwardingSubscriber();
+        final ForwardingSubscriber replayingSubscriber = new ForwardingSubscriber();
+
+        eventManager.subscribe(recordingContext, recordingSubscriber, STRONG);
+        eventManager.send(TestEventTypeA.class, param(ContextParam, recordingContext));
+
+        assertThat(recordingSubscriber.forwarded).hasSize(1);
+        assertThat(recorder.getNumberOfRecordedEvents()).isEqualTo(2);
+
+        recorder.dump(dump);
+
+        eventManager.subscribe(replayContext, replayingSubscriber, STRONG);
+        final ReplayReport report = testee.replay(replayContext, dump, SEQUENTIAL);
+
+        assertThat(report.getNumberOfEvents()).isEqualTo(1);
+        assertThat(replayingSubscriber.forwarded).hasSize(1);
+    }
+
+    @Test
+    public void test_that_a_timed_replay_issues_events_the_way_they_were_recorded()
+    {
+        final EventRecorder recorder = testee.openRecorder(recordingContext, 64 * 1024);
+        final TestSubscriber subscriber = new TestSubscriber();
+
+        for (int i = 0; i < 10; ++i)
+        {
+            eventManager.post(TestEventTypeA.class, param(ContextParam, recordingContext), param("number", i));
+        }
+
+        recorder.dump(dump);
+        recorder.close();
+
+        eventManager.post(TestEventTypeA.class, param(ContextParam, recordingContext), param("number", 10));
+        assertThat(recorder.getNumberOfRecordedEvents()).isEqualTo(10);
+
+        eventManager.subscribe(replayContext, subscriber, STRONG);
+        final ReplayReport report = testee.replay(replayContext, dump, TIMED);
+
+        assertThat(report.getNumberOfEvents()).isEqualTo(10);
+        assertThat(subscriber.numbers).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(eventManager.getInstrumentation(replayContext)).isNull();
+    }
+
+    public static class TestSubscriber
+    {
+        private final List<Context> contexts = new CopyOnWriteArrayList<Context>();
+        private final List<EntityRef> refs = new CopyOnWriteArrayList<EntityRef>();
+        private final List<String> texts = new CopyOnWriteArrayList<String>();
+        private final List<Integer> numbers = new CopyOnWriteArrayList<Integer>();
+        private final List<ReferenceType> modes = new CopyOnWriteArrayList<ReferenceType>();
+
+        @Handle(TestEventTypeA.class)
+        public void handle(@Param(ContextParam) Context context, @Param(value = "ref", presence = Optional) EntityRef ref,
+                           @Param(value = "text", presence = Optional) String text,
+                           @Param(value = "number", presence = Optional) Integer number,
+                           @Param(value = "mode", presence = Optional) ReferenceType mode)
+        {
+            contexts.add(context);
+
+            if (ref != null)
+            {
+                refs.add(ref);
+            }
+
+            if (text != null)
+            {
+                texts.add(text);
+            }
+
+            if (number != null)
+            {
+                numbers.add(number);
+            }
+
+            if (mode != null)
+            {
+                modes.add(mode);
+            }
+        }
+    }
+
+    public static class ForwardingSubscriber
+    {
+        private final List<Context> forwarded = new CopyOnWriteArrayList<Context>();
+
+        @Handle(TestEventTypeA.class)
+        public void handleA(@Param(ContextParam) Context context)
+        {
+            context.getService(EventManager.class).send(TestEventTypeB.class, param(ContextParam, context));
+        }
+
+        @Handle(TestEventTypeB.class)
+        public void handleB(@Param(ContextParam) Context context)
+        {
+            forwarded.add(context);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.event.impl;
+
+
+import org.jayware.e2.event.api.EventType.RootEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class EventTypeTableTest
+{
+    @Test
+    public void test_that_idOf_returns_the_same_id_for_the_same_type_and_distinct_ids_for_distinct_types()
+    {
+        assertThat(EventTypeTable.idOf(TestEventTypeA.class)).isEqualTo(EventTypeTable.idOf(TestEventTypeA.class));
+        assertThat(EventTypeTable.idOf(TestEventTypeA.class)).isNotEqualTo(EventTypeTable.idOf(TestEventTypeB.class));
+    }
+
+    @Test
+    public void test_that_maskOf_returns_a_bit_for_each_matching_type()
+    {
+        final EventTypeTable testee = new EventTypeTable(new Class[] {TestEventTypeA.class, RootEvent.class, TestEventTypeB.class});
+
+        assertThat(testee.maskOf(TestEventTypeA.class)).isEqualTo(3);
+        assertThat(testee.maskOf(TestEventTypeB.class)).isEqualTo(6);
+        assertThat(testee.maskOf(RootEvent.class)).isEqualTo(2);
+        assertThat(testee.maskOf(TestEventTypeA.class)).isEqualTo(3);
+    }
+
+    @Test
+    public void test_that_maskOf_returns_zero_for_a_type_which_matches_none()
+    {
+        final EventTypeTable testee = new EventTypeTable(new Class[] {TestEventTypeA.class});
+
+        assertThat(testee.maskOf(TestEventTypeB.class)).isEqualTo(0);
+        assertThat(testee.maskOf(String.class)).isEqualTo(0);
+    }
+
+    @Test
+    public void test_that_the_table_does_not_accept_more_than_MAX_TYPES_types()
+    {
+        assertThrows(IllegalArgumentException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            {
+                new EventTypeTable(new Class[EventTypeTable.MAX_TYPES + 1]);
+            }
+        });
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.component.impl.ComponentStore;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.CommandBuffer;
+import org.jayware.e2.storage.api.CommandBufferManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.component.impl.ComponentManagerImpl.COMPONENT_STORE;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentA;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentB;
+
+
+public class CommandBufferManagerImplIntegrationTest
+{
+    private static final int NUMBER_OF_THREADS = 4;
+    private static final int ENTITIES_PER_THREAD = 100;
+
+    private Context context;
+    private CommandBufferManager commandBufferManager;
+    private EntityManager entityManager;
+    private ComponentManager componentManager;
+
+    @BeforeEach
+    public void setUp()
+    {
+        context = ContextProvider.getInstance().createContext();
+        commandBufferManager = context.getService(CommandBufferManager.class);
+        entityManager = context.getService(EntityManager.class);
+        componentManager = context.getService(ComponentManager.class);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        context.dispose();
+    }
+
+    @Test
+    public void test_that_the_CommandBuffers_of_all_threads_are_played_back_at_once()
+    throws Exception
+    {
+        final List<Thread> threads = new ArrayList<Thread>();
+
+        for (int i = 0; i < NUMBER_OF_THREADS; ++i)
+        {
+            final int offset = i * ENTITIES_PER_THREAD;
+            final Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    final CommandBuffer buffer = commandBufferManager.getCommandBuffer(context);
+                    final TestComponentB component = componentManager.createComponent(context, TestComponentB.class);
+
+                    assertThat(commandBufferManager.getCommandBuffer(context)).isSameAs(buffer);
+
+                    for (int j = 0; j < ENTITIES_PER_THREAD; ++j)
+                    {
+                        final EntityRef ref = buffer.createEntity();
+                        component.setInt(offset + j);
+                        buffer.addComponent(ref, component);
+                    }
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertThat(entityManager.findEntities(context)).isEmpty();
+
+        assertThat(commandBufferManager.playback(context)).isEqualTo(2 * NUMBER_OF_THREADS * ENTITIES_PER_THREAD);
+
+        final List<EntityRef> refs = entityManager.findEntities(context);
+        final List<Integer> values = new ArrayList<Integer>();
+
+        assertThat(refs).hasSize(NUMBER_OF_THREADS * ENTITIES_PER_THREAD);
+
+        for (EntityRef ref : refs)
+        {
+            values.add(componentManager.getComponent(ref, TestComponentB.class).getInt());
+        }
+
+        assertThat(values).hasSize(NUMBER_OF_THREADS * ENTITIES_PER_THREAD).doesNotHaveDuplicates();
+        assertThat(commandBufferManager.playback(context)).isEqualTo(0);
+    }
+
+    @Test
+    public void test_that_components_are_removed_and_entities_are_deleted_on_playback()
+    {
+        final EntityRef first = entityManager.createEntity(context);
+        final EntityRef second = entityManager.createEntity(context);
+        final CommandBuffer buffer = commandBufferManager.getCommandBuffer(context);
+
+        componentManager.addComponent(first, TestComponentA.class);
+        componentManager.addComponent(first, TestComponentB.class);
+
+        buffer.removeComponent(first, TestComponentA.class);
+        buffer.addComponent(second, TestComponentB.class);
+        buffer.deleteEntity(first);
+
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(componentManager.hasComponent(first, TestComponentA.class)).isTrue();
+        assertThat(componentManager.hasComponent(second, TestComponentB.class)).isFalse();
+
+        buffer.playback();
+
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(first.isValid()).isFalse();
+        assertThat(second.isValid()).isTrue();
+        assertThat(componentManager.hasComponent(second, TestComponentB.class)).isTrue();
+    }
+
+    @Test
+    public void test_that_no_components_are_added_to_an_entity_deleted_before_playback()
+    {
+        final EntityRef ref = entityManager.createEntity(context);
+        final CommandBuffer buffer = commandBufferManager.getCommandBuffer(context);
+        final ComponentStore store = context.get(COMPONENT_STORE);
+
+        buffer.addComponent(ref, TestComponentA.class);
+        buffer.addComponent(ref, componentManager.createComponent(context, TestComponentB.class));
+
+        entityManager.deleteEntity(ref);
+
+        buffer.playback();
+
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(store.hasComponent(ref, TestComponentA.class)).isFalse();
+        assertThat(store.hasComponent(ref, TestComponentB.class)).isFalse();
+
+        for (Integer count : store.countComponents().values())
+        {
+            assertThat(count).isZero();
+        }
+    }
+}
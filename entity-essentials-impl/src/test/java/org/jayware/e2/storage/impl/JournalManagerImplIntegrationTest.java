@@ -0,0 +1,227 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.Journal;
+import org.jayware.e2.storage.api.JournalManager;
+import org.jayware.e2.util.Filter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentB;
+import static org.jayware.e2.storage.impl.JournalImpl.JOURNAL_FILE_NAME;
+import static org.jayware.e2.storage.impl.JournalImpl.SNAPSHOT_FILE_NAME;
+import static org.junit.jupiter.api.Assertions.fail;
+
+
+public class JournalManagerImplIntegrationTest
+{
+    private static final long TIMEOUT_IN_MILLIS = 5000;
+
+    private Context context;
+    private JournalManager journalManager;
+    private EntityManager entityManager;
+    private ComponentManager componentManager;
+
+    private File directory;
+    private Journal journal;
+
+    @BeforeEach
+    public void setUp()
+    throws Exception
+    {
+        context = ContextProvider.getInstance().createContext();
+        journalManager = context.getService(JournalManager.class);
+        entityManager = context.getService(EntityManager.class);
+        componentManager = context.getService(ComponentManager.class);
+
+        directory = File.createTempFile("e2-journal", "");
+        directory.delete();
+
+        journal = journalManager.openJournal(context, directory);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        context.dispose();
+
+        for (File file : directory.listFiles())
+        {
+            file.delete();
+        }
+
+        directory.delete();
+    }
+
+    @Test
+    public void test_that_openJournal_returns_the_attached_Journal()
+    {
+        assertThat(journalManager.openJournal(context, directory)).isSameAs(journal);
+        assertThat(journal.getDirectory()).isEqualTo(directory);
+    }
+
+    @Test
+    public void test_that_journaled_changes_are_restored()
+    {
+        final EntityRef first = entityManager.createEntity(context);
+        final EntityRef second = entityManager.createEntity(context);
+
+        final TestComponentB component = componentManager.addComponent(first, TestComponentB.class);
+        component.setInt(42);
+        component.setString("Pikachu");
+        component.pushTo(first);
+
+        componentManager.addComponent(second, TestComponentB.class);
+
+        restoreEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context restored)
+            {
+                final EntityRef ref = restored.getService(EntityManager.class).resolveEntity(restored, first.getId());
+                final TestComponentB restoredComponent = restored.getService(ComponentManager.class).findComponent(ref, TestComponentB.class);
+                return restoredComponent != null && restoredComponent.getInt() == 42 && "Pikachu".equals(restoredComponent.getString())
+                    && restored.getService(ComponentManager.class).hasComponent(resolve(restored, second), TestComponentB.class);
+            }
+        }).dispose();
+
+        componentManager.removeComponent(second, TestComponentB.class);
+        entityManager.deleteEntity(first);
+
+        final Context restored = restoreEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context restored)
+            {
+                return resolve(restored, first).isInvalid() && !restored.getService(ComponentManager.class).hasComponent(resolve(restored, second), TestComponentB.class);
+            }
+        });
+
+        assertThat(resolve(restored, second).isValid()).isTrue();
+        restored.dispose();
+    }
+
+    @Test
+    public void test_that_a_compacted_journal_is_restored_from_the_snapshot_and_the_journal()
+    {
+        final EntityRef first = entityManager.createEntity(context);
+
+        restoreEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context restored)
+            {
+                return resolve(restored, first).isValid();
+            }
+        }).dispose();
+
+        journal.compact();
+
+        assertThat(new File(directory, SNAPSHOT_FILE_NAME).exists()).isTrue();
+        assertThat(new File(directory, JOURNAL_FILE_NAME).length()).isZero();
+
+        final EntityRef second = entityManager.createEntity(context);
+
+        final Context restored = restoreEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context restored)
+            {
+                return resolve(restored, second).isValid();
+            }
+        });
+
+        assertThat(resolve(restored, first).isValid()).isTrue();
+        restored.dispose();
+    }
+
+    @Test
+    public void test_that_a_partially_written_batch_is_ignored()
+    throws Exception
+    {
+        final EntityRef ref = entityManager.createEntity(context, UUID.randomUUID());
+
+        restoreEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context restored)
+            {
+                return resolve(restored, ref).isValid();
+            }
+        }).dispose();
+
+        journal.close();
+
+        final File journalFile = new File(directory, JOURNAL_FILE_NAME);
+        final long length = journalFile.length();
+
+        final FileOutputStream stream = new FileOutputStream(journalFile, true);
+        stream.write(new byte[]{0, 0, 0, 42, 1, 2, 3});
+        stream.close();
+
+        final Context restored = ContextProvider.getInstance().createContext();
+        journalManager.restore(restored, directory);
+        assertThat(resolve(restored, ref).isValid()).isTrue();
+
+        journalManager.openJournal(restored, directory);
+        assertThat(journalFile.length()).isEqualTo(length);
+        restored.dispose();
+    }
+
+    private EntityRef resolve(Context restored, EntityRef ref)
+    {
+        return restored.getService(EntityManager.class).resolveEntity(restored, ref.getId());
+    }
+
+    private Context restoreEventually(Filter<Context> condition)
+    {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_IN_MILLIS;
+
+        while (System.currentTimeMillis() < deadline)
+        {
+            journal.flush();
+
+            final Context restored = ContextProvider.getInstance().createContext();
+            journalManager.restore(restored, directory);
+
+            if (condition.accepts(context, restored))
+            {
+                return restored;
+            }
+
+            restored.dispose();
+            Thread.yield();
+        }
+
+        fail("The journal did not record the expected changes in time!");
+        return null;
+    }
+}
@@ -0,0 +1,303 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.Replica;
+import org.jayware.e2.storage.api.ReplicationException;
+import org.jayware.e2.storage.api.ReplicationManager;
+import org.jayware.e2.storage.api.Replicator;
+import org.jayware.e2.util.Filter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.channels.Pipe;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentB;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentC;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+
+public class ReplicationManagerImplIntegrationTest
+{
+    private static final long TIMEOUT_IN_MILLIS = 5000;
+
+    private Context context;
+    private Context replicaContext;
+    private ReplicationManager replicationManager;
+    private EntityManager entityManager;
+    private ComponentManager componentManager;
+
+    private Pipe pipe;
+    private Replicator replicator;
+    private Replica replica;
+
+    @BeforeEach
+    public void setUp()
+    throws Exception
+    {
+        context = ContextProvider.getInstance().createContext();
+        replicaContext = ContextProvider.getInstance().createContext();
+        replicationManager = context.getService(ReplicationManager.class);
+        entityManager = context.getService(EntityManager.class);
+        componentManager = context.getService(ComponentManager.class);
+
+        pipe = Pipe.open();
+    }
+
+    @AfterEach
+    public void tearDown()
+    throws Exception
+    {
+        context.dispose();
+        replicaContext.dispose();
+        pipe.sink().close();
+        pipe.source().close();
+    }
+
+    @Test
+    public void test_that_the_state_of_the_context_is_replicated_in_the_first_frame()
+    {
+        final EntityRef ref = entityManager.createEntity(context);
+        final TestComponentB component = componentManager.addComponent(ref, TestComponentB.class);
+        component.setInt(42);
+        component.setString("Pikachu");
+        component.pushTo(ref);
+
+        open(0);
+
+        replicateEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context replica)
+            {
+                final TestComponentB replicated = find(ref, TestComponentB.class);
+                return replicated != null && replicated.getInt() == 42 && "Pikachu".equals(replicated.getString());
+            }
+        });
+
+        assertThat(replica.getNumberOfFrames()).isEqualTo(replicator.getNumberOfFrames());
+    }
+
+    @Test
+    public void test_that_changes_are_replicated()
+    {
+        open(0);
+
+        final EntityRef first = entityManager.createEntity(context);
+        final EntityRef second = entityManager.createEntity(context);
+        final TestComponentB component = componentManager.addComponent(first, TestComponentB.class);
+        componentManager.addComponent(second, TestComponentB.class);
+        component.setInteger(73);
+        component.setString("Raichu");
+        component.pushTo(first);
+
+        replicateEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context replica)
+            {
+                final TestComponentB replicated = find(first, TestComponentB.class);
+                return replicated != null && Integer.valueOf(73).equals(replicated.getInteger()) && "Raichu".equals(replicated.getString())
+                    && find(second, TestComponentB.class) != null;
+            }
+        });
+
+        componentManager.removeComponent(second, TestComponentB.class);
+        entityManager.deleteEntity(first);
+
+        replicateEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context replica)
+            {
+                return resolve(first).isInvalid() && resolve(second).isValid() && find(second, TestComponentB.class) == null;
+            }
+        });
+
+        final EntityRef third = entityManager.createEntity(context);
+        componentManager.addComponent(third, TestComponentB.class);
+
+        replicateEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context replica)
+            {
+                return find(third, TestComponentB.class) != null;
+            }
+        });
+    }
+
+    @Test
+    public void test_that_only_changed_properties_are_sent()
+    {
+        open(0);
+
+        final EntityRef ref = entityManager.createEntity(context);
+        final TestComponentC component = componentManager.addComponent(ref, TestComponentC.class);
+        component.setString("Bulbasaur");
+        component.setPrimitiveDoubleArray(new double[] {1, 2, 3});
+        component.pushTo(ref);
+
+        replicateEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context replica)
+            {
+                final TestComponentC replicated = find(ref, TestComponentC.class);
+                return replicated != null && "Bulbasaur".equals(replicated.getString());
+            }
+        });
+
+        final long bytes = replicator.getNumberOfBytes();
+
+        component.setPrimitiveInteger(-7);
+        component.pushTo(ref);
+
+        replicateEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context replica)
+            {
+                final TestComponentC replicated = find(ref, TestComponentC.class);
+                return replicated.getPrimitiveInteger() == -7;
+            }
+        });
+
+        final TestComponentC replicated = find(ref, TestComponentC.class);
+        assertThat(replicator.getNumberOfBytes() - bytes).isLessThan(24);
+        assertThat(replicated.getString()).isEqualTo("Bulbasaur");
+        assertThat(replicated.getPrimitiveDoubleArray()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void test_that_floating_point_properties_are_quantized()
+    {
+        open(0.01);
+
+        final EntityRef ref = entityManager.createEntity(context);
+        final TestComponentC component = componentManager.addComponent(ref, TestComponentC.class);
+        component.setPrimitiveFloat(3.14159f);
+        component.setPrimitiveDouble(-2.71828);
+        component.setPrimitiveLong(Long.MIN_VALUE);
+        component.pushTo(ref);
+
+        replicateEventually(new Filter<Context>()
+        {
+            @Override
+            public boolean accepts(Context context, Context replica)
+            {
+                final TestComponentC replicated = find(ref, TestComponentC.class);
+                return replicated != null && replicated.getPrimitiveLong() == Long.MIN_VALUE;
+            }
+        });
+
+        final TestComponentC replicated = find(ref, TestComponentC.class);
+        assertThat(replicated.getPrimitiveFloat()).isCloseTo(3.14f, within(0.0001f));
+        assertThat(replicated.getPrimitiveDouble()).isCloseTo(-2.72, within(0.0000001));
+    }
+
+    @Test
+    public void test_that_a_replicator_rejects_values_which_can_not_be_quantized_and_closes()
+    {
+        final EntityRef ref = entityManager.createEntity(context);
+        final TestComponentC component = componentManager.addComponent(ref, TestComponentC.class);
+        component.setPrimitiveDouble(Double.NaN);
+        component.pushTo(ref);
+
+        open(0.01);
+
+        assertThrows(ReplicationException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            {
+                replicator.flush();
+            }
+        });
+
+        assertThrows(IllegalStateException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            {
+                replicator.flush();
+            }
+        });
+    }
+
+    @Test
+    public void test_that_apply_returns_false_at_the_end_of_the_stream()
+    throws Exception
+    {
+        open(0);
+
+        pipe.sink().close();
+
+        assertThat(replica.apply()).isFalse();
+    }
+
+    private void open(double resolution)
+    {
+        replicator = replicationManager.openReplicator(context, pipe.sink(), resolution);
+        replica = replicationManager.openReplica(replicaContext, pipe.source());
+    }
+
+    private EntityRef resolve(EntityRef ref)
+    {
+        return replicaContext.getService(EntityManager.class).resolveEntity(replicaContext, ref.getId());
+    }
+
+    private <T extends Component> T find(EntityRef ref, Class<T> type)
+    {
+        return replicaContext.getService(ComponentManager.class).findComponent(resolve(ref), type);
+    }
+
+    private void replicateEventually(Filter<Context> condition)
+    {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_IN_MILLIS;
+
+        while (System.currentTimeMillis() < deadline)
+        {
+            if (replicator.flush() > 0)
+            {
+                assertThat(replica.apply()).isTrue();
+            }
+
+            if (condition.accepts(context, replicaContext))
+            {
+                return;
+            }
+
+            Thread.yield();
+        }
+
+        fail("The replica did not receive the expected changes in time!");
+    }
+}
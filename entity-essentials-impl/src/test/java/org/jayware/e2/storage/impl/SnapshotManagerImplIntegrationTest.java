@@ -0,0 +1,165 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.storage.impl;
+
+import org.jayware.e2.assembly.api.components.GroupComponent;
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.storage.api.SnapshotException;
+import org.jayware.e2.storage.api.SnapshotManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.UUID;
+
+import static java.nio.channels.Channels.newChannel;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentB;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentC;
+import static org.jayware.e2.component.impl.TestComponents.TestEnum.B;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class SnapshotManagerImplIntegrationTest
+{
+    private Context source;
+    private Context target;
+    private SnapshotManager snapshotManager;
+
+    @BeforeEach
+    public void setUp()
+    {
+        source = ContextProvider.getInstance().createContext();
+        target = ContextProvider.getInstance().createContext();
+        snapshotManager = source.getService(SnapshotManager.class);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        source.dispose();
+        target.dispose();
+    }
+
+    @Test
+    public void test_that_a_restored_snapshot_contains_all_entities_and_components()
+    {
+        final EntityManager entityManager = source.getService(EntityManager.class);
+        final ComponentManager componentManager = source.getService(ComponentManager.class);
+
+        final EntityRef first = entityManager.createEntity(source);
+        final EntityRef second = entityManager.createEntity(source);
+        final EntityRef third = entityManager.createEntity(source);
+
+        final TestComponentB componentB = componentManager.addComponent(first, TestComponentB.class);
+        componentB.setInt(42);
+        componentB.setInteger(null);
+        componentB.setString("Pikachu");
+        componentB.pushTo(first);
+
+        final TestComponentC componentC = componentManager.addComponent(second, TestComponentC.class);
+        componentC.setPrimitiveLong(Long.MAX_VALUE);
+        componentC.setPrimitiveDouble(73.1);
+        componentC.setDoubleObject(-1.0);
+        componentC.setPrimitiveIntegerArray(new int[]{1, 2, 3});
+        componentC.setStringArray(new String[]{"Bulbasaur", null});
+        componentC.setEnum(B);
+        componentC.pushTo(second);
+
+        final GroupComponent group = componentManager.addComponent(third, GroupComponent.class);
+        group.setName("Pokemon");
+        group.setMembers(new EntityRef[]{first, second});
+        group.pushTo(third);
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        snapshotManager.writeSnapshot(source, newChannel(snapshot));
+        snapshotManager.readSnapshot(target, newChannel(new ByteArrayInputStream(snapshot.toByteArray())));
+
+        final EntityManager targetEntityManager = target.getService(EntityManager.class);
+        final ComponentManager targetComponentManager = target.getService(ComponentManager.class);
+
+        assertThat(targetEntityManager.findEntities(target)).hasSize(3);
+
+        final EntityRef restoredFirst = targetEntityManager.resolveEntity(target, first.getId());
+        final EntityRef restoredSecond = targetEntityManager.resolveEntity(target, second.getId());
+        final EntityRef restoredThird = targetEntityManager.resolveEntity(target, third.getId());
+
+        assertThat(restoredFirst.isValid()).isTrue();
+        assertThat(restoredSecond.isValid()).isTrue();
+        assertThat(restoredThird.isValid()).isTrue();
+
+        final TestComponentB restoredB = targetComponentManager.getComponent(restoredFirst, TestComponentB.class);
+        assertThat(restoredB.getInt()).isEqualTo(42);
+        assertThat(restoredB.getInteger()).isNull();
+        assertThat(restoredB.getString()).isEqualTo("Pikachu");
+
+        final TestComponentC restoredC = targetComponentManager.getComponent(restoredSecond, TestComponentC.class);
+        assertThat(restoredC.getPrimitiveLong()).isEqualTo(Long.MAX_VALUE);
+        assertThat(restoredC.getPrimitiveDouble()).isEqualTo(73.1);
+        assertThat(restoredC.getDoubleObject()).isEqualTo(-1.0);
+        assertThat(restoredC.getPrimitiveIntegerArray()).containsExactly(1, 2, 3);
+        assertThat(restoredC.getStringArray()).containsExactly("Bulbasaur", null);
+        assertThat(restoredC.getEnum()).isEqualTo(B);
+
+        final GroupComponent restoredGroup = targetComponentManager.getComponent(restoredThird, GroupComponent.class);
+        assertThat(restoredGroup.getName()).isEqualTo("Pokemon");
+        assertThat(restoredGroup.getMembers()).containsExactly(restoredFirst, restoredSecond);
+        assertThat(restoredGroup.getMembers()[0].belongsTo(target)).isTrue();
+
+        assertThat(targetComponentManager.hasComponent(restoredFirst, TestComponentC.class)).isFalse();
+    }
+
+    @Test
+    public void test_that_a_snapshot_can_be_written_to_and_read_from_a_file()
+    throws Exception
+    {
+        final File file = File.createTempFile("e2-snapshot", ".bin");
+        file.deleteOnExit();
+
+        final EntityManager entityManager = source.getService(EntityManager.class);
+        final EntityRef ref = entityManager.createEntity(source, UUID.randomUUID());
+
+        snapshotManager.writeSnapshot(source, file);
+        snapshotManager.readSnapshot(target, file);
+
+        assertThat(target.getService(EntityManager.class).resolveEntity(target, ref.getId()).isValid()).isTrue();
+        assertThat(new File(file.getPath() + ".tmp").exists()).isFalse();
+    }
+
+    @Test
+    public void test_that_readSnapshot_Throws_SnapshotException_if_the_stream_is_not_a_snapshot()
+    {
+        assertThrows(SnapshotException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            {
+                snapshotManager.readSnapshot(target, newChannel(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})));
+            }
+        });
+    }
+}
@@ -28,6 +28,7 @@ import org.jayware.e2.entity.api.EntityEvent.CreateEntityEvent;
 import org.jayware.e2.entity.api.EntityEvent.DeleteEntityEvent;
 import org.jayware.e2.entity.api.EntityManager;
 import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.entity.api.EntityVisitor;
 import org.jayware.e2.event.api.EventManager;
 import org.jayware.e2.event.api.ResultSet;
 import org.jayware.e2.util.Filter;
@@ -35,6 +36,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -199,4 +201,168 @@ public class StorageImplIntegrationTest
             .withFailMessage("Expected that the result contains only %s, because the filter accepts only this entity, but it contains: %s!", b, result)
             .containsExactlyInAnyOrder(b);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_find_a_page_of_entities_by_EntityManager()
+    {
+        for (int i = 0; i < 10; ++i)
+        {
+            entityManager.createEntity(context);
+        }
+
+        final List<EntityRef> all = entityManager.findEntities(context);
+        final List<EntityRef> page = entityManager.findEntities(context, Aspect.ANY, 3, 4);
+
+        assertThat(page).containsExactlyElementsOf(all.subList(3, 7));
+        assertThat(entityManager.findEntities(context, Aspect.ANY, 8, 4)).containsExactlyElementsOf(all.subList(8, 10));
+        assertThat(entityManager.findEntities(context, Aspect.ANY, 0, 0)).isEmpty();
+    }
+
+    @Test
+    public void test_visit_entities_by_EntityManager_stops_when_the_visitor_returns_false()
+    {
+        for (int i = 0; i < 10; ++i)
+        {
+            entityManager.createEntity(context);
+        }
+
+        final List<EntityRef> visited = new ArrayList<EntityRef>();
+
+        entityManager.visitEntities(context, Aspect.ANY, new EntityVisitor()
+        {
+            @Override
+            public boolean visit(EntityRef ref)
+            {
+                visited.add(ref);
+                return visited.size() < 3;
+            }
+        });
+
+        assertThat(visited).hasSize(3);
+    }
+
+    @Test
+    public void test_visit_entities_by_EntityManager_calls_the_visitor_on_the_calling_thread()
+    {
+        final Thread caller = Thread.currentThread();
+        final List<EntityRef> existing = new ArrayList<EntityRef>();
+        final List<EntityRef> created = new ArrayList<EntityRef>();
+
+        for (int i = 0; i < 3; ++i)
+        {
+            existing.add(entityManager.createEntity(context));
+        }
+
+        entityManager.visitEntities(context, Aspect.ANY, new EntityVisitor()
+        {
+            @Override
+            public boolean visit(EntityRef ref)
+            {
+                assertThat(Thread.currentThread()).isSameAs(caller);
+
+                // Entities created during the visit may or may not be visited.
+                if (existing.contains(ref))
+                {
+                    created.add(entityManager.createEntity(context));
+                }
+
+                return true;
+            }
+        });
+
+        assertThat(created).hasSize(3);
+        assertThat(entityManager.findEntities(context)).hasSize(6);
+    }
+
+    @Test
+    public void test_find_entities_in_parallel_by_EntityManager_Returns_the_same_result_as_the_sequential_search()
+    {
+        final List<UUID> ids = new ArrayList<UUID>();
+
+        for (int i = 0; i < 4 * EntityFinderImpl.PARALLEL_THRESHOLD; ++i)
+        {
+            ids.add(UUID.randomUUID());
+        }
+
+        ((StorageImpl) context.get(StorageImpl.STORAGE_KEY)).restoreEntities(ids);
+
+        final Filter<EntityRef> filter = new Filter<EntityRef>()
+        {
+            @Override
+            public boolean accepts(final Context context, final EntityRef ref)
+            {
+                return (ref.getId().getLeastSignificantBits() & 1) == 0;
+            }
+        };
+
+        final List<EntityRef> sequential = entityManager.findEntities(context, Aspect.ANY, filter);
+        final List<EntityRef> parallel = entityManager.findEntitiesInParallel(context, Aspect.ANY, filter);
+
+        assertThat(parallel).containsExactlyElementsOf(sequential);
+    }
+
+    @Test
+    public void test_filter_in_parallel_Returns_the_same_page_as_the_sequential_search()
+    {
+        final EntityFinderImpl finder = new EntityFinderImpl(context);
+        final List<EntityRef> entities = restoreEntities(4 * EntityFinderImpl.PARALLEL_THRESHOLD);
+        final List<Filter<EntityRef>> filters = new ArrayList<Filter<EntityRef>>();
+
+        filters.add(new Filter<EntityRef>()
+        {
+            @Override
+            public boolean accepts(final Context context, final EntityRef ref)
+            {
+                return (ref.getId().getLeastSignificantBits() & 1) == 0;
+            }
+        });
+
+        for (int offset : new int[] {0, 17, EntityFinderImpl.PARALLEL_THRESHOLD, 4 * EntityFinderImpl.PARALLEL_THRESHOLD})
+        {
+            for (int limit : new int[] {0, 1, 100, 3 * EntityFinderImpl.PARALLEL_THRESHOLD, Integer.MAX_VALUE})
+            {
+                assertThat(finder.filterInParallel(entities, Aspect.ANY, filters, offset, limit)).containsExactlyElementsOf(finder.filter(entities, Aspect.ANY, filters, offset, limit));
+            }
+        }
+    }
+
+    @Test
+    public void test_filter_in_parallel_Completes_if_a_filter_searches_in_parallel_itself()
+    {
+        final EntityFinderImpl finder = new EntityFinderImpl(context);
+        final List<EntityRef> entities = restoreEntities(4 * EntityFinderImpl.PARALLEL_THRESHOLD);
+        final List<Filter<EntityRef>> filters = new ArrayList<Filter<EntityRef>>();
+
+        filters.add(new Filter<EntityRef>()
+        {
+            @Override
+            public boolean accepts(final Context context, final EntityRef ref)
+            {
+                if ((ref.getId().getLeastSignificantBits() & 1023) != 0)
+                {
+                    return false;
+                }
+
+                return finder.filterInParallel(entities, Aspect.ANY, null).contains(ref);
+            }
+        });
+
+        final List<EntityRef> result = finder.filterInParallel(entities, Aspect.ANY, filters);
+
+        assertThat(result).containsExactlyElementsOf(finder.filter(entities, Aspect.ANY, filters));
+    }
+
+    private List<EntityRef> restoreEntities(int count)
+    {
+        final List<UUID> ids = new ArrayList<UUID>();
+
+        for (int i = 0; i < count; ++i)
+        {
+            ids.add(UUID.randomUUID());
+        }
+
+        ((StorageImpl) context.get(StorageImpl.STORAGE_KEY)).restoreEntities(ids);
+
+        return ((StorageImpl) context.get(StorageImpl.STORAGE_KEY)).getEntities();
+    }
+}
@@ -278,7 +278,7 @@ public class StorageImplTest
             testQuery.result(withCapture(capturedResultKeys), withCapture(capturedResultValues));
         }};
 
-        testee.handleFindEntityEvent(testQuery, aspect(), Collections.<Filter<EntityRef>>emptyList());
+        testee.handleFindEntityEvent(testQuery, aspect(), Collections.<Filter<EntityRef>>emptyList(), null, null, null);
 
         indexOfEntityRefListParam = capturedResultKeys.indexOf(EntityRefListParam);
 
@@ -316,7 +316,7 @@ public class StorageImplTest
                 {
                     throw new RuntimeException("Got it!");
                 }
-            }));
+            }), null, null, null);
 
             fail("Expected a RuntimeException!");
         }
@@ -0,0 +1,197 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.system.impl;
+
+import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.system.api.EntitySystem;
+import org.jayware.e2.system.api.SystemManager;
+import org.jayware.e2.system.api.SystemScheduler;
+import org.jayware.e2.system.api.SystemSchedulerException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jayware.e2.component.api.Aspect.aspect;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentA;
+import static org.jayware.e2.component.impl.TestComponents.TestComponentB;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class SystemSchedulerImplIntegrationTest
+{
+    private static final int NUMBER_OF_ENTITIES = 1000;
+
+    private Context context;
+    private EntityManager entityManager;
+    private ComponentManager componentManager;
+    private SystemScheduler scheduler;
+
+    @BeforeEach
+    public void setUp()
+    {
+        context = ContextProvider.getInstance().createContext();
+        entityManager = context.getService(EntityManager.class);
+        componentManager = context.getService(ComponentManager.class);
+        scheduler = context.getService(SystemManager.class).createScheduler(context, 4);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        context.dispose();
+    }
+
+    @Test
+    public void test_that_conflicting_systems_are_put_into_subsequent_stages()
+    {
+        final EntitySystem writesA = new TestSystem(aspect(TestComponentA.class), components(), components(TestComponentA.class));
+        final EntitySystem readsB = new TestSystem(aspect(TestComponentB.class), components(TestComponentB.class), components());
+        final EntitySystem readsA = new TestSystem(aspect(TestComponentA.class), components(TestComponentA.class), components());
+        final EntitySystem readsBToo = new TestSystem(aspect(TestComponentB.class), components(TestComponentB.class), components());
+        final EntitySystem writesB = new TestSystem(aspect(TestComponentB.class), components(), components(TestComponentB.class));
+
+        assertThat(SystemSchedulerImpl.stagesOf(Arrays.asList(writesA, readsB, readsA, readsBToo, writesB))).containsExactly(
+            Arrays.asList(writesA, readsB, readsBToo),
+            Arrays.asList(readsA, writesB)
+        );
+    }
+
+    @Test
+    public void test_that_tick_processes_every_matching_entity_once_and_records_statistics()
+    {
+        final TestSystem systemA = new TestSystem(aspect(TestComponentA.class), components(TestComponentA.class), components());
+        final TestSystem systemB = new TestSystem(aspect(TestComponentB.class), components(TestComponentB.class), components());
+
+        for (int i = 0; i < NUMBER_OF_ENTITIES; ++i)
+        {
+            final EntityRef ref = entityManager.createEntity(context);
+            final Class<? extends Component> type = i % 2 == 0 ? TestComponentA.class : TestComponentB.class;
+            componentManager.addComponent(ref, type);
+        }
+
+        scheduler.addSystem(systemA);
+        scheduler.addSystem(systemB);
+        scheduler.tick();
+
+        assertThat(systemA.processed).hasSize(NUMBER_OF_ENTITIES / 2);
+        assertThat(systemB.processed).hasSize(NUMBER_OF_ENTITIES / 2);
+        assertThat(systemA.threads.size()).isGreaterThan(1);
+
+        assertThat(scheduler.getStatistics(systemA).getTicks()).isEqualTo(1);
+        assertThat(scheduler.getStatistics(systemA).getLastEntityCount()).isEqualTo(NUMBER_OF_ENTITIES / 2);
+        assertThat(scheduler.getStatistics(systemA).getLastTime(NANOSECONDS)).isGreaterThan(0);
+    }
+
+    @Test
+    public void test_that_tick_throws_SystemSchedulerException_if_a_system_fails()
+    {
+        componentManager.addComponent(entityManager.createEntity(context), TestComponentA.class);
+
+        scheduler.addSystem(new TestSystem(aspect(TestComponentA.class), components(), components(TestComponentA.class))
+        {
+            @Override
+            public void process(EntityRef ref)
+            {
+                throw new IllegalStateException();
+            }
+        });
+
+        assertThrows(SystemSchedulerException.class, new Executable()
+        {
+            @Override
+            public void execute()
+            throws Throwable
+            {
+                scheduler.tick();
+            }
+        });
+    }
+
+    private static Set<Class<? extends Component>> components(Class<? extends Component>... components)
+    {
+        return new HashSet<Class<? extends Component>>(Arrays.asList(components));
+    }
+
+    private static class TestSystem
+    implements EntitySystem
+    {
+        private final Aspect aspect;
+        private final Set<Class<? extends Component>> reads;
+        private final Set<Class<? extends Component>> writes;
+
+        final Set<EntityRef> processed = Collections.newSetFromMap(new ConcurrentHashMap<EntityRef, Boolean>());
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+
+        private TestSystem(Aspect aspect, Set<Class<? extends Component>> reads, Set<Class<? extends Component>> writes)
+        {
+            this.aspect = aspect;
+            this.reads = reads;
+            this.writes = writes;
+        }
+
+        @Override
+        public Aspect getAspect()
+        {
+            return aspect;
+        }
+
+        @Override
+        public Set<Class<? extends Component>> getReadComponents()
+        {
+            return reads;
+        }
+
+        @Override
+        public Set<Class<? extends Component>> getWriteComponents()
+        {
+            return writes;
+        }
+
+        @Override
+        public void process(EntityRef ref)
+        {
+            processed.add(ref);
+            threads.add(Thread.currentThread());
+
+            try
+            {
+                Thread.sleep(1);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.jayware.e2.component.api.ComponentManager;
 import org.jayware.e2.context.api.Context;
 import org.jayware.e2.context.api.ContextProvider;
 import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
 import org.jayware.e2.template.api.ComponentTemplate;
 import org.jayware.e2.template.api.PropertyTemplate;
 import org.jayware.e2.template.api.TemplateManager;
@@ -32,9 +33,14 @@ import org.jayware.e2.template.api.TemplateProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.jayware.e2.component.impl.TestComponents.TestComponentC;
 
 
@@ -71,6 +77,25 @@ public class TemplateManagerImplIntegrationTest
         final TestComponentTemplateImpl template = templateManager.exportComponent(component, testTemplateProvider);
     }
 
+    @Test
+    public void test_that_a_binary_exported_Component_can_be_imported()
+    {
+        final EntityRef ref = entityManager.createEntity(context);
+        final TestComponentC component = componentManager.createComponent(context, TestComponentC.class);
+        component.setPrimitiveInteger(73);
+        component.setLongObject(null);
+        component.setString("Charmander");
+        component.setPrimitiveDoubleArray(new double[]{1.5, -2.5});
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        templateManager.exportComponent(component, new DataOutputStream(buffer));
+
+        final TestComponentC imported = (TestComponentC) templateManager.importComponent(ref, new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+
+        assertThat(imported).isEqualTo(component);
+        assertThat(componentManager.getComponent(ref, TestComponentC.class)).isEqualTo(component);
+    }
+
     public static class TestComponentTemplateImpl
     implements ComponentTemplate
     {
@@ -0,0 +1,172 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.examples.boids;
+
+
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.context.api.ContextProvider;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+import static java.lang.Integer.getInteger;
+import static java.lang.Long.getLong;
+
+
+/*
+ * A headless macro-benchmark which runs the BoidsSimulation for a fixed number of ticks and reports the
+ * ticks per second, the time spent in every phase of a tick and the garbage collector activity.
+ *
+ * The simulation is configured by system properties:
+ *
+ *   boids.population  - the number of boids which are alive at the beginning of every tick (default: 1000)
+ *   boids.flocks      - the number of flocks, each one is a group (default: 8)
+ *   boids.ticks       - the number of measured ticks (default: 500)
+ *   boids.warmup      - the number of ticks which are run before the measurement starts (default: 100)
+ *   boids.lifetime    - the maximal lifetime of a boid in ticks, the minimum is the half of it (default: 400)
+ *   boids.seed        - the seed of the random number generator (default: 42)
+ */
+public class BoidsBenchmark
+{
+    private static final String[] PHASES = {"spawn", "steer", "move", "collide", "expire"};
+
+    public static void main(String[] args)
+    {
+        final int population = getInteger("boids.population", 1000);
+        final int flocks = getInteger("boids.flocks", 8);
+        final int ticks = getInteger("boids.ticks", 500);
+        final int warmup = getInteger("boids.warmup", 100);
+        final int lifetime = getInteger("boids.lifetime", 400);
+        final long seed = getLong("boids.seed", 42L);
+
+        System.out.printf("%nBoids: population=%d, flocks=%d, ticks=%d, warmup=%d, lifetime=%d..%d, seed=%d%n",
+            population, flocks, ticks, warmup, lifetime / 2, lifetime, seed);
+
+        final Context context = ContextProvider.getInstance().createContext();
+
+        try
+        {
+            final BoidsSimulation simulation = new BoidsSimulation(context, population, flocks, lifetime / 2, lifetime, seed);
+
+            run(simulation, warmup, new long[PHASES.length]);
+
+            final long[] phases = new long[PHASES.length];
+            final GcSnapshot before = GcSnapshot.take();
+            final long spawned = simulation.getSpawned();
+            final long despawned = simulation.getDespawned();
+            final long collisions = simulation.getCollisions();
+
+            final long start = System.nanoTime();
+            run(simulation, ticks, phases);
+            final long elapsed = System.nanoTime() - start;
+
+            final GcSnapshot after = GcSnapshot.take();
+
+            System.out.printf("%nThroughput: %.1f ticks/s (%.3f ms/tick)%n", ticks / (elapsed / 1e9), elapsed / 1e6 / ticks);
+
+            System.out.printf("%n%-10s %12s %12s %8s%n", "Phase", "total [ms]", "mean [us]", "share");
+            for (int i = 0; i < PHASES.length; ++i)
+            {
+                System.out.printf("%-10s %12.1f %12.1f %7.1f%%%n", PHASES[i], phases[i] / 1e6, phases[i] / 1e3 / ticks, 100.0 * phases[i] / elapsed);
+            }
+
+            System.out.printf("%nEntities: %d alive, %d spawned, %d despawned, %d collisions%n",
+                simulation.getPopulation(), simulation.getSpawned() - spawned, simulation.getDespawned() - despawned, simulation.getCollisions() - collisions);
+
+            System.out.printf("%nGarbage Collection:%n");
+            after.printSince(before);
+            System.out.println();
+        }
+        finally
+        {
+            context.dispose();
+        }
+    }
+
+    private static void run(BoidsSimulation simulation, int ticks, long[] phases)
+    {
+        for (int tick = 0; tick < ticks; ++tick)
+        {
+            long time = System.nanoTime();
+
+            simulation.spawn();
+            time = lap(phases, 0, time);
+
+            simulation.steer();
+            time = lap(phases, 1, time);
+
+            simulation.move();
+            time = lap(phases, 2, time);
+
+            simulation.collide();
+            time = lap(phases, 3, time);
+
+            simulation.expire();
+            lap(phases, 4, time);
+        }
+    }
+
+    private static long lap(long[] phases, int phase, long since)
+    {
+        final long now = System.nanoTime();
+        phases[phase] += now - since;
+        return now;
+    }
+
+    private static class GcSnapshot
+    {
+        private final List<GarbageCollectorMXBean> myCollectors;
+        private final long[] myCounts;
+        private final long[] myTimes;
+        private final MemoryUsage myHeap;
+
+        private GcSnapshot(List<GarbageCollectorMXBean> collectors)
+        {
+            myCollectors = collectors;
+            myCounts = new long[collectors.size()];
+            myTimes = new long[collectors.size()];
+
+            for (int i = 0; i < collectors.size(); ++i)
+            {
+                myCounts[i] = collectors.get(i).getCollectionCount();
+                myTimes[i] = collectors.get(i).getCollectionTime();
+            }
+
+            myHeap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        }
+
+        static GcSnapshot take()
+        {
+            return new GcSnapshot(ManagementFactory.getGarbageCollectorMXBeans());
+        }
+
+        void printSince(GcSnapshot before)
+        {
+            for (int i = 0; i < myCollectors.size(); ++i)
+            {
+                System.out.printf("  %-24s %6d collections %8d ms%n", myCollectors.get(i).getName(),
+                    myCounts[i] - before.myCounts[i], myTimes[i] - before.myTimes[i]);
+            }
+
+            System.out.printf("  %-24s %6d MB used %8d MB committed%n", "heap", myHeap.getUsed() >> 20, myHeap.getCommitted() >> 20);
+        }
+    }
+}
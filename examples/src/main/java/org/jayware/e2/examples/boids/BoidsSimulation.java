@@ -0,0 +1,438 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.examples.boids;
+
+
+import org.jayware.e2.assembly.api.Group;
+import org.jayware.e2.assembly.api.GroupManager;
+import org.jayware.e2.assembly.api.TreeManager;
+import org.jayware.e2.assembly.api.TreeNode;
+import org.jayware.e2.component.api.Aspect;
+import org.jayware.e2.component.api.Component;
+import org.jayware.e2.component.api.ComponentManager;
+import org.jayware.e2.context.api.Context;
+import org.jayware.e2.entity.api.EntityManager;
+import org.jayware.e2.entity.api.EntityRef;
+import org.jayware.e2.event.api.EventManager;
+import org.jayware.e2.event.api.EventType.RootEvent;
+import org.jayware.e2.event.api.Handle;
+import org.jayware.e2.event.api.Param;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.jayware.e2.component.api.Aspect.aspect;
+import static org.jayware.e2.event.api.EventType.RootEvent.ContextParam;
+import static org.jayware.e2.event.api.Parameters.param;
+import static org.jayware.e2.util.ReferenceType.STRONG;
+
+
+/*
+ * A flock simulation which is driven by a couple of systems. Each system is a plain operation which uses
+ * the managers of a context the same way an application would do:
+ *
+ *   spawn   - creates boids until the configured population is reached (EntityManager, GroupManager, TreeManager)
+ *   steer   - applies cohesion and alignment within each flock (Group, ComponentManager)
+ *   move    - integrates the velocity of all moving entities (EntityManager, Aspect, ComponentManager)
+ *   collide - detects colliding boids and reports them by an event (EventManager)
+ *   expire  - ages all boids and despawns the dead ones (EntityManager, GroupManager, TreeManager)
+ */
+public class BoidsSimulation
+{
+    private static final float WORLD_SIZE = 1000f;
+    private static final float MAX_SPEED = 4f;
+    private static final float COHESION = 0.005f;
+    private static final float ALIGNMENT = 0.05f;
+    private static final float COLLISION_RADIUS = 2f;
+    private static final int COLLISION_PENALTY = 10;
+
+    private static final Aspect MOVING = aspect().withAllOf(Position.class, Velocity.class);
+    private static final Aspect AGING = aspect().withAllOf(Lifetime.class);
+
+    private final Context myContext;
+    private final EntityManager myEntityManager;
+    private final ComponentManager myComponentManager;
+    private final GroupManager myGroupManager;
+    private final TreeManager myTreeManager;
+    private final EventManager myEventManager;
+
+    private final int myPopulation;
+    private final int myMinLifetime;
+    private final int myMaxLifetime;
+    private final Random myRandom;
+
+    private final Group[] myFlocks;
+    private final TreeNode[] myFlockNodes;
+    private final Map<EntityRef, TreeNode> myBoidNodes;
+
+    private final Position myPosition;
+    private final Velocity myVelocity;
+    private final Lifetime myLifetime;
+
+    private final CollisionHandler myCollisionHandler;
+
+    private long mySpawned;
+    private long myDespawned;
+
+    public BoidsSimulation(Context context, int population, int flocks, int minLifetime, int maxLifetime, long seed)
+    {
+        myContext = context;
+        myEntityManager = context.getService(EntityManager.class);
+        myComponentManager = context.getService(ComponentManager.class);
+        myGroupManager = context.getService(GroupManager.class);
+        myTreeManager = context.getService(TreeManager.class);
+        myEventManager = context.getService(EventManager.class);
+
+        myPopulation = population;
+        myMinLifetime = minLifetime;
+        myMaxLifetime = maxLifetime;
+        myRandom = new Random(seed);
+
+        myComponentManager.prepareComponent(context, Position.class);
+        myComponentManager.prepareComponent(context, Velocity.class);
+        myComponentManager.prepareComponent(context, Lifetime.class);
+
+        myPosition = myComponentManager.createComponent(context, Position.class);
+        myVelocity = myComponentManager.createComponent(context, Velocity.class);
+        myLifetime = myComponentManager.createComponent(context, Lifetime.class);
+
+        /* The world is the root of a hierarchy: world -> flock -> boid */
+        final TreeNode world = myTreeManager.createTreeNodeFor(myEntityManager.createEntity(context));
+
+        myFlocks = new Group[flocks];
+        myFlockNodes = new TreeNode[flocks];
+        myBoidNodes = new HashMap<EntityRef, TreeNode>(population * 2);
+
+        for (int i = 0; i < flocks; ++i)
+        {
+            myFlocks[i] = myGroupManager.createGroup(context, "flock-" + i);
+            myFlockNodes[i] = myTreeManager.createTreeNodeFor(myEntityManager.createEntity(context));
+            world.addChild(myFlockNodes[i]);
+        }
+
+        myCollisionHandler = new CollisionHandler(myComponentManager, myComponentManager.createComponent(context, Lifetime.class));
+        myEventManager.subscribe(context, myCollisionHandler, STRONG);
+    }
+
+    public void spawn()
+    {
+        while (myBoidNodes.size() < myPopulation)
+        {
+            final int flock = myRandom.nextInt(myFlocks.length);
+            final EntityRef boid = myEntityManager.createEntity(myContext);
+            final TreeNode node = myTreeManager.createTreeNodeFor(boid);
+
+            myPosition.setX(myRandom.nextFloat() * WORLD_SIZE);
+            myPosition.setY(myRandom.nextFloat() * WORLD_SIZE);
+            myPosition.addTo(boid);
+
+            myVelocity.setX((myRandom.nextFloat() * 2f - 1f) * MAX_SPEED);
+            myVelocity.setY((myRandom.nextFloat() * 2f - 1f) * MAX_SPEED);
+            myVelocity.addTo(boid);
+
+            myLifetime.setRemaining(myMinLifetime + myRandom.nextInt(myMaxLifetime - myMinLifetime + 1));
+            myLifetime.addTo(boid);
+
+            myFlocks[flock].add(boid);
+            myFlockNodes[flock].addChild(node);
+            myBoidNodes.put(boid, node);
+
+            ++mySpawned;
+        }
+    }
+
+    public void steer()
+    {
+        for (Group flock : myFlocks)
+        {
+            final List<EntityRef> members = flock.members();
+            final int size = members.size();
+
+            if (size == 0)
+            {
+                continue;
+            }
+
+            float centerX = 0, centerY = 0, headingX = 0, headingY = 0;
+
+            for (EntityRef member : members)
+            {
+                myPosition.pullFrom(member);
+                myVelocity.pullFrom(member);
+                centerX += myPosition.getX();
+                centerY += myPosition.getY();
+                headingX += myVelocity.getX();
+                headingY += myVelocity.getY();
+            }
+
+            centerX /= size;
+            centerY /= size;
+            headingX /= size;
+            headingY /= size;
+
+            for (EntityRef member : members)
+            {
+                myPosition.pullFrom(member);
+                myVelocity.pullFrom(member);
+
+                float vx = myVelocity.getX() + (centerX - myPosition.getX()) * COHESION + (headingX - myVelocity.getX()) * ALIGNMENT;
+                float vy = myVelocity.getY() + (centerY - myPosition.getY()) * COHESION + (headingY - myVelocity.getY()) * ALIGNMENT;
+
+                final float speed = (float) Math.sqrt(vx * vx + vy * vy);
+                if (speed > MAX_SPEED)
+                {
+                    vx = vx / speed * MAX_SPEED;
+                    vy = vy / speed * MAX_SPEED;
+                }
+
+                myVelocity.setX(vx);
+                myVelocity.setY(vy);
+                myVelocity.pushTo(member);
+            }
+        }
+    }
+
+    public void move()
+    {
+        for (EntityRef ref : myEntityManager.findEntities(myContext, MOVING))
+        {
+            myPosition.pullFrom(ref);
+            myVelocity.pullFrom(ref);
+            myPosition.setX(wrap(myPosition.getX() + myVelocity.getX()));
+            myPosition.setY(wrap(myPosition.getY() + myVelocity.getY()));
+            myPosition.pushTo(ref);
+        }
+    }
+
+    public void collide()
+    {
+        final List<EntityRef> boids = myEntityManager.findEntities(myContext, MOVING);
+        final float[] xs = new float[boids.size()];
+        final float[] ys = new float[boids.size()];
+        final Map<Long, List<Integer>> grid = new HashMap<Long, List<Integer>>();
+
+        for (int i = 0; i < xs.length; ++i)
+        {
+            myPosition.pullFrom(boids.get(i));
+            xs[i] = myPosition.getX();
+            ys[i] = myPosition.getY();
+
+            final Long cell = cellOf((int) (xs[i] / COLLISION_RADIUS), (int) (ys[i] / COLLISION_RADIUS));
+            List<Integer> occupants = grid.get(cell);
+            if (occupants == null)
+            {
+                occupants = new ArrayList<Integer>(2);
+                grid.put(cell, occupants);
+            }
+            occupants.add(i);
+        }
+
+        for (int i = 0; i < xs.length; ++i)
+        {
+            final int cx = (int) (xs[i] / COLLISION_RADIUS);
+            final int cy = (int) (ys[i] / COLLISION_RADIUS);
+
+            for (int dx = -1; dx <= 1; ++dx)
+            {
+                for (int dy = -1; dy <= 1; ++dy)
+                {
+                    final List<Integer> occupants = grid.get(cellOf(cx + dx, cy + dy));
+                    if (occupants == null)
+                    {
+                        continue;
+                    }
+
+                    for (int j : occupants)
+                    {
+                        /* Every pair is reported once */
+                        if (j <= i)
+                        {
+                            continue;
+                        }
+
+                        final float ox = xs[i] - xs[j];
+                        final float oy = ys[i] - ys[j];
+                        if (ox * ox + oy * oy <= COLLISION_RADIUS * COLLISION_RADIUS)
+                        {
+                            myEventManager.send(CollisionEvent.class,
+                                param(ContextParam, myContext),
+                                param(CollisionEvent.FirstParam, boids.get(i)),
+                                param(CollisionEvent.SecondParam, boids.get(j))
+                            );
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void expire()
+    {
+        final List<EntityRef> dead = new ArrayList<EntityRef>();
+
+        for (EntityRef ref : myEntityManager.findEntities(myContext, AGING))
+        {
+            myLifetime.pullFrom(ref);
+            myLifetime.setRemaining(myLifetime.getRemaining() - 1);
+
+            if (myLifetime.getRemaining() <= 0)
+            {
+                dead.add(ref);
+            }
+            else
+            {
+                myLifetime.pushTo(ref);
+            }
+        }
+
+        for (EntityRef ref : dead)
+        {
+            for (Group flock : myGroupManager.findGroups(ref))
+            {
+                flock.remove(ref);
+            }
+
+            myTreeManager.deleteTreeNode(myBoidNodes.remove(ref));
+            myEntityManager.deleteEntity(ref);
+
+            ++myDespawned;
+        }
+    }
+
+    public int getPopulation()
+    {
+        return myBoidNodes.size();
+    }
+
+    public long getSpawned()
+    {
+        return mySpawned;
+    }
+
+    public long getDespawned()
+    {
+        return myDespawned;
+    }
+
+    public long getCollisions()
+    {
+        return myCollisionHandler.getCollisions();
+    }
+
+    private static float wrap(float value)
+    {
+        if (value < 0)
+        {
+            return value + WORLD_SIZE;
+        }
+
+        if (value >= WORLD_SIZE)
+        {
+            return value - WORLD_SIZE;
+        }
+
+        return value;
+    }
+
+    private static Long cellOf(int x, int y)
+    {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public interface Position
+    extends Component
+    {
+        float getX();
+
+        void setX(float x);
+
+        float getY();
+
+        void setY(float y);
+    }
+
+    public interface Velocity
+    extends Component
+    {
+        float getX();
+
+        void setX(float x);
+
+        float getY();
+
+        void setY(float y);
+    }
+
+    public interface Lifetime
+    extends Component
+    {
+        int getRemaining();
+
+        void setRemaining(int ticks);
+    }
+
+    public interface CollisionEvent
+    extends RootEvent
+    {
+        String FirstParam = "org.jayware.e2.examples.boids.param.First";
+
+        String SecondParam = "org.jayware.e2.examples.boids.param.Second";
+    }
+
+    /* Colliding boids get hurt, which shortens their remaining lifetime. */
+    public static class CollisionHandler
+    {
+        private final ComponentManager myComponentManager;
+        private final Lifetime myLifetime;
+
+        private volatile long myCollisions;
+
+        public CollisionHandler(ComponentManager componentManager, Lifetime lifetime)
+        {
+            myComponentManager = componentManager;
+            myLifetime = lifetime;
+        }
+
+        @Handle(CollisionEvent.class)
+        public void handleCollision(@Param(CollisionEvent.FirstParam) EntityRef first, @Param(CollisionEvent.SecondParam) EntityRef second)
+        {
+            hurt(first);
+            hurt(second);
+            ++myCollisions;
+        }
+
+        public long getCollisions()
+        {
+            return myCollisions;
+        }
+
+        private void hurt(EntityRef ref)
+        {
+            if (myComponentManager.hasComponent(ref, Lifetime.class))
+            {
+                myLifetime.pullFrom(ref);
+                myLifetime.setRemaining(myLifetime.getRemaining() - COLLISION_PENALTY);
+                myLifetime.pushTo(ref);
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.assertj;
+
+import org.assertj.core.api.AbstractAssert;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+
+public class PerformanceAssertions
+extends AbstractAssert<PerformanceAssertions, Runnable>
+{
+    private static final int DEFAULT_WARMUP_ITERATIONS = 10000;
+    private static final int DEFAULT_ITERATIONS = 1000;
+
+    private int myWarmupIterations = DEFAULT_WARMUP_ITERATIONS;
+    private int myIterations = DEFAULT_ITERATIONS;
+
+    private PerformanceAssertions(Runnable actual)
+    {
+        super(actual, PerformanceAssertions.class);
+    }
+
+    public static PerformanceAssertions assertThat(Runnable operation)
+    {
+        return new PerformanceAssertions(operation);
+    }
+
+    public PerformanceAssertions withWarmup(int iterations)
+    {
+        if (iterations < 0)
+        {
+            throw new IllegalArgumentException("The number of warmup iterations must not be negative: " + iterations);
+        }
+
+        myWarmupIterations = iterations;
+
+        return this;
+    }
+
+    public PerformanceAssertions overIterations(int iterations)
+    {
+        if (iterations <= 0)
+        {
+            throw new IllegalArgumentException("The number of iterations must be positive: " + iterations);
+        }
+
+        myIterations = iterations;
+
+        return this;
+    }
+
+    public PerformanceAssertions doesNotAllocate()
+    {
+        return allocatesAtMost(0);
+    }
+
+    public PerformanceAssertions allocatesAtMost(long bytesPerCall)
+    {
+        isNotNull();
+
+        final AllocationCounter counter = AllocationCounter.getInstance();
+
+        if (counter == null)
+        {
+            failWithMessage("Expected operation to allocate at most %s bytes per call, but this JVM does not provide per-thread allocation counters", bytesPerCall);
+        }
+
+        warmup();
+
+        final long overhead = counter.overhead();
+        final long before = counter.allocatedBytes();
+
+        for (int i = 0; i < myIterations; ++i)
+        {
+            actual.run();
+        }
+
+        final long allocated = Math.max(0, counter.allocatedBytes() - before - overhead);
+
+        // Compare the totals, dividing first would let up to myIterations - 1 bytes slip through.
+        if (allocated > bytesPerCall * myIterations)
+        {
+            final long perCall = (allocated + myIterations - 1) / myIterations;
+
+            failWithMessage("Expected operation to allocate at most %s bytes per call, but it allocated %s bytes per call (%s bytes over %s iterations)", bytesPerCall, perCall, allocated, myIterations);
+        }
+
+        return this;
+    }
+
+    public PerformanceAssertions completesWithin(long time, TimeUnit unit)
+    {
+        isNotNull();
+
+        warmup();
+
+        final long budget = unit.toNanos(time);
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < myIterations; ++i)
+        {
+            actual.run();
+        }
+
+        final long mean = (System.nanoTime() - start) / myIterations;
+
+        if (mean > budget)
+        {
+            failWithMessage("Expected operation to complete within %sns on average, but it took %sns on average over %s iterations", budget, mean, myIterations);
+        }
+
+        return this;
+    }
+
+    public PerformanceAssertions completesWithin(double percentile, long time, TimeUnit unit)
+    {
+        isNotNull();
+
+        if (percentile <= 0 || percentile > 100)
+        {
+            throw new IllegalArgumentException("The percentile has to be within (0, 100]: " + percentile);
+        }
+
+        warmup();
+
+        final long budget = unit.toNanos(time);
+        final long[] samples = new long[myIterations];
+
+        for (int i = 0; i < myIterations; ++i)
+        {
+            final long start = System.nanoTime();
+            actual.run();
+            samples[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(samples);
+
+        final int rank = (int) Math.ceil(percentile / 100 * myIterations) - 1;
+        final long latency = samples[Math.max(0, rank)];
+
+        if (latency > budget)
+        {
+            failWithMessage("Expected operation to complete within %sns at the %sth percentile, but it took %sns over %s iterations", budget, percentile, latency, myIterations);
+        }
+
+        return this;
+    }
+
+    private void warmup()
+    {
+        for (int i = 0; i < myWarmupIterations; ++i)
+        {
+            actual.run();
+        }
+    }
+
+    private static class AllocationCounter
+    {
+        private static final AllocationCounter ourInstance = create();
+
+        private final ThreadMXBean myThreadMXBean;
+        private final Method myGetThreadAllocatedBytes;
+
+        private AllocationCounter(ThreadMXBean threadMXBean, Method getThreadAllocatedBytes)
+        {
+            myThreadMXBean = threadMXBean;
+            myGetThreadAllocatedBytes = getThreadAllocatedBytes;
+        }
+
+        static AllocationCounter getInstance()
+        {
+            return ourInstance;
+        }
+
+        long allocatedBytes()
+        {
+            try
+            {
+                return (Long) myGetThreadAllocatedBytes.invoke(myThreadMXBean, Thread.currentThread().getId());
+            }
+            catch (Exception e)
+            {
+                throw new IllegalStateException("Failed to read the allocated bytes of the current thread!", e);
+            }
+        }
+
+        long overhead()
+        {
+            // Reading the counter reflectively allocates as well, which must not be attributed to the operation.
+            long overhead = Long.MAX_VALUE;
+
+            for (int i = 0; i < 10; ++i)
+            {
+                final long before = allocatedBytes();
+                overhead = Math.min(overhead, allocatedBytes() - before);
+            }
+
+            return overhead;
+        }
+
+        private static AllocationCounter create()
+        {
+            try
+            {
+                final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+                final Class<?> extendedType = Class.forName("com.sun.management.ThreadMXBean");
+
+                if (!extendedType.isInstance(threadMXBean))
+                {
+                    return null;
+                }
+
+                final Method isSupported = extendedType.getMethod("isThreadAllocatedMemorySupported");
+                final Method setEnabled = extendedType.getMethod("setThreadAllocatedMemoryEnabled", boolean.class);
+
+                if (!(Boolean) isSupported.invoke(threadMXBean))
+                {
+                    return null;
+                }
+
+                setEnabled.invoke(threadMXBean, true);
+
+                return new AllocationCounter(threadMXBean, extendedType.getMethod("getThreadAllocatedBytes", long.class));
+            }
+            catch (Exception e)
+            {
+                return null;
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.jayware.e2.entity.api.EntityRef;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.jayware.e2.component.api.Aspect.aspect;
 
 
@@ -71,4 +72,21 @@ public class Example
 
         EntityAssertions.assertThat(ref).matches(aspect(ComponentA.class, ComponentB.class)); // <6>
     }
+
+    @Test
+    public void performanceExample()
+    {
+        final Runnable hasComponent = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                componentManager.hasComponent(ref, ComponentA.class);
+            }
+        };
+
+        PerformanceAssertions.assertThat(hasComponent).allocatesAtMost(256); // <1>
+
+        PerformanceAssertions.assertThat(hasComponent).overIterations(10000).completesWithin(99, 1, MILLISECONDS); // <2>
+    }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+/**
+ * Entity Essentials -- A Component-based Entity System
+ *
+ * Copyright (C) 2017 Elmar Schug <elmar.schug@jayware.org>,
+ *                    Markus Neubauer <markus.neubauer@jayware.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jayware.e2.assertj;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.fail;
+
+
+public class PerformanceAssertionsTest
+{
+    private static volatile Object ourSink;
+    private static volatile long ourCounter;
+
+    private final Runnable myAllocationFreeOperation = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            ourCounter += 1;
+        }
+    };
+
+    private final Runnable myAllocatingOperation = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            ourSink = new byte[1024];
+        }
+    };
+
+    @Test
+    public void test_that_doesNotAllocate_passes_for_an_allocation_free_operation()
+    {
+        PerformanceAssertions.assertThat(myAllocationFreeOperation).doesNotAllocate();
+    }
+
+    @Test
+    public void test_that_allocatesAtMost_fails_if_the_operation_exceeds_the_budget()
+    {
+        try
+        {
+            PerformanceAssertions.assertThat(myAllocatingOperation).withWarmup(100).overIterations(100).allocatesAtMost(512);
+        }
+        catch (AssertionError ignored)
+        {
+            return;
+        }
+
+        fail("Expected an AssertionError.");
+    }
+
+    @Test
+    public void test_that_doesNotAllocate_fails_for_an_operation_allocating_only_occasionally()
+    {
+        final Runnable occasionallyAllocatingOperation = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (++ourCounter % 100 == 0)
+                {
+                    ourSink = new byte[1];
+                }
+            }
+        };
+
+        try
+        {
+            PerformanceAssertions.assertThat(occasionallyAllocatingOperation).withWarmup(100).overIterations(1000).doesNotAllocate();
+        }
+        catch (AssertionError ignored)
+        {
+            return;
+        }
+
+        fail("Expected an AssertionError.");
+    }
+
+    @Test
+    public void test_that_allocatesAtMost_passes_if_the_operation_stays_within_the_budget()
+    {
+        PerformanceAssertions.assertThat(myAllocatingOperation).withWarmup(100).overIterations(100).allocatesAtMost(2048);
+    }
+
+    @Test
+    public void test_that_completesWithin_passes_if_the_operation_stays_within_the_budget()
+    {
+        PerformanceAssertions.assertThat(myAllocationFreeOperation).completesWithin(1, SECONDS).completesWithin(99, 1, SECONDS);
+    }
+
+    @Test
+    public void test_that_completesWithin_fails_if_the_operation_exceeds_the_budget()
+    {
+        final Runnable slowOperation = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    Thread.sleep(2);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        try
+        {
+            PerformanceAssertions.assertThat(slowOperation).withWarmup(0).overIterations(5).completesWithin(50, 1, MICROSECONDS);
+        }
+        catch (AssertionError ignored)
+        {
+            return;
+        }
+
+        fail("Expected an AssertionError.");
+    }
+}